@@ -151,14 +151,21 @@ public class CodeServer {
         makeOutboxTable(options, startupLogger, unitCache, minimalRebuildCacheManager);
 
     JobEventTable eventTable = new JobEventTable();
-    JobRunner runner = new JobRunner(eventTable, minimalRebuildCacheManager);
+    JobRunner runner = new JobRunner(eventTable, minimalRebuildCacheManager,
+        options.getConcurrentCompiles());
+
+    EagerRecompiler eagerRecompiler = null;
+    if (options.isEagerRecompile()) {
+      eagerRecompiler = new EagerRecompiler(outboxTable, runner, eventTable, topLogger);
+      eagerRecompiler.start();
+    }
 
     JsonExporter exporter = new JsonExporter(options, outboxTable);
 
     SourceHandler sourceHandler = new SourceHandler(outboxTable, exporter);
     SymbolMapHandler symbolMapHandler = new SymbolMapHandler(outboxTable);
     WebServer webServer = new WebServer(sourceHandler, symbolMapHandler, exporter, outboxTable,
-        runner, eventTable, options.getBindAddress(), options.getPort());
+        runner, eventTable, eagerRecompiler, options.getBindAddress(), options.getPort());
     webServer.start(topLogger);
 
     return webServer;
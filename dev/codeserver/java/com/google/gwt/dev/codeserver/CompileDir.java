@@ -21,12 +21,21 @@ import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.thirdparty.guava.common.base.Charsets;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
 import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.hash.Hashing;
 import com.google.gwt.thirdparty.guava.common.io.Files;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Defines a directory tree used for compiling a GWT app one time. Each time we recompile
@@ -37,8 +46,26 @@ import java.util.List;
  * being compiled.
  */
 public class CompileDir {
+
+  /**
+   * Output files that are worth compressing ahead of time.
+   */
+  private static final Pattern COMPRESSIBLE_FILE =
+      Pattern.compile(".*\\.(css|html|js|json|map|rpc|svg|txt|xml)$");
+
+  /**
+   * Smaller files are compressed on the fly, if at all.
+   */
+  private static final long MIN_COMPRESSED_SIZE = 1024;
+
   private final File dir;
 
+  /**
+   * The content hash of each file that has been asked for. (The compiler's output doesn't change
+   * once a compile has finished.)
+   */
+  private final ConcurrentMap<File, String> contentHashes = new ConcurrentHashMap<File, String>();
+
   /**
    * @see #create
    */
@@ -81,6 +108,14 @@ public class CompileDir {
     return new File(dir, "gen");
   }
 
+  /**
+   * The directory tree where gzipped copies of the larger files in the war directory are kept,
+   * so that they don't need to be compressed again for each request.
+   */
+  File getCompressedDir() {
+    return new File(dir, "gzip");
+  }
+
   File getWorkDir() {
     return new File(dir, "work");
   }
@@ -135,6 +170,67 @@ public class CompileDir {
     return null;
   }
 
+  /**
+   * Returns true if a file in the war directory is worth sending gzipped, so that
+   * {@link #getCompressedFile} will return a copy of it.
+   */
+  boolean isCompressible(File warFile) {
+    String relativePath = getWarRelativePath(warFile);
+    return relativePath != null && !relativePath.startsWith("WEB-INF/")
+        && COMPRESSIBLE_FILE.matcher(warFile.getName()).matches()
+        && warFile.length() >= MIN_COMPRESSED_SIZE;
+  }
+
+  /**
+   * Returns a gzipped copy of a file in the war directory, or null if it isn't compressible.
+   * The copy is written the first time it's asked for, so that compiles don't wait for it,
+   * and then kept for later requests.
+   */
+  File getCompressedFile(File warFile) throws IOException {
+    if (!isCompressible(warFile)) {
+      return null;
+    }
+    File compressed = new File(getCompressedDir(), getWarRelativePath(warFile) + ".gz");
+    if (compressed.isFile()) {
+      return compressed;
+    }
+    File toDir = compressed.getParentFile();
+    if (!toDir.isDirectory() && !toDir.mkdirs() && !toDir.isDirectory()) {
+      throw new IOException("unable to create directory: " + toDir);
+    }
+    // Write to a temporary file so that a partial copy is never served. Concurrent requests for
+    // the same file each write their own.
+    File temp = File.createTempFile(warFile.getName(), ".tmp", toDir);
+    try {
+      OutputStream out =
+          new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+      try {
+        Files.copy(warFile, out);
+      } finally {
+        out.close();
+      }
+      if (!temp.renameTo(compressed) && !compressed.isFile()) {
+        throw new IOException("unable to create file: " + compressed);
+      }
+    } finally {
+      temp.delete();
+    }
+    return compressed;
+  }
+
+  /**
+   * Returns a hash of the contents of a file written by the compiler, suitable for use as an
+   * HTTP entity tag. Each file is only read once.
+   */
+  String getContentHash(File file) throws IOException {
+    String hash = contentHashes.get(file);
+    if (hash == null) {
+      hash = Files.hash(file, Hashing.md5()).toString();
+      contentHashes.put(file, hash);
+    }
+    return hash;
+  }
+
   /**
    * Reads a GWT-RPC serialization policy manifest in this directory.
    * @return a PolicyFile record for each entry in the policy file. If the policy file isn't there,
@@ -185,6 +281,15 @@ public class CompileDir {
     return result;
   }
 
+  /**
+   * Returns the path of a file relative to the war directory, or null if it's not in there.
+   */
+  private String getWarRelativePath(File file) {
+    URI warDir = getWarDir().toURI();
+    URI relative = warDir.relativize(file.toURI());
+    return relative.equals(file.toURI()) ? null : relative.getPath();
+  }
+
   private static void mkdir(File dirToCreate, TreeLogger logger)
       throws UnableToCompleteException {
     if (!dirToCreate.mkdir()) {
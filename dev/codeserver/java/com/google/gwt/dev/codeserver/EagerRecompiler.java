@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.codeserver;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.TreeLogger.Type;
+import com.google.gwt.dev.codeserver.JobEvent.Status;
+import com.google.gwt.dev.resource.impl.ResourceChangeListener;
+import com.google.gwt.dev.resource.impl.ResourceOracleImpl;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableSortedMap;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts recompiling modules as soon as their source files change, instead of waiting for the
+ * browser to ask for a recompile. When the page is reloaded, the compile is already done or in
+ * progress, and the browser's own recompile request is skipped if nothing changed since.
+ *
+ * <p>File changes are reported by the resource oracle's watch service. They are debounced, so
+ * that saving several files at once causes a single compile. Each outbox is recompiled with the
+ * binding properties of its last recompile; outboxes that the browser never asked to recompile
+ * are left alone.
+ *
+ * <p>EagerRecompilers are thread-safe.
+ */
+class EagerRecompiler implements ResourceChangeListener {
+
+  /**
+   * How long to wait after the last file change before compiling.
+   */
+  static final long DEBOUNCE_MILLIS = 300;
+
+  private final OutboxTable outboxTable;
+  private final JobRunner runner;
+  private final JobEventTable table;
+  private final TreeLogger logger;
+  private final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "EagerRecompiler");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+
+  /**
+   * The last job submitted for each outbox, by outbox id.
+   */
+  private final Map<String, Job> submittedJobs = Maps.newHashMap();
+
+  private ScheduledFuture<?> pendingCompile; // non-null while waiting for the changes to settle
+
+  EagerRecompiler(OutboxTable outboxTable, JobRunner runner, JobEventTable table,
+      TreeLogger logger) {
+    this.outboxTable = outboxTable;
+    this.runner = runner;
+    this.table = table;
+    this.logger = logger;
+  }
+
+  /**
+   * Starts listening for file changes.
+   */
+  void start() {
+    ResourceOracleImpl.addResourceChangeListener(this);
+  }
+
+  /**
+   * Stops listening for file changes. Jobs that were already submitted still run.
+   */
+  synchronized void stop() {
+    ResourceOracleImpl.removeResourceChangeListener(this);
+    timer.shutdownNow();
+  }
+
+  @Override
+  public synchronized void onResourcesChanged() {
+    if (timer.isShutdown()) {
+      return;
+    }
+    // Restart the delay on every change.
+    if (pendingCompile != null) {
+      pendingCompile.cancel(false);
+    }
+    pendingCompile = timer.schedule(new Runnable() {
+      @Override
+      public void run() {
+        submitJobs();
+      }
+    }, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Submits a job for each outbox that has been recompiled before, unless the last job
+   * submitted for it is still waiting to start.
+   */
+  synchronized void submitJobs() {
+    pendingCompile = null;
+    for (Outbox box : outboxTable.getOutboxes()) {
+      ImmutableSortedMap<String, String> bindingProperties = box.getLastBindingProperties();
+      if (bindingProperties == null) {
+        continue;
+      }
+      Job previous = submittedJobs.get(box.getId());
+      if (previous != null && table.getPublishedEvent(previous).getStatus() == Status.WAITING) {
+        // It hasn't started yet, so it will see the new changes.
+        continue;
+      }
+      Job job = box.makeJob(bindingProperties, logger);
+      job.getLogger().log(Type.INFO, "files changed; recompiling " + box.getInputModuleName()
+          + " ahead of the next request");
+      runner.submit(job);
+      submittedJobs.put(box.getId(), job);
+    }
+  }
+}
@@ -21,15 +21,22 @@ import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.MinimalRebuildCacheManager;
 import com.google.gwt.dev.javac.UnitCacheSingleton;
 
+import com.google.gwt.thirdparty.guava.common.base.Preconditions;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 /**
  * Executes requests to compile modules using Super Dev Mode.
  *
- * <p>Guarantees that only one thread invokes the GWT compiler at a time and reports
+ * <p>Each outbox has its own queue, so jobs for the same module run one at a time and in order,
+ * while a long compile of one module doesn't hold up the others. At most a fixed number of
+ * threads invoke the GWT compiler at a time (one, unless set with -concurrentCompiles). Reports
  * progress on waiting jobs.
  *
  * <p>JobRunners are thread-safe.
@@ -38,22 +45,52 @@ public class JobRunner {
 
   private final JobEventTable table;
   private final MinimalRebuildCacheManager minimalRebuildCacheManager;
-  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final int maxConcurrentCompiles;
+
+  /**
+   * A permit is held while compiling; cleaning the caches takes all of them. The semaphore is fair
+   * so that a waiting cleaner isn't starved by later compiles.
+   */
+  private final Semaphore compilePermits;
+
+  /**
+   * The queue of each outbox, by outbox id.
+   */
+  private final Map<String, ExecutorService> executorsByOutboxId = Maps.newHashMap();
 
   JobRunner(JobEventTable table, MinimalRebuildCacheManager minimalRebuildCacheManager) {
+    this(table, minimalRebuildCacheManager, 1);
+  }
+
+  /**
+   * @param maxConcurrentCompiles  How many modules may be compiled at the same time.
+   */
+  JobRunner(JobEventTable table, MinimalRebuildCacheManager minimalRebuildCacheManager,
+      int maxConcurrentCompiles) {
+    Preconditions.checkArgument(maxConcurrentCompiles > 0);
     this.table = table;
     this.minimalRebuildCacheManager = minimalRebuildCacheManager;
+    this.maxConcurrentCompiles = maxConcurrentCompiles;
+    this.compilePermits = new Semaphore(maxConcurrentCompiles, true);
   }
 
   /**
-   * Submits a cleaner job to be executed. (Waits for completion.)
+   * Runs a cleaner job once no compile is running. (Waits for completion.)
    */
   void clean(final TreeLogger logger, final OutboxTable outboxTable) throws ExecutionException {
+    TreeLogger branch = logger.branch(TreeLogger.INFO, "Cleaning disk caches.");
     try {
-      TreeLogger branch = logger.branch(TreeLogger.INFO, "Cleaning disk caches.");
-      executor.submit(new CleanerJob(branch, outboxTable)).get();
+      compilePermits.acquire(maxConcurrentCompiles);
     } catch (InterruptedException e) {
       // Allow the JVM to shutdown.
+      return;
+    }
+    try {
+      new CleanerJob(branch, outboxTable).call();
+    } catch (Exception e) {
+      throw new ExecutionException(e);
+    } finally {
+      compilePermits.release(maxConcurrentCompiles);
     }
   }
 
@@ -63,10 +100,15 @@ public class JobRunner {
   public String getRecompileJs(final TreeLogger logger, final Outbox box)
       throws ExecutionException {
     try {
-      return executor.submit(new Callable<String>() {
+      return getExecutor(box).submit(new Callable<String>() {
         @Override
         public String call() throws Exception {
-          return box.getRecompileJs(logger);
+          compilePermits.acquire();
+          try {
+            return box.getRecompileJs(logger);
+          } finally {
+            compilePermits.release();
+          }
         }
       }).get();
     } catch (InterruptedException e) {
@@ -83,11 +125,16 @@ public class JobRunner {
       throw new IllegalStateException("job already submitted: " + job.getId());
     }
     job.onSubmitted(table);
-    executor.submit(new Runnable() {
+    getExecutor(job.getOutbox()).submit(new Runnable() {
       @Override
       public void run() {
         try {
-          recompile(job);
+          compilePermits.acquire();
+          try {
+            recompile(job);
+          } finally {
+            compilePermits.release();
+          }
         } catch (Throwable t) {
           // Try to release the job so the HTTP request will return an error.
           // (But this might not work if the same exception is thrown while
@@ -108,6 +155,18 @@ public class JobRunner {
     job.getLogger().log(Type.TRACE, "added job to queue");
   }
 
+  /**
+   * Returns the queue of an outbox. (Creates it on first use.)
+   */
+  private synchronized ExecutorService getExecutor(Outbox box) {
+    ExecutorService executor = executorsByOutboxId.get(box.getId());
+    if (executor == null) {
+      executor = Executors.newSingleThreadExecutor();
+      executorsByOutboxId.put(box.getId(), executor);
+    }
+    return executor;
+  }
+
   private static void recompile(Job job) {
     job.getLogger().log(Type.INFO, "starting job: " + job.getId());
     job.getOutbox().recompile(job);
@@ -69,6 +69,7 @@ public class Options {
 
   private boolean incremental = true;
   private boolean noPrecompile = false;
+  private boolean eagerRecompile = false;
   private boolean isCompileTest = false;
   private File workDir;
   private File launcherDir;
@@ -87,6 +88,7 @@ public class Options {
   private SourceLevel sourceLevel = SourceLevel.DEFAULT_SOURCE_LEVEL;
   private boolean failOnError = false;
   private int compileTestRecompiles = 0;
+  private int concurrentCompiles = 1;
   private boolean generateJsInteropExports = false;
   private WhitelistRegexFilter jsInteropExportFilter = new WhitelistRegexFilter();
   private OptionMethodNameDisplayMode.Mode methodNameDisplayMode =
@@ -124,6 +126,11 @@ public class Options {
       return false;
     }
 
+    if (concurrentCompiles < 1) {
+      System.err.println("Usage: -concurrentCompiles must be at least 1");
+      return false;
+    }
+
     if (incremental && !noPrecompile) {
       System.out.println("Turning off precompile in incremental mode.");
       noPrecompile = true;
@@ -246,6 +253,13 @@ public class Options {
     return noPrecompile;
   }
 
+  /**
+   * Whether modules should be recompiled as soon as their source files change.
+   */
+  boolean isEagerRecompile() {
+    return eagerRecompile;
+  }
+
   /**
    * The tree logger level.
    */
@@ -278,6 +292,13 @@ public class Options {
     return compileTestRecompiles;
   }
 
+  /**
+   * The number of modules that may be compiled at the same time.
+   */
+  int getConcurrentCompiles() {
+    return concurrentCompiles;
+  }
+
   /**
    * The hostname to put in a URL pointing to the code server.
    */
@@ -333,6 +354,8 @@ public class Options {
       registerHandler(new AllowMissingSourceDirFlag());
       registerHandler(new CompileTestFlag());
       registerHandler(new CompileTestRecompilesFlag());
+      registerHandler(new ConcurrentCompilesFlag());
+      registerHandler(new EagerRecompileFlag());
       registerHandler(new FailOnErrorFlag());
       registerHandler(new ModuleNameArgument());
       registerHandler(new NoPrecompileFlag());
@@ -536,6 +559,55 @@ public class Options {
     }
   }
 
+  private class ConcurrentCompilesFlag extends ArgHandlerInt {
+
+    @Override
+    public String getTag() {
+      return "-concurrentCompiles";
+    }
+
+    @Override
+    public String[] getTagArgs() {
+      return new String[] { "count" };
+    }
+
+    @Override
+    public String getPurpose() {
+      return "The number of different modules that may be recompiled at the same time. Jobs "
+          + "for the same module always run one at a time. (Defaults to 1.)";
+    }
+
+    @Override
+    public void setInt(int value) {
+      concurrentCompiles = value;
+    }
+  }
+
+  private class EagerRecompileFlag extends ArgHandlerFlag {
+
+    @Override
+    public String getLabel() {
+      return "eagerRecompile";
+    }
+
+    @Override
+    public String getPurposeSnippet() {
+      return "Recompile as soon as source files change, using the binding properties of the "
+          + "last recompile, instead of waiting for the browser to ask.";
+    }
+
+    @Override
+    public boolean setFlag(boolean value) {
+      eagerRecompile = value;
+      return true;
+    }
+
+    @Override
+    public boolean getDefaultValue() {
+      return eagerRecompile;
+    }
+  }
+
   private class PortFlag extends ArgHandlerInt {
 
     @Override
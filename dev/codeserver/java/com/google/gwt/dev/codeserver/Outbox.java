@@ -22,6 +22,7 @@ import com.google.gwt.dev.cfg.ModuleDef;
 import com.google.gwt.dev.codeserver.CompileDir.PolicyFile;
 import com.google.gwt.dev.codeserver.Job.Result;
 import com.google.gwt.thirdparty.guava.common.base.Preconditions;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableSortedMap;
 
 import java.io.BufferedInputStream;
 import java.io.File;
@@ -51,6 +52,7 @@ class Outbox {
 
   private final AtomicReference<Result> published = new AtomicReference<Result>();
   private Job publishedJob; // may be null if the Result wasn't created by a Job.
+  private volatile ImmutableSortedMap<String, String> lastBindingProperties; // null until recompiled
 
   Outbox(String id, Recompiler recompiler, Options options, TreeLogger logger)
       throws UnableToCompleteException {
@@ -132,6 +134,7 @@ class Outbox {
           "tried to recompile using a job in the wrong state:"  + job.getId());
     }
 
+    lastBindingProperties = job.getBindingProperties();
     Result result = recompiler.recompile(job);
 
     if (result.isOk()) {
@@ -141,6 +144,14 @@ class Outbox {
     }
   }
 
+  /**
+   * Returns the binding properties of the last recompile, or null if there hasn't been one.
+   * (The first compile, while starting up, doesn't count.)
+   */
+  ImmutableSortedMap<String, String> getLastBindingProperties() {
+    return lastBindingProperties;
+  }
+
   /**
    * Makes the result of a compile downloadable via HTTP.
    * @param job the job that created this result, or null if none.
@@ -284,6 +295,30 @@ class Outbox {
     return new File(getOutputDir().getWarDir(), urlPath);
   }
 
+  /**
+   * Returns a gzipped copy of an output file, or null if it isn't worth compressing or is from
+   * an earlier compile. The copy is written on first use.
+   */
+  File getCompressedOutputFile(File outputFile) throws IOException {
+    return getOutputDir().getCompressedFile(outputFile);
+  }
+
+  /**
+   * Returns true if an output file from the last recompile is sent gzipped to clients that
+   * accept it.
+   */
+  boolean isCompressibleOutputFile(File outputFile) {
+    return getOutputDir().isCompressible(outputFile);
+  }
+
+  /**
+   * Returns a hash of the contents of an output file from the last time this module was
+   * recompiled.
+   */
+  String getOutputFileHash(File outputFile) throws IOException {
+    return getOutputDir().getContentHash(outputFile);
+  }
+
   /**
    * Returns the log file from the last time this module was recompiled. This changes
    * after each compile.
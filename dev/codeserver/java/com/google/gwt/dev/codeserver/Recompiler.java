@@ -40,6 +40,7 @@ import com.google.gwt.dev.cfg.ResourceLoaders;
 import com.google.gwt.dev.codeserver.Job.Result;
 import com.google.gwt.dev.codeserver.JobEvent.CompileStrategy;
 import com.google.gwt.dev.javac.UnitCache;
+import com.google.gwt.dev.js.JsNamer.JsNamerState;
 import com.google.gwt.dev.resource.impl.ResourceOracleImpl;
 import com.google.gwt.dev.resource.impl.ZipFileClassPathEntry;
 import com.google.gwt.dev.util.log.CompositeTreeLogger;
@@ -86,6 +87,13 @@ public class Recompiler {
   private final Options options;
   private final UnitCache unitCache;
 
+  /**
+   * The identifiers chosen by the last full compile of each permutation, so the next one can
+   * reuse them. (Per-file compiles keep their own namer state in the MinimalRebuildCache.)
+   */
+  private final Map<PermutationDescription, JsNamerState> namerStateByPermutation =
+      Maps.newHashMap();
+
   Recompiler(OutboxDir outboxDir, LauncherDir launcherDir,
       String inputModuleName, Options options,
       UnitCache unitCache, MinimalRebuildCacheManager minimalRebuildCacheManager) {
@@ -158,11 +166,7 @@ public class Recompiler {
     assert job.wasSubmitted();
 
     if (compilesDone == 0) {
-      System.setProperty("java.awt.headless", "true");
-      if (System.getProperty("gwt.speedtracerlog") == null) {
-        System.setProperty("gwt.speedtracerlog",
-            outboxDir.getSpeedTracerLogFile().getAbsolutePath());
-      }
+      initSystemProperties(outboxDir.getSpeedTracerLogFile());
       compilerContext = compilerContextBuilder.unitCache(unitCache).build();
     }
 
@@ -350,7 +354,8 @@ public class Recompiler {
     CompilerOptions runOptions = new CompilerOptionsImpl(compileDir, newModuleName, options);
     compilerContext = compilerContextBuilder.options(runOptions).build();
 
-    MinimalRebuildCache minimalRebuildCache = new NullRebuildCache();
+    MinimalRebuildCache minimalRebuildCache =
+        new NullRebuildCache(getNamerState(permutationDescription));
     if (options.isIncrementalCompileEnabled()) {
       // Returns a copy of the intended cache, which is safe to modify in this compile.
       minimalRebuildCache =
@@ -378,6 +383,15 @@ public class Recompiler {
     return success;
   }
 
+  private JsNamerState getNamerState(PermutationDescription permutationDescription) {
+    JsNamerState namerState = namerStateByPermutation.get(permutationDescription);
+    if (namerState == null) {
+      namerState = new JsNamerState();
+      namerStateByPermutation.put(permutationDescription, namerState);
+    }
+    return namerState;
+  }
+
   private static void writeRecompileNoCacheJs(File outputDir, String moduleName, String content,
       TreeLogger compileLogger) throws UnableToCompleteException {
     try {
@@ -415,6 +429,19 @@ public class Recompiler {
     return resourceLoader.get();
   }
 
+  /**
+   * Sets the system properties that the compiler reads when it first starts. The SpeedTracer log
+   * is opened once per JVM, so when modules are compiled concurrently, the first one to start
+   * chooses the log file and the others write to it too. Synchronized so that two first compiles
+   * don't race to set it.
+   */
+  private static synchronized void initSystemProperties(File speedTracerLogFile) {
+    System.setProperty("java.awt.headless", "true");
+    if (System.getProperty("gwt.speedtracerlog") == null) {
+      System.setProperty("gwt.speedtracerlog", speedTracerLogFile.getAbsolutePath());
+    }
+  }
+
   private TreeLogger makeCompileLogger(CompileDir compileDir, TreeLogger parent)
       throws UnableToCompleteException {
     try {
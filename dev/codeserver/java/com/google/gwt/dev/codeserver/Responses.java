@@ -218,6 +218,48 @@ public class Responses {
     };
   }
 
+  /**
+   * Wraps another response so that it carries an entity tag, and is only sent if the client
+   * doesn't already have it. Clients are asked to check for changes each time they use their copy.
+   * @param etag an opaque string (without quotes) that changes when the content changes.
+   */
+  static Response newConditionalResponse(final String etag, final Response barePage) {
+    final String quotedEtag = "\"" + etag + "\"";
+    return new Response() {
+      @Override
+      public void send(HttpServletRequest request, HttpServletResponse response, TreeLogger logger)
+          throws IOException {
+        response.setHeader("ETag", quotedEtag);
+        response.setHeader("Cache-Control", "no-cache");
+        if (matchesEtag(request.getHeader("If-None-Match"), quotedEtag)) {
+          response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+          logger.log(TreeLogger.TRACE, "not modified: " + quotedEtag);
+          return;
+        }
+        barePage.send(request, response, logger);
+      }
+    };
+  }
+
+  /**
+   * Returns true if an If-None-Match header lists the given (quoted) entity tag.
+   */
+  static boolean matchesEtag(String ifNoneMatch, String quotedEtag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals("*") || candidate.equals(quotedEtag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Wraps another response in order to log how long it takes to send it.
    */
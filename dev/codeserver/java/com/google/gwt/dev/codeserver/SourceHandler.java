@@ -19,8 +19,12 @@ package com.google.gwt.dev.codeserver;
 import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.dev.codeserver.Pages.ErrorPage;
 import com.google.gwt.dev.json.JsonObject;
+import com.google.gwt.thirdparty.guava.common.base.Charsets;
+import com.google.gwt.thirdparty.guava.common.hash.Hashing;
+import com.google.gwt.thirdparty.guava.common.io.ByteStreams;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -117,7 +121,7 @@ class SourceHandler {
       // This URL is no longer used by debuggers (we use the strong name) but is used for testing.
       // It's useful not to need the strong name to download the sourcemap.
       // (But this only works when there is one permutation.)
-      return makeSourceMapPage(moduleName, box.findSourceMapForOnePermutation(), request);
+      return makeSourceMapPage(moduleName, box, box.findSourceMapForOnePermutation(), request);
     } else if (rest.endsWith("/")) {
       return sendFileListPage(box, rest);
     } else if (rest.endsWith(".java")) {
@@ -126,7 +130,7 @@ class SourceHandler {
       String strongName = getStrongNameFromSourcemapFilename(rest);
       if (strongName != null) {
         File sourceMap = box.findSourceMap(strongName).getAbsoluteFile();
-        return makeSourceMapPage(moduleName, sourceMap, request);
+        return makeSourceMapPage(moduleName, box, sourceMap, request);
       } else {
         return new ErrorPage("page not found");
       }
@@ -143,8 +147,8 @@ class SourceHandler {
     return matcher.matches() ? matcher.group(1) : null;
   }
 
-  private Response makeSourceMapPage(final String moduleName, File sourceMap,
-      HttpServletRequest request) {
+  private Response makeSourceMapPage(final String moduleName, Outbox box, File sourceMap,
+      HttpServletRequest request) throws IOException {
 
     // Stream the file, substituting the sourceroot variable with the filename.
     // (This is more efficient than parsing the file as JSON.)
@@ -160,8 +164,13 @@ class SourceHandler {
         "\"" + SOURCEROOT_TEMPLATE_VARIABLE + "\"",
         "\"" + sourceRoot + "\"");
 
+    // The page depends on the file and the source root.
+    String etag = box.getOutputFileHash(sourceMap) + "-"
+        + Hashing.md5().hashString(sourceRoot, Charsets.UTF_8).toString().substring(0, 8);
+
     // Wrap it in another response to time how long it takes.
-    return Responses.newTimedResponse(barePage, "sent source map for module '" + moduleName + "'");
+    return Responses.newConditionalResponse(etag,
+        Responses.newTimedResponse(barePage, "sent source map for module '" + moduleName + "'"));
   }
 
   private Response makeDirectoryListPage(Outbox box) throws IOException {
@@ -191,9 +200,17 @@ class SourceHandler {
 
     if (query != null && query.equals("html")) {
       return makeHtmlSourcePage(box, sourcePath, pageBytes, logger);
-    } else {
-      return Responses.newBinaryStreamResponse("text/plain", pageBytes);
     }
+
+    // Source files are small, so read it now to find out whether the client has it already.
+    byte[] bytes;
+    try {
+      bytes = ByteStreams.toByteArray(pageBytes);
+    } finally {
+      pageBytes.close();
+    }
+    return Responses.newConditionalResponse(Hashing.md5().hashBytes(bytes).toString(),
+        Responses.newBinaryStreamResponse("text/plain", new ByteArrayInputStream(bytes)));
   }
 
   /**
@@ -96,6 +96,7 @@ public class WebServer {
   private final OutboxTable outboxTable;
   private final JobRunner runner;
   private final JobEventTable eventTable;
+  private final EagerRecompiler eagerRecompiler; // null unless recompiling eagerly
 
   private final String bindAddress;
   private final int port;
@@ -103,14 +104,15 @@ public class WebServer {
   private Server server;
 
   WebServer(SourceHandler handler, SymbolMapHandler symbolMapHandler, JsonExporter jsonExporter,
-      OutboxTable outboxTable, JobRunner runner, JobEventTable eventTable, String bindAddress,
-      int port) {
+      OutboxTable outboxTable, JobRunner runner, JobEventTable eventTable,
+      EagerRecompiler eagerRecompiler, String bindAddress, int port) {
     this.sourceHandler = handler;
     this.symbolMapHandler = symbolMapHandler;
     this.jsonExporter = jsonExporter;
     this.outboxTable = outboxTable;
     this.runner = runner;
     this.eventTable = eventTable;
+    this.eagerRecompiler = eagerRecompiler;
     this.bindAddress = bindAddress;
     this.port = port;
   }
@@ -148,6 +150,9 @@ public class WebServer {
   }
 
   public void stop() throws Exception {
+    if (eagerRecompiler != null) {
+      eagerRecompiler.stop();
+    }
     server.stop();
     server = null;
   }
@@ -325,40 +330,48 @@ public class WebServer {
   /**
    * Returns a file that the compiler wrote to its war directory.
    */
-  private Response makeCompilerOutputPage(String target) {
+  private Response makeCompilerOutputPage(String target) throws IOException {
 
     int secondSlash = target.indexOf('/', 1);
     String moduleName = target.substring(1, secondSlash);
-    Outbox box = outboxTable.findByOutputModuleName(moduleName);
+    final Outbox box = outboxTable.findByOutputModuleName(moduleName);
     if (box == null) {
       return new ErrorPage("No such module: " + moduleName);
     }
 
     final String contentEncoding;
-    File file = box.getOutputFile(target);
-    if (!file.isFile()) {
+    final File file;
+    final boolean compressible;
+    File uncompressedFile = box.getOutputFile(target);
+    if (!uncompressedFile.isFile()) {
       // perhaps it's compressed
       file = box.getOutputFile(target + ".gz");
       if (!file.isFile()) {
         return new ErrorPage("not found: " + file.toString());
       }
       contentEncoding = "gzip";
+      compressible = false;
     } else {
+      file = uncompressedFile;
       contentEncoding = null;
+      compressible = box.isCompressibleOutputFile(file);
     }
 
     final String sourceMapUrl;
+    final String etag;
     Matcher match = CACHE_JS_FILE.matcher(target);
     if (match.matches()) {
       String strongName = match.group(1);
       String template = SourceHandler.sourceMapLocationTemplate(moduleName);
       sourceMapUrl = template.replace("__HASH__", strongName);
+      // The strong name is already a hash of the contents.
+      etag = strongName;
     } else {
       sourceMapUrl = null;
+      etag = box.getOutputFileHash(file);
     }
 
-    String mimeType = guessMimeType(target);
-    final Response barePage = Responses.newFileResponse(mimeType, file);
+    final String mimeType = guessMimeType(target);
 
     // Wrap the response to send the extra headers.
     return new Response() {
@@ -373,8 +386,11 @@ public class WebServer {
           response.setHeader("SourceMap", sourceMapUrl);
         }
 
+        boolean acceptsGzip = request.getHeader("Accept-Encoding") != null
+            && request.getHeader("Accept-Encoding").contains("gzip");
+
         if (contentEncoding != null) {
-          if (!request.getHeader("Accept-Encoding").contains("gzip")) {
+          if (!acceptsGzip) {
             response.sendError(HttpServletResponse.SC_NOT_IMPLEMENTED);
             logger.log(TreeLogger.WARN, "client doesn't accept gzip; bailing");
             return;
@@ -382,7 +398,31 @@ public class WebServer {
           response.setHeader("Content-Encoding", "gzip");
         }
 
-        barePage.send(request, response, logger);
+        File compressedFile = null;
+        if (compressible) {
+          // Caches must not give the compressed copy to clients that didn't ask for it, or the
+          // other way around.
+          response.setHeader("Vary", "Accept-Encoding");
+          if (acceptsGzip) {
+            try {
+              compressedFile = box.getCompressedOutputFile(file);
+            } catch (IOException e) {
+              // Not fatal; the gzip handler will compress the file as it sends it.
+              logger.log(TreeLogger.WARN, "unable to compress " + file, e);
+            }
+          }
+        }
+
+        Response page;
+        if (compressedFile != null) {
+          // Compressed on the first request; the gzip handler leaves it alone.
+          response.setHeader("Content-Encoding", "gzip");
+          page = Responses.newConditionalResponse(etag + "-gzip",
+              Responses.newFileResponse(mimeType, compressedFile));
+        } else {
+          page = Responses.newConditionalResponse(etag, Responses.newFileResponse(mimeType, file));
+        }
+        page.send(request, response, logger);
       }
     };
   }
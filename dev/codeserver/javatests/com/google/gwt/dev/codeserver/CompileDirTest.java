@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.codeserver;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.util.Util;
+import com.google.gwt.thirdparty.guava.common.base.Strings;
+import com.google.gwt.thirdparty.guava.common.io.ByteStreams;
+import com.google.gwt.thirdparty.guava.common.io.Files;
+import com.google.gwt.util.tools.Utility;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests for {@link CompileDir}.
+ */
+public class CompileDirTest extends TestCase {
+
+  private File root;
+  private CompileDir compileDir;
+
+  public void testGetCompressedFile() throws Exception {
+    byte[] bigJs = Strings.repeat("var x = 1;\n", 200).getBytes("UTF-8");
+    File cacheJs = writeWarFile("hello/ABC.cache.js", bigJs);
+    File smallJs = writeWarFile("hello/hello.nocache.js", "var y;".getBytes("UTF-8"));
+    File image = writeWarFile("hello/logo.png", bigJs);
+    File deployed = writeWarFile("WEB-INF/deploy/hello/big.txt", bigJs);
+    File outside = new File(root, "big.js");
+    Files.write(bigJs, outside);
+
+    // Nothing is compressed until it's asked for
+    assertFalse(compileDir.getCompressedDir().exists());
+
+    assertTrue(compileDir.isCompressible(cacheJs));
+    File compressed = compileDir.getCompressedFile(cacheJs);
+    assertNotNull(compressed);
+    assertTrue(compressed.length() < cacheJs.length());
+    InputStream in = new GZIPInputStream(new FileInputStream(compressed));
+    try {
+      assertEquals(new String(bigJs, "UTF-8"), new String(ByteStreams.toByteArray(in), "UTF-8"));
+    } finally {
+      in.close();
+    }
+    // Only the copy is left in its directory
+    assertEquals(1, compressed.getParentFile().list().length);
+
+    for (File file : new File[] {smallJs, image, deployed, outside}) {
+      assertFalse(compileDir.isCompressible(file));
+      assertNull(compileDir.getCompressedFile(file));
+    }
+
+    // Later requests get the same copy
+    long lastModified = compressed.lastModified();
+    assertEquals(compressed, compileDir.getCompressedFile(cacheJs));
+    assertEquals(lastModified, compressed.lastModified());
+  }
+
+  public void testGetContentHash() throws Exception {
+    File first = writeWarFile("hello/first.js", "var x;".getBytes("UTF-8"));
+    File same = writeWarFile("hello/same.js", "var x;".getBytes("UTF-8"));
+    File other = writeWarFile("hello/other.js", "var y;".getBytes("UTF-8"));
+
+    String hash = compileDir.getContentHash(first);
+    assertEquals(32, hash.length());
+    assertEquals(hash, compileDir.getContentHash(same));
+    assertFalse(hash.equals(compileDir.getContentHash(other)));
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    root = Utility.makeTemporaryDirectory(null, "compiledirtest");
+    compileDir = CompileDir.create(new File(root, "compile-1"), TreeLogger.NULL);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Util.recursiveDelete(root, false);
+  }
+
+  private File writeWarFile(String path, byte[] content) throws IOException {
+    File file = new File(compileDir.getWarDir(), path);
+    Files.createParentDirs(file);
+    Files.write(content, file);
+    return file;
+  }
+}
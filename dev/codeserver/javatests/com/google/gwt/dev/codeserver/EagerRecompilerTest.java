@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.codeserver;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.MinimalRebuildCacheManager;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableMap;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableSortedMap;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link EagerRecompiler}.
+ */
+public class EagerRecompilerTest extends TestCase {
+
+  /**
+   * A job runner that records the jobs submitted to it, and leaves them waiting.
+   */
+  private static class FakeJobRunner extends JobRunner {
+    private final JobEventTable table;
+    private final List<Job> submitted = Lists.newArrayList();
+
+    FakeJobRunner(JobEventTable table) {
+      super(table, new MinimalRebuildCacheManager(
+          TreeLogger.NULL, null, ImmutableMap.<String, String>of()));
+      this.table = table;
+    }
+
+    @Override
+    synchronized void submit(Job job) {
+      job.onSubmitted(table);
+      submitted.add(job);
+      notifyAll();
+    }
+
+    synchronized List<Job> getSubmitted() {
+      return Lists.newArrayList(submitted);
+    }
+
+    /**
+     * Waits until the given number of jobs have been submitted, or the timeout has passed.
+     */
+    synchronized List<Job> waitForSubmitted(int count, long timeoutMillis)
+        throws InterruptedException {
+      long deadline = System.currentTimeMillis() + timeoutMillis;
+      long remaining = timeoutMillis;
+      while (submitted.size() < count && remaining > 0) {
+        wait(remaining);
+        remaining = deadline - System.currentTimeMillis();
+      }
+      return getSubmitted();
+    }
+  }
+
+  /**
+   * An outbox that was last recompiled with the given binding properties, or never if null.
+   */
+  private static class FakeOutbox extends Outbox {
+    private final ImmutableSortedMap<String, String> lastBindingProperties;
+
+    FakeOutbox(String id, ImmutableSortedMap<String, String> lastBindingProperties)
+        throws UnableToCompleteException {
+      super(id, null, makeOptions(id), TreeLogger.NULL);
+      this.lastBindingProperties = lastBindingProperties;
+    }
+
+    private static Options makeOptions(String moduleName) {
+      Options options = new Options();
+      assertTrue(options.parseArgs(new String[] {moduleName}));
+      return options;
+    }
+
+    @Override
+    String getInputModuleName() {
+      return getId();
+    }
+
+    @Override
+    ImmutableSortedMap<String, String> getLastBindingProperties() {
+      return lastBindingProperties;
+    }
+
+    @Override
+    void maybePrecompile(TreeLogger logger) {
+    }
+  }
+
+  private static final ImmutableSortedMap<String, String> SAFARI =
+      ImmutableSortedMap.of("user.agent", "safari");
+
+  private final JobEventTable table = new JobEventTable();
+  private final FakeJobRunner runner = new FakeJobRunner(table);
+  private final OutboxTable outboxTable = new OutboxTable();
+  private EagerRecompiler recompiler;
+
+  public void testChangesAreDebounced() throws Exception {
+    outboxTable.addOutbox(new FakeOutbox("com.example.Foo", SAFARI));
+
+    // Each change restarts the delay, so a burst of changes makes one job.
+    long lastChangeNanos = 0;
+    for (int i = 0; i < 5; i++) {
+      lastChangeNanos = System.nanoTime();
+      recompiler.onResourcesChanged();
+      Thread.sleep(EagerRecompiler.DEBOUNCE_MILLIS / 3);
+      assertTrue(runner.getSubmitted().isEmpty());
+    }
+    List<Job> submitted = runner.waitForSubmitted(1, 10000);
+    assertTrue(System.nanoTime() - lastChangeNanos
+        >= TimeUnit.MILLISECONDS.toNanos(EagerRecompiler.DEBOUNCE_MILLIS));
+    assertEquals(1, submitted.size());
+    assertEquals(SAFARI, submitted.get(0).getBindingProperties());
+
+    Thread.sleep(EagerRecompiler.DEBOUNCE_MILLIS * 2);
+    assertEquals(1, runner.getSubmitted().size());
+  }
+
+  public void testSkipsOutboxesNeverRecompiled() throws Exception {
+    outboxTable.addOutbox(new FakeOutbox("com.example.Foo", SAFARI));
+    outboxTable.addOutbox(new FakeOutbox("com.example.NeverRecompiled", null));
+
+    recompiler.submitJobs();
+
+    List<Job> submitted = runner.getSubmitted();
+    assertEquals(1, submitted.size());
+    assertEquals("com.example.Foo", submitted.get(0).getOutbox().getId());
+  }
+
+  public void testSkipsOutboxWithWaitingJob() throws Exception {
+    outboxTable.addOutbox(new FakeOutbox("com.example.Foo", SAFARI));
+
+    recompiler.submitJobs();
+    assertEquals(1, runner.getSubmitted().size());
+    Job first = runner.getSubmitted().get(0);
+
+    // The first job hasn't started, so it will pick up the new changes.
+    recompiler.submitJobs();
+    assertEquals(1, runner.getSubmitted().size());
+
+    // Once it has started, later changes need another job.
+    first.onStarted(1, new CompileDir(new File("unused")));
+    recompiler.submitJobs();
+    assertEquals(2, runner.getSubmitted().size());
+
+    // The same applies after a job has finished.
+    Job second = runner.getSubmitted().get(1);
+    second.onStarted(2, new CompileDir(new File("unused")));
+    second.onFinished(new Job.Result(new CompileDir(new File("unused")), "Foo", null));
+    recompiler.submitJobs();
+    assertEquals(3, runner.getSubmitted().size());
+  }
+
+  @Override
+  protected void setUp() {
+    recompiler = new EagerRecompiler(outboxTable, runner, table, TreeLogger.NULL);
+  }
+
+  @Override
+  protected void tearDown() {
+    recompiler.stop();
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.codeserver;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.MinimalRebuildCacheManager;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableMap;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link JobRunner}.
+ */
+public class JobRunnerTest extends TestCase {
+
+  /**
+   * Keeps track of the fake compiles that are running.
+   */
+  private static class Compiles {
+    private final List<String> started = Collections.synchronizedList(Lists.<String>newArrayList());
+    private int running;
+    private int maxRunning;
+
+    synchronized void start(String jobId) {
+      started.add(jobId);
+      running++;
+      maxRunning = Math.max(maxRunning, running);
+      notifyAll();
+    }
+
+    synchronized void finish() {
+      running--;
+    }
+
+    synchronized int getRunning() {
+      return running;
+    }
+
+    synchronized int getMaxRunning() {
+      return maxRunning;
+    }
+
+    synchronized void waitForRunning(int count) throws InterruptedException {
+      long deadline = System.currentTimeMillis() + 10000;
+      while (running < count) {
+        long remaining = deadline - System.currentTimeMillis();
+        assertTrue("timed out waiting for " + count + " compiles", remaining > 0);
+        wait(remaining);
+      }
+    }
+  }
+
+  /**
+   * An outbox whose compiles wait until they are released.
+   */
+  private static class FakeOutbox extends Outbox {
+    private final Compiles compiles;
+    private final CountDownLatch release;
+    private volatile boolean forcedRecompile;
+
+    FakeOutbox(String id, Compiles compiles, CountDownLatch release)
+        throws UnableToCompleteException {
+      super(id, null, makeOptions(id), TreeLogger.NULL);
+      this.compiles = compiles;
+      this.release = release;
+    }
+
+    private static Options makeOptions(String moduleName) {
+      Options options = new Options();
+      assertTrue(options.parseArgs(new String[] {moduleName}));
+      return options;
+    }
+
+    @Override
+    void forceNextRecompile() {
+      forcedRecompile = true;
+    }
+
+    @Override
+    String getInputModuleName() {
+      return getId();
+    }
+
+    @Override
+    void maybePrecompile(TreeLogger logger) {
+    }
+
+    @Override
+    void recompile(Job job) {
+      job.onStarted(0, null);
+      compiles.start(job.getId());
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      } finally {
+        compiles.finish();
+      }
+      job.onFinished(new Job.Result(new CompileDir(new File(getId())), getId(), null));
+    }
+  }
+
+  private final Compiles compiles = new Compiles();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final MinimalRebuildCacheManager minimalRebuildCacheManager =
+      new MinimalRebuildCacheManager(TreeLogger.NULL, null, ImmutableMap.<String, String>of());
+
+  @Override
+  protected void tearDown() {
+    release.countDown();
+  }
+
+  public void testJobsForOneOutboxRunInOrder() throws Exception {
+    JobRunner runner = new JobRunner(new JobEventTable(), minimalRebuildCacheManager, 4);
+    FakeOutbox box = new FakeOutbox("com.example.Foo", compiles, release);
+
+    List<Job> jobs = Lists.newArrayList();
+    List<String> jobIds = Lists.newArrayList();
+    for (int i = 0; i < 5; i++) {
+      Job job = box.makeJob(ImmutableMap.<String, String>of(), TreeLogger.NULL);
+      runner.submit(job);
+      jobs.add(job);
+      jobIds.add(job.getId());
+    }
+
+    // Only the first job starts, even though there are permits left.
+    compiles.waitForRunning(1);
+    Thread.sleep(100);
+    assertEquals(1, compiles.getRunning());
+
+    release.countDown();
+    for (Job job : jobs) {
+      assertTrue(job.waitForResult().isOk());
+    }
+    assertEquals(jobIds, compiles.started);
+    assertEquals(1, compiles.getMaxRunning());
+  }
+
+  public void testConcurrencyLimit() throws Exception {
+    JobRunner runner = new JobRunner(new JobEventTable(), minimalRebuildCacheManager, 2);
+
+    List<Job> jobs = Lists.newArrayList();
+    for (int i = 0; i < 4; i++) {
+      FakeOutbox box = new FakeOutbox("com.example.Module" + i, compiles, release);
+      Job job = box.makeJob(ImmutableMap.<String, String>of(), TreeLogger.NULL);
+      runner.submit(job);
+      jobs.add(job);
+    }
+
+    // Two modules compile at once; the other two wait for a permit.
+    compiles.waitForRunning(2);
+    Thread.sleep(100);
+    assertEquals(2, compiles.getRunning());
+
+    release.countDown();
+    for (Job job : jobs) {
+      assertTrue(job.waitForResult().isOk());
+    }
+    assertEquals(4, compiles.started.size());
+    assertEquals(2, compiles.getMaxRunning());
+  }
+
+  public void testCleanWaitsForRunningCompiles() throws Exception {
+    final JobRunner runner = new JobRunner(new JobEventTable(), minimalRebuildCacheManager, 2);
+    final FakeOutbox box = new FakeOutbox("com.example.Foo", compiles, release);
+    final OutboxTable outboxTable = new OutboxTable();
+    outboxTable.addOutbox(box);
+
+    Job job = box.makeJob(ImmutableMap.<String, String>of(), TreeLogger.NULL);
+    runner.submit(job);
+    compiles.waitForRunning(1);
+
+    // A permit is still free, but cleaning needs all of them.
+    final CountDownLatch cleaned = new CountDownLatch(1);
+    final ExecutionException[] cleanFailure = new ExecutionException[1];
+    Thread cleaner = new Thread() {
+      @Override
+      public void run() {
+        try {
+          runner.clean(TreeLogger.NULL, outboxTable);
+        } catch (ExecutionException e) {
+          cleanFailure[0] = e;
+        }
+        cleaned.countDown();
+      }
+    };
+    cleaner.start();
+    assertFalse(cleaned.await(200, TimeUnit.MILLISECONDS));
+    assertFalse(box.forcedRecompile);
+
+    release.countDown();
+    assertTrue(job.waitForResult().isOk());
+    assertTrue(cleaned.await(10, TimeUnit.SECONDS));
+    assertNull(cleanFailure[0]);
+    assertTrue(box.forcedRecompile);
+  }
+}
@@ -18,6 +18,7 @@ package com.google.gwt.dev.codeserver;
 import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.MinimalRebuildCacheManager;
+import com.google.gwt.dev.cfg.ModuleDefLoader;
 import com.google.gwt.dev.codeserver.Job.Result;
 import com.google.gwt.dev.javac.UnitCache;
 import com.google.gwt.dev.javac.UnitCacheSingleton;
@@ -157,6 +158,59 @@ public class RecompilerTest extends TestCase {
           "  }",
           "}");
 
+  public void testConcurrentCompilesOfDifferentModules()
+      throws UnableToCompleteException, IOException, InterruptedException {
+    PrintWriterTreeLogger logger = new PrintWriterTreeLogger();
+    logger.setMaxDetail(TreeLogger.ERROR);
+
+    File simpleSourcePath = Files.createTempDir();
+    writeResourcesTo(Lists.newArrayList(simpleModuleResource, referencesBarEntryPointResource,
+        barReferencesBazResource, bazReferencesFooResource, fooResource), simpleSourcePath);
+    File propertySourcePath = Files.createTempDir();
+    writeResourcesTo(Lists.newArrayList(propertyIsFooModuleResource,
+        performsRebindEntryPointResource, barReferencesBazResource, bazReferencesFooResource,
+        fooResource), propertySourcePath);
+
+    Options simpleOptions = new Options();
+    simpleOptions.parseArgs(new String[] {"-incremental", "-concurrentCompiles", "2", "-src",
+        simpleSourcePath.getAbsolutePath(), "com.foo.SimpleModule"});
+    Options propertyOptions = new Options();
+    propertyOptions.parseArgs(new String[] {"-incremental", "-concurrentCompiles", "2", "-src",
+        propertySourcePath.getAbsolutePath(), "com.foo.PropertyModule"});
+
+    // Like the code server, share one unit cache and rebuild cache manager between the modules.
+    File baseCacheDir = Files.createTempDir();
+    UnitCache unitCache = UnitCacheSingleton.get(
+        logger, null, baseCacheDir, new CompilerOptionsImpl(simpleOptions));
+    MinimalRebuildCacheManager minimalRebuildCacheManager =
+        new MinimalRebuildCacheManager(logger, baseCacheDir, ImmutableMap.<String, String>of());
+    Outbox simpleOutbox = new Outbox("simple", new Recompiler(
+        OutboxDir.create(Files.createTempDir(), logger), null, "com.foo.SimpleModule",
+        simpleOptions, unitCache, minimalRebuildCacheManager), simpleOptions, logger);
+    Outbox propertyOutbox = new Outbox("property", new Recompiler(
+        OutboxDir.create(Files.createTempDir(), logger), null, "com.foo.PropertyModule",
+        propertyOptions, unitCache, minimalRebuildCacheManager), propertyOptions, logger);
+    JobRunner runner = new JobRunner(new JobEventTable(), minimalRebuildCacheManager,
+        simpleOptions.getConcurrentCompiles());
+
+    // Compile both modules at once, twice, so that the second round is a recompile.
+    for (int i = 0; i < 2; i++) {
+      Job simpleJob = simpleOutbox.makeJob(new HashMap<String, String>(), logger);
+      Job propertyJob = propertyOutbox.makeJob(new HashMap<String, String>(), logger);
+      runner.submit(simpleJob);
+      runner.submit(propertyJob);
+
+      Result simpleResult = simpleJob.waitForResult();
+      Result propertyResult = propertyJob.waitForResult();
+      assertTrue(simpleResult.isOk());
+      assertTrue(propertyResult.isOk());
+      assertEquals("com.foo.SimpleModule", simpleResult.outputModuleName);
+      assertEquals("com.foo.PropertyModule", propertyResult.outputModuleName);
+      assertTrue(findCompiledJsFile(simpleResult).isFile());
+      assertTrue(findCompiledJsFile(propertyResult).isFile());
+    }
+  }
+
   public void testIncrementalRecompile_compileErrorDoesntCorruptMinimalRebuildCache()
       throws UnableToCompleteException, IOException, InterruptedException {
     String moduleName = "com.foo.SimpleModule";
@@ -259,6 +313,8 @@ public class RecompilerTest extends TestCase {
     super.setUp();
     // Make sure we're using a MemoryUnitCache.
     System.setProperty(UnitCacheSingleton.GWT_PERSISTENTUNITCACHE, "false");
+    // Modules are cached by name, but each test writes its own copy of them.
+    ModuleDefLoader.clearModuleCache();
   }
 
   private Result compileWithChanges(TreeLogger logger, JobRunner runner, Outbox outbox,
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.codeserver;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+
+import junit.framework.TestCase;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Tests for the conditional responses in {@link Responses}.
+ */
+public class ResponsesTest extends TestCase {
+
+  /**
+   * Records the status and headers set on a response.
+   */
+  private static class ResponseRecorder implements InvocationHandler {
+    final Map<String, String> headers = Maps.newHashMap();
+    int status = HttpServletResponse.SC_OK;
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (method.getName().equals("setHeader")) {
+        headers.put((String) args[0], (String) args[1]);
+      } else if (method.getName().equals("setStatus")) {
+        status = (Integer) args[0];
+      } else {
+        throw new UnsupportedOperationException(method.getName());
+      }
+      return null;
+    }
+  }
+
+  /**
+   * A page that only records whether it was sent.
+   */
+  private static class FakePage implements Response {
+    boolean sent;
+
+    @Override
+    public void send(HttpServletRequest request, HttpServletResponse response, TreeLogger logger) {
+      sent = true;
+    }
+  }
+
+  public void testMatchesEtag() {
+    assertFalse(Responses.matchesEtag(null, "\"abc\""));
+    assertFalse(Responses.matchesEtag("", "\"abc\""));
+    assertTrue(Responses.matchesEtag("\"abc\"", "\"abc\""));
+    assertTrue(Responses.matchesEtag("W/\"abc\"", "\"abc\""));
+    assertTrue(Responses.matchesEtag("\"xyz\", \"abc\"", "\"abc\""));
+    assertTrue(Responses.matchesEtag("*", "\"abc\""));
+    assertFalse(Responses.matchesEtag("\"abcd\"", "\"abc\""));
+    assertFalse(Responses.matchesEtag("abc", "\"abc\""));
+    assertFalse(Responses.matchesEtag("\"xyz\", W/\"abd\"", "\"abc\""));
+  }
+
+  public void testConditionalResponseSendsPage() throws Exception {
+    FakePage page = new FakePage();
+    ResponseRecorder recorder = new ResponseRecorder();
+
+    Responses.newConditionalResponse("abc", page).send(
+        makeRequest("\"xyz\""), makeResponse(recorder), TreeLogger.NULL);
+
+    assertTrue(page.sent);
+    assertEquals(HttpServletResponse.SC_OK, recorder.status);
+    assertEquals("\"abc\"", recorder.headers.get("ETag"));
+    assertEquals("no-cache", recorder.headers.get("Cache-Control"));
+  }
+
+  public void testConditionalResponseNotModified() throws Exception {
+    FakePage page = new FakePage();
+    ResponseRecorder recorder = new ResponseRecorder();
+
+    Responses.newConditionalResponse("abc", page).send(
+        makeRequest("W/\"abc\""), makeResponse(recorder), TreeLogger.NULL);
+
+    assertFalse(page.sent);
+    assertEquals(HttpServletResponse.SC_NOT_MODIFIED, recorder.status);
+    assertEquals("\"abc\"", recorder.headers.get("ETag"));
+  }
+
+  public void testConditionalResponseWithoutIfNoneMatch() throws Exception {
+    FakePage page = new FakePage();
+    ResponseRecorder recorder = new ResponseRecorder();
+
+    Responses.newConditionalResponse("abc", page).send(
+        makeRequest(null), makeResponse(recorder), TreeLogger.NULL);
+
+    assertTrue(page.sent);
+    assertEquals(HttpServletResponse.SC_OK, recorder.status);
+  }
+
+  /**
+   * Returns a request that only has an If-None-Match header, if that isn't null.
+   */
+  private static HttpServletRequest makeRequest(final String ifNoneMatch) {
+    return (HttpServletRequest) Proxy.newProxyInstance(ResponsesTest.class.getClassLoader(),
+        new Class<?>[] {HttpServletRequest.class}, new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getName().equals("getHeader")) {
+              return "If-None-Match".equalsIgnoreCase((String) args[0]) ? ifNoneMatch : null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+
+  private static HttpServletResponse makeResponse(ResponseRecorder recorder) {
+    return (HttpServletResponse) Proxy.newProxyInstance(ResponsesTest.class.getClassLoader(),
+        new Class<?>[] {HttpServletResponse.class}, recorder);
+  }
+}
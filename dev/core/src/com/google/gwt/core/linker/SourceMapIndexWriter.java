@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.linker;
+
+import com.google.gwt.thirdparty.debugging.sourcemap.Base64;
+import com.google.gwt.thirdparty.json.JSONArray;
+import com.google.gwt.thirdparty.json.JSONException;
+import com.google.gwt.thirdparty.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Converts a version 3 source map into the lookup table read by
+ * {@code com.google.gwt.core.server.IndexedSourceMapping}. The table holds the
+ * decoded mappings sorted by generated line and column, so that a server can
+ * look up a position with a binary search instead of parsing the JSON.
+ * <p>
+ * The format is a sequence of big-endian ints followed by the strings:
+ * <pre>
+ * magic, version, lineCount, entryCount
+ * lineStarts[lineCount + 1]   index of the first entry of each line
+ * columns[entryCount]         generated column
+ * sources[entryCount]         source index, or -1 for an unmapped segment
+ * sourceLines[entryCount]
+ * sourceColumns[entryCount]
+ * names[entryCount]           name index, or -1
+ * sourceCount, sourceCount * UTF string
+ * nameCount, nameCount * UTF string
+ * </pre>
+ * All positions are zero-based, as in the source map itself.
+ */
+public final class SourceMapIndexWriter {
+
+  static final int MAGIC = 0x47534d49;
+  static final int VERSION = 1;
+
+  /**
+   * Reads the mappings of one source map line by line.
+   */
+  private static class MappingsDecoder {
+    private final String mappings;
+    private int pos;
+
+    MappingsDecoder(String mappings) {
+      this.mappings = mappings;
+    }
+
+    boolean atSegmentEnd() {
+      return pos == mappings.length() || mappings.charAt(pos) == ','
+          || mappings.charAt(pos) == ';';
+    }
+
+    boolean hasNext() {
+      return pos < mappings.length();
+    }
+
+    char peek() {
+      return mappings.charAt(pos);
+    }
+
+    int readVlq() {
+      int result = 0;
+      int shift = 0;
+      boolean continuation;
+      do {
+        if (pos == mappings.length()) {
+          throw new IllegalArgumentException("Truncated mapping");
+        }
+        int digit = Base64.fromBase64(mappings.charAt(pos++));
+        continuation = (digit & 32) != 0;
+        result += (digit & 31) << shift;
+        shift += 5;
+      } while (continuation);
+      boolean negate = (result & 1) == 1;
+      result >>>= 1;
+      return negate ? -result : result;
+    }
+
+    void skip() {
+      pos++;
+    }
+  }
+
+  /**
+   * A growable int array.
+   */
+  private static class IntList {
+    int[] values = new int[1024];
+    int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        int[] newValues = new int[size * 2];
+        System.arraycopy(values, 0, newValues, 0, size);
+        values = newValues;
+      }
+      values[size++] = value;
+    }
+  }
+
+  /**
+   * Returns the lookup table for a source map.
+   *
+   * @throws IllegalArgumentException if the source map is malformed or is an
+   *           index map made of sections, which this format does not support
+   */
+  public static byte[] write(String sourceMapJson) {
+    try {
+      JSONObject sourceMap = new JSONObject(sourceMapJson);
+      if (sourceMap.has("sections")) {
+        throw new IllegalArgumentException("Index source maps are not supported");
+      }
+      if (sourceMap.getInt("version") != 3) {
+        throw new IllegalArgumentException("Unsupported source map version");
+      }
+      JSONArray sources = sourceMap.getJSONArray("sources");
+      JSONArray names = sourceMap.optJSONArray("names");
+
+      IntList lineStarts = new IntList();
+      IntList columns = new IntList();
+      IntList sourceIds = new IntList();
+      IntList sourceLines = new IntList();
+      IntList sourceColumns = new IntList();
+      IntList nameIds = new IntList();
+
+      MappingsDecoder decoder = new MappingsDecoder(sourceMap.getString("mappings"));
+      int sourceId = 0;
+      int sourceLine = 0;
+      int sourceColumn = 0;
+      int nameId = 0;
+      lineStarts.add(0);
+      int column = 0;
+      while (decoder.hasNext()) {
+        char c = decoder.peek();
+        if (c == ';') {
+          // Ends the current line; its end is where the next one starts
+          decoder.skip();
+          lineStarts.add(columns.size);
+          column = 0;
+          continue;
+        }
+        if (c == ',') {
+          decoder.skip();
+          continue;
+        }
+        column += decoder.readVlq();
+        columns.add(column);
+        if (decoder.atSegmentEnd()) {
+          sourceIds.add(-1);
+          sourceLines.add(0);
+          sourceColumns.add(0);
+          nameIds.add(-1);
+          continue;
+        }
+        sourceId += decoder.readVlq();
+        sourceLine += decoder.readVlq();
+        sourceColumn += decoder.readVlq();
+        sourceIds.add(sourceId);
+        sourceLines.add(sourceLine);
+        sourceColumns.add(sourceColumn);
+        if (decoder.atSegmentEnd()) {
+          nameIds.add(-1);
+        } else {
+          nameId += decoder.readVlq();
+          nameIds.add(nameId);
+        }
+      }
+      if (columns.size > lineStarts.values[lineStarts.size - 1]) {
+        // The last line has no trailing ';'
+        lineStarts.add(columns.size);
+      }
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + 24 * columns.size);
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(lineStarts.size - 1);
+      out.writeInt(columns.size);
+      writeInts(out, lineStarts);
+      writeInts(out, columns);
+      writeInts(out, sourceIds);
+      writeInts(out, sourceLines);
+      writeInts(out, sourceColumns);
+      writeInts(out, nameIds);
+      writeStrings(out, sources);
+      writeStrings(out, names);
+      out.close();
+      return bytes.toByteArray();
+    } catch (JSONException e) {
+      throw new IllegalArgumentException(e);
+    } catch (IOException e) {
+      // Not possible with a ByteArrayOutputStream
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void writeInts(DataOutputStream out, IntList list) throws IOException {
+    for (int i = 0; i < list.size; i++) {
+      out.writeInt(list.values[i]);
+    }
+  }
+
+  private static void writeStrings(DataOutputStream out, JSONArray strings)
+      throws IOException, JSONException {
+    int count = strings == null ? 0 : strings.length();
+    out.writeInt(count);
+    for (int i = 0; i < count; i++) {
+      out.writeUTF(strings.getString(i));
+    }
+  }
+
+  private SourceMapIndexWriter() {
+  }
+}
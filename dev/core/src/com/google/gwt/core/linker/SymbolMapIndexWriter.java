@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.linker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts a symbol map into the lookup table read by
+ * {@code com.google.gwt.core.server.IndexedSymbolMap}. The table holds the
+ * method symbols sorted by their UTF-8 bytes, so that a server can look up a
+ * symbol with a binary search instead of reading the whole symbol map into a
+ * hash map.
+ * <p>
+ * The format is a sequence of big-endian ints followed by the entries:
+ * <pre>
+ * magic, version, entryCount
+ * entryStarts[entryCount + 1]  offset of each entry from the first one
+ * entries                      UTF-8 symbol map lines, without the newline
+ * </pre>
+ * Only method symbols are included, since those are the only ones a stack
+ * trace names. Comment lines are dropped.
+ */
+public final class SymbolMapIndexWriter {
+
+  static final int MAGIC = 0x4753594d;
+  static final int VERSION = 1;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * Orders entries by the unsigned bytes of their symbol, which is what the reader compares.
+   */
+  private static final Comparator<byte[]> BY_SYMBOL = new Comparator<byte[]>() {
+    @Override
+    public int compare(byte[] a, byte[] b) {
+      for (int i = 0; ; i++) {
+        int ca = a[i] == ',' ? -1 : a[i] & 0xff;
+        int cb = b[i] == ',' ? -1 : b[i] & 0xff;
+        if (ca != cb || ca == -1) {
+          return ca - cb;
+        }
+      }
+    }
+  };
+
+  /**
+   * Returns the lookup table for the text of a symbol map, as written by
+   * {@link SymbolMapsLinker}.
+   */
+  public static byte[] write(String symbolMap) {
+    // Later lines win, as when the symbol map is read into a map
+    Map<String, String> lines = new LinkedHashMap<String, String>();
+    for (String line : symbolMap.split("\n")) {
+      if (line.isEmpty() || line.charAt(0) == '#') {
+        continue;
+      }
+      int symbolEnd = line.indexOf(',');
+      int jsniEnd = symbolEnd < 0 ? -1 : line.indexOf(',', symbolEnd + 1);
+      if (jsniEnd < 0 || !line.substring(symbolEnd + 1, jsniEnd).contains(")")) {
+        // Not a method; method jsni names have to contain parens.
+        continue;
+      }
+      lines.put(line.substring(0, symbolEnd), line);
+    }
+
+    List<byte[]> entries = new ArrayList<byte[]>(lines.size());
+    for (String line : lines.values()) {
+      entries.add(line.getBytes(UTF8));
+    }
+    Collections.sort(entries, BY_SYMBOL);
+
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(symbolMap.length());
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(entries.size());
+      int offset = 0;
+      for (byte[] entry : entries) {
+        out.writeInt(offset);
+        offset += entry.length;
+      }
+      out.writeInt(offset);
+      for (byte[] entry : entries) {
+        out.write(entry);
+      }
+      out.close();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      // Not possible with a ByteArrayOutputStream
+      throw new RuntimeException(e);
+    }
+  }
+
+  private SymbolMapIndexWriter() {
+  }
+}
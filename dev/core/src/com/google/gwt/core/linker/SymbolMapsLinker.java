@@ -22,6 +22,7 @@ import com.google.gwt.core.ext.linker.AbstractLinker;
 import com.google.gwt.core.ext.linker.Artifact;
 import com.google.gwt.core.ext.linker.ArtifactSet;
 import com.google.gwt.core.ext.linker.CompilationResult;
+import com.google.gwt.core.ext.linker.ConfigurationProperty;
 import com.google.gwt.core.ext.linker.EmittedArtifact;
 import com.google.gwt.core.ext.linker.EmittedArtifact.Visibility;
 import com.google.gwt.core.ext.linker.LinkerOrder;
@@ -60,6 +61,32 @@ public class SymbolMapsLinker extends AbstractLinker {
 
   public static final String MAKE_SYMBOL_MAPS = "compiler.useSymbolMaps";
 
+  /**
+   * Configuration property that, when true, emits a lookup table next to each source map. See
+   * {@link #SOURCE_MAP_INDEX_SUFFIX}.
+   */
+  public static final String EMIT_SOURCE_MAP_INDEX = "compiler.emitSourceMapIndex";
+
+  /**
+   * This value is appended to <code><i>strongName</i>_sourceMapIndex<i>fragment</i></code> to form
+   * the filename of a source map lookup table. The table holds the same mappings as the source
+   * map, pre-sorted, so that a server can deobfuscate a stack trace without parsing the JSON.
+   */
+  public static final String SOURCE_MAP_INDEX_SUFFIX = ".bin";
+
+  /**
+   * Configuration property that, when true, emits a lookup table next to each symbol map. See
+   * {@link #SYMBOL_MAP_INDEX_SUFFIX}.
+   */
+  public static final String EMIT_SYMBOL_MAP_INDEX = "compiler.emitSymbolMapIndex";
+
+  /**
+   * This value is appended to the strong name of the CompilationResult to form the filename of a
+   * symbol map lookup table. The table holds the method symbols of the symbol map, sorted, so that a
+   * server can deobfuscate a stack trace with binary searches instead of loading the symbol map.
+   */
+  public static final String SYMBOL_MAP_INDEX_SUFFIX = ".symbolMapIndex.bin";
+
   /**
    * Artifact to record insertions or deletions made to Javascript fragments.
    */
@@ -247,6 +274,16 @@ public class SymbolMapsLinker extends AbstractLinker {
       artifacts = new ArtifactSet(artifacts);
       Map<Integer, String> permMap = new HashMap<Integer, String>();
 
+      boolean emitSourceMapIndex = false;
+      boolean emitSymbolMapIndex = false;
+      for (ConfigurationProperty prop : context.getConfigurationProperties()) {
+        if (prop.getName().equals(EMIT_SOURCE_MAP_INDEX)) {
+          emitSourceMapIndex = Boolean.parseBoolean(prop.getValues().get(0));
+        } else if (prop.getName().equals(EMIT_SYMBOL_MAP_INDEX)) {
+          emitSymbolMapIndex = Boolean.parseBoolean(prop.getValues().get(0));
+        }
+      }
+
       Event writeSymbolMapsEvent =
           SpeedTracerLogger.start(CompilerEventType.WRITE_SYMBOL_MAPS);
       ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -270,6 +307,9 @@ public class SymbolMapsLinker extends AbstractLinker {
           pw.close();
 
           doEmitSymbolMap(logger, artifacts, result, out);
+          if (emitSymbolMapIndex) {
+            emitSymbolMapIndex(logger, artifacts, out.toString(), result.getStrongName());
+          }
           out.reset();
         }
       }
@@ -297,6 +337,9 @@ public class SymbolMapsLinker extends AbstractLinker {
         // no need to adjust source map
         if (editArtifact == null) {
           emArt = emitSourceMapString(logger, sourceMapString, partialPath);
+          if (emitSourceMapIndex) {
+            emitSourceMapIndex(logger, artifacts, sourceMapString, strongName, fragment);
+          }
         } else {
           SourceMapGeneratorV3 sourceMapGenerator = new SourceMapGeneratorV3();
 
@@ -323,6 +366,9 @@ public class SymbolMapsLinker extends AbstractLinker {
             StringWriter stringWriter = new StringWriter();
             sourceMapGenerator.appendTo(stringWriter, "sourceMap");
             emArt = emitSourceMapString(logger, stringWriter.toString(), partialPath);
+            if (emitSourceMapIndex) {
+              emitSourceMapIndex(logger, artifacts, stringWriter.toString(), strongName, fragment);
+            }
           } catch (Exception e) {
             logger.log(TreeLogger.Type.WARN, "Can't write source map " + partialPath, e);
           }
@@ -409,6 +455,29 @@ public class SymbolMapsLinker extends AbstractLinker {
     }
   }
 
+  private void emitSourceMapIndex(TreeLogger logger, ArtifactSet artifacts,
+      String sourceMapString, String strongName, int fragment) throws UnableToCompleteException {
+    String partialPath = strongName + "_sourceMapIndex" + fragment + SOURCE_MAP_INDEX_SUFFIX;
+    byte[] index;
+    try {
+      index = SourceMapIndexWriter.write(sourceMapString);
+    } catch (IllegalArgumentException e) {
+      logger.log(TreeLogger.Type.WARN, "Can't write source map index " + partialPath, e);
+      return;
+    }
+    EmittedArtifact indexArtifact = emitBytes(logger, index, partialPath);
+    indexArtifact.setVisibility(Visibility.LegacyDeploy);
+    artifacts.add(indexArtifact);
+  }
+
+  private void emitSymbolMapIndex(TreeLogger logger, ArtifactSet artifacts, String symbolMap,
+      String strongName) throws UnableToCompleteException {
+    EmittedArtifact indexArtifact = emitBytes(logger, SymbolMapIndexWriter.write(symbolMap),
+        strongName + SYMBOL_MAP_INDEX_SUFFIX);
+    indexArtifact.setVisibility(Visibility.LegacyDeploy);
+    artifacts.add(indexArtifact);
+  }
+
   protected SyntheticArtifact emitSourceMapString(TreeLogger logger, String contents,
       String partialPath) throws UnableToCompleteException {
     SyntheticArtifact emArt = emitString(logger, contents, partialPath);
@@ -104,7 +104,7 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
     }
 
     @Override
-    public void compile(TreeLogger logger, CompilerContext compilerContext, Permutation permutation,
+    public long compile(TreeLogger logger, CompilerContext compilerContext, Permutation permutation,
         PersistenceBackedObject<PermutationResult> resultFile)
         throws TransientWorkerException, UnableToCompleteException {
 
@@ -146,6 +146,7 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
       }
 
       try {
+        long startMs = System.currentTimeMillis();
         out.writeBoolean(true);
         out.writeObject(resultFile);
         out.writeObject(permutation);
@@ -156,6 +157,7 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
           logger.log(TreeLogger.ERROR, "Error from external worker", t);
           throw new UnableToCompleteException();
         }
+        return System.currentTimeMillis() - startMs;
       } catch (IOException e) {
         logger.log(TreeLogger.WARN, "Lost communication with remote process", e);
         throw new TransientWorkerException(
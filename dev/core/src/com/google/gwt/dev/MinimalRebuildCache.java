@@ -28,6 +28,7 @@ import com.google.gwt.dev.jjs.ast.JTypeOracle.ImmediateTypeRelations;
 import com.google.gwt.dev.jjs.impl.RapidTypeAnalyzer;
 import com.google.gwt.dev.jjs.impl.ResolveRuntimeTypeReferences.IntTypeMapper;
 import com.google.gwt.dev.js.JsIncrementalNamer.JsIncrementalNamerState;
+import com.google.gwt.dev.js.JsNamer.JsNamerState;
 import com.google.gwt.dev.resource.Resource;
 import com.google.gwt.dev.util.Name.InternalName;
 import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
@@ -527,6 +528,15 @@ public class MinimalRebuildCache implements Serializable {
     return modifiedCompilationUnitNames;
   }
 
+  /**
+   * Returns the namer state to carry over to the next full (non per-file) compile, or null if
+   * identifiers should not be carried over. Per-file compiles use
+   * {@link #getPersistentPrettyNamerState} instead.
+   */
+  public JsNamerState getPersistentNamerState() {
+    return null;
+  }
+
   public JsIncrementalNamerState getPersistentPrettyNamerState() {
     return jsIncrementalNamerState;
   }
@@ -23,6 +23,7 @@ import com.google.gwt.dev.jjs.JsSourceMap;
 import com.google.gwt.dev.jjs.ast.JTypeOracle;
 import com.google.gwt.dev.jjs.impl.ResolveRuntimeTypeReferences.IntTypeMapper;
 import com.google.gwt.dev.js.JsIncrementalNamer.JsIncrementalNamerState;
+import com.google.gwt.dev.js.JsNamer.JsNamerState;
 
 import java.util.Collection;
 import java.util.Map;
@@ -36,6 +37,21 @@ public class NullRebuildCache extends MinimalRebuildCache {
   private static String failMessage =
       "The RebuildCache should not be interacted with outside of per-file compiles.";
 
+  private final JsNamerState namerState;
+
+  public NullRebuildCache() {
+    this(null);
+  }
+
+  /**
+   * Creates a cache that ignores everything but the given namer state, which full compiles reuse
+   * and update so that successive compiles (e.g. in Super Dev Mode) give symbols the same names.
+   * Must not be shared by concurrently compiled permutations.
+   */
+  public NullRebuildCache(JsNamerState namerState) {
+    this.namerState = namerState;
+  }
+
   @Override
   public void addGeneratedArtifacts(ArtifactSet generatedArtifacts) {
   }
@@ -115,6 +131,11 @@ public class NullRebuildCache extends MinimalRebuildCache {
     throw new UnsupportedOperationException(failMessage);
   }
 
+  @Override
+  public JsNamerState getPersistentNamerState() {
+    return namerState;
+  }
+
   @Override
   public JsIncrementalNamerState getPersistentPrettyNamerState() {
     throw new UnsupportedOperationException(failMessage);
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.util.tools.Utility;
+import com.google.gwt.util.tools.shared.Md5Utils;
+import com.google.gwt.util.tools.shared.StringUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Properties;
+
+/**
+ * Remembers how long each permutation of a module took to compile, so that the next compile of
+ * the module can start the most expensive permutations first and avoid leaving workers idle
+ * while a single slow permutation finishes.
+ * <p>
+ * Permutations are identified by their property bindings, which are stable across compiles, and
+ * the costs are stored in a properties file, by default in the system temp directory. The file is
+ * named after the module and the project's war directory, so that different projects compiling a
+ * module with the same name don't share costs.
+ */
+class PermutationCostHistory {
+
+  /**
+   * A Java system property that overrides the file used to store permutation costs.
+   */
+  public static final String COST_FILE_PROPERTY = "gwt.jjs.permutationCostFile";
+
+  private static final String COST_DIR_NAME = "gwt-permutationCosts";
+
+  /**
+   * Loads the costs recorded for the given module, if any.
+   *
+   * @param projectDir the directory identifying the project being compiled, usually the war
+   *     directory, or null to use the current directory
+   */
+  static PermutationCostHistory load(TreeLogger logger, String moduleName, File projectDir) {
+    String costFile = System.getProperty(COST_FILE_PROPERTY);
+    File file = costFile != null ? new File(costFile) : getDefaultFile(moduleName, projectDir);
+    PermutationCostHistory history = new PermutationCostHistory(file);
+    if (file.isFile()) {
+      InputStream in = null;
+      try {
+        in = new FileInputStream(file);
+        history.costs.load(in);
+      } catch (IOException e) {
+        logger.log(TreeLogger.DEBUG, "Ignoring unreadable permutation cost file " + file, e);
+        history.costs.clear();
+      } catch (IllegalArgumentException e) {
+        // A malformed escape sequence
+        logger.log(TreeLogger.DEBUG, "Ignoring unreadable permutation cost file " + file, e);
+        history.costs.clear();
+      } finally {
+        Utility.close(in);
+      }
+    }
+    return history;
+  }
+
+  @VisibleForTesting
+  static File getDefaultFile(String moduleName, File projectDir) {
+    if (projectDir == null) {
+      projectDir = new File(System.getProperty("user.dir"));
+    }
+    String projectPath;
+    try {
+      projectPath = projectDir.getCanonicalPath();
+    } catch (IOException e) {
+      projectPath = projectDir.getAbsolutePath();
+    }
+    String projectHash = StringUtils.toHexString(
+        Md5Utils.getMd5Digest(projectPath.getBytes(StandardCharsets.UTF_8)));
+    return new File(new File(System.getProperty("java.io.tmpdir"), COST_DIR_NAME),
+        moduleName + "-" + projectHash + ".properties");
+  }
+
+  @VisibleForTesting
+  static String getKey(Permutation permutation) {
+    return permutation.getProperties().prettyPrint();
+  }
+
+  private final Properties costs = new Properties();
+  private final File file;
+
+  @VisibleForTesting
+  PermutationCostHistory(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Returns how long the permutation took to compile last time, in milliseconds, or -1 if it has
+   * never been compiled.
+   */
+  synchronized long getCost(Permutation permutation) {
+    String cost = costs.getProperty(getKey(permutation));
+    if (cost == null) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(cost);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Returns an ordering that puts the permutations that took longest last time first.
+   * Permutations that have never been compiled come before all others, since they might be the
+   * slowest.
+   */
+  Comparator<Permutation> longestFirst() {
+    return new Comparator<Permutation>() {
+      @Override
+      public int compare(Permutation a, Permutation b) {
+        return Long.compare(estimateCost(b), estimateCost(a));
+      }
+
+      private long estimateCost(Permutation permutation) {
+        long cost = getCost(permutation);
+        return cost < 0 ? Long.MAX_VALUE : cost;
+      }
+    };
+  }
+
+  /**
+   * Records how long the permutation took to compile, in milliseconds.
+   */
+  synchronized void recordCost(Permutation permutation, long millis) {
+    costs.setProperty(getKey(permutation), String.valueOf(millis));
+  }
+
+  /**
+   * Writes the recorded costs back to disk. The costs are written to a temporary file that then
+   * replaces the cost file, so that concurrent compiles never see a partly written file. Failures
+   * are logged and otherwise ignored since the history only affects scheduling.
+   */
+  synchronized void save(TreeLogger logger) {
+    File dir = file.getAbsoluteFile().getParentFile();
+    if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+      logger.log(TreeLogger.DEBUG, "Can't create directory for permutation costs: " + dir);
+      return;
+    }
+    File tempFile = null;
+    OutputStream out = null;
+    try {
+      tempFile = File.createTempFile(file.getName(), ".tmp", dir);
+      out = new FileOutputStream(tempFile);
+      costs.store(out, "Permutation compile times in milliseconds");
+      out.close();
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      logger.log(TreeLogger.DEBUG, "Can't write permutation cost file " + file, e);
+    } finally {
+      Utility.close(out);
+      if (tempFile != null) {
+        tempFile.delete();
+      }
+    }
+  }
+}
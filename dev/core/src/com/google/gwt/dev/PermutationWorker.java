@@ -33,11 +33,13 @@ interface PermutationWorker {
    * method. The compiled PermutationResult will be returned via the
    * <code>resultFile</code> parameter.
    *
+   * @return how long compiling the permutation took, in milliseconds, not counting any time spent
+   *         waiting for resources shared with other workers
    * @throws TransientWorkerException if the Permutation should be tried again
    *           on another worker
    * @throws UnableToCompleteException if the compile fails for any reason
    */
-  void compile(TreeLogger logger, CompilerContext compilerContext, Permutation permutation,
+  long compile(TreeLogger logger, CompilerContext compilerContext, Permutation permutation,
       PersistenceBackedObject<PermutationResult> resultFile)
       throws TransientWorkerException, UnableToCompleteException;
 
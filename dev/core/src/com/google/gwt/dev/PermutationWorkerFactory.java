@@ -20,6 +20,7 @@ import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.jjs.PermutationResult;
 import com.google.gwt.dev.jjs.UnifiedAst;
 import com.google.gwt.dev.util.PersistenceBackedObject;
+import com.google.gwt.dev.util.arg.OptionWarDir;
 import com.google.gwt.dev.util.log.speedtracer.CompilerEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
@@ -28,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -71,8 +73,9 @@ public abstract class PermutationWorkerFactory {
             }
             TreeLogger logger = work.getLogger();
             try {
-              worker.compile(
+              long millis = worker.compile(
                   logger, work.getCompilerContext(), work.getPerm(), work.getResultFile());
+              costHistory.recordCost(work.getPerm(), millis);
               logger.log(TreeLogger.DEBUG, "Successfully compiled permutation");
               resultsQueue.put(Result.SUCCESS);
             } catch (TransientWorkerException e) {
@@ -102,10 +105,16 @@ public abstract class PermutationWorkerFactory {
     private static final Work POISON_PILL = new Work(null, null, null, null);
 
     public static void run(TreeLogger logger, List<Work> work,
-        List<PermutationWorker> workers) throws UnableToCompleteException {
-      new Manager().doRun(logger, work, workers);
+        List<PermutationWorker> workers, PermutationCostHistory costHistory)
+        throws UnableToCompleteException {
+      new Manager(costHistory).doRun(logger, work, workers);
     }
 
+    /**
+     * Records how long each permutation took.
+     */
+    private final PermutationCostHistory costHistory;
+
     /**
      * The queue of work to do.
      */
@@ -116,7 +125,8 @@ public abstract class PermutationWorkerFactory {
      */
     BlockingQueue<Result> resultsQueue;
 
-    private Manager() {
+    private Manager(PermutationCostHistory costHistory) {
+      this.costHistory = costHistory;
     }
 
     private void doRun(TreeLogger logger, List<Work> work,
@@ -248,13 +258,36 @@ public abstract class PermutationWorkerFactory {
       work.add(new Work(logger, compilerContext, perm, resultFiles.get(i)));
     }
 
+    /*
+     * Hand out the most expensive permutations first, so that the workers finish at about the
+     * same time. Permutations without a recorded cost go first since they might be the slowest.
+     */
+    PrecompileTaskOptions options = compilerContext.getOptions();
+    PermutationCostHistory costHistory = PermutationCostHistory.load(logger,
+        compilerContext.getModule().getCanonicalName(),
+        options instanceof OptionWarDir ? ((OptionWarDir) options).getWarDir() : null);
+    final Comparator<Permutation> longestFirst = costHistory.longestFirst();
+    Collections.sort(work, new Comparator<Work>() {
+      @Override
+      public int compare(Work a, Work b) {
+        return longestFirst.compare(a.getPerm(), b.getPerm());
+      }
+    });
+    if (logger.isLoggable(TreeLogger.DEBUG)) {
+      for (Work item : work) {
+        logger.log(TreeLogger.DEBUG, "Scheduling permutation " + item.getPerm().getId()
+            + " (last compile: " + costHistory.getCost(item.getPerm()) + "ms)");
+      }
+    }
+
     // Create the workers.
     List<PermutationWorker> workers = new ArrayList<PermutationWorker>();
     try {
       createWorkers(logger, precompilation.getUnifiedAst(), work.size(), localWorkers, workers);
 
       // Get it done!
-      Manager.run(logger, work, workers);
+      Manager.run(logger, work, workers, costHistory);
+      costHistory.save(logger);
     } finally {
       Throwable caught = null;
       for (PermutationWorker worker : workers) {
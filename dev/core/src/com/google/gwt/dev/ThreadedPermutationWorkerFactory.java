@@ -20,11 +20,13 @@ import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.jjs.PermutationResult;
 import com.google.gwt.dev.jjs.UnifiedAst;
 import com.google.gwt.dev.util.PersistenceBackedObject;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
 /**
  * Create a single in-process PermutationWorker. This WorkerFactory is intended
@@ -35,20 +37,34 @@ public class ThreadedPermutationWorkerFactory extends PermutationWorkerFactory {
 
   private static class ThreadedPermutationWorker implements PermutationWorker {
     private final UnifiedAst ast;
+    private final Semaphore heapBudget;
     private final int id;
 
-    public ThreadedPermutationWorker(UnifiedAst ast, int id) {
+    public ThreadedPermutationWorker(UnifiedAst ast, int id, Semaphore heapBudget) {
       this.ast = ast;
       this.id = id;
+      this.heapBudget = heapBudget;
     }
 
     @Override
-    public void compile(TreeLogger logger, CompilerContext compilerContext, Permutation permutation,
+    public long compile(TreeLogger logger, CompilerContext compilerContext, Permutation permutation,
         PersistenceBackedObject<PermutationResult> resultFile)
         throws TransientWorkerException, UnableToCompleteException {
+      if (heapBudget != null) {
+        try {
+          heapBudget.acquire();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          logger.log(TreeLogger.ERROR, "Interrupted while waiting for heap budget", e);
+          throw new UnableToCompleteException();
+        }
+      }
       try {
+        // Only count the compile itself, not the wait for the heap budget.
+        long startMs = System.currentTimeMillis();
         PermutationResult result = CompilePerms.compile(logger, compilerContext, permutation, ast);
         resultFile.set(logger, result);
+        return System.currentTimeMillis() - startMs;
       } catch (OutOfMemoryError e) {
         logger.log(TreeLogger.ERROR,
             "OutOfMemoryError: Increase heap size or lower "
@@ -58,6 +74,10 @@ public class ThreadedPermutationWorkerFactory extends PermutationWorkerFactory {
         logger.log(TreeLogger.ERROR, "StackOverflowError: Increase stack size",
             e);
         throw new UnableToCompleteException();
+      } finally {
+        if (heapBudget != null) {
+          heapBudget.release();
+        }
       }
     }
 
@@ -78,6 +98,14 @@ public class ThreadedPermutationWorkerFactory extends PermutationWorkerFactory {
    */
   public static final String MAX_THREADS_PROPERTY = "gwt.jjs.maxThreads";
 
+  /**
+   * A Java system property giving the heap, in megabytes, that a single permutation compile is
+   * expected to need. When set, the in-process workers share the maximum heap of the JVM as a
+   * budget and a worker only starts a permutation once its share is available, so that
+   * {@link #MAX_THREADS_PROPERTY} can be raised without running out of memory.
+   */
+  public static final String HEAP_PER_PERMUTATION_PROPERTY = "gwt.jjs.permutationHeapMb";
+
   @Override
   public Collection<PermutationWorker> getWorkers(TreeLogger logger,
       UnifiedAst unifiedAst, int numWorkers) throws UnableToCompleteException {
@@ -90,15 +118,38 @@ public class ThreadedPermutationWorkerFactory extends PermutationWorkerFactory {
       return Collections.emptyList();
     }
 
+    Semaphore heapBudget = createHeapBudget(logger, numWorkers,
+        Runtime.getRuntime().maxMemory() / (1024 * 1024),
+        Integer.getInteger(HEAP_PER_PERMUTATION_PROPERTY, 0));
+
     // The worker will deserialize a new copy
     List<PermutationWorker> toReturn = new ArrayList<PermutationWorker>(
         numWorkers);
     for (int i = 0; i < numWorkers; i++) {
-      toReturn.add(new ThreadedPermutationWorker(unifiedAst, i));
+      toReturn.add(new ThreadedPermutationWorker(unifiedAst, i, heapBudget));
     }
     return toReturn;
   }
 
+  /**
+   * Returns a semaphore limiting the number of permutations compiled at once to what fits in the
+   * heap, or null if there is no need for one.
+   */
+  @VisibleForTesting
+  static Semaphore createHeapBudget(TreeLogger logger, int numWorkers, long maxHeapMb,
+      int heapPerPermutationMb) {
+    if (heapPerPermutationMb <= 0) {
+      return null;
+    }
+    int concurrentPermutations = (int) Math.max(1, maxHeapMb / heapPerPermutationMb);
+    if (concurrentPermutations >= numWorkers) {
+      return null;
+    }
+    logger.log(TreeLogger.DEBUG, "Compiling at most " + concurrentPermutations
+        + " permutations at once within " + maxHeapMb + "MB of heap");
+    return new Semaphore(concurrentPermutations, true);
+  }
+
   @Override
   public boolean isLocal() {
     return true;
@@ -31,15 +31,17 @@ import java.io.File;
 import java.io.Reader;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * The top-level API for loading module XML.
  */
 public class ModuleDefLoader {
   /*
-   * TODO(scottb,tobyr,zundel): synchronization????
+   * The caches below may be used by several compiles at the same time (for example, by a code
+   * server that recompiles different modules concurrently), so they are concurrent maps. Loading
+   * the same module from two threads at once is still not supported.
    */
 
   /**
@@ -52,14 +54,14 @@ public class ModuleDefLoader {
    * tight. The current context class loader used as a key for modules cache.
    * The module's physical name is used as a key inside the cache.
    */
-  private static final Map<ClassLoader, Map<String, ModuleDef>> loadedModulesCaches =
+  private static final ConcurrentMap<ClassLoader, Map<String, ModuleDef>> loadedModulesCaches =
       new MapMaker().weakKeys().makeMap();
 
   /**
    * A mapping from effective to physical module names.
    */
   private static final Map<String, String> moduleEffectiveNameToPhysicalName =
-    new HashMap<String, String>();
+    Maps.newConcurrentMap();
 
   public static void clearModuleCache() {
     getModulesCache().clear();
@@ -212,8 +214,11 @@ public class ModuleDefLoader {
     ClassLoader keyClassLoader = Thread.currentThread().getContextClassLoader();
     Map<String, ModuleDef> cache = loadedModulesCaches.get(keyClassLoader);
     if (cache == null) {
-      cache = Maps.newHashMap();
-      loadedModulesCaches.put(keyClassLoader, cache);
+      Map<String, ModuleDef> newCache = Maps.newConcurrentMap();
+      cache = loadedModulesCaches.putIfAbsent(keyClassLoader, newCache);
+      if (cache == null) {
+        cache = newCache;
+      }
     }
     return cache;
   }
@@ -58,7 +58,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -66,6 +71,15 @@ import java.util.concurrent.TimeUnit;
  */
 public class CompilationStateBuilder {
 
+  /**
+   * Returns the number of threads that turn the units compiled by JDT into CompilationUnits
+   * (serializing their ASTs and hashing their bytecode) while JDT carries on compiling.
+   */
+  static int getBuilderThreads() {
+    return Math.max(1, Integer.getInteger("gwt.javac.builderThreads",
+        Math.min(4, Runtime.getRuntime().availableProcessors() - 1)));
+  }
+
   /**
    * An opaque class that lets you compile more units later.
    */
@@ -174,7 +188,7 @@ public class CompilationStateBuilder {
               .setClasses(compiledClasses)
               .setProblems(cud.compilationResult().getProblems());
 
-          buildQueue.add(builder);
+          submitBuild(builder);
         } finally {
           event.end();
         }
@@ -188,7 +202,19 @@ public class CompilationStateBuilder {
      */
     private final Map<String, CompiledClass> allValidClasses = Maps.newHashMap();
 
-    private transient LinkedBlockingQueue<CompilationUnitBuilder> buildQueue;
+    /**
+     * The CompilationUnits being built during compile(), in the order JDT compiled them.
+     */
+    private transient List<Future<CompilationUnit>> builtUnits;
+
+    /**
+     * Builds the CompilationUnits during compile().
+     */
+    private transient ExecutorService buildExecutor;
+
+    private transient ProgressLogger progressLogger;
+
+    private transient int processedBuilders; // guarded by progressLogger
 
     /**
      * The JDT compiler.
@@ -280,66 +306,50 @@ public class CompilationStateBuilder {
       do {
         final TreeLogger branch = logger.branch(TreeLogger.TRACE, "Compiling...");
         // Compile anything that needs to be compiled.
-        buildQueue = new LinkedBlockingQueue<CompilationUnitBuilder>();
-        final List<CompilationUnit> newlyBuiltUnits = Lists.newArrayList();
-        final CompilationUnitBuilder sentinel = CompilationUnitBuilder.create((GeneratedUnit) null);
-        final Throwable[] workerException = new Throwable[1];
-        final ProgressLogger progressLogger =
-            new ProgressLogger(branch, TreeLogger.TRACE, builders.size(), 10);
-        Thread buildThread = new Thread() {
+        List<CompilationUnit> newlyBuiltUnits = Lists.newArrayList();
+        builtUnits = Lists.newArrayList();
+        buildExecutor = Executors.newFixedThreadPool(getBuilderThreads(), new ThreadFactory() {
+          private int count;
+
           @Override
-          public void run() {
-            int processedCompilationUnitBuilders = 0;
-            try {
-              do {
-                CompilationUnitBuilder builder = buildQueue.take();
-                if (!progressLogger.isTimerStarted()) {
-                  // Set start time here, after first job has arrived, since it can take a little
-                  // while for the first job to arrive, and this helps with the accuracy of the
-                  // estimated times.
-                  progressLogger.startTimer();
-                }
-                if (builder == sentinel) {
-                  return;
-                }
-                // Expensive, must serialize GWT AST types to bytes.
-                CompilationUnit unit = builder.build();
-                newlyBuiltUnits.add(unit);
-
-                processedCompilationUnitBuilders++;
-                progressLogger.updateProgress(processedCompilationUnitBuilders);
-              } while (true);
-            } catch (Throwable e) {
-              workerException[0] = e;
-            }
+          public synchronized Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "CompilationUnitBuilder-" + count++);
+            thread.setDaemon(true);
+            return thread;
           }
-        };
-        buildThread.setName("CompilationUnitBuilder");
-        buildThread.start();
+        });
+        progressLogger = new ProgressLogger(branch, TreeLogger.TRACE, builders.size(), 10);
+        processedBuilders = 0;
         Event jdtCompilerEvent = SpeedTracerLogger.start(eventType);
         long compilationStartNanos = System.nanoTime();
         try {
-          compiler.doCompile(branch, builders);
-        } finally {
-          jdtCompilerEvent.end();
-        }
-        buildQueue.add(sentinel);
-        try {
-          buildThread.join();
+          try {
+            compiler.doCompile(branch, builders);
+          } finally {
+            jdtCompilerEvent.end();
+          }
+          // Collect the units in the order JDT compiled them, however the builders finished.
+          for (Future<CompilationUnit> builtUnit : builtUnits) {
+            newlyBuiltUnits.add(builtUnit.get());
+          }
           long compilationNanos = System.nanoTime() - compilationStartNanos;
           // Convert nanos to seconds.
           double compilationSeconds = compilationNanos / (double) TimeUnit.SECONDS.toNanos(1);
           branch.log(TreeLogger.TRACE,
               String.format("Compilation completed in %.02f seconds", compilationSeconds));
-          if (workerException[0] != null) {
-            throw workerException[0];
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
           }
-        } catch (RuntimeException e) {
-          throw e;
-        } catch (Throwable e) {
+          throw new RuntimeException("Exception processing units", e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
           throw new RuntimeException("Exception processing units", e);
         } finally {
-          buildQueue = null;
+          buildExecutor.shutdownNow();
+          buildExecutor = null;
+          builtUnits = null;
+          progressLogger = null;
         }
         resultUnits.addAll(newlyBuiltUnits);
         builders.clear();
@@ -446,6 +456,36 @@ public class CompilationStateBuilder {
         }
       }
     }
+
+    /**
+     * Starts building a unit that JDT has compiled on one of the builder threads.
+     */
+    private void submitBuild(final CompilationUnitBuilder builder) {
+      synchronized (progressLogger) {
+        if (!progressLogger.isTimerStarted()) {
+          // Set start time here, after first job has arrived, since it can take a little while
+          // for the first job to arrive, and this helps with the accuracy of the estimated times.
+          progressLogger.startTimer();
+        }
+      }
+      final ProgressLogger progress = progressLogger;
+      builtUnits.add(buildExecutor.submit(new Callable<CompilationUnit>() {
+        @Override
+        public CompilationUnit call() {
+          // Expensive, must serialize GWT AST types to bytes.
+          CompilationUnit unit = builder.build();
+          // Also expensive; hash the bytecode here rather than one unit at a time when
+          // dependencies get resolved.
+          for (CompiledClass cc : unit.getCompiledClasses()) {
+            cc.getSignatureHash();
+          }
+          synchronized (progress) {
+            progress.updateProgress(++processedBuilders);
+          }
+          return unit;
+        }
+      }));
+    }
   }
 
   private static final CompilationStateBuilder instance = new CompilationStateBuilder();
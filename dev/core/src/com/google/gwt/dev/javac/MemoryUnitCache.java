@@ -26,6 +26,8 @@ import java.util.Map;
  *
  * Only one unit is cached per resource path. If the contentId of the unit
  * changes, the old unit is discarded and replaced with the new unit.
+ *
+ * This class is thread-safe, since compiles of different modules may share it.
  */
 public class MemoryUnitCache implements UnitCache {
   /**
@@ -40,10 +42,22 @@ public class MemoryUnitCache implements UnitCache {
       this.origin = source;
     }
 
+    public ContentId getContentId() {
+      return unit.getContentId();
+    }
+
+    public long getLastModified() {
+      return unit.getLastModified();
+    }
+
     public UnitOrigin getOrigin() {
       return origin;
     }
 
+    public String getResourcePath() {
+      return unit.getResourcePath();
+    }
+
     public CompilationUnit getUnit() {
       return unit;
     }
@@ -84,12 +98,12 @@ public class MemoryUnitCache implements UnitCache {
    * Adds a new entry into the cache.
    */
   @Override
-  public void add(CompilationUnit newUnit) {
+  public synchronized void add(CompilationUnit newUnit) {
     UnitCacheEntry newEntry = new UnitCacheEntry(newUnit, UnitOrigin.RUN_TIME);
     String resourcePath = newUnit.getResourcePath();
     UnitCacheEntry oldEntry = unitMap.get(resourcePath);
     if (oldEntry != null) {
-      remove(oldEntry.getUnit());
+      unitMapByContentId.remove(oldEntry.getContentId());
     }
     unitMap.put(resourcePath, newEntry);
     unitMapByContentId.put(newUnit.getContentId(), newEntry);
@@ -104,13 +118,13 @@ public class MemoryUnitCache implements UnitCache {
   }
 
   @Override
-  public void clear() throws UnableToCompleteException {
+  public synchronized void clear() throws UnableToCompleteException {
     unitMap.clear();
     unitMapByContentId.clear();
   }
 
   @Override
-  public CompilationUnit find(ContentId contentId) {
+  public synchronized CompilationUnit find(ContentId contentId) {
     UnitCacheEntry entry = unitMapByContentId.get(contentId);
     if (entry != null) {
       return entry.getUnit();
@@ -119,7 +133,7 @@ public class MemoryUnitCache implements UnitCache {
   }
 
   @Override
-  public CompilationUnit find(String resourcePath) {
+  public synchronized CompilationUnit find(String resourcePath) {
     UnitCacheEntry entry = unitMap.get(resourcePath);
     if (entry != null) {
       return entry.getUnit();
@@ -128,7 +142,7 @@ public class MemoryUnitCache implements UnitCache {
   }
 
   @Override
-  public void remove(CompilationUnit unit) {
+  public synchronized void remove(CompilationUnit unit) {
     unitMap.remove(unit.getResourcePath());
     unitMapByContentId.remove(unit.getContentId());
   }
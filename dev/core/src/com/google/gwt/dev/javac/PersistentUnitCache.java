@@ -18,12 +18,14 @@ package com.google.gwt.dev.javac;
 import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.core.ext.TreeLogger.Type;
 import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.javac.PersistentUnitCacheDir.StoredUnit;
 import com.google.gwt.dev.jjs.InternalCompilerException;
 import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
 import com.google.gwt.thirdparty.guava.common.base.Preconditions;
 import com.google.gwt.thirdparty.guava.common.collect.Lists;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -46,10 +48,12 @@ import java.util.concurrent.atomic.AtomicInteger;
  * intended to support only a single PersistentUnitCache instance in the
  * compiler at a time.
  * <p>
- * As new units are compiled, the cache data is appended to a log. This allows
- * Java serialization to efficiently store references. The next time the cache
- * is started, all logs are replayed and loaded into the cache in chronological
- * order, with newer units taking precedence. A new cache file is created for
+ * As new units are compiled, the cache data is appended to a log. The next time
+ * the cache is started, the index of every log is read in chronological order,
+ * with newer units taking precedence. Units are left serialized in the log
+ * and only read and deserialized the first time they are found, so startup
+ * cost is proportional to the number of cached units actually used rather than
+ * to the size of the cache. A new cache file is created for
  * any newly compiled units in this session. After a threshold of a certain
  * number of files in the directory is reached
  * {@link PersistentUnitCache#CACHE_FILE_THRESHOLD} , the cache files are
@@ -68,10 +72,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Known Issues:
  *
  * <ul>
- * <li>This design uses an eager cache to load every unit in the cache on the
- * first reference to find() or add(). When the cache is large (10000 units), it
- * uses lots of heap and takes 5-10 seconds. Once the PersistentUnitCache is
- * created, it starts eagerly loading the cache in a background thread).</li>
+ * <li>The index of every log is read on the first reference to find() or
+ * add(). (Once the PersistentUnitCache is created, it starts loading the index
+ * in a background thread.) Logs written by older versions as plain object
+ * streams have no index and are still deserialized eagerly.</li>
  *
  * <li>Although units logged to disk with the same resource path are eventually
  * cleaned up, the most recently compiled unit stays in the cache forever. This
@@ -85,6 +89,59 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 class PersistentUnitCache extends MemoryUnitCache {
 
+  /**
+   * An entry for a unit that is still serialized in a cache file. The unit is deserialized when
+   * first requested.
+   */
+  private static class StoredUnitCacheEntry extends UnitCacheEntry {
+    private final StoredUnit storedUnit;
+    private CompilationUnit unit;
+
+    private StoredUnitCacheEntry(StoredUnit storedUnit) {
+      super(null, UnitOrigin.PERSISTENT);
+      this.storedUnit = storedUnit;
+    }
+
+    @Override
+    public ContentId getContentId() {
+      return storedUnit.getContentId();
+    }
+
+    @Override
+    public long getLastModified() {
+      return storedUnit.getLastModified();
+    }
+
+    @Override
+    public String getResourcePath() {
+      return storedUnit.getResourcePath();
+    }
+
+    /**
+     * Returns the unit if it has already been deserialized, null otherwise.
+     */
+    @Override
+    public synchronized CompilationUnit getUnit() {
+      return unit;
+    }
+
+    /**
+     * Returns the unit, deserializing it if needed, or null if it could not be read.
+     */
+    synchronized CompilationUnit load(TreeLogger logger) {
+      if (unit == null) {
+        try {
+          unit = storedUnit.load();
+        } catch (IOException e) {
+          logger.log(TreeLogger.TRACE, "Can't read cached unit " + getResourcePath(), e);
+        } catch (ClassNotFoundException e) {
+          logger.log(TreeLogger.TRACE, "Can't deserialize cached unit " + getResourcePath(), e);
+        }
+      }
+      return unit;
+    }
+  }
+
   /**
    * If there are more than this many files in the cache, clean up the old
    * files.
@@ -98,11 +155,13 @@ class PersistentUnitCache extends MemoryUnitCache {
   private final BackgroundService backgroundService;
 
   private Semaphore cleanupInProgress = new Semaphore(1);
+  private final TreeLogger logger;
   private AtomicInteger newUnitsSinceLastCleanup = new AtomicInteger();
   private final String relevantOptionsHash;
 
   PersistentUnitCache(final TreeLogger logger, File parentDir, String relevantOptionsHash)
       throws UnableToCompleteException {
+    this.logger = logger;
     this.relevantOptionsHash = relevantOptionsHash;
     this.backgroundService = new BackgroundService(logger, parentDir, this);
   }
@@ -174,7 +233,7 @@ class PersistentUnitCache extends MemoryUnitCache {
     }
 
     logger.log(Type.TRACE, "Compacting persistent unit cache files");
-    backgroundService.asyncCompact(getUnitsToSaveToDisk(), cleanupInProgress);
+    backgroundService.asyncCompact(getEntriesToSaveToDisk(), cleanupInProgress);
   }
 
   /**
@@ -197,7 +256,7 @@ class PersistentUnitCache extends MemoryUnitCache {
   public CompilationUnit find(ContentId contentId) {
     backgroundService.waitForCacheToLoad();
     synchronized (this) {
-      return super.find(contentId);
+      return load(unitMapByContentId.get(contentId));
     }
   }
 
@@ -205,7 +264,7 @@ class PersistentUnitCache extends MemoryUnitCache {
   public CompilationUnit find(String resourcePath) {
     backgroundService.waitForCacheToLoad();
     synchronized (this) {
-      return super.find(resourcePath);
+      return load(unitMap.get(resourcePath));
     }
   }
 
@@ -227,29 +286,58 @@ class PersistentUnitCache extends MemoryUnitCache {
    * (Callback from {@link PersistentUnitCacheDir}.)
    */
   synchronized void maybeAddLoadedUnit(CachedCompilationUnit unit) {
-    UnitCacheEntry entry = new UnitCacheEntry(unit, UnitOrigin.PERSISTENT);
-    UnitCacheEntry existingEntry = unitMap.get(unit.getResourcePath());
+    maybeAddLoadedEntry(new UnitCacheEntry(unit, UnitOrigin.PERSISTENT));
+  }
+
+  /**
+   * Adds a compilation unit that is still serialized on disk into the in-memory cache.
+   * (Callback from {@link PersistentUnitCacheDir}.)
+   */
+  synchronized void maybeAddStoredUnit(StoredUnit unit) {
+    maybeAddLoadedEntry(new StoredUnitCacheEntry(unit));
+  }
+
+  private void maybeAddLoadedEntry(UnitCacheEntry entry) {
+    UnitCacheEntry existingEntry = unitMap.get(entry.getResourcePath());
     /*
      * Don't assume that an existing entry is stale - an entry might have been loaded already from
      * another source that is more up to date. If the timestamps are the same, accept the latest
      * version. If it turns out to be stale, it will be recompiled and the updated unit will win
      * this test the next time the session starts.
      */
-    if (existingEntry != null
-        && unit.getLastModified() >= existingEntry.getUnit().getLastModified()) {
-      super.remove(existingEntry.getUnit());
-      unitMap.put(unit.getResourcePath(), entry);
-      unitMapByContentId.put(unit.getContentId(), entry);
+    if (existingEntry != null && entry.getLastModified() >= existingEntry.getLastModified()) {
+      unitMapByContentId.remove(existingEntry.getContentId());
+      unitMap.put(entry.getResourcePath(), entry);
+      unitMapByContentId.put(entry.getContentId(), entry);
     } else if (existingEntry == null) {
-      unitMap.put(unit.getResourcePath(), entry);
-      unitMapByContentId.put(unit.getContentId(), entry);
+      unitMap.put(entry.getResourcePath(), entry);
+      unitMapByContentId.put(entry.getContentId(), entry);
     }
   }
 
-  private synchronized List<CompilationUnit> getUnitsToSaveToDisk() {
-    List<CompilationUnit> result = Lists.newArrayList();
+  /**
+   * Returns the unit for an entry, deserializing it if needed. Entries whose unit can't be read
+   * are dropped, so the unit gets recompiled.
+   */
+  private CompilationUnit load(UnitCacheEntry entry) {
+    if (entry == null) {
+      return null;
+    }
+    if (!(entry instanceof StoredUnitCacheEntry)) {
+      return entry.getUnit();
+    }
+    CompilationUnit unit = ((StoredUnitCacheEntry) entry).load(logger);
+    if (unit == null) {
+      unitMap.remove(entry.getResourcePath());
+      unitMapByContentId.remove(entry.getContentId());
+    }
+    return unit;
+  }
+
+  private synchronized List<UnitCacheEntry> getEntriesToSaveToDisk() {
+    List<UnitCacheEntry> result = Lists.newArrayList();
     for (UnitCacheEntry entry : unitMap.values()) {
-      result.add(Preconditions.checkNotNull(entry.getUnit()));
+      result.add(Preconditions.checkNotNull(entry));
     }
     return result;
   }
@@ -398,20 +486,27 @@ class PersistentUnitCache extends MemoryUnitCache {
     /**
      * Compacts the persistent unit cache and then rotates to a new file.
      * There will be one closed file and one empty, open file when done.
-     * @param unitsToSave all compilation units to keep
+     * Units that were never deserialized are copied as is.
+     * @param entriesToSave all cache entries to keep
      * @param cleanupInProgress a semaphore to release when done.
      * (The permit must already be acquired.)
      */
-    Future<?> asyncCompact(final List<CompilationUnit> unitsToSave,
+    Future<?> asyncCompact(final List<UnitCacheEntry> entriesToSave,
         final Semaphore cleanupInProgress) {
 
       return service.submit(new Runnable() {
         @Override
         public void run() {
           try {
-            for (CompilationUnit unit : unitsToSave) {
-              cacheDir.writeUnit(unit);
+            for (UnitCacheEntry entry : entriesToSave) {
+              if (entry instanceof StoredUnitCacheEntry) {
+                cacheDir.writeUnit(((StoredUnitCacheEntry) entry).storedUnit);
+              } else {
+                cacheDir.writeUnit(entry.getUnit());
+              }
             }
+            // Stop reading units from the files that are about to be deleted.
+            cacheDir.moveCopiedUnits();
             cacheDir.deleteClosedCacheFiles();
             cacheDir.rotate(); // Move to a new, empty file.
           } catch (UnableToCompleteException e) {
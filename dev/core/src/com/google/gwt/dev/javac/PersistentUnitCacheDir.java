@@ -26,10 +26,17 @@ import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
 import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
 import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+import com.google.gwt.thirdparty.guava.common.io.ByteStreams;
+import com.google.gwt.thirdparty.guava.common.io.CountingInputStream;
 import com.google.gwt.util.tools.Utility;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
@@ -37,18 +44,125 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The directory containing persistent unit cache files.
  * (Helper class for {@link PersistentUnitCache}.)
+ * <p>
+ * Cache files are written in an indexed format: a header ({@link #INDEXED_FORMAT_MAGIC}) followed
+ * by one record per unit, made of the unit's resource path, {@link ContentId}, last modified time
+ * and AST version followed by the length-prefixed serialized unit. Loading a file only reads the
+ * record headers; each unit is read from the file and deserialized the first time it's requested.
+ * Each cache file has one read-only handle, shared by its units and opened on the first read; it's
+ * closed before the file is deleted.
+ * Files written as a plain object stream by older versions are still loaded eagerly.
  */
 class PersistentUnitCacheDir {
 
+  /**
+   * The read-only handle shared by the units stored in one cache file.
+   */
+  private static class CacheFileReader {
+    private final File file;
+    // Opened on the first read. Guarded by this.
+    private RandomAccessFile input;
+
+    private CacheFileReader(File file) {
+      this.file = file;
+    }
+
+    synchronized void close() {
+      Utility.close(input);
+      input = null;
+    }
+
+    synchronized byte[] read(long offset, int length) throws IOException {
+      if (input == null) {
+        input = new RandomAccessFile(file, "r");
+      }
+      byte[] bytes = new byte[length];
+      input.seek(offset);
+      input.readFully(bytes);
+      return bytes;
+    }
+  }
+
+  /**
+   * A compilation unit stored in an indexed cache file, deserialized on demand.
+   */
+  static class StoredUnit {
+    private final ContentId contentId;
+    private final long lastModified;
+    private final int length;
+    private final String resourcePath;
+    // Where the serialized unit is; moved by compaction. Guarded by this.
+    private CacheFileReader reader;
+    private long offset;
+
+    private StoredUnit(String resourcePath, ContentId contentId, long lastModified,
+        CacheFileReader reader, long offset, int length) {
+      this.resourcePath = resourcePath;
+      this.contentId = contentId;
+      this.lastModified = lastModified;
+      this.reader = reader;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    ContentId getContentId() {
+      return contentId;
+    }
+
+    long getLastModified() {
+      return lastModified;
+    }
+
+    String getResourcePath() {
+      return resourcePath;
+    }
+
+    /**
+     * Reads the unit from its cache file and deserializes it.
+     */
+    CachedCompilationUnit load() throws IOException, ClassNotFoundException {
+      ObjectInputStream inputStream =
+          new StringInterningObjectInputStream(new ByteArrayInputStream(readPayload()));
+      try {
+        return (CachedCompilationUnit) inputStream.readObject();
+      } finally {
+        Utility.close(inputStream);
+      }
+    }
+
+    /**
+     * Points this unit at a copy of its serialized form in another cache file.
+     */
+    synchronized void moveTo(CacheFileReader reader, long offset) {
+      this.reader = reader;
+      this.offset = offset;
+    }
+
+    /**
+     * Returns the serialized unit.
+     */
+    synchronized byte[] readPayload() throws IOException {
+      return reader.read(offset, length);
+    }
+  }
+
   private static final String DIRECTORY_NAME = "gwt-unitCache";
   private static final String CACHE_FILE_PREFIX = "gwt-unitCache-";
 
+  /**
+   * The first bytes of a cache file written in the indexed format. (Object streams start with
+   * 0xACED, so the two formats can't be confused.)
+   */
+  private static final int INDEXED_FORMAT_MAGIC = 0x47554331;
+
   static final String CURRENT_VERSION_CACHE_FILE_PREFIX =
       CACHE_FILE_PREFIX + CompilerVersion.getHash();
 
@@ -59,6 +173,9 @@ class PersistentUnitCacheDir {
   // Non-null when a a cache file is open for writing. (Always true in normal operation.)
   private OpenFile openFile;
 
+  // The readers of cache files that have stored units.
+  private final Map<File, CacheFileReader> readers = Maps.newHashMap();
+
   /**
    * Finds the child directory where the cache files will be stored and opens a new cache
    * file for appending.
@@ -175,6 +292,10 @@ class PersistentUnitCacheDir {
     if (isOpen(cacheFile)) {
       return false;
     }
+    CacheFileReader reader = readers.remove(cacheFile);
+    if (reader != null) {
+      reader.close();
+    }
     logger.log(Type.TRACE, "Deleting file: " + cacheFile);
     boolean deleted = cacheFile.delete();
     if (!deleted) {
@@ -194,6 +315,28 @@ class PersistentUnitCacheDir {
     openFile.writeUnit(logger, unit);
   }
 
+  /**
+   * Copies a unit from an older cache file to the disk cache without deserializing it. The unit
+   * keeps reading from the older file until {@link #moveCopiedUnits()} is called.
+   */
+  synchronized void writeUnit(StoredUnit unit) throws UnableToCompleteException {
+    if (openFile == null) {
+      logger.log(Type.TRACE, "Skipped writing compilation unit to cache because no file is open");
+      return;
+    }
+    openFile.writeUnit(logger, unit);
+  }
+
+  /**
+   * Points the units copied by {@link #writeUnit(StoredUnit)} at their copies in the current file,
+   * so that the files they came from can be deleted.
+   */
+  synchronized void moveCopiedUnits() throws UnableToCompleteException {
+    if (openFile != null) {
+      openFile.moveCopiedUnits(logger, getReader(openFile.file));
+    }
+  }
+
   /**
    * Closes the file where cache entries are written.
    * (This should only be called at shutdown.)
@@ -203,6 +346,10 @@ class PersistentUnitCacheDir {
       openFile.close(logger);
       openFile = null;
     }
+    for (CacheFileReader reader : readers.values()) {
+      reader.close();
+    }
+    readers.clear();
   }
 
   @VisibleForTesting
@@ -210,6 +357,15 @@ class PersistentUnitCacheDir {
     return new File(parentDir, DIRECTORY_NAME);
   }
 
+  private CacheFileReader getReader(File cacheFile) {
+    CacheFileReader reader = readers.get(cacheFile);
+    if (reader == null) {
+      reader = new CacheFileReader(cacheFile);
+      readers.put(cacheFile, reader);
+    }
+    return reader;
+  }
+
   private boolean isOpen(File f) {
     return openFile != null && openFile.file.equals(f);
   }
@@ -219,6 +375,87 @@ class PersistentUnitCacheDir {
    * Delete it if unable to read it.
    */
   private void loadOrDeleteCacheFile(File cacheFile, PersistentUnitCache destination) {
+    DataInputStream inputStream = null;
+    int magic = 0;
+    try {
+      inputStream = new DataInputStream(new FileInputStream(cacheFile));
+      magic = inputStream.readInt();
+    } catch (IOException e) {
+      // Too short to be either format; the object stream reader deals with it below.
+    } finally {
+      Utility.close(inputStream);
+    }
+
+    if (magic == INDEXED_FORMAT_MAGIC) {
+      loadOrDeleteIndexedCacheFile(cacheFile, destination);
+    } else {
+      loadOrDeleteSerializedCacheFile(cacheFile, destination);
+    }
+  }
+
+  /**
+   * Reads the record headers of an indexed cache file and hands the (still serialized) units to
+   * the given cache. If the file ends with a partly written record, as when the process writing it
+   * was killed, the complete records are still used.
+   */
+  private void loadOrDeleteIndexedCacheFile(File cacheFile, PersistentUnitCache destination) {
+    List<StoredUnit> units = Lists.newArrayList();
+    CacheFileReader reader = new CacheFileReader(cacheFile);
+    CountingInputStream countingStream = null;
+    int staleUnits = 0;
+    try {
+      long fileLength = cacheFile.length();
+      countingStream =
+          new CountingInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+      DataInputStream inputStream = new DataInputStream(countingStream);
+      inputStream.readInt(); // magic
+
+      while (countingStream.getCount() < fileLength) {
+        String resourcePath = inputStream.readUTF();
+        String sourceTypeName = inputStream.readUTF();
+        String strongHash = inputStream.readUTF();
+        long lastModified = inputStream.readLong();
+        long astVersion = inputStream.readLong();
+        int length = inputStream.readInt();
+        long offset = countingStream.getCount();
+        if (length < 0 || offset + length > fileLength) {
+          throw new EOFException("Truncated cache entry for " + resourcePath);
+        }
+        ByteStreams.skipFully(countingStream, length);
+        if (astVersion != GwtAstBuilder.getSerializationVersion()) {
+          staleUnits++;
+          continue;
+        }
+        units.add(new StoredUnit(resourcePath, new ContentId(sourceTypeName, strongHash),
+            lastModified, reader, offset, length));
+      }
+    } catch (IOException e) {
+      if (units.isEmpty() && staleUnits == 0) {
+        logger.log(TreeLogger.TRACE, "Ignoring and deleting cache log "
+            + cacheFile.getAbsolutePath() + " due to read error.", e);
+        Utility.close(countingStream);
+        deleteUnlessOpen(cacheFile);
+        return;
+      }
+      // Keep the complete records; compaction will write them to a new file.
+      logger.log(TreeLogger.TRACE, "Ignoring the end of cache log " + cacheFile.getAbsolutePath()
+          + " due to read error.", e);
+    } finally {
+      Utility.close(countingStream);
+    }
+
+    readers.put(cacheFile, reader);
+    for (StoredUnit unit : units) {
+      destination.maybeAddStoredUnit(unit);
+    }
+    logger.log(TreeLogger.TRACE, "Indexed " + units.size() + " units (skipped " + staleUnits
+        + " stale units) from cache file: " + cacheFile.getName());
+  }
+
+  /**
+   * Loads all the units in a cache file written as an object stream into the given cache.
+   */
+  private void loadOrDeleteSerializedCacheFile(File cacheFile, PersistentUnitCache destination) {
     FileInputStream fis = null;
     BufferedInputStream bis = null;
     ObjectInputStream inputStream = null;
@@ -344,8 +581,10 @@ class PersistentUnitCacheDir {
    */
   private static class OpenFile {
     private final File file;
-    private final ObjectOutputStream stream;
+    private final DataOutputStream stream;
     private int unitsWritten = 0;
+    // Units copied from older files, and where their copies start in this file.
+    private final Map<StoredUnit, Long> copiedUnits = Maps.newLinkedHashMap();
 
     /**
      * Opens a file for writing compilation units.
@@ -355,7 +594,7 @@ class PersistentUnitCacheDir {
     OpenFile(TreeLogger logger, File toOpen)
         throws UnableToCompleteException {
       logger.log(Type.TRACE, "Opening cache file: " + toOpen);
-      ObjectOutputStream newStream = openObjectStream(logger, toOpen);
+      DataOutputStream newStream = openIndexedStream(logger, toOpen);
 
       this.file = toOpen;
       this.stream = newStream;
@@ -370,7 +609,36 @@ class PersistentUnitCacheDir {
     boolean writeUnit(TreeLogger logger, CompilationUnit unit)
         throws UnableToCompleteException {
       try {
-        stream.writeObject(unit);
+        CachedCompilationUnit cachedUnit = unit.asCachedCompilationUnit();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream objectStream = new ObjectOutputStream(bytes);
+        objectStream.writeObject(cachedUnit);
+        objectStream.close();
+
+        writeHeader(cachedUnit.getResourcePath(), cachedUnit.getContentId(),
+            cachedUnit.getLastModified(), cachedUnit.getTypesSerializedVersion(), bytes.size());
+        bytes.writeTo(stream);
+        unitsWritten++;
+        return true;
+      } catch (IOException e) {
+        logger.log(TreeLogger.ERROR, "Error saving compilation unit to cache file: " + file, e);
+        throw new UnableToCompleteException();
+      }
+    }
+
+    /**
+     * Copies an already serialized unit to the currently open file.
+     * @return true if written
+     * @throws UnableToCompleteException if the file was open but we can't append.
+     */
+    boolean writeUnit(TreeLogger logger, StoredUnit unit)
+        throws UnableToCompleteException {
+      try {
+        byte[] payload = unit.readPayload();
+        writeHeader(unit.getResourcePath(), unit.getContentId(), unit.getLastModified(),
+            GwtAstBuilder.getSerializationVersion(), payload.length);
+        copiedUnits.put(unit, (long) stream.size());
+        stream.write(payload);
         unitsWritten++;
         return true;
       } catch (IOException e) {
@@ -379,6 +647,25 @@ class PersistentUnitCacheDir {
       }
     }
 
+    /**
+     * Flushes the file and points the units copied into it at their copies, read with the
+     * given reader.
+     * @throws UnableToCompleteException if the file can't be written.
+     */
+    void moveCopiedUnits(TreeLogger logger, CacheFileReader reader)
+        throws UnableToCompleteException {
+      try {
+        stream.flush();
+      } catch (IOException e) {
+        logger.log(TreeLogger.ERROR, "Error saving compilation unit to cache file: " + file, e);
+        throw new UnableToCompleteException();
+      }
+      for (Map.Entry<StoredUnit, Long> entry : copiedUnits.entrySet()) {
+        entry.getKey().moveTo(reader, entry.getValue());
+      }
+      copiedUnits.clear();
+    }
+
     /**
      * Closes the current file and deletes it if it's empty. If no file is open, does nothing.
      */
@@ -398,13 +685,26 @@ class PersistentUnitCacheDir {
       }
     }
 
-    private static ObjectOutputStream openObjectStream(TreeLogger logger, File file)
+    private void writeHeader(String resourcePath, ContentId contentId, long lastModified,
+        long astVersion, int length) throws IOException {
+      String sourceTypeName = contentId.getSourceTypeName();
+      stream.writeUTF(resourcePath);
+      stream.writeUTF(sourceTypeName);
+      stream.writeUTF(contentId.get().substring(sourceTypeName.length() + 1));
+      stream.writeLong(lastModified);
+      stream.writeLong(astVersion);
+      stream.writeInt(length);
+    }
+
+    private static DataOutputStream openIndexedStream(TreeLogger logger, File file)
         throws UnableToCompleteException {
 
       FileOutputStream fstream = null;
       try {
         fstream = new FileOutputStream(file);
-        return new ObjectOutputStream(new BufferedOutputStream(fstream));
+        DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(fstream));
+        stream.writeInt(INDEXED_FORMAT_MAGIC);
+        return stream;
       } catch (IOException e) {
         logger.log(Type.ERROR, "Can't open persistent unit cache file", e);
         Utility.close(fstream);
@@ -1052,8 +1052,8 @@ public final class JavaToJavaScriptCompiler {
 
     Map<JsName, JsLiteral> internedLiteralByVariableName =
         maybeInternLiterals(JsLiteralInterner.INTERN_ALL);
-    FreshNameGenerator freshNameGenerator =
-        JsObfuscateNamer.exec(jsProgram, properties.getConfigurationProperties());
+    FreshNameGenerator freshNameGenerator = JsObfuscateNamer.exec(jsProgram,
+        properties.getConfigurationProperties(), getMinimalRebuildCache().getPersistentNamerState());
     if (options.shouldRemoveDuplicateFunctions()
         && JsStackEmulator.getStackMode(properties) == JsStackEmulator.StackMode.STRIP) {
       JsDuplicateFunctionRemover.exec(jsProgram, freshNameGenerator);
@@ -1072,7 +1072,8 @@ public final class JavaToJavaScriptCompiler {
     Map<JsName, JsLiteral> internedLiteralByVariableName =
         maybeInternLiterals(JsLiteralInterner.INTERN_ALL & ~JsLiteralInterner.INTERN_STRINGS);
 
-    JsPrettyNamer.exec(jsProgram, properties.getConfigurationProperties());
+    JsPrettyNamer.exec(jsProgram, properties.getConfigurationProperties(),
+        getMinimalRebuildCache().getPersistentNamerState());
     return internedLiteralByVariableName;
   }
 
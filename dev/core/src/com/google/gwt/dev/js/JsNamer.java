@@ -28,8 +28,13 @@ import com.google.gwt.dev.js.ast.JsProgram;
 import com.google.gwt.dev.js.ast.JsScope;
 import com.google.gwt.dev.js.ast.JsVars;
 import com.google.gwt.dev.js.ast.JsVisitor;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.thirdparty.guava.common.base.Objects;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
 
+import java.io.Serializable;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -47,6 +52,43 @@ public abstract class JsNamer {
     }
   }
 
+  /**
+   * The short idents a namer gave to the names of the program and object scopes, so that a later
+   * full compile can hand the same ones out again and only has to come up with idents for new
+   * names. Keeps the output of successive compiles similar, which helps browser caches.
+   */
+  public static class JsNamerState implements Serializable {
+
+    private String namerClassName;
+    private Map<String, String> shortIdentByIdent = Maps.newHashMap();
+    private Map<String, String> objectScopeShortIdentByIdent = Maps.newHashMap();
+
+    public void copyFrom(JsNamerState that) {
+      this.shortIdentByIdent.clear();
+      this.objectScopeShortIdentByIdent.clear();
+
+      this.namerClassName = that.namerClassName;
+      this.shortIdentByIdent.putAll(that.shortIdentByIdent);
+      this.objectScopeShortIdentByIdent.putAll(that.objectScopeShortIdentByIdent);
+    }
+
+    @VisibleForTesting
+    public boolean hasSameContent(JsNamerState that) {
+      return Objects.equal(this.namerClassName, that.namerClassName)
+          && Objects.equal(this.shortIdentByIdent, that.shortIdentByIdent)
+          && Objects.equal(this.objectScopeShortIdentByIdent, that.objectScopeShortIdentByIdent);
+    }
+
+    private void reuseFor(JsNamer namer) {
+      // Idents picked by a different kind of namer are no use.
+      if (!namer.getClass().getName().equals(namerClassName)) {
+        namerClassName = namer.getClass().getName();
+        shortIdentByIdent.clear();
+        objectScopeShortIdentByIdent.clear();
+      }
+    }
+  }
+
   private static Set<JsName> collectReferencedNames(JsProgram program) {
     final Set<JsName> referenced = new HashSet<JsName>();
     new JsVisitor() {
@@ -100,19 +142,47 @@ public abstract class JsNamer {
 
   protected final ReservedNames reserved;
 
+  private final JsNamerState state;
+
   public JsNamer(JsProgram program, ConfigurationProperties config) {
+    this(program, config, null);
+  }
+
+  /**
+   * @param state the idents assigned by a previous compile, updated with the ones assigned by
+   *     this namer; may be null
+   */
+  public JsNamer(JsProgram program, ConfigurationProperties config, JsNamerState state) {
     this.program = program;
+    this.state = state;
     referenced = collectReferencedNames(program);
     reserved = new ReservedNames(config);
   }
 
   protected final void execImpl() throws IllegalNameException {
+    if (state != null) {
+      state.reuseFor(this);
+    }
     reset();
     visit(program.getScope());
     reset();
     visit(program.getObjectScope());
   }
 
+  /**
+   * Returns the short idents, by ident, that the previous compile assigned to the obfuscatable
+   * names of the given program or object scope. Namers should reuse them where they are still
+   * legal and replace the contents with the idents they assign. Always empty if no state is
+   * persisted.
+   */
+  protected Map<String, String> getPersistedShortIdents(JsScope scope) {
+    if (state == null) {
+      return Maps.newHashMap();
+    }
+    return scope == program.getObjectScope()
+        ? state.objectScopeShortIdentByIdent : state.shortIdentByIdent;
+  }
+
   protected abstract void reset();
 
   protected abstract void visit(JsScope scope) throws IllegalNameException;
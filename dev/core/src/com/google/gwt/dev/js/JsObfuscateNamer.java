@@ -20,6 +20,11 @@ import com.google.gwt.dev.js.ast.JsName;
 import com.google.gwt.dev.js.ast.JsProgram;
 import com.google.gwt.dev.js.ast.JsScope;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * A namer that uses short, unrecognizable idents to minimize generated code
  * size.
@@ -42,7 +47,12 @@ public class JsObfuscateNamer extends JsNamer implements FreshNameGenerator {
 
   public static FreshNameGenerator exec(JsProgram program, ConfigurationProperties config)
       throws IllegalNameException {
-    JsObfuscateNamer namer = new JsObfuscateNamer(program, config);
+    return exec(program, config, null);
+  }
+
+  public static FreshNameGenerator exec(JsProgram program, ConfigurationProperties config,
+      JsNamerState state) throws IllegalNameException {
+    JsObfuscateNamer namer = new JsObfuscateNamer(program, config, state);
     namer.execImpl();
     return namer;
   }
@@ -57,7 +67,7 @@ public class JsObfuscateNamer extends JsNamer implements FreshNameGenerator {
     while (true) {
       // Get the next possible obfuscated name
       newIdent = makeObfuscatedIdent(maxId++);
-      if (isLegal(program.getScope(), newIdent)) {
+      if (isLegalForNewName(program.getScope(), newIdent)) {
         break;
       }
     }
@@ -75,10 +85,20 @@ public class JsObfuscateNamer extends JsNamer implements FreshNameGenerator {
    */
   private int maxId = -1;
 
+  /**
+   * Idents that names of the program and object scopes kept from the previous compile. No other
+   * name gets them, so nested scopes can't shadow those names.
+   */
+  private final Set<String> keptIdents = new HashSet<String>();
+
   public JsObfuscateNamer(JsProgram program, ConfigurationProperties config) {
     super(program, config);
   }
 
+  public JsObfuscateNamer(JsProgram program, ConfigurationProperties config, JsNamerState state) {
+    super(program, config, state);
+  }
+
   @Override
   protected void reset() {
     maxChildId = 0;
@@ -86,6 +106,44 @@ public class JsObfuscateNamer extends JsNamer implements FreshNameGenerator {
 
   @Override
   protected void visit(JsScope scope) {
+    Map<String, String> persistedShortIdents = getPersistedShortIdents(scope);
+    Set<JsName> keptNames = keepPersistedIdents(scope, persistedShortIdents);
+    persistedShortIdents.clear();
+
+    visit(scope, keptNames);
+
+    for (JsName name : scope.getAllNames()) {
+      if (referenced.contains(name) && name.isObfuscatable()) {
+        persistedShortIdents.put(name.getIdent(), name.getShortIdent());
+      }
+    }
+  }
+
+  /**
+   * Gives the names of a program or object scope the idents they had in the previous compile,
+   * where those are still legal.
+   *
+   * @return the names that kept their ident
+   */
+  private Set<JsName> keepPersistedIdents(JsScope scope, Map<String, String> persistedShortIdents) {
+    if (persistedShortIdents.isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<JsName> keptNames = new HashSet<JsName>();
+    Set<String> scopeKeptIdents = new HashSet<String>();
+    for (JsName name : scope.getAllNames()) {
+      String shortIdent = persistedShortIdents.get(name.getIdent());
+      if (shortIdent != null && referenced.contains(name) && name.isObfuscatable()
+          && isLegal(scope, shortIdent) && scopeKeptIdents.add(shortIdent)) {
+        name.setShortIdent(shortIdent);
+        keptNames.add(name);
+      }
+    }
+    keptIdents.addAll(scopeKeptIdents);
+    return keptNames;
+  }
+
+  private void visit(JsScope scope, Set<JsName> keptNames) {
     // Save off the maxChildId which is currently being computed for my parent.
     int mySiblingsMaxId = maxChildId;
 
@@ -95,7 +153,7 @@ public class JsObfuscateNamer extends JsNamer implements FreshNameGenerator {
      */
     maxChildId = 0;
     for (JsScope child : scope.getChildren()) {
-      visit(child);
+      visit(child, Collections.<JsName>emptySet());
     }
     // maxChildId is now the max of all of my children's ids
 
@@ -114,11 +172,15 @@ public class JsObfuscateNamer extends JsNamer implements FreshNameGenerator {
         continue;
       }
 
+      if (keptNames.contains(name)) {
+        continue;
+      }
+
       String newIdent;
       while (true) {
         // Get the next possible obfuscated name
         newIdent = makeObfuscatedIdent(curId++);
-        if (isLegal(scope, newIdent)) {
+        if (isLegalForNewName(scope, newIdent)) {
           break;
         }
       }
@@ -142,6 +204,10 @@ public class JsObfuscateNamer extends JsNamer implements FreshNameGenerator {
     return (scope.findExistingUnobfuscatableName(newIdent) == null);
   }
 
+  private boolean isLegalForNewName(JsScope scope, String newIdent) {
+    return !keptIdents.contains(newIdent) && isLegal(scope, newIdent);
+  }
+
   public static String makeObfuscatedIdent(int id) {
     char[] sIdentBuf = new char[6];
 
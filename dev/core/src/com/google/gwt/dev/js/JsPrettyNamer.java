@@ -20,8 +20,10 @@ import com.google.gwt.dev.js.ast.JsName;
 import com.google.gwt.dev.js.ast.JsProgram;
 import com.google.gwt.dev.js.ast.JsScope;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -30,20 +32,37 @@ import java.util.Set;
 public class JsPrettyNamer extends JsNamer {
 
   public static void exec(JsProgram program, ConfigurationProperties config) throws IllegalNameException {
-    new JsPrettyNamer(program, config).execImpl();
+    exec(program, config, null);
+  }
+
+  public static void exec(JsProgram program, ConfigurationProperties config, JsNamerState state)
+      throws IllegalNameException {
+    new JsPrettyNamer(program, config, state).execImpl();
   }
 
   public JsPrettyNamer(JsProgram program, ConfigurationProperties config) {
     super(program, config);
   }
 
+  public JsPrettyNamer(JsProgram program, ConfigurationProperties config, JsNamerState state) {
+    super(program, config, state);
+  }
+
   @Override
   protected void reset() {
   }
 
   @Override
   protected void visit(JsScope scope) {
-    changeNames(scope);
+    Map<String, String> persistedShortIdents = getPersistedShortIdents(scope);
+    changeNames(scope, persistedShortIdents);
+
+    persistedShortIdents.clear();
+    for (JsName name : scope.getAllNames()) {
+      if (referenced.contains(name) && name.isObfuscatable()) {
+        persistedShortIdents.put(name.getIdent(), name.getShortIdent());
+      }
+    }
   }
 
   /**
@@ -51,14 +70,31 @@ public class JsPrettyNamer extends JsNamer {
    * Unobfuscatable names map to their full name and any names that conflict with a previous
    * idenitifier or any child scope's identifier are renamed. Otherwise the short name is
    * left as-is.
+   * @param persistedShortIdents the idents given to names of this scope by the previous compile,
+   *     which are kept where still available
    * @return all names used in the given scope and any of its descendants (after renaming).
    */
-  private Set<String> changeNames(JsScope scope) {
+  private Set<String> changeNames(JsScope scope, Map<String, String> persistedShortIdents) {
 
     // First, change the names in all the child scopes and remember that they're taken.
     Set<String> taken = new HashSet<String>();
     for (JsScope child : scope.getChildren()) {
-      taken.addAll(changeNames(child));
+      taken.addAll(changeNames(child, Collections.<String, String>emptyMap()));
+    }
+
+    // Then let names keep the idents they had in the previous compile, so that a new name can't
+    // take one away from them.
+    Set<JsName> keptNames = new HashSet<JsName>();
+    if (!persistedShortIdents.isEmpty()) {
+      for (JsName name : scope.getAllNames()) {
+        String shortIdent = persistedShortIdents.get(name.getIdent());
+        if (shortIdent != null && referenced.contains(name) && name.isObfuscatable()
+            && isAvailable(shortIdent, scope, taken)) {
+          name.setShortIdent(shortIdent);
+          keptNames.add(name);
+          taken.add(shortIdent);
+        }
+      }
     }
 
     // The next integer to try as an identifier suffix.
@@ -69,6 +105,9 @@ public class JsPrettyNamer extends JsNamer {
         // Don't allocate idents for non-referenced names.
         continue;
       }
+      if (keptNames.contains(name)) {
+        continue;
+      }
       rename(name, scope, taken, suffixCounters);
       taken.add(name.getShortIdent());
     }
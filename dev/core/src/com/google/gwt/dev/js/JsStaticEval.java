@@ -39,6 +39,7 @@ import com.google.gwt.dev.js.ast.JsNullLiteral;
 import com.google.gwt.dev.js.ast.JsNumberLiteral;
 import com.google.gwt.dev.js.ast.JsPrefixOperation;
 import com.google.gwt.dev.js.ast.JsProgram;
+import com.google.gwt.dev.js.ast.JsProgramFragment;
 import com.google.gwt.dev.js.ast.JsStatement;
 import com.google.gwt.dev.js.ast.JsStringLiteral;
 import com.google.gwt.dev.js.ast.JsUnaryOperation;
@@ -53,6 +54,7 @@ import com.google.gwt.dev.util.Ieee754_64_Arithmetic;
 import com.google.gwt.dev.util.log.speedtracer.CompilerEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
@@ -61,6 +63,9 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Removes JsFunctions that are never referenced in the program.
@@ -256,6 +261,14 @@ public class JsStaticEval {
       }
     }
 
+    /**
+     * Applies the block simplifications to a fragment's global block whose statements have
+     * already been visited.
+     */
+    private void endVisitGlobalBlock(JsBlock x) {
+      endVisit(x, UNMODIFIABLE_CONTEXT);
+    }
+
     @Override
     public void endVisit(JsConditional x, JsContext ctx) {
       evalBooleanContext.remove(x.getTestExpression());
@@ -601,10 +614,28 @@ public class JsStaticEval {
       JsBinaryOperator.OR, JsBinaryOperator.AND, JsBinaryOperator.BIT_AND,
       JsBinaryOperator.BIT_OR, JsBinaryOperator.COMMA);
 
+  /**
+   * Number of threads used to simplify the top level statements of the program. Static evaluation
+   * never looks outside of the statement being simplified, so disjoint runs of statements can be
+   * processed concurrently and spliced back in order, producing exactly the same program as the
+   * serial pass. The default of 1 keeps the pass single threaded.
+   */
+  private static final int THREADS = Integer.getInteger("gwt.jjs.optimizerThreads", 1);
+
+  /**
+   * The smallest run of top level statements handed to a single task.
+   */
+  private static final int MIN_PARTITION_SIZE = 64;
+
   public static OptimizerStats exec(JsProgram program) {
+    return exec(program, THREADS);
+  }
+
+  @VisibleForTesting
+  static OptimizerStats exec(JsProgram program, int threads) {
     Event optimizeJsEvent = SpeedTracerLogger.start(
         CompilerEventType.OPTIMIZE_JS, "optimizer", NAME);
-    OptimizerStats stats = new JsStaticEval(program).execImpl();
+    OptimizerStats stats = new JsStaticEval(program, threads).execImpl();
     optimizeJsEvent.end("didChange", "" + stats.didChange());
     return stats;
   }
@@ -836,17 +867,94 @@ public class JsStaticEval {
 
   private final JsProgram program;
 
+  private final int threads;
+
   public JsStaticEval(JsProgram program) {
+    this(program, 1);
+  }
+
+  private JsStaticEval(JsProgram program, int threads) {
     this.program = program;
+    this.threads = threads;
   }
 
   public OptimizerStats execImpl() {
-    StaticEvalVisitor sev = new StaticEvalVisitor();
-    sev.accept(program);
+    boolean didChange;
+    if (threads > 1) {
+      didChange = execInParallel();
+    } else {
+      StaticEvalVisitor sev = new StaticEvalVisitor();
+      sev.accept(program);
+      didChange = sev.didChange();
+    }
     OptimizerStats stats = new OptimizerStats(NAME);
-    if (sev.didChange()) {
+    if (didChange) {
       stats.recordModified();
     }
     return stats;
   }
+
+  /**
+   * Splits the global block of every fragment into runs of consecutive statements, simplifies
+   * the runs on a fork-join pool and splices the results back in their original order.
+   */
+  private boolean execInParallel() {
+    final List<StaticEvalTask> tasks = new ArrayList<StaticEvalTask>();
+    for (JsProgramFragment fragment : program.getFragments()) {
+      List<JsStatement> stmts = fragment.getGlobalBlock().getStatements();
+      int partitionSize = Math.max(MIN_PARTITION_SIZE, stmts.size() / (threads * 4) + 1);
+      for (int start = 0; start < stmts.size(); start += partitionSize) {
+        tasks.add(new StaticEvalTask(fragment,
+            stmts.subList(start, Math.min(stmts.size(), start + partitionSize))));
+      }
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      pool.invoke(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          ForkJoinTask.invokeAll(tasks);
+        }
+      });
+    } finally {
+      pool.shutdown();
+    }
+
+    boolean didChange = false;
+    for (JsProgramFragment fragment : program.getFragments()) {
+      fragment.getGlobalBlock().getStatements().clear();
+    }
+    for (StaticEvalTask task : tasks) {
+      task.fragment.getGlobalBlock().getStatements().addAll(task.stmts);
+      didChange |= task.didChange;
+    }
+    for (JsProgramFragment fragment : program.getFragments()) {
+      StaticEvalVisitor sev = new StaticEvalVisitor();
+      sev.endVisitGlobalBlock(fragment.getGlobalBlock());
+      didChange |= sev.didChange();
+    }
+    return didChange;
+  }
+
+  /**
+   * Simplifies a private copy of a run of top level statements.
+   */
+  private class StaticEvalTask extends RecursiveAction {
+    private boolean didChange;
+    private final JsProgramFragment fragment;
+    private final List<JsStatement> stmts;
+
+    private StaticEvalTask(JsProgramFragment fragment, List<JsStatement> stmts) {
+      this.fragment = fragment;
+      this.stmts = new ArrayList<JsStatement>(stmts);
+    }
+
+    @Override
+    protected void compute() {
+      StaticEvalVisitor sev = new StaticEvalVisitor();
+      sev.acceptWithInsertRemove(stmts);
+      didChange = sev.didChange();
+    }
+  }
 }
@@ -15,6 +15,7 @@ package com.google.gwt.dev.resource.impl;
 
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 
 import com.google.gwt.thirdparty.guava.common.collect.ArrayListMultimap;
@@ -49,6 +50,7 @@ class ResourceAccumulator {
   private WeakReference<PathPrefixSet> pathPrefixSetRef;
   private WatchService watchService;
   private boolean watchFileChanges = WATCH_FILE_CHANGES_DEFAULT;
+  private boolean changed;
 
   public ResourceAccumulator(Path rootDirectory, PathPrefixSet pathPrefixSet) {
     this.rootDirectory = rootDirectory;
@@ -70,6 +72,17 @@ class ResourceAccumulator {
     }
   }
 
+  /**
+   * Returns whether any resource has been added, removed or modified since the last call, as seen
+   * by {@link #refreshResources}. Changes to hidden files, or to files that the PathPrefixSet
+   * doesn't include, aren't reported.
+   */
+  public boolean pollChanged() {
+    boolean wasChanged = changed;
+    changed = false;
+    return wasChanged;
+  }
+
   public Map<AbstractResource, ResourceResolution> getResources() {
     return resolutionsByResource;
   }
@@ -120,22 +133,41 @@ class ResourceAccumulator {
       for (WatchEvent<?> watchEvent : watchKey.pollEvents()) {
         WatchEvent.Kind<?> eventKind = watchEvent.kind();
         if (eventKind == OVERFLOW) {
+          changed = true;
           fullRefresh();
           return;
         }
 
         Path child = parentDir.resolve((Path) watchEvent.context());
+        int resourceCount = resolutionsByResource.size();
         if (eventKind == ENTRY_CREATE) {
           onNewPath(child);
         } else if (eventKind == ENTRY_DELETE) {
           onRemovedPath(child);
         }
+        if (resolutionsByResource.size() != resourceCount
+            || (eventKind != ENTRY_DELETE && isIncludedFile(child))) {
+          changed = true;
+        }
       }
 
       watchKey.reset();
     }
   }
 
+  /**
+   * Returns whether the given path is a file that {@link #onNewFile} would add as a resource.
+   */
+  private boolean isIncludedFile(Path path) throws IOException {
+    try {
+      return !Files.isHidden(path) && Files.isRegularFile(path)
+          && getPathPrefixSet().includesResource(getRelativePath(path)) != null;
+    } catch (NoSuchFileException | FileNotFoundException e) {
+      // Already gone again, e.g. a temporary file
+      return false;
+    }
+  }
+
   private void onNewPath(Path path) throws IOException {
     try {
       if (Files.isHidden(path)) {
@@ -159,8 +191,9 @@ class ResourceAccumulator {
     }
 
     if (watchService != null) {
-      // Start watching the directory.
-      directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE);
+      // Start watching the directory. Modifications don't change the resources, but are reported
+      // by pollChanged().
+      directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
     }
 
     try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
@@ -15,15 +15,18 @@ package com.google.gwt.dev.resource.impl;
 
 import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableMap;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
 import com.google.gwt.thirdparty.guava.common.collect.Maps;
 
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.nio.file.Path;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages {@link ResourceAccumulator}s for DirectoryClassPathEntry + PathPrefixSet pairs.
@@ -81,6 +84,9 @@ class ResourceAccumulatorManager {
   private static Map<DirectoryAndPathPrefix, ResourceAccumulator> resourceAccumulators = Maps
       .newHashMap();
 
+  private static final List<ResourceChangeListener> changeListeners =
+      new CopyOnWriteArrayList<ResourceChangeListener>();
+
   static {
     // Keep the resources fresh
     new Thread() {
@@ -98,34 +104,66 @@ class ResourceAccumulatorManager {
     }.start();
   }
 
-  public static synchronized Map<AbstractResource, ResourceResolution> getResources(
+  /**
+   * Returns the resources of a directory. Only the lookup of the accumulator is done under the
+   * manager's lock, so that different directories can be scanned concurrently.
+   */
+  public static Map<AbstractResource, ResourceResolution> getResources(
       DirectoryClassPathEntry directoryClassPathEntry, PathPrefixSet pathPrefixSet)
       throws IOException {
-    DirectoryAndPathPrefix directoryAndPathPrefix =
-        new DirectoryAndPathPrefix(directoryClassPathEntry, pathPrefixSet);
-
-    ResourceAccumulator resourceAccumulator = resourceAccumulators.get(directoryAndPathPrefix);
-    if (resourceAccumulator == null) {
-      Path path = directoryClassPathEntry.getDirectory().toPath();
-      resourceAccumulator = new ResourceAccumulator(path, pathPrefixSet);
-      resourceAccumulators.put(directoryAndPathPrefix, resourceAccumulator);
+    ResourceAccumulator resourceAccumulator =
+        getResourceAccumulator(directoryClassPathEntry, pathPrefixSet);
+    synchronized (resourceAccumulator) {
+      resourceAccumulator.refreshResources();
+      return ImmutableMap.copyOf(resourceAccumulator.getResources());
     }
-    resourceAccumulator.refreshResources();
-    return ImmutableMap.copyOf(resourceAccumulator.getResources());
   }
 
-  public static synchronized void refreshResources() throws IOException {
-    Iterator<Entry<DirectoryAndPathPrefix, ResourceAccumulator>> entriesIterator =
-        resourceAccumulators.entrySet().iterator();
-    while (entriesIterator.hasNext()) {
-      Entry<DirectoryAndPathPrefix, ResourceAccumulator> entry = entriesIterator.next();
-      DirectoryAndPathPrefix directoryAndPathPrefix = entry.getKey();
-      ResourceAccumulator resourceAccumulator = entry.getValue();
-      if (directoryAndPathPrefix.isOld()) {
+  static void addChangeListener(ResourceChangeListener listener) {
+    changeListeners.add(listener);
+  }
+
+  static void removeChangeListener(ResourceChangeListener listener) {
+    changeListeners.remove(listener);
+  }
+
+  /**
+   * Refreshes the watched directories and notifies the change listeners if any file changed.
+   */
+  public static void refreshResources() throws IOException {
+    List<ResourceAccumulator> oldAccumulators = Lists.newArrayList();
+    List<ResourceAccumulator> liveAccumulators = Lists.newArrayList();
+    synchronized (ResourceAccumulatorManager.class) {
+      Iterator<Entry<DirectoryAndPathPrefix, ResourceAccumulator>> entriesIterator =
+          resourceAccumulators.entrySet().iterator();
+      while (entriesIterator.hasNext()) {
+        Entry<DirectoryAndPathPrefix, ResourceAccumulator> entry = entriesIterator.next();
+        if (entry.getKey().isOld()) {
+          oldAccumulators.add(entry.getValue());
+          entriesIterator.remove();
+        } else {
+          liveAccumulators.add(entry.getValue());
+        }
+      }
+    }
+    for (ResourceAccumulator resourceAccumulator : oldAccumulators) {
+      synchronized (resourceAccumulator) {
         resourceAccumulator.shutdown();
-        entriesIterator.remove();
-      } else if (resourceAccumulator.isWatchServiceActive()) {
-        resourceAccumulator.refreshResources();
+      }
+    }
+    boolean changed = false;
+    for (ResourceAccumulator resourceAccumulator : liveAccumulators) {
+      synchronized (resourceAccumulator) {
+        if (resourceAccumulator.isWatchServiceActive()) {
+          resourceAccumulator.refreshResources();
+        }
+        // Also picks up changes seen by getResources() since the last check.
+        changed |= resourceAccumulator.pollChanged();
+      }
+    }
+    if (changed) {
+      for (ResourceChangeListener listener : changeListeners) {
+        listener.onResourcesChanged();
       }
     }
   }
@@ -134,13 +172,30 @@ class ResourceAccumulatorManager {
   static int getActiveListenerCount() throws IOException {
     refreshResources();
 
-    return resourceAccumulators.size();
+    synchronized (ResourceAccumulatorManager.class) {
+      return resourceAccumulators.size();
+    }
   }
 
   @VisibleForTesting
-  static boolean isListening(DirectoryClassPathEntry directoryClassPathEntry,
+  static synchronized boolean isListening(DirectoryClassPathEntry directoryClassPathEntry,
       PathPrefixSet pathPrefixSet) {
     return resourceAccumulators.containsKey(
         new DirectoryAndPathPrefix(directoryClassPathEntry, pathPrefixSet));
   }
+
+  private static synchronized ResourceAccumulator getResourceAccumulator(
+      DirectoryClassPathEntry directoryClassPathEntry, PathPrefixSet pathPrefixSet)
+      throws IOException {
+    DirectoryAndPathPrefix directoryAndPathPrefix =
+        new DirectoryAndPathPrefix(directoryClassPathEntry, pathPrefixSet);
+
+    ResourceAccumulator resourceAccumulator = resourceAccumulators.get(directoryAndPathPrefix);
+    if (resourceAccumulator == null) {
+      Path path = directoryClassPathEntry.getDirectory().toPath();
+      resourceAccumulator = new ResourceAccumulator(path, pathPrefixSet);
+      resourceAccumulators.put(directoryAndPathPrefix, resourceAccumulator);
+    }
+    return resourceAccumulator;
+  }
 }
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.resource.impl;
+
+/**
+ * Receives notifications that files have been created, deleted or modified in a classpath
+ * directory that is being watched for changes. Only directories that have already been scanned
+ * by a {@link ResourceOracleImpl} are watched.
+ * <p>
+ * Listeners are called on a background thread, possibly many times for a single edit, and should
+ * return quickly.
+ */
+public interface ResourceChangeListener {
+
+  /**
+   * Called after the changes have been detected.
+   */
+  void onResourcesChanged();
+}
@@ -47,6 +47,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * The normal implementation of {@code ResourceOracle}.
@@ -62,6 +65,8 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
             "Resource '$0' is being shadowed by another resource higher in the classpath having the same name; this one will not be used");
     static final Message0 REFRESHING_RESOURCES = new Message0(TreeLogger.TRACE,
         "Refreshing resources");
+    static final Message1String SCANNED_PATH_ROOT = new Message1String(TreeLogger.DEBUG,
+        "Scanned in $0 ms");
   }
 
   /**
@@ -166,6 +171,14 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
    */
   private SetMultimap<String, String> sourceModulesByTypeSourceName = HashMultimap.create();
 
+  /**
+   * Starts notifying a listener when files change in the classpath directories that have been
+   * scanned.
+   */
+  public static void addResourceChangeListener(ResourceChangeListener listener) {
+    ResourceAccumulatorManager.addChangeListener(listener);
+  }
+
   public static void clearCache() {
     classPathCache.clear();
   }
@@ -214,16 +227,30 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
     Event resourceOracle =
         SpeedTracerLogger.start(CompilerEventType.RESOURCE_ORACLE, "phase", "preload");
     List<ClassPathEntry> entries = getAllClassPathEntries(logger, resources);
+    List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
     for (ClassPathEntry entry : entries) {
       // We only handle pre-indexing jars, the file system could change.
       if (entry instanceof ZipFileClassPathEntry) {
-        ZipFileClassPathEntry zpe = (ZipFileClassPathEntry) entry;
-        zpe.index(logger);
+        final ZipFileClassPathEntry zpe = (ZipFileClassPathEntry) entry;
+        final TreeLogger branch = logger;
+        tasks.add(ForkJoinPool.commonPool().submit(new Runnable() {
+          @Override
+          public void run() {
+            zpe.index(branch);
+          }
+        }));
       }
     }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
     resourceOracle.end();
   }
 
+  public static void removeResourceChangeListener(ResourceChangeListener listener) {
+    ResourceAccumulatorManager.removeChangeListener(listener);
+  }
+
   /**
    * Returns a mapping from resource paths to the set of names of modules that created PathPrefixes
    * (usually because of a <source> entry) that made the resource path live.
@@ -248,12 +275,22 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
     Map<String, ResourceDescription> resourceDescriptionsByPath =
         new LinkedHashMap<String, ResourceDescription>();
 
+    // Scan the entries concurrently, then merge them in classpath order so that
+    // shadowing is the same as for a sequential scan.
+    List<TreeLogger> branches = new ArrayList<TreeLogger>();
+    List<ForkJoinTask<Map<AbstractResource, ResourceResolution>>> scans =
+        new ArrayList<ForkJoinTask<Map<AbstractResource, ResourceResolution>>>();
     for (ClassPathEntry classPathEntry : classPathEntries) {
       TreeLogger branchForClassPathEntry =
           Messages.EXAMINING_PATH_ROOT.branch(refreshBranch, classPathEntry.getLocation(), null);
+      branches.add(branchForClassPathEntry);
+      scans.add(ForkJoinPool.commonPool().submit(
+          scan(branchForClassPathEntry, classPathEntry, pathPrefixSet)));
+    }
 
-      Map<AbstractResource, ResourceResolution> prefixesByResource =
-          classPathEntry.findApplicableResources(branchForClassPathEntry, pathPrefixSet);
+    for (int i = 0; i < scans.size(); i++) {
+      TreeLogger branchForClassPathEntry = branches.get(i);
+      Map<AbstractResource, ResourceResolution> prefixesByResource = scans.get(i).join();
       for (Entry<AbstractResource, ResourceResolution> entry : prefixesByResource.entrySet()) {
         AbstractResource resource = entry.getKey();
         ResourceResolution resourceResolution = entry.getValue();
@@ -305,6 +342,30 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
     return resourcePath.replace(".java", "").replace("/", ".");
   }
 
+  /**
+   * Returns a task that finds the resources of one classpath entry, and
+   * records how long that took.
+   */
+  private static Callable<Map<AbstractResource, ResourceResolution>> scan(
+      final TreeLogger logger, final ClassPathEntry classPathEntry,
+      final PathPrefixSet pathPrefixSet) {
+    return new Callable<Map<AbstractResource, ResourceResolution>>() {
+      @Override
+      public Map<AbstractResource, ResourceResolution> call() {
+        Event scanEvent = SpeedTracerLogger.start(CompilerEventType.RESOURCE_ORACLE, "phase",
+            "scan", "location", classPathEntry.getLocation());
+        long start = System.nanoTime();
+        try {
+          return classPathEntry.findApplicableResources(logger, pathPrefixSet);
+        } finally {
+          Messages.SCANNED_PATH_ROOT.log(logger,
+              String.valueOf((System.nanoTime() - start) / 1000000), null);
+          scanEvent.end();
+        }
+      }
+    };
+  }
+
   private static void addAllClassPathEntries(TreeLogger logger, ResourceLoader loader,
       List<ClassPathEntry> classPath) {
     // URL is expensive in collections, so we use URI instead
@@ -26,7 +26,9 @@ import com.google.gwt.thirdparty.guava.common.collect.Maps;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.zip.ZipEntry;
@@ -53,8 +55,14 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
     static final Message1String INCLUDING_RESOURCE = new Message1String(
         TreeLogger.DEBUG, "Including $0");
 
+    static final Message1String READ_CACHED_INDEX = new Message1String(
+        TreeLogger.TRACE, "Using cached index of zip file: $0");
+
     static final Message1String READ_ZIP_ENTRY = new Message1String(
         TreeLogger.DEBUG, "$0");
+
+    static final Message1String WRITE_CACHED_INDEX_FAILED = new Message1String(
+        TreeLogger.DEBUG, "Unable to cache index of zip file: $0");
   }
 
   private static class ZipFileSnapshot {
@@ -75,6 +83,11 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
    */
   private static final Map<String, ZipFileClassPathEntry> entryCache = Maps.newHashMap();
 
+  /**
+   * Keeps indexes across processes, or <code>null</code> if that is disabled.
+   */
+  private static ZipFileIndexCache indexCache = ZipFileIndexCache.fromSystemProperty();
+
   public static void clearCache() {
     entryCache.clear();
   }
@@ -93,8 +106,22 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
     return entry;
   }
 
+  /**
+   * Sets where indexes are kept across processes, or disables that if
+   * <code>null</code>. Visible for testing.
+   */
+  static synchronized void setIndexCache(ZipFileIndexCache cache) {
+    indexCache = cache;
+  }
+
   private Set<ZipFileResource> allZipFileResources;
 
+  /**
+   * The entry names read from the persistent index cache, until they are
+   * indexed.
+   */
+  private List<String> cachedEntryNames;
+
   /**
    * The lifetime of the {@link PathPrefixSet} pins the life time of the associated
    * {@link ZipFileSnapshot}; this is because the {@link PathPrefixSet} is referenced from module,
@@ -103,15 +130,39 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
    */
   private final Map<PathPrefixSet, ZipFileSnapshot> cachedSnapshots = new MapMaker().weakKeys().makeMap();
 
+  private final File file;
+  private final ZipFileIndexCache fileIndexCache;
   private final long lastModified;
+  private final long length;
   private final String location;
-  private final ZipFile zipFile;
+
+  /**
+   * Guards {@link #zipFile}. It is separate from this entry's monitor so that
+   * reading a resource doesn't wait for indexing or for the applicable
+   * resources of another module to be computed.
+   */
+  private final Object zipFileLock = new Object();
+
+  /**
+   * The open zip file. If the index was found in the persistent cache, it is
+   * only opened once a resource is read.
+   */
+  private ZipFile zipFile; // guarded by zipFileLock
 
   private ZipFileClassPathEntry(File zipFile) throws IOException {
     assert zipFile.isAbsolute();
+    this.file = zipFile;
     this.lastModified = zipFile.lastModified();
-    this.zipFile = new ZipFile(zipFile);
+    this.length = zipFile.length();
     this.location = zipFile.toURI().toString();
+    this.fileIndexCache = indexCache;
+    if (fileIndexCache != null) {
+      cachedEntryNames = fileIndexCache.read(zipFile, length, lastModified);
+    }
+    if (cachedEntryNames == null) {
+      // Fails early, as before, if the file is not a zip file
+      this.zipFile = new ZipFile(zipFile);
+    }
   }
 
   /**
@@ -135,8 +186,18 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
     return location;
   }
 
+  /**
+   * Returns the zip file, opening it if its index was read from the persistent
+   * cache.
+   *
+   * @throws RuntimeException if the zip file cannot be opened
+   */
   public ZipFile getZipFile() {
-    return zipFile;
+    try {
+      return openZipFile();
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to open zip file: " + file, e);
+    }
   }
 
   public long lastModified() {
@@ -150,10 +211,38 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
     }
   }
 
+  /**
+   * Returns the zip file, opening it if its index was read from the persistent
+   * cache.
+   *
+   * @throws IOException if the zip file cannot be opened
+   */
+  ZipFile openZipFile() throws IOException {
+    synchronized (zipFileLock) {
+      if (zipFile == null) {
+        zipFile = new ZipFile(file);
+      }
+      return zipFile;
+    }
+  }
+
   private Set<ZipFileResource> buildIndex(TreeLogger logger) {
+    if (cachedEntryNames != null) {
+      Messages.READ_CACHED_INDEX.log(logger, file.getPath(), null);
+      Set<ZipFileResource> results = new IdentityHashSet<ZipFileResource>();
+      for (String entryName : cachedEntryNames) {
+        results.add(new ZipFileResource(this, entryName));
+      }
+      cachedEntryNames = null;
+      return Sets.normalize(results);
+    }
+
+    // Not read from the cache, so the constructor opened the zip file
+    ZipFile zipFile = getZipFile();
     logger = Messages.BUILDING_INDEX.branch(logger, zipFile.getName(), null);
 
     Set<ZipFileResource> results = new IdentityHashSet<ZipFileResource>();
+    List<String> entryNames = new ArrayList<String>();
     Enumeration<? extends ZipEntry> e = zipFile.entries();
     while (e.hasMoreElements()) {
       ZipEntry zipEntry = e.nextElement();
@@ -167,15 +256,24 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
       }
       ZipFileResource zipResource = new ZipFileResource(this, zipEntry.getName());
       results.add(zipResource);
+      entryNames.add(zipEntry.getName());
       Messages.READ_ZIP_ENTRY.log(logger, zipEntry.getName(), null);
     }
+
+    if (fileIndexCache != null) {
+      try {
+        fileIndexCache.write(file, length, lastModified, entryNames);
+      } catch (IOException ex) {
+        Messages.WRITE_CACHED_INDEX_FAILED.log(logger, file.getPath(), ex);
+      }
+    }
     return Sets.normalize(results);
   }
 
   private Map<AbstractResource, ResourceResolution> computeApplicableResources(
       TreeLogger logger, PathPrefixSet pathPrefixSet) {
     logger = Messages.FINDING_INCLUDED_RESOURCES.branch(logger,
-        zipFile.getName(), null);
+        file.getPath(), null);
 
     Map<AbstractResource, ResourceResolution> results =
         new IdentityHashMap<AbstractResource, ResourceResolution>();
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.resource.impl;
+
+import com.google.gwt.util.tools.shared.Md5Utils;
+import com.google.gwt.util.tools.shared.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the index of each jar or zip file, the names of the entries that
+ * {@link ZipFileClassPathEntry} serves, in a directory on disk, so that a new
+ * process does not have to read the zip directory of a file that has not
+ * changed. Enabled by setting the {@value #CACHE_DIR_PROPERTY} system property
+ * to a directory.
+ * <p>
+ * Each zip file has one cache file, named after a hash of its path, that
+ * holds:
+ * <pre>
+ * magic, version, zip path, zip length, zip last modified time
+ * entry count, entry count * entry name
+ * </pre>
+ * An index is only used if the zip file still has the same length and last
+ * modified time. A missing, stale or unreadable index is rebuilt.
+ */
+class ZipFileIndexCache {
+
+  static final String CACHE_DIR_PROPERTY = "gwt.jarIndexCacheDir";
+
+  private static final int MAGIC = 0x475a4958;
+  private static final int VERSION = 1;
+
+  /**
+   * Returns the cache in the directory named by the {@value #CACHE_DIR_PROPERTY}
+   * system property, or <code>null</code> if it is not set.
+   */
+  static ZipFileIndexCache fromSystemProperty() {
+    String cacheDir = System.getProperty(CACHE_DIR_PROPERTY);
+    return cacheDir == null || cacheDir.isEmpty() ? null
+        : new ZipFileIndexCache(new File(cacheDir));
+  }
+
+  private final File cacheDir;
+
+  ZipFileIndexCache(File cacheDir) {
+    this.cacheDir = cacheDir;
+  }
+
+  /**
+   * Returns the entry names of a zip file, or <code>null</code> if there is no
+   * index for this version of the file.
+   */
+  List<String> read(File zipFile, long length, long lastModified) {
+    File cacheFile = getCacheFile(zipFile);
+    if (!cacheFile.isFile()) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(cacheFile)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION
+          || !in.readUTF().equals(zipFile.getAbsolutePath())
+          || in.readLong() != length || in.readLong() != lastModified) {
+        return null;
+      }
+      int count = in.readInt();
+      List<String> entryNames = new ArrayList<String>(count);
+      for (int i = 0; i < count; i++) {
+        entryNames.add(in.readUTF());
+      }
+      return entryNames;
+    } catch (IOException e) {
+      // Truncated or corrupt; it will be rewritten
+      return null;
+    }
+  }
+
+  /**
+   * Saves the entry names of a zip file. The index is written to a temporary
+   * file that then replaces the old one, so that concurrent processes never
+   * read a partial index.
+   *
+   * @throws IOException if the index cannot be written
+   */
+  void write(File zipFile, long length, long lastModified, List<String> entryNames)
+      throws IOException {
+    if (!cacheDir.isDirectory() && !cacheDir.mkdirs() && !cacheDir.isDirectory()) {
+      throw new IOException("Unable to create " + cacheDir);
+    }
+    File cacheFile = getCacheFile(zipFile);
+    File tempFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheDir);
+    try {
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(zipFile.getAbsolutePath());
+        out.writeLong(length);
+        out.writeLong(lastModified);
+        out.writeInt(entryNames.size());
+        for (String entryName : entryNames) {
+          out.writeUTF(entryName);
+        }
+      }
+      Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      tempFile.delete();
+    }
+  }
+
+  private File getCacheFile(File zipFile) {
+    return new File(cacheDir, StringUtils.toHexString(Md5Utils.getMd5Digest(
+        zipFile.getAbsolutePath().getBytes(StandardCharsets.UTF_8))) + ".idx");
+  }
+}
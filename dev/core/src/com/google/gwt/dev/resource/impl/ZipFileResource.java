@@ -31,7 +31,6 @@ public class ZipFileResource extends AbstractResource {
   private String filePath;
   private final long lastModified;
   private final String[] pathParts;
-  private final ZipFile zipFile;
 
   /**
    * Constructs a ZipFileResource from a jar class path entry and a zip entry name.<br />
@@ -41,7 +40,6 @@ public class ZipFileResource extends AbstractResource {
     this.entryName = StringInterner.get().intern(entryName);
     this.pathParts = entryName.split("/");
 
-    this.zipFile = classPathEntry.getZipFile();
     this.filePath = classPathEntry.getLocation();
     assert filePath.startsWith("file:/");
     this.lastModified = classPathEntry.lastModified();
@@ -71,6 +69,7 @@ public class ZipFileResource extends AbstractResource {
 
   @Override
   public InputStream openContents() throws IOException {
+    ZipFile zipFile = classPathEntry.openZipFile();
     return zipFile.getInputStream(zipFile.getEntry(entryName));
   }
 }
@@ -15,18 +15,25 @@
  */
 package com.google.gwt.dev.util;
 
-import java.io.ByteArrayInputStream;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.util.tools.Utility;
+
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A nifty class that lets you squirrel away data on the file system. Write
- * once, read many times. Instance of this are thread-safe by way of internal
- * synchronization.
+ * once, read many times. Instance of this are thread-safe.
  *
  * Note that in the current implementation, the backing temp file will get
  * arbitrarily large as you continue adding things to it. There is no internal
@@ -37,10 +44,20 @@ public class DiskCache {
    * For future thought: if we used Object tokens instead of longs, we could
    * actually track references and do GC/compaction on the underlying file.
    *
-   * I considered using memory mapping, but I didn't see any obvious way to make
-   * the map larger after the fact, which kind of defeats the infinite-append
-   * design. At any rate, I measured the current performance of this design to
-   * be so fast relative to what I'm using it for, I didn't pursue this further.
+   * The file is append-only and viewed as a sequence of fixed-size segments.
+   * Once a segment has been completely written it can never change, so it is
+   * memory mapped (read only) the first time it is read from and then read
+   * concurrently without taking any lock. Only data in the last, partially
+   * written segment is read through the RandomAccessFile, under the same lock
+   * as the writes. (FileChannel positional reads would avoid that lock too, but
+   * an interrupted permutation or recompile thread would close the channel for
+   * everyone.)
+   *
+   * A mapping can't be released explicitly; it lasts until its buffer is
+   * garbage collected. Windows won't delete a file that is still mapped, so
+   * the temp file would outlive the JVM despite deleteOnExit() and the shutdown
+   * hook. Segments are therefore never mapped on Windows, and every read goes
+   * through the file there.
    */
 
   /**
@@ -48,13 +65,106 @@ public class DiskCache {
    */
   public static DiskCache INSTANCE = new DiskCache();
 
-  private boolean atEnd = true;
+  /**
+   * Reads one entry in chunks, straight from the segments.
+   */
+  private class EntryInputStream extends InputStream {
+    private final byte[] single = new byte[1];
+    private long position;
+    private int remaining;
+
+    EntryInputStream(long token) throws IOException {
+      this.position = token + 4;
+      this.remaining = readLength(token);
+    }
+
+    @Override
+    public int available() {
+      return remaining;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] dst, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (remaining == 0) {
+        return -1;
+      }
+      int count = Math.min(length, remaining);
+      DiskCache.this.read(position, dst, offset, count);
+      position += count;
+      remaining -= count;
+      return count;
+    }
+
+    @Override
+    public long skip(long n) {
+      long count = Math.max(0, Math.min(n, remaining));
+      position += count;
+      remaining -= count;
+      return count;
+    }
+  }
+
+  private static final int DEFAULT_SEGMENT_SIZE = 1 << 24;
+
+  private static final boolean IS_WINDOWS =
+      System.getProperty("os.name", "").startsWith("Windows");
+
+  /**
+   * The most that {@link #readObject} buffers at a time. ObjectInputStream makes many small
+   * reads, which would otherwise each go to the segments (or the file) separately.
+   */
+  private static final int READ_OBJECT_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The end of the data written so far. Only updated once a write is
+   * complete, so any token handed out is below it.
+   */
+  private volatile long end;
+
   private final RandomAccessFile file;
 
+  private final File fileName;
+
+  /**
+   * Whether completely written segments are mapped. False on Windows, and
+   * cleared when the file can't be mapped (e.g. out of address space); all
+   * reads then go through the file.
+   */
+  private volatile boolean mapSegments;
+
+  private final int segmentSize;
+
+  /**
+   * Mapped views of the completely written segments, by segment index.
+   */
+  private final ConcurrentMap<Long, ByteBuffer> segments =
+      new ConcurrentHashMap<Long, ByteBuffer>();
+
   private DiskCache() {
+    this(DEFAULT_SEGMENT_SIZE);
+  }
+
+  @VisibleForTesting
+  DiskCache(int segmentSize) {
+    this(segmentSize, !IS_WINDOWS);
+  }
+
+  @VisibleForTesting
+  DiskCache(int segmentSize, boolean mapSegments) {
+    this.segmentSize = segmentSize;
+    this.mapSegments = mapSegments;
     try {
       File temp = File.createTempFile("gwt", "byte-cache");
       temp.deleteOnExit();
+      fileName = temp;
       file = new RandomAccessFile(temp, "rw");
       file.setLength(0);
       registerShutdownHook();
@@ -69,19 +179,27 @@ public class DiskCache {
    * @param token a previously returned token
    * @return the bytes that were written
    */
-  public synchronized byte[] readByteArray(long token) {
+  public byte[] readByteArray(long token) {
     try {
-      atEnd = false;
-      file.seek(token);
-      int length = file.readInt();
-      byte[] result = new byte[length];
-      file.readFully(result);
+      byte[] result = new byte[readLength(token)];
+      read(token + 4, result, 0, result.length);
       return result;
     } catch (IOException e) {
       throw new RuntimeException("Unable to read from byte cache", e);
     }
   }
 
+  /**
+   * Opens a stream over the underlying bytes. Unlike {@link #readByteArray(long)}, the bytes
+   * are never copied into a single array, and several streams can be read concurrently.
+   *
+   * @param token a previously returned token
+   * @return a stream that reads the bytes that were written
+   */
+  public InputStream openStream(long token) throws IOException {
+    return new EntryInputStream(token);
+  }
+
   /**
    * Deserialize the underlying bytes as an object.
    *
@@ -92,9 +210,9 @@ public class DiskCache {
    */
   public <T> T readObject(long token, Class<T> type) {
     try {
-      byte[] bytes = readByteArray(token);
-      ByteArrayInputStream in = new ByteArrayInputStream(bytes);
-      return Util.readStreamAsObject(in, type);
+      InputStream in = openStream(token);
+      int bufferSize = Math.max(1, Math.min(READ_OBJECT_BUFFER_SIZE, in.available()));
+      return Util.readStreamAsObject(new BufferedInputStream(in, bufferSize), type);
     } catch (ClassNotFoundException e) {
       throw new RuntimeException("Unexpected exception deserializing from disk cache", e);
     } catch (IOException e) {
@@ -124,7 +242,8 @@ public class DiskCache {
     assert in != null;
     byte[] buf = Util.takeThreadLocalBuf();
     try {
-      long position = moveToEndPosition();
+      long position = end;
+      file.seek(position);
 
       // Placeholder, we don't know the length yet.
       file.writeInt(-1);
@@ -140,8 +259,7 @@ public class DiskCache {
       // Now go back and fill in the length.
       file.seek(position);
       file.writeInt(length);
-      // Don't eagerly seek the end, the next operation might be a read.
-      atEnd = false;
+      end = position + 4 + length;
       return position;
     } finally {
       Util.releaseThreadLocalBuf(buf);
@@ -154,22 +272,17 @@ public class DiskCache {
    * @param token a previously returned token
    * @param out the stream to write into
    */
-  public synchronized void transferToStream(long token, OutputStream out) throws IOException {
+  public void transferToStream(long token, OutputStream out) throws IOException {
     byte[] buf = Util.takeThreadLocalBuf();
     try {
-      atEnd = false;
-      file.seek(token);
-      int length = file.readInt();
-      int bufLen = buf.length;
-      while (length > bufLen) {
-        int read = file.read(buf, 0, bufLen);
-        length -= read;
-        out.write(buf, 0, read);
-      }
+      int length = readLength(token);
+      long position = token + 4;
       while (length > 0) {
-        int read = file.read(buf, 0, length);
-        length -= read;
-        out.write(buf, 0, read);
+        int chunk = Math.min(length, buf.length);
+        read(position, buf, 0, chunk);
+        out.write(buf, 0, chunk);
+        position += chunk;
+        length -= chunk;
       }
     } finally {
       Util.releaseThreadLocalBuf(buf);
@@ -183,9 +296,11 @@ public class DiskCache {
    */
   public synchronized long writeByteArray(byte[] bytes) {
     try {
-      long position = moveToEndPosition();
+      long position = end;
+      file.seek(position);
       file.writeInt(bytes.length);
       file.write(bytes);
+      end = position + 4 + bytes.length;
       return position;
     } catch (IOException e) {
       throw new RuntimeException("Unable to write to byte cache", e);
@@ -217,22 +332,68 @@ public class DiskCache {
   }
 
   /**
-   * Moves to the end of the file if necessary and returns the offset position.
-   * Caller must synchronize.
-   *
-   * @return the offset position of the end of the file
-   * @throws IOException
+   * Returns a read-only view of a completely written segment, or null if the
+   * segment is still being appended to (or segments aren't mapped).
    */
-  private long moveToEndPosition() throws IOException {
-    // Get an end pointer.
-    if (atEnd) {
-      return file.getFilePointer();
-    } else {
-      long position = file.length();
-      file.seek(position);
-      atEnd = true;
-      return position;
+  private ByteBuffer getSegment(long index) {
+    if (!mapSegments || (index + 1) * segmentSize > end) {
+      return null;
     }
+    ByteBuffer segment = segments.get(index);
+    if (segment != null) {
+      return segment;
+    }
+
+    // Map through a private channel so that an interrupt can't close the shared file.
+    RandomAccessFile mapFile = null;
+    try {
+      mapFile = new RandomAccessFile(fileName, "r");
+      segment = mapFile.getChannel().map(MapMode.READ_ONLY, index * segmentSize, segmentSize);
+    } catch (ClosedByInterruptException e) {
+      return null;
+    } catch (IOException e) {
+      mapSegments = false;
+      return null;
+    } finally {
+      Utility.close(mapFile);
+    }
+    ByteBuffer existing = segments.putIfAbsent(index, segment);
+    return existing != null ? existing : segment;
+  }
+
+  /**
+   * Fills the given array with the bytes stored at the given position.
+   */
+  private void read(long position, byte[] dst, int offset, int length) throws IOException {
+    while (length > 0) {
+      ByteBuffer segment = getSegment(position / segmentSize);
+      if (segment == null) {
+        // The rest is (at least partly) in the segment still being written.
+        readFromFile(position, dst, offset, length);
+        return;
+      }
+      int segmentOffset = (int) (position % segmentSize);
+      int count = Math.min(length, segmentSize - segmentOffset);
+      ByteBuffer src = segment.duplicate();
+      src.position(segmentOffset);
+      src.get(dst, offset, count);
+      position += count;
+      offset += count;
+      length -= count;
+    }
+  }
+
+  private synchronized void readFromFile(long position, byte[] dst, int offset, int length)
+      throws IOException {
+    file.seek(position);
+    file.readFully(dst, offset, length);
+  }
+
+  private int readLength(long token) throws IOException {
+    byte[] header = new byte[4];
+    read(token, header, 0, 4);
+    return ((header[0] & 0xff) << 24) | ((header[1] & 0xff) << 16) | ((header[2] & 0xff) << 8)
+        | (header[3] & 0xff);
   }
 
   /**
@@ -241,7 +402,7 @@ public class DiskCache {
    * in Windows that prevents the 'temp' file from being deleted by 'deleteOnExit'
    * (see {@link DiskCache#DiskCache()}) because it is still open by the RandomAccessFile.<br>
    * This hook forces the RandomAccessFile to be closed at shutdown to allow the correct
-   * 'temp' file removal.
+   * 'temp' file removal. (For the same reason, segments are never mapped on Windows.)
    */
   private void registerShutdownHook() {
     Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.cfg.BindingProperties;
+import com.google.gwt.dev.cfg.BindingProperty;
+import com.google.gwt.dev.cfg.ConditionAll;
+import com.google.gwt.dev.cfg.ConfigurationProperties;
+import com.google.gwt.dev.cfg.ConfigurationProperty;
+import com.google.gwt.dev.util.Util;
+import com.google.gwt.thirdparty.guava.common.io.Files;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests {@link PermutationCostHistory}.
+ */
+public class PermutationCostHistoryTest extends TestCase {
+
+  private File dir;
+  private Permutation chrome;
+  private Permutation firefox;
+  private Permutation safari;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    dir = Files.createTempDir();
+    BindingProperty userAgent = new BindingProperty("user.agent");
+    for (String value : new String[] {"chrome", "firefox", "safari"}) {
+      userAgent.addDefinedValue(new ConditionAll(), value);
+    }
+    chrome = createPermutation(0, userAgent, "chrome");
+    firefox = createPermutation(1, userAgent, "firefox");
+    safari = createPermutation(2, userAgent, "safari");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    System.clearProperty(PermutationCostHistory.COST_FILE_PROPERTY);
+    Util.recursiveDelete(dir, false);
+    super.tearDown();
+  }
+
+  public void testDefaultFileDependsOnProject() {
+    File first = PermutationCostHistory.getDefaultFile("com.example.Module", new File(dir, "a"));
+    File second = PermutationCostHistory.getDefaultFile("com.example.Module", new File(dir, "b"));
+    assertFalse(first.equals(second));
+    assertEquals(first, PermutationCostHistory.getDefaultFile("com.example.Module",
+        new File(new File(dir, "b"), "../a")));
+    assertFalse(first.equals(
+        PermutationCostHistory.getDefaultFile("com.example.Other", new File(dir, "a"))));
+  }
+
+  public void testLoadMissingFile() {
+    PermutationCostHistory history = load(new File(dir, "missing.properties"));
+    assertEquals(-1, history.getCost(chrome));
+  }
+
+  public void testLoadUnreadableFile() throws IOException {
+    File file = new File(dir, "costs.properties");
+    // An invalid escape makes Properties.load fail
+    Files.write("a=\\uZZZZ".getBytes("ISO-8859-1"), file);
+    PermutationCostHistory history = load(file);
+    assertEquals(-1, history.getCost(chrome));
+  }
+
+  public void testLongestFirst() {
+    PermutationCostHistory history = new PermutationCostHistory(new File(dir, "costs.properties"));
+    history.recordCost(chrome, 100);
+    history.recordCost(firefox, 300);
+
+    List<Permutation> permutations = Arrays.asList(chrome, firefox, safari);
+    Collections.sort(permutations, history.longestFirst());
+    // Safari has never been compiled, so it might be the slowest
+    assertEquals(Arrays.asList(safari, firefox, chrome), permutations);
+  }
+
+  public void testSaveAndLoad() {
+    File file = new File(new File(dir, "sub"), "costs.properties");
+    PermutationCostHistory history = load(file);
+    history.recordCost(chrome, 100);
+    history.recordCost(firefox, 300);
+    history.recordCost(chrome, 200);
+    history.save(TreeLogger.NULL);
+    assertTrue(file.isFile());
+    // The temporary file was renamed
+    assertEquals(1, file.getParentFile().list().length);
+
+    history = load(file);
+    assertEquals(200, history.getCost(chrome));
+    assertEquals(300, history.getCost(firefox));
+    assertEquals(-1, history.getCost(safari));
+  }
+
+  private static Permutation createPermutation(int id, BindingProperty property, String value) {
+    ConfigurationProperties config =
+        new ConfigurationProperties(Collections.<ConfigurationProperty> emptyList());
+    return new Permutation(id, new BindingProperties(new BindingProperty[] {property},
+        new String[] {value}, config));
+  }
+
+  private static PermutationCostHistory load(File file) {
+    System.setProperty(PermutationCostHistory.COST_FILE_PROPERTY, file.getPath());
+    return PermutationCostHistory.load(TreeLogger.NULL, "com.example.Module", null);
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev;
+
+import com.google.gwt.core.ext.TreeLogger;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Tests the heap budget shared by the workers of {@link ThreadedPermutationWorkerFactory}.
+ */
+public class ThreadedPermutationWorkerFactoryTest extends TestCase {
+
+  public void testHeapBudget() {
+    Semaphore budget =
+        ThreadedPermutationWorkerFactory.createHeapBudget(TreeLogger.NULL, 8, 4096, 1024);
+    assertEquals(4, budget.availablePermits());
+    assertTrue(budget.isFair());
+  }
+
+  public void testHeapBudgetAllowsOnePermutation() {
+    Semaphore budget =
+        ThreadedPermutationWorkerFactory.createHeapBudget(TreeLogger.NULL, 4, 512, 1024);
+    assertEquals(1, budget.availablePermits());
+  }
+
+  public void testNoHeapBudgetWhenAllWorkersFit() {
+    assertNull(ThreadedPermutationWorkerFactory.createHeapBudget(TreeLogger.NULL, 8, 4096, 512));
+  }
+
+  public void testNoHeapBudgetWhenUnset() {
+    assertNull(ThreadedPermutationWorkerFactory.createHeapBudget(TreeLogger.NULL, 8, 4096, 0));
+  }
+}
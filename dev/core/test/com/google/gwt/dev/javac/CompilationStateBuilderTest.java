@@ -15,14 +15,63 @@
  */
 package com.google.gwt.dev.javac;
 
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.CompilerContext;
 import com.google.gwt.dev.javac.testing.impl.JavaResourceBase;
 import com.google.gwt.dev.javac.testing.impl.MockJavaResource;
+import com.google.gwt.dev.resource.Resource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Regression tests for {@link CompilationStateBuilder}.
  */
 public class CompilationStateBuilderTest extends CheckerTestCase {
 
+  /**
+   * Records the units added to it, in order.
+   */
+  private static class RecordingUnitCache extends MemoryUnitCache {
+    private final List<String> addedTypeNames =
+        Collections.synchronizedList(new ArrayList<String>());
+
+    @Override
+    public void add(CompilationUnit newUnit) {
+      addedTypeNames.add(newUnit.getTypeName());
+      super.add(newUnit);
+    }
+  }
+
+  /**
+   * Tests that the units come out in the order JDT compiled them, whether they are built on one
+   * thread or several.
+   */
+  public void testBuilderThreadsKeepUnitOrder() throws UnableToCompleteException {
+    Set<Resource> resources = new LinkedHashSet<Resource>();
+    resources.addAll(Arrays.asList(JavaResourceBase.getStandardResources()));
+    for (int i = 0; i < 40; i++) {
+      resources.add(JavaResourceBase.createMockJavaResource("some.C" + i,
+          "package some;",
+          "class C" + i + " {",
+          "  native String jsniMethod() /*-{",
+          "    return 'C" + i + "';",
+          "  }-*/;",
+          "}"));
+    }
+
+    List<String> singleThreaded = buildWithBuilderThreads(1, resources);
+    List<String> multiThreaded = buildWithBuilderThreads(4, resources);
+    assertEquals(resources.size(), singleThreaded.size());
+    assertEquals(singleThreaded, multiThreaded);
+    assertEquals(singleThreaded, buildWithBuilderThreads(4, resources));
+  }
+
   /**
    * Tests that compiling a unit that declares a class that shadows another
    * results in the proper error message.
@@ -66,4 +115,22 @@ public class CompilationStateBuilderTest extends CheckerTestCase {
 
     shouldGenerateError(buggy, 6, "The nested type A cannot hide an enclosing type");
   }
+
+  private static List<String> buildWithBuilderThreads(int builderThreads,
+      Set<Resource> resources) throws UnableToCompleteException {
+    String oldValue = System.getProperty("gwt.javac.builderThreads");
+    System.setProperty("gwt.javac.builderThreads", String.valueOf(builderThreads));
+    try {
+      RecordingUnitCache unitCache = new RecordingUnitCache();
+      CompilerContext compilerContext = new CompilerContext.Builder().unitCache(unitCache).build();
+      new CompilationStateBuilder().doBuildFrom(TreeLogger.NULL, compilerContext, resources);
+      return unitCache.addedTypeNames;
+    } finally {
+      if (oldValue == null) {
+        System.clearProperty("gwt.javac.builderThreads");
+      } else {
+        System.setProperty("gwt.javac.builderThreads", oldValue);
+      }
+    }
+  }
 }
@@ -19,6 +19,7 @@ import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.core.ext.TreeLogger.Type;
 import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.util.Util;
+import com.google.gwt.thirdparty.guava.common.io.Files;
 import com.google.gwt.thirdparty.guava.common.util.concurrent.Futures;
 
 import junit.framework.TestCase;
@@ -81,6 +82,76 @@ public class PersistentUnitCacheTest extends TestCase {
     checkInvalidObjectInCache(new ThrowsClassNotFoundException());
   }
 
+  /**
+   * A unit whose serialized form can't be read is treated as a cache miss, while the other units
+   * in the same file are still found.
+   */
+  public void testCorruptUnit() throws IOException, UnableToCompleteException,
+      InterruptedException, ExecutionException {
+    File parentDir = lastParentDir = File.createTempFile("PersistentUnitTest-corrupt", "");
+    File unitCacheDir = mkCacheDir(parentDir);
+
+    PersistentUnitCache cache = new PersistentUnitCache(logger, parentDir, hash1);
+    MockCompilationUnit foo = new MockCompilationUnit("com.example.Foo", "Foo: source1");
+    cache.internalAdd(foo).get();
+    MockCompilationUnit bar = new MockCompilationUnit("com.example.Bar", "Bar: source1");
+    cache.internalAdd(bar).get();
+    cache.shutdown();
+    assertNumCacheFiles(unitCacheDir, 1);
+
+    // Clobber the object stream header of the first unit.
+    File cacheFile = unitCacheDir.listFiles()[0];
+    byte[] bytes = Files.toByteArray(cacheFile);
+    for (int i = 0; i < bytes.length - 1; i++) {
+      if (bytes[i] == (byte) 0xAC && bytes[i + 1] == (byte) 0xED) {
+        bytes[i] = 0;
+        bytes[i + 1] = 0;
+        break;
+      }
+    }
+    Files.write(bytes, cacheFile);
+
+    cache = new PersistentUnitCache(logger, parentDir, hash1);
+    assertNull(cache.find(foo.getContentId()));
+    assertNull(cache.find("com/example/Foo.java"));
+    CompilationUnit result = cache.find("com/example/Bar.java");
+    assertNotNull(result);
+    assertEquals(bar.getContentId(), result.getContentId());
+    cache.shutdown();
+  }
+
+  /**
+   * Compaction copies units that were never deserialized; they are read from the new file once
+   * the old ones are deleted.
+   */
+  public void testCompactionMovesUnloadedUnits() throws IOException, UnableToCompleteException,
+      InterruptedException, ExecutionException {
+    File parentDir = lastParentDir = File.createTempFile("PersistentUnitTest-move", "");
+    File unitCacheDir = mkCacheDir(parentDir);
+
+    PersistentUnitCache cache = new PersistentUnitCache(logger, parentDir, hash1);
+    MockCompilationUnit foo = new MockCompilationUnit("com.example.Foo", "Foo: source1");
+    cache.internalAdd(foo).get();
+    cache.shutdown();
+    assertNumCacheFiles(unitCacheDir, 1);
+    File oldFile = unitCacheDir.listFiles()[0];
+
+    cache = new PersistentUnitCache(logger, parentDir, hash1);
+    // Rotate until there are enough files to compact.
+    for (int i = 0; i <= PersistentUnitCache.CACHE_FILE_THRESHOLD; i++) {
+      cache.internalAdd(new MockCompilationUnit("com.example.Bar", "Bar: source" + i)).get();
+      cache.cleanup(logger);
+      cache.waitForCleanup();
+    }
+    assertFalse(oldFile.exists());
+
+    // Foo was never deserialized before its file was deleted.
+    CompilationUnit result = cache.find("com/example/Foo.java");
+    assertNotNull(result);
+    assertEquals(foo.getContentId(), result.getContentId());
+    cache.shutdown();
+  }
+
   /**
    * Test if a file already exists with the name we want to put the cache dir
    * in.
@@ -120,6 +191,37 @@ public class PersistentUnitCacheTest extends TestCase {
     assertTrue(parentDir.isDirectory());
   }
 
+  /**
+   * A cache file that ends in the middle of a record, as when the process writing it is killed,
+   * still provides the units of its complete records.
+   */
+  public void testTruncatedCacheFile() throws IOException, UnableToCompleteException,
+      InterruptedException, ExecutionException {
+    File parentDir = lastParentDir = File.createTempFile("PersistentUnitTest-truncated", "");
+    File unitCacheDir = mkCacheDir(parentDir);
+
+    PersistentUnitCache cache = new PersistentUnitCache(logger, parentDir, hash1);
+    MockCompilationUnit foo = new MockCompilationUnit("com.example.Foo", "Foo: source1");
+    cache.internalAdd(foo).get();
+    MockCompilationUnit bar = new MockCompilationUnit("com.example.Bar", "Bar: source1");
+    cache.internalAdd(bar).get();
+    cache.shutdown();
+    assertNumCacheFiles(unitCacheDir, 1);
+
+    // Cut the file in the middle of the last unit.
+    File cacheFile = unitCacheDir.listFiles()[0];
+    byte[] bytes = Files.toByteArray(cacheFile);
+    Files.write(Arrays.copyOf(bytes, bytes.length - 10), cacheFile);
+
+    cache = new PersistentUnitCache(logger, parentDir, hash1);
+    CompilationUnit result = cache.find("com/example/Foo.java");
+    assertNotNull(result);
+    assertEquals(foo.getContentId(), result.getContentId());
+    assertNull(cache.find("com/example/Bar.java"));
+    cache.shutdown();
+    assertTrue(cacheFile.exists());
+  }
+
   public void testPersistentCache() throws IOException, InterruptedException,
       UnableToCompleteException, ExecutionException {
 
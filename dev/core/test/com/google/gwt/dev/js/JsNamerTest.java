@@ -20,6 +20,7 @@ import com.google.gwt.dev.jjs.JsOutputOption;
 import com.google.gwt.dev.jjs.SourceOrigin;
 import com.google.gwt.dev.js.JsIncrementalNamer.JsIncrementalNamerState;
 import com.google.gwt.dev.js.JsNamer.IllegalNameException;
+import com.google.gwt.dev.js.JsNamer.JsNamerState;
 import com.google.gwt.dev.js.ast.JsBlock;
 import com.google.gwt.dev.js.ast.JsExprStmt;
 import com.google.gwt.dev.js.ast.JsFunction;
@@ -49,6 +50,7 @@ public class JsNamerTest extends TestCase {
 
   private BlacklistProps props;
   private JsIncrementalNamerState jsIncrementalNamerState;
+  private JsNamerState jsNamerState;
 
   @Override
   protected void setUp() throws Exception {
@@ -57,6 +59,7 @@ public class JsNamerTest extends TestCase {
     props.blacklist = Arrays.asList("foo, bar", "baz");
     props.blacklistSuffixes = Arrays.asList("logger");
     jsIncrementalNamerState = new JsIncrementalNamerState();
+    jsNamerState = new JsNamerState();
   }
 
   public void testBannedIdent() throws Exception {
@@ -155,6 +158,49 @@ public class JsNamerTest extends TestCase {
     }
   }
 
+  public void testReusesObfuscatedNamesAcrossCompiles() throws Exception {
+    JsProgram first = parseJs(
+        "function f1(){ return 1 }\n" +
+        "function f2(){ return f1() }\n" +
+        "f2();");
+    assertEquals("function a(){return 1}\nfunction b(){return a()}\nb();",
+        renameReusingNames(first, JsOutputOption.OBFUSCATED));
+
+    // A new function, and a local that would normally be named "a", must not disturb the names
+    // of f1 and f2 (or shadow them).
+    JsProgram second = parseJs(
+        "function f0(){ return 0 }\n" +
+        "function f1(){ var x = f0(); return x }\n" +
+        "function f2(){ return f1() }\n" +
+        "f2();");
+    assertEquals("function d(){return 0}\nfunction a(){var c=d();return c}\n"
+        + "function b(){return a()}\nb();",
+        renameReusingNames(second, JsOutputOption.OBFUSCATED));
+  }
+
+  public void testReusesPrettyNamesAcrossCompiles() throws Exception {
+    JsProgram first = parseJs(
+        "function f1(){ return 1 }\n" +
+        "function f2(){ return 2 }\n");
+    first.getScope().findExistingName("f1").setShortIdent("thing");
+    first.getScope().findExistingName("f2").setShortIdent("thing");
+    assertEquals("function thing(){return 1}\nfunction thing_0(){return 2}\n",
+        renameReusingNames(first, JsOutputOption.PRETTY));
+
+    // f2 keeps its name even though it is now first in line for "thing".
+    JsProgram second = parseJs(
+        "function f2(){ return 2 }\n" +
+        "function f3(){ return 3 }\n");
+    second.getScope().findExistingName("f2").setShortIdent("thing");
+    second.getScope().findExistingName("f3").setShortIdent("thing");
+    assertEquals("function thing_0(){return 2}\nfunction thing(){return 3}\n",
+        renameReusingNames(second, JsOutputOption.PRETTY));
+
+    // Switching namers starts over.
+    assertEquals("function a(){return 2}\nfunction b(){return 3}\n",
+        renameReusingNames(second, JsOutputOption.OBFUSCATED));
+  }
+
   private JsProgram parseJs(String js) throws IOException, JsParserException {
     JsProgram program = new JsProgram();
     List<JsStatement> expected = JsParser.parse(SourceOrigin.UNKNOWN,
@@ -196,6 +242,20 @@ public class JsNamerTest extends TestCase {
     return text.toString();
   }
 
+  private String renameReusingNames(JsProgram program, JsOutputOption outputOption)
+      throws IllegalNameException {
+    JsSymbolResolver.exec(program);
+    ConfigurationProperties config = props.makeConfig();
+    if (outputOption == JsOutputOption.OBFUSCATED) {
+      JsObfuscateNamer.exec(program, config, jsNamerState);
+    } else {
+      JsPrettyNamer.exec(program, config, jsNamerState);
+    }
+    TextOutput text = new DefaultTextOutput(true);
+    new JsSourceGenerationVisitor(text).accept(program);
+    return text.toString();
+  }
+
   private String rename(String js) throws Exception {
     return rename(parseJs(js));
   }
@@ -15,6 +15,10 @@
  */
 package com.google.gwt.dev.js;
 
+import com.google.gwt.dev.js.ast.JsProgram;
+import com.google.gwt.dev.util.DefaultTextOutput;
+import com.google.gwt.dev.util.TextOutput;
+
 /**
  * Tests the JsStaticEval optimizer.
  */
@@ -170,6 +174,27 @@ public class JsStaticEvalTest extends OptimizerTestBase {
     assertEquals("alert(false);", optimize("alert(null != null)"));
   }
 
+  public void testParallelMatchesSerial() throws Exception {
+    StringBuilder js = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      js.append("function f" + i + "(a){if(true){return a+" + i + "+1;}else{return 2;}}");
+      js.append("{alert('x'+" + i + ");}");
+      js.append("if(false){f" + i + "();}");
+      js.append("alert((a,b),(c,f" + i + "()));");
+    }
+    JsProgram serial = super.optimize(js.toString());
+    JsStaticEval.exec(serial, 1);
+    JsProgram parallel = super.optimize(js.toString());
+    JsStaticEval.exec(parallel, 4);
+    assertEquals(toSource(serial), toSource(parallel));
+  }
+
+  private String toSource(JsProgram program) {
+    TextOutput text = new DefaultTextOutput(true);
+    new JsSourceGenerationVisitor(text).accept(program);
+    return text.toString();
+  }
+
   private String optimize(String js) throws Exception {
     return optimizeToSource(js, JsStaticEval.class);
   }
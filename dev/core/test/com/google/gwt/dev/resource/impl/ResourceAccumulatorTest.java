@@ -94,6 +94,67 @@ public class ResourceAccumulatorTest extends TestCase {
     resourceAccumulator.shutdown();
   }
 
+  public void testModifyFile() throws Exception {
+    Path rootDirectory = Files.createTempDirectory(null);
+    Path subDirectory = createDirectoryIn("subdir", rootDirectory);
+    Path file = createFileIn("SomeFile.java", subDirectory);
+
+    ResourceAccumulator resourceAccumulator =
+        new ResourceAccumulator(rootDirectory, createInclusivePathPrefixSet());
+
+    assertEquals(1, getResources(resourceAccumulator).size());
+    assertFalse(resourceAccumulator.pollChanged());
+
+    Files.write(file, "class SomeFile {}".getBytes());
+    waitForFileEvents();
+
+    // The same resource, but the change is reported once.
+    assertEquals(1, getResources(resourceAccumulator).size());
+    assertTrue(resourceAccumulator.pollChanged());
+    assertFalse(resourceAccumulator.pollChanged());
+
+    resourceAccumulator.shutdown();
+  }
+
+  public void testModifyIgnoredFiles() throws Exception {
+    Path rootDirectory = Files.createTempDirectory(null);
+    Path subDirectory = createDirectoryIn("subdir", rootDirectory);
+    Path file = createFileIn("SomeFile.java", subDirectory);
+    Path hiddenFile = createFileIn(".SomeFile.java.swp", subDirectory);
+    Path excludedFile = createFileIn("Notes.txt", subDirectory);
+
+    PathPrefixSet javaFiles = new PathPrefixSet();
+    javaFiles.add(new PathPrefix("", new ResourceFilter() {
+      @Override
+      public boolean allows(String path) {
+        return path.endsWith(".java");
+      }
+    }));
+    pathPrefixes.add(javaFiles);
+    ResourceAccumulator resourceAccumulator = new ResourceAccumulator(rootDirectory, javaFiles);
+
+    assertEquals(1, getResources(resourceAccumulator).size());
+    assertFalse(resourceAccumulator.pollChanged());
+
+    // Neither hidden nor excluded files are resources, so changing them changes nothing.
+    Files.write(hiddenFile, "swap".getBytes());
+    Files.write(excludedFile, "notes".getBytes());
+    createFileIn("Other.txt", subDirectory);
+    Files.delete(excludedFile);
+    waitForFileEvents();
+
+    assertEquals(1, getResources(resourceAccumulator).size());
+    assertFalse(resourceAccumulator.pollChanged());
+
+    Files.write(file, "class SomeFile {}".getBytes());
+    waitForFileEvents();
+
+    assertEquals(1, getResources(resourceAccumulator).size());
+    assertTrue(resourceAccumulator.pollChanged());
+
+    resourceAccumulator.shutdown();
+  }
+
   public void testMultipleListeners() throws Exception {
     Path rootDirectory = Files.createTempDirectory(null);
     Path subDirectory = createDirectoryIn("subdir", rootDirectory);
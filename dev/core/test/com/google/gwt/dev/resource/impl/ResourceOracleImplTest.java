@@ -262,6 +262,34 @@ public class ResourceOracleImplTest extends AbstractResourceOrientedTestBase {
         makeRerootBarPrefix());
   }
 
+  /**
+   * Test that the first of many ClassPathEntries wins even when it is the last
+   * one to be scanned.
+   */
+  public void testClassPathOrderIsHonoredWhenScanningConcurrently() {
+    TreeLogger logger = createTestTreeLogger();
+    ClassPathEntry[] classPath = new ClassPathEntry[8];
+    for (int i = 0; i < classPath.length; i++) {
+      final long delay = (classPath.length - i) * 10;
+      MockClassPathEntry cpe = new MockClassPathEntry("/cpe" + i + "/") {
+        @Override
+        public Map<AbstractResource, ResourceResolution> findApplicableResources(
+            TreeLogger logger, PathPrefixSet pathPrefixes) {
+          try {
+            Thread.sleep(delay);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return super.findApplicableResources(logger, pathPrefixes);
+        }
+      };
+      cpe.addResource("java/lang/Object.java");
+      classPath[i] = cpe;
+    }
+    testResourceInCPE(logger, "java/lang/Object.java", classPath[0], classPath,
+        makeJavaLangPrefix());
+  }
+
   public void testNoClassPathEntries() {
     TreeLogger logger = createTestTreeLogger();
     ResourceOracleImpl oracle = createResourceOracle(new MOCK_CPE0());
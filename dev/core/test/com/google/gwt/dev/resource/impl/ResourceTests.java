@@ -30,6 +30,7 @@ public class ResourceTests {
     suite.addTestSuite(PathPrefixSetTest.class);
     suite.addTestSuite(ResourceOracleImplRealClasspathTest.class);
     suite.addTestSuite(ResourceOracleImplTest.class);
+    suite.addTestSuite(ZipFileIndexCacheTest.class);
     return suite;
   }
 
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.resource.impl;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.resource.Resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests for {@link ZipFileIndexCache} and its use by
+ * {@link ZipFileClassPathEntry}.
+ */
+public class ZipFileIndexCacheTest extends AbstractResourceOrientedTestBase {
+
+  private File cacheDir;
+  private File jar;
+
+  public void testClassPathEntryUsesCachedIndex() throws Exception {
+    ZipFileIndexCache cache = new ZipFileIndexCache(cacheDir);
+    ZipFileClassPathEntry.setIndexCache(cache);
+
+    // The first process indexes the jar and saves the index
+    List<String> indexed = getPaths(ZipFileClassPathEntry.get(jar));
+    assertFalse(indexed.isEmpty());
+    List<String> cached = cache.read(jar, jar.length(), jar.lastModified());
+    assertNotNull(cached);
+    assertEquals(indexed.size(), cached.size());
+    assertTrue(cached.containsAll(indexed));
+
+    // A later one uses the saved index, and opens the jar to read a resource
+    String readable = cached.get(0);
+    cached.add("com/example/OnlyInTheCache.java");
+    cache.write(jar, jar.length(), jar.lastModified(), cached);
+    ZipFileClassPathEntry.clearCache();
+    ZipFileClassPathEntry entry = ZipFileClassPathEntry.get(jar);
+    assertTrue(getPaths(entry).contains("com/example/OnlyInTheCache.java"));
+    Resource resource = findResourceWithPath(findAll(entry).keySet(), readable);
+
+    // Opening the jar doesn't wait for the entry's monitor, which indexing holds
+    final Object entryMonitor = entry;
+    final CountDownLatch locked = new CountDownLatch(1);
+    final CountDownLatch unlock = new CountDownLatch(1);
+    Thread holder = new Thread() {
+      @Override
+      public void run() {
+        synchronized (entryMonitor) {
+          locked.countDown();
+          try {
+            unlock.await();
+          } catch (InterruptedException e) {
+            // exit
+          }
+        }
+      }
+    };
+    holder.start();
+    locked.await();
+    try {
+      InputStream in = resource.openContents();
+      assertNotNull(in);
+      in.close();
+    } finally {
+      unlock.countDown();
+      holder.join();
+    }
+  }
+
+  public void testMissingZipFile() throws Exception {
+    ZipFileIndexCache cache = new ZipFileIndexCache(cacheDir);
+    ZipFileClassPathEntry.setIndexCache(cache);
+    List<String> indexed = getPaths(ZipFileClassPathEntry.get(jar));
+
+    // The saved index is used, so the jar isn't opened until a resource is read
+    ZipFileClassPathEntry.clearCache();
+    ZipFileClassPathEntry entry = ZipFileClassPathEntry.get(jar);
+    Resource resource = findResourceWithPath(findAll(entry).keySet(), indexed.get(0));
+    assertTrue(jar.delete());
+    try {
+      resource.openContents();
+      fail("Expected IOException");
+    } catch (IOException expected) {
+    }
+    try {
+      entry.getZipFile();
+      fail("Expected RuntimeException");
+    } catch (RuntimeException expected) {
+      assertTrue(expected.getCause() instanceof IOException);
+    }
+  }
+
+  public void testReadMissingOrCorrupt() throws IOException {
+    ZipFileIndexCache cache = new ZipFileIndexCache(cacheDir);
+    assertNull(cache.read(jar, jar.length(), jar.lastModified()));
+
+    cache.write(jar, jar.length(), jar.lastModified(), Arrays.asList("a/B.java"));
+    File[] cacheFiles = cacheDir.listFiles();
+    assertEquals(1, cacheFiles.length);
+    Files.write(cacheFiles[0].toPath(), new byte[] {0x47, 0x5a});
+    assertNull(cache.read(jar, jar.length(), jar.lastModified()));
+  }
+
+  public void testReadStale() throws IOException {
+    ZipFileIndexCache cache = new ZipFileIndexCache(cacheDir);
+    List<String> entryNames = Arrays.asList("a/B.java", "a/C.java");
+    cache.write(jar, 10, 20, entryNames);
+    assertEquals(entryNames, cache.read(jar, 10, 20));
+    assertNull(cache.read(jar, 11, 20));
+    assertNull(cache.read(jar, 10, 21));
+    assertNull(cache.read(new File(jar.getParentFile(), "other.jar"), 10, 20));
+
+    // Rewriting replaces the old index
+    cache.write(jar, 11, 20, entryNames.subList(0, 1));
+    assertEquals(entryNames.subList(0, 1), cache.read(jar, 11, 20));
+    assertEquals(1, cacheDir.listFiles().length);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    cacheDir = Files.createTempDirectory("index-cache").toFile();
+    jar = Files.createTempFile("cpe1", ".jar").toFile();
+    Files.copy(findFile("com/google/gwt/dev/resource/impl/testdata/cpe1.jar").toPath(),
+        jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    ZipFileClassPathEntry.clearCache();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    ZipFileClassPathEntry.setIndexCache(null);
+    ZipFileClassPathEntry.clearCache();
+    for (File file : cacheDir.listFiles()) {
+      file.delete();
+    }
+    cacheDir.delete();
+    jar.delete();
+    super.tearDown();
+  }
+
+  private static Map<AbstractResource, ResourceResolution> findAll(ZipFileClassPathEntry entry) {
+    PathPrefixSet pathPrefixes = new PathPrefixSet();
+    pathPrefixes.add(new PathPrefix("", null));
+    return entry.findApplicableResources(TreeLogger.NULL, pathPrefixes);
+  }
+
+  private static List<String> getPaths(ZipFileClassPathEntry entry) {
+    List<String> paths = new ArrayList<String>();
+    for (AbstractResource resource : findAll(entry).keySet()) {
+      paths.add(resource.getPath());
+    }
+    return paths;
+  }
+}
@@ -17,7 +17,17 @@ package com.google.gwt.dev.util;
 
 import junit.framework.TestCase;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Tests {@link DiskCache}.
@@ -76,4 +86,106 @@ public class DiskCacheTest extends TestCase {
           expected, actual);
     }
   }
+
+  public void testConcurrentReads() throws Exception {
+    // Small segments, so that most records straddle a mapped segment boundary.
+    final DiskCache smallSegments = new DiskCache(1024);
+    final byte[][] values = new byte[200][];
+    final long[] tokens = new long[values.length];
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = newBytes(i * 37, i);
+      tokens[i] = smallSegments.writeByteArray(values[i]);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Void>> results = new ArrayList<Future<Void>>();
+      for (int t = 0; t < 4; ++t) {
+        final int offset = t;
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int i = 0; i < values.length; ++i) {
+              int index = (i * 7 + offset) % values.length;
+              assertTrue(Arrays.equals(values[index], smallSegments.readByteArray(tokens[index])));
+            }
+            return null;
+          }
+        }));
+      }
+      // Keep appending while the readers run.
+      for (int i = 0; i < 50; ++i) {
+        byte[] value = newBytes(500, i);
+        assertTrue(Arrays.equals(value,
+            smallSegments.readByteArray(smallSegments.writeByteArray(value))));
+      }
+      for (Future<Void> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testWithoutMapping() throws IOException {
+    // As on Windows, where a mapped file can't be deleted.
+    DiskCache unmapped = new DiskCache(1024, false);
+    byte[][] values = new byte[20][];
+    long[] tokens = new long[values.length];
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = newBytes(i * 211, i);
+      tokens[i] = unmapped.writeByteArray(values[i]);
+    }
+    for (int i = 0; i < values.length; ++i) {
+      assertTrue(Arrays.equals(values[i], unmapped.readByteArray(tokens[i])));
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      unmapped.transferToStream(tokens[i], out);
+      assertTrue(Arrays.equals(values[i], out.toByteArray()));
+    }
+  }
+
+  public void testStreams() throws IOException {
+    DiskCache smallSegments = new DiskCache(1024);
+    smallSegments.writeByteArray(newBytes(1000, 1));
+    byte[] expected = newBytes(10000, 2);
+    long token = smallSegments.transferFromStream(new ByteArrayInputStream(expected));
+    smallSegments.writeByteArray(newBytes(3000, 3));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    smallSegments.transferToStream(token, out);
+    assertTrue(Arrays.equals(expected, out.toByteArray()));
+    assertTrue(Arrays.equals(expected, smallSegments.readByteArray(token)));
+  }
+
+  public void testOpenStream() throws IOException {
+    DiskCache smallSegments = new DiskCache(1024);
+    smallSegments.writeByteArray(newBytes(700, 1));
+    byte[] expected = newBytes(5000, 2);
+    long token = smallSegments.writeByteArray(expected);
+    // The last segment is still being written, so it is read through the file.
+    smallSegments.writeByteArray(newBytes(100, 3));
+
+    InputStream in = smallSegments.openStream(token);
+    assertEquals(expected.length, in.available());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buf = new byte[333];
+    int count;
+    while ((count = in.read(buf)) != -1) {
+      out.write(buf, 0, count);
+    }
+    assertTrue(Arrays.equals(expected, out.toByteArray()));
+    assertEquals(-1, in.read());
+
+    String[] object = {"a", "b", "c"};
+    long objectToken = smallSegments.writeObject(object);
+    assertTrue(Arrays.equals(object, smallSegments.readObject(objectToken, String[].class)));
+  }
+
+  private static byte[] newBytes(int length, int seed) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; ++i) {
+      bytes[i] = (byte) (i * 31 + seed);
+    }
+    return bytes;
+  }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import com.google.gwt.thirdparty.debugging.sourcemap.SourceMapping;
+import com.google.gwt.thirdparty.debugging.sourcemap.proto.Mapping.OriginalMapping;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A {@link SourceMapping} backed by the lookup table that SymbolMapsLinker emits when the
+ * <code>compiler.emitSourceMapIndex</code> configuration property is set. The mappings are already
+ * decoded and sorted by generated position, so loading one is a bulk read of int arrays and a
+ * lookup is a binary search. See {@code com.google.gwt.core.linker.SourceMapIndexWriter} for the
+ * format.
+ */
+class IndexedSourceMapping implements SourceMapping {
+
+  private static final int MAGIC = 0x47534d49;
+  private static final int VERSION = 1;
+
+  /**
+   * Reads a lookup table and closes the stream.
+   *
+   * @throws IOException if the stream cannot be read or does not hold a lookup table
+   */
+  static IndexedSourceMapping read(InputStream in) throws IOException {
+    byte[] bytes;
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      bytes = out.toByteArray();
+    } finally {
+      in.close();
+    }
+
+    try {
+      IntBuffer ints = ByteBuffer.wrap(bytes).asIntBuffer();
+      if (ints.get() != MAGIC || ints.get() != VERSION) {
+        throw new IOException("Not a source map index");
+      }
+      int lineCount = ints.get();
+      int entryCount = ints.get();
+      int[] lineStarts = readInts(ints, lineCount + 1);
+      int[] columns = readInts(ints, entryCount);
+      int[] sourceIds = readInts(ints, entryCount);
+      int[] sourceLines = readInts(ints, entryCount);
+      int[] sourceColumns = readInts(ints, entryCount);
+      int[] nameIds = readInts(ints, entryCount);
+
+      int stringsStart = ints.position() * 4;
+      DataInputStream strings = new DataInputStream(
+          new ByteArrayInputStream(bytes, stringsStart, bytes.length - stringsStart));
+      String[] sources = readStrings(strings);
+      String[] names = readStrings(strings);
+      return new IndexedSourceMapping(lineStarts, columns, sourceIds, sourceLines, sourceColumns,
+          nameIds, sources, names);
+    } catch (RuntimeException e) {
+      // Truncated or corrupt data
+      throw new IOException("Malformed source map index", e);
+    }
+  }
+
+  private static int[] readInts(IntBuffer ints, int count) {
+    int[] toReturn = new int[count];
+    ints.get(toReturn);
+    return toReturn;
+  }
+
+  private static String[] readStrings(DataInputStream in) throws IOException {
+    String[] toReturn = new String[in.readInt()];
+    for (int i = 0; i < toReturn.length; i++) {
+      toReturn[i] = in.readUTF();
+    }
+    return toReturn;
+  }
+
+  private final int[] lineStarts;
+  private final int[] columns;
+  private final int[] sourceIds;
+  private final int[] sourceLines;
+  private final int[] sourceColumns;
+  private final int[] nameIds;
+  private final String[] sources;
+  private final String[] names;
+
+  private IndexedSourceMapping(int[] lineStarts, int[] columns, int[] sourceIds,
+      int[] sourceLines, int[] sourceColumns, int[] nameIds, String[] sources, String[] names) {
+    this.lineStarts = lineStarts;
+    this.columns = columns;
+    this.sourceIds = sourceIds;
+    this.sourceLines = sourceLines;
+    this.sourceColumns = sourceColumns;
+    this.nameIds = nameIds;
+    this.sources = sources;
+    this.names = names;
+  }
+
+  /**
+   * Returns the mapping for a one-based line and column, with the same results as the parsed
+   * source map: a position before the first segment of its line resolves to the last segment of
+   * an earlier line.
+   */
+  @Override
+  public OriginalMapping getMappingForLine(int lineNumber, int column) {
+    int line = lineNumber - 1;
+    int col = column - 1;
+    if (line < 0 || line >= lineStarts.length - 1) {
+      return null;
+    }
+
+    // Find the last segment on the line that starts at or before the column
+    int low = lineStarts[line];
+    int high = lineStarts[line + 1] - 1;
+    int found = low - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (columns[mid] <= col) {
+        found = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    if (found < 0 || sourceIds[found] < 0) {
+      return null;
+    }
+
+    OriginalMapping.Builder builder = OriginalMapping.newBuilder()
+        .setOriginalFile(sources[sourceIds[found]])
+        .setLineNumber(sourceLines[found] + 1)
+        .setColumnPosition(sourceColumns[found] + 1);
+    if (nameIds[found] >= 0) {
+      builder.setIdentifier(names[nameIds[found]]);
+    }
+    return builder.build();
+  }
+}
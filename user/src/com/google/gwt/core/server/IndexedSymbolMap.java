@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * The method symbols of a permutation, backed by the lookup table that SymbolMapsLinker emits when
+ * the <code>compiler.emitSymbolMapIndex</code> configuration property is set. The entries stay in
+ * their encoded form, sorted by symbol, and a lookup is a binary search. See
+ * {@code com.google.gwt.core.linker.SymbolMapIndexWriter} for the format.
+ */
+class IndexedSymbolMap {
+
+  private static final int MAGIC = 0x4753594d;
+  private static final int VERSION = 1;
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * Reads a lookup table and closes the stream.
+   *
+   * @throws IOException if the stream cannot be read or does not hold a lookup table
+   */
+  static IndexedSymbolMap read(InputStream in) throws IOException {
+    byte[] bytes;
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      bytes = out.toByteArray();
+    } finally {
+      in.close();
+    }
+
+    try {
+      IntBuffer ints = ByteBuffer.wrap(bytes).asIntBuffer();
+      if (ints.get() != MAGIC || ints.get() != VERSION) {
+        throw new IOException("Not a symbol map index");
+      }
+      int[] entryStarts = new int[ints.get() + 1];
+      ints.get(entryStarts);
+      int entriesStart = ints.position() * 4;
+      if (entriesStart + entryStarts[entryStarts.length - 1] != bytes.length) {
+        throw new IOException("Malformed symbol map index");
+      }
+      return new IndexedSymbolMap(bytes, entriesStart, entryStarts);
+    } catch (RuntimeException e) {
+      // Truncated or corrupt data
+      throw new IOException("Malformed symbol map index", e);
+    }
+  }
+
+  private final byte[] bytes;
+  private final int entriesStart;
+  private final int[] entryStarts;
+
+  private IndexedSymbolMap(byte[] bytes, int entriesStart, int[] entryStarts) {
+    this.bytes = bytes;
+    this.entriesStart = entriesStart;
+    this.entryStarts = entryStarts;
+  }
+
+  /**
+   * Returns the symbol data of a method symbol, in the same form as the symbol map line after the
+   * symbol and its comma, or null if the symbol is not a method in this permutation.
+   */
+  String get(String symbol) {
+    byte[] key = symbol.getBytes(UTF8);
+    int low = 0;
+    int high = entryStarts.length - 2;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int start = entriesStart + entryStarts[mid];
+      int cmp = compareSymbol(start, key);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        int dataStart = start + key.length + 1;
+        return new String(bytes, dataStart, entriesStart + entryStarts[mid + 1] - dataStart, UTF8);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Compares the symbol of the entry at the given offset, which ends at its first comma, with a
+   * key.
+   */
+  private int compareSymbol(int start, byte[] key) {
+    for (int i = 0; ; i++) {
+      int c = bytes[start + i] == ',' ? -1 : bytes[start + i] & 0xff;
+      int k = i == key.length ? -1 : key[i] & 0xff;
+      if (c != k || c == -1) {
+        return c - k;
+      }
+    }
+  }
+}
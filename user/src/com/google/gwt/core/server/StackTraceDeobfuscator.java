@@ -28,10 +28,11 @@ import java.io.InputStreamReader;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,6 +46,9 @@ import java.util.regex.Pattern;
  * argument to specify the location of the folder into which the generated <code>symbolMaps</code>
  * directory is written. By default, the final <code>symbolMaps</code> directory is
  * <code>war/WEB-INF/deploy/<i>yourmodulename</i>/symbolMaps/</code>.
+ * <p>
+ * Symbol data, symbol map lookup tables and parsed source maps are cached for every permutation
+ * seen, unless a limit is set with {@link #setCacheSize(int)}.
  */
 public abstract class StackTraceDeobfuscator {
 
@@ -89,21 +93,47 @@ public abstract class StackTraceDeobfuscator {
     };
   }
 
+  /**
+   * A map that holds at most a fixed number of entries, dropping the least recently used one when
+   * full. Callers synchronize on the map.
+   */
+  private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+    private int maxSize;
+
+    LruMap(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    void setMaxSize(int maxSize) {
+      this.maxSize = maxSize;
+      Iterator<K> it = keySet().iterator();
+      while (size() > maxSize) {
+        it.next();
+        it.remove();
+      }
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > maxSize;
+    }
+  }
+
   /**
    * A cache that maps obfuscated symbols to arbitrary non-null string values. The cache can assume
    * each (strongName, symbol) pair always maps to the same value (never goes invalid), but must
-   * treat data as an opaque string.
+   * treat data as an opaque string. Symbols are kept for a bounded number of strong names; the
+   * symbols of the least recently used strong name are dropped first.
+   * <p>
+   * Each strong name's symbols are guarded by their own lock, so that loading the symbols of one
+   * permutation doesn't block lookups in the others; the LRU map is only locked to find them.
    */
   private static class SymbolCache {
-    // TODO(srogoff): This SymbolCache implementation never drops old entries. If clients ever need
-    // to cap memory usage even with lazy loading, consider making SymbolCache an interface.
-    // This could allow clients to pass their own implementation to the StackTraceDeobfuscator
-    // constructor, backed by a Guava Cache or other entry-evicting mapping.
+    private final LruMap<String, HashMap<String, String>> symbolMaps;
 
-    private final ConcurrentHashMap<String, HashMap<String, String>> symbolMaps;
-
-    SymbolCache() {
-      symbolMaps = new ConcurrentHashMap<String, HashMap<String, String>>();
+    SymbolCache(int maxStrongNames) {
+      symbolMaps = new LruMap<String, HashMap<String, String>>(maxStrongNames);
     }
 
     /**
@@ -113,8 +143,14 @@ public abstract class StackTraceDeobfuscator {
       if (strongName == null || symbolMap.size() == 0) {
         return;
       }
-      symbolMaps.putIfAbsent(strongName, new HashMap<String, String>());
-      HashMap<String, String> existingMap = symbolMaps.get(strongName);
+      HashMap<String, String> existingMap;
+      synchronized (symbolMaps) {
+        existingMap = symbolMaps.get(strongName);
+        if (existingMap == null) {
+          existingMap = new HashMap<String, String>();
+          symbolMaps.put(strongName, existingMap);
+        }
+      }
       synchronized (existingMap) {
         existingMap.putAll(symbolMap);
       }
@@ -127,19 +163,32 @@ public abstract class StackTraceDeobfuscator {
      */
     Map<String, String> getAll(String strongName, Set<String> symbols) {
       Map<String, String> toReturn = new HashMap<String, String>();
-      if (strongName == null || !symbolMaps.containsKey(strongName) || symbols.isEmpty()) {
+      if (strongName == null || symbols.isEmpty()) {
+        return toReturn;
+      }
+      HashMap<String, String> existingMap;
+      synchronized (symbolMaps) {
+        existingMap = symbolMaps.get(strongName);
+      }
+      if (existingMap == null) {
         return toReturn;
       }
-      HashMap<String, String> existingMap = symbolMaps.get(strongName);
       synchronized (existingMap) {
         for (String symbol : symbols) {
-          if (existingMap.containsKey(symbol)) {
-            toReturn.put(symbol, existingMap.get(symbol));
+          String data = existingMap.get(symbol);
+          if (data != null) {
+            toReturn.put(symbol, data);
           }
         }
       }
       return toReturn;
     }
+
+    void setMaxStrongNames(int maxStrongNames) {
+      synchronized (symbolMaps) {
+        symbolMaps.setMaxSize(maxStrongNames);
+      }
+    }
   }
 
   private static final Pattern JsniRefPattern = Pattern.compile("@?([^:]+)::([^(]+)(\\((.*)\\))?");
@@ -147,10 +196,35 @@ public abstract class StackTraceDeobfuscator {
   private static final int LINE_NUMBER_UNKNOWN = -1;
   private static final String SYMBOL_DATA_UNKNOWN = "";
 
-  private final Map<String, SourceMapping> sourceMaps = new HashMap<String, SourceMapping>();
-  private final SymbolCache symbolCache = new SymbolCache();
+  private final LruMap<String, SourceMapping> sourceMaps =
+      new LruMap<String, SourceMapping>(Integer.MAX_VALUE);
+  private final SymbolCache symbolCache = new SymbolCache(Integer.MAX_VALUE);
+  /**
+   * Symbol map lookup tables by strong name. A null value records that the permutation has none.
+   */
+  private final LruMap<String, IndexedSymbolMap> symbolMapIndexes =
+      new LruMap<String, IndexedSymbolMap>(Integer.MAX_VALUE);
   private boolean lazyLoad = false;
 
+  /**
+   * Sets how many permutations' symbol data are kept in memory. By default there is no limit.
+   * When the limit is reached, the data of the least recently used permutation is dropped and read
+   * again from its symbol map if it is needed later. The same limit applies separately to symbol
+   * map lookup tables, and to parsed source maps, which are cached per fragment.
+   */
+  public void setCacheSize(int cacheSize) {
+    if (cacheSize < 1) {
+      throw new IllegalArgumentException("cacheSize must be positive: " + cacheSize);
+    }
+    symbolCache.setMaxStrongNames(cacheSize);
+    synchronized (symbolMapIndexes) {
+      symbolMapIndexes.setMaxSize(cacheSize);
+    }
+    synchronized (sourceMaps) {
+      sourceMaps.setMaxSize(cacheSize);
+    }
+  }
+
   /**
    * If set to {@code true}, only symbols requested to be deobfuscated are cached and the rest is
    * discarded. This provides a large memory savings at the expense of occasional extra disk reads.
@@ -321,11 +395,42 @@ public abstract class StackTraceDeobfuscator {
     return ste;
   }
 
+  /**
+   * Retrieves a new {@link InputStream} for the source map lookup table of the given fragment,
+   * which the compiler emits when the <code>compiler.emitSourceMapIndex</code> configuration
+   * property is set. This implementation, which subclasses may override, returns a
+   * {@link InputStream} for the <code><i>permutation-strong-name</i>_sourceMapIndex<i>fragment
+   * </i>.bin</code> file. When the table cannot be opened, the source map itself is parsed.
+   *
+   * @param permutationStrongName the GWT permutation strong name
+   * @param fragmentNumber the fragment number
+   * @return a new {@link InputStream}
+   */
+  protected InputStream getSourceMapIndexInputStream(String permutationStrongName,
+      int fragmentNumber) throws IOException {
+    return openInputStream(permutationStrongName + "_sourceMapIndex" + fragmentNumber + ".bin");
+  }
+
   protected InputStream getSourceMapInputStream(String permutationStrongName, int fragmentNumber)
       throws IOException {
     return openInputStream(permutationStrongName + "_sourceMap" + fragmentNumber + ".json");
   }
 
+  /**
+   * Retrieves a new {@link InputStream} for the symbol map lookup table of the given permutation,
+   * which the compiler emits when the <code>compiler.emitSymbolMapIndex</code> configuration
+   * property is set. This implementation, which subclasses may override, returns a
+   * {@link InputStream} for the <code><i>permutation-strong-name</i>.symbolMapIndex.bin</code>
+   * file. When the table cannot be opened, the symbol map itself is read.
+   *
+   * @param permutationStrongName the GWT permutation strong name
+   * @return a new {@link InputStream}
+   */
+  protected InputStream getSymbolMapIndexInputStream(String permutationStrongName)
+      throws IOException {
+    return openInputStream(permutationStrongName + ".symbolMapIndex.bin");
+  }
+
   /**
    * Retrieves a new {@link InputStream} for the given permutation strong name. This implementation,
    * which subclasses may override, returns a {@link InputStream} for the <code>
@@ -348,13 +453,29 @@ public abstract class StackTraceDeobfuscator {
   protected abstract InputStream openInputStream(String fileName) throws IOException;
 
   private SourceMapping loadSourceMap(String permutationStrongName, int fragmentId) {
-    SourceMapping toReturn = sourceMaps.get(permutationStrongName + fragmentId);
+    String key = permutationStrongName + fragmentId;
+    SourceMapping toReturn;
+    synchronized (sourceMaps) {
+      toReturn = sourceMaps.get(key);
+    }
     if (toReturn == null) {
+      try {
+        toReturn = IndexedSourceMapping.read(
+            getSourceMapIndexInputStream(permutationStrongName, fragmentId));
+        synchronized (sourceMaps) {
+          sourceMaps.put(key, toReturn);
+        }
+        return toReturn;
+      } catch (IOException e) {
+        // No usable lookup table; parse the source map instead
+      }
       try {
         String sourceMapString = loadStreamAsString(
             getSourceMapInputStream(permutationStrongName, fragmentId));
         toReturn = SourceMapConsumerFactory.parse(sourceMapString);
-        sourceMaps.put(permutationStrongName + fragmentId, toReturn);
+        synchronized (sourceMaps) {
+          sourceMaps.put(key, toReturn);
+        }
       } catch (Exception e) {
       }
     }
@@ -380,6 +501,16 @@ public abstract class StackTraceDeobfuscator {
    */
   private Map<String, String> loadSymbolMap(
       String strongName, Set<String> requiredSymbols) {
+    IndexedSymbolMap index = loadSymbolMapIndex(strongName);
+    if (index != null) {
+      Map<String, String> toReturn = new HashMap<String, String>();
+      for (String symbol : requiredSymbols) {
+        String symbolData = index.get(symbol);
+        toReturn.put(symbol, symbolData == null ? SYMBOL_DATA_UNKNOWN : symbolData);
+      }
+      return toReturn;
+    }
+
     Map<String, String> toReturn = symbolCache.getAll(strongName, requiredSymbols);
     if (toReturn.size() == requiredSymbols.size()) {
       return toReturn;
@@ -429,6 +560,31 @@ public abstract class StackTraceDeobfuscator {
     return toReturn;
   }
 
+  /**
+   * Returns the symbol map lookup table for the given strong name, or null if there is none.
+   */
+  private IndexedSymbolMap loadSymbolMapIndex(String strongName) {
+    if (strongName == null) {
+      return null;
+    }
+    synchronized (symbolMapIndexes) {
+      if (symbolMapIndexes.containsKey(strongName)) {
+        return symbolMapIndexes.get(strongName);
+      }
+    }
+    IndexedSymbolMap toReturn;
+    try {
+      toReturn = IndexedSymbolMap.read(getSymbolMapIndexInputStream(strongName));
+    } catch (IOException e) {
+      // No usable lookup table; read the symbol map instead
+      toReturn = null;
+    }
+    synchronized (symbolMapIndexes) {
+      symbolMapIndexes.put(strongName, toReturn);
+    }
+    return toReturn;
+  }
+
   /**
    * Extracts the declaring class and method name from a JSNI ref, or null if the information cannot
    * be extracted.
@@ -48,6 +48,40 @@ public class RpcRequestBuilder {
    */
   public static final String STRONG_NAME_HEADER = "X-GWT-Permutation";
 
+  /**
+   * Used by {@link #doFinish} when binary responses have been requested with
+   * {@link #setBinaryResponses}.
+   */
+  /*
+   * NB: Also used by RemoteServiceServlet.
+   */
+  public static final String RESPONSE_ENCODING_HEADER = "X-GWT-RPC-Response-Encoding";
+
+  /**
+   * The value of the {@value #RESPONSE_ENCODING_HEADER} header that asks for
+   * binary responses.
+   */
+  public static final String BINARY_RESPONSE_ENCODING = "binary";
+
+  /**
+   * Set by proxies on requests that carry several calls when batching has been
+   * turned on with {@link #setBatching}. Its value is the number of calls.
+   */
+  /*
+   * NB: Also used by RemoteServiceServlet.
+   */
+  public static final String BATCH_HEADER = "X-GWT-RPC-Batch";
+
+  /**
+   * Whether proxies send calls made in the same event loop turn together.
+   */
+  private boolean batching;
+
+  /**
+   * Whether to ask the server for binary responses.
+   */
+  private boolean binaryResponses;
+
   /**
    * Not exposed directly to the subclass.
    */
@@ -89,6 +123,48 @@ public class RpcRequestBuilder {
     }
   }
 
+  /**
+   * Returns whether proxies send calls made in the same event loop turn in a
+   * single request.
+   */
+  public boolean isBatching() {
+    return batching;
+  }
+
+  /**
+   * Returns whether requests ask the server for binary responses.
+   */
+  public boolean isBinaryResponses() {
+    return binaryResponses;
+  }
+
+  /**
+   * Sets whether proxies that use this RpcRequestBuilder send the calls made in
+   * the same event loop turn in a single request, which the server must accept
+   * (see <code>RemoteServiceServlet</code>). The calls are sent when the
+   * browser event loop regains control, and a batched call returns
+   * <code>null</code> instead of its {@link com.google.gwt.http.client.Request}.
+   * The batch request is built with this RpcRequestBuilder like any other
+   * request.
+   *
+   * @param batching <code>true</code> to batch calls
+   */
+  public void setBatching(boolean batching) {
+    this.batching = batching;
+  }
+
+  /**
+   * Sets whether requests ask the server for responses in the binary encoding,
+   * which is smaller and faster to decode than the default JavaScript
+   * encoding. A server that does not support it answers in the default
+   * encoding, which is still understood.
+   *
+   * @param binaryResponses <code>true</code> to ask for binary responses
+   */
+  public void setBinaryResponses(boolean binaryResponses) {
+    this.binaryResponses = binaryResponses;
+  }
+
   /**
    * Sets the RequestCallback to be used by the RequestBuilder. Delegates to
    * {@link #doSetCallback}.
@@ -159,13 +235,18 @@ public class RpcRequestBuilder {
    * caller.
    * <p>
    * The default implementation sets the {@value #STRONG_NAME_HEADER} header to
-   * the value returned by {@link GWT#getPermutationStrongName()}.
+   * the value returned by {@link GWT#getPermutationStrongName()}, and the
+   * {@value #RESPONSE_ENCODING_HEADER} header if binary responses have been
+   * requested.
    * 
    * @param rb The RequestBuilder that is currently being configured
    */
   protected void doFinish(RequestBuilder rb) {
     rb.setHeader(STRONG_NAME_HEADER, GWT.getPermutationStrongName());
     rb.setHeader(MODULE_BASE_HEADER, GWT.getModuleBaseURL());
+    if (binaryResponses) {
+      rb.setHeader(RESPONSE_ENCODING_HEADER, BINARY_RESPONSE_ENCODING);
+    }
   }
 
   /**
@@ -27,6 +27,12 @@ public abstract class AbstractSerializationStream {
    */
   public static final int DEFAULT_FLAGS = 0;
 
+  /**
+   * The first character of a response payload written in the binary encoding,
+   * which cannot start a payload in the JavaScript encoding.
+   */
+  public static final char BINARY_STREAM_MARKER = '\u0000';
+
   /**
    * The character used to separate fields in client->server RPC messages.
    * 
@@ -69,10 +75,19 @@ public abstract class AbstractSerializationStream {
    */
   public static final int FLAG_RPC_TOKEN_INCLUDED = 0x2;
   
+  /**
+   * Indicates that the response is written in the binary encoding read by
+   * {@link BinaryClientSerializationStreamReader}. Set by the server when the
+   * request carries the
+   * {@value com.google.gwt.user.client.rpc.RpcRequestBuilder#RESPONSE_ENCODING_HEADER}
+   * header.
+   */
+  public static final int FLAG_BINARY_RESPONSE = 0x4;
+
   /**
    * Bit mask representing all valid flags.
    */
-  public static final int VALID_FLAGS_MASK = 0x3;
+  public static final int VALID_FLAGS_MASK = 0x7;
 
   private int flags = DEFAULT_FLAGS;
   private int version = SERIALIZATION_STREAM_VERSION;
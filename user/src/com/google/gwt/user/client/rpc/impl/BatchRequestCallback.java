@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.client.rpc.impl;
+
+import com.google.gwt.http.client.Header;
+import com.google.gwt.http.client.Request;
+import com.google.gwt.http.client.RequestCallback;
+import com.google.gwt.http.client.Response;
+import com.google.gwt.user.client.rpc.InvocationException;
+
+import java.util.List;
+
+/**
+ * Receives the response to a batch of RPC calls and hands each call its own
+ * part of it. If the batch as a whole fails, every call fails the same way.
+ */
+class BatchRequestCallback implements RequestCallback {
+
+  /**
+   * The response to one call of a batch: the status and headers of the batch
+   * response with the call's own payload.
+   */
+  private static class PartResponse extends Response {
+    private final Response batchResponse;
+    private final String text;
+
+    PartResponse(Response batchResponse, String text) {
+      this.batchResponse = batchResponse;
+      this.text = text;
+    }
+
+    @Override
+    public String getHeader(String header) {
+      return batchResponse.getHeader(header);
+    }
+
+    @Override
+    public Header[] getHeaders() {
+      return batchResponse.getHeaders();
+    }
+
+    @Override
+    public String getHeadersAsString() {
+      return batchResponse.getHeadersAsString();
+    }
+
+    @Override
+    public int getStatusCode() {
+      return batchResponse.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() {
+      return batchResponse.getStatusText();
+    }
+
+    @Override
+    public String getText() {
+      return text;
+    }
+  }
+
+  private final List<RequestCallback> callbacks;
+
+  /**
+   * @param callbacks the callbacks of the calls, in the order their payloads
+   *          appear in the batch
+   */
+  BatchRequestCallback(List<RequestCallback> callbacks) {
+    this.callbacks = callbacks;
+  }
+
+  public void onError(Request request, Throwable exception) {
+    RuntimeException thrown = null;
+    for (RequestCallback callback : callbacks) {
+      try {
+        callback.onError(request, exception);
+      } catch (RuntimeException e) {
+        thrown = thrown == null ? e : thrown;
+      }
+    }
+    if (thrown != null) {
+      throw thrown;
+    }
+  }
+
+  public void onResponseReceived(Request request, Response response) {
+    List<String> parts = null;
+    if (response.getStatusCode() == Response.SC_OK && response.getText() != null) {
+      try {
+        parts = RpcBatch.split(response.getText());
+      } catch (IllegalArgumentException e) {
+        parts = null;
+      }
+      if (parts == null || parts.size() != callbacks.size()) {
+        onError(request, new InvocationException("Malformed response to a batch of "
+            + callbacks.size() + " calls"));
+        return;
+      }
+    }
+
+    RuntimeException thrown = null;
+    for (int i = 0; i < callbacks.size(); i++) {
+      // If the batch failed, each call reports it as it would on its own
+      Response callResponse = parts == null ? response : new PartResponse(response, parts.get(i));
+      try {
+        callbacks.get(i).onResponseReceived(request, callResponse);
+      } catch (RuntimeException e) {
+        thrown = thrown == null ? e : thrown;
+      }
+    }
+    if (thrown != null) {
+      throw thrown;
+    }
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.client.rpc.impl;
+
+import com.google.gwt.user.client.rpc.IncompatibleRemoteServiceException;
+import com.google.gwt.user.client.rpc.SerializationException;
+
+/**
+ * Reads RPC responses written in the binary encoding, which the server uses
+ * when a request carries the
+ * {@value com.google.gwt.user.client.rpc.RpcRequestBuilder#RESPONSE_ENCODING_HEADER}
+ * header.
+ * <p>
+ * The payload is a sequence of bytes carried one per character: the server
+ * sends it with the <code>x-user-defined</code> charset, which browsers decode
+ * into characters whose low eight bits are the original bytes. It holds, in
+ * order:
+ * <pre>
+ * marker, version, flags
+ * string count, then for each string its length and its UTF-16 code units
+ * the values, in the order they were written
+ * </pre>
+ * Ints, shorts, lengths and characters are varints, with signed values zigzag
+ * encoded; longs are zigzag encoded 64-bit varints; booleans and bytes take one
+ * byte; floats and doubles take eight bytes, big-endian. Strings in the values
+ * are 1-based indexes into the string table, as in the JavaScript encoding.
+ * <p>
+ * Unlike the JavaScript encoding, nothing has to be parsed or evaluated up
+ * front, and the values are read front to back.
+ */
+public final class BinaryClientSerializationStreamReader extends
+    AbstractSerializationStreamReader {
+
+  /**
+   * Returns <code>true</code> if a response payload, without its
+   * <code>//OK</code> or <code>//EX</code> prefix, is in the binary encoding.
+   */
+  public static boolean isBinary(String encoded) {
+    return encoded.length() > 0 && encoded.charAt(0) == BINARY_STREAM_MARKER;
+  }
+
+  private String encoded;
+  private int position;
+  private final Serializer serializer;
+  private String[] stringTable;
+
+  public BinaryClientSerializationStreamReader(Serializer serializer) {
+    this.serializer = serializer;
+  }
+
+  @Override
+  public void prepareToRead(String encoded) throws SerializationException {
+    if (!isBinary(encoded)) {
+      throw new SerializationException("Not a binary RPC payload");
+    }
+    this.encoded = encoded;
+    position = 1;
+    super.prepareToRead(encoded);
+
+    if (getVersion() < SERIALIZATION_STREAM_MIN_VERSION
+        || getVersion() > SERIALIZATION_STREAM_MAX_VERSION) {
+      throw new IncompatibleRemoteServiceException("Got version " + getVersion()
+          + ", expected version between " + SERIALIZATION_STREAM_MIN_VERSION + " and "
+          + SERIALIZATION_STREAM_MAX_VERSION);
+    }
+
+    if (!areFlagsValid()) {
+      throw new IncompatibleRemoteServiceException("Got an unknown flag from "
+          + "server: " + getFlags());
+    }
+
+    stringTable = new String[readVarint()];
+    for (int i = 0; i < stringTable.length; i++) {
+      char[] chars = new char[readVarint()];
+      for (int j = 0; j < chars.length; j++) {
+        chars[j] = (char) readVarint();
+      }
+      stringTable[i] = String.valueOf(chars);
+    }
+  }
+
+  @Override
+  public boolean readBoolean() {
+    return readUnsignedByte() != 0;
+  }
+
+  @Override
+  public byte readByte() {
+    return (byte) readUnsignedByte();
+  }
+
+  @Override
+  public char readChar() {
+    return (char) readVarint();
+  }
+
+  @Override
+  public double readDouble() {
+    long high = readFixedInt();
+    long low = readFixedInt();
+    return Double.longBitsToDouble((high << 32) | (low & 0xffffffffL));
+  }
+
+  @Override
+  public float readFloat() {
+    return (float) readDouble();
+  }
+
+  @Override
+  public int readInt() {
+    int value = readVarint();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  @Override
+  public long readLong() {
+    long value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = readUnsignedByte();
+      value |= (long) (b & 0x7f) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  @Override
+  public short readShort() {
+    return (short) readInt();
+  }
+
+  @Override
+  public String readString() {
+    return getString(readInt());
+  }
+
+  @Override
+  protected Object deserialize(String typeSignature)
+      throws SerializationException {
+    int id = reserveDecodedObjectIndex();
+    Object instance = serializer.instantiate(this, typeSignature);
+    rememberDecodedObject(id, instance);
+    serializer.deserialize(this, instance, typeSignature);
+    return instance;
+  }
+
+  @Override
+  protected String getString(int index) {
+    // index is 1-based
+    return index > 0 ? stringTable[index - 1] : null;
+  }
+
+  private int readFixedInt() {
+    return (readUnsignedByte() << 24) | (readUnsignedByte() << 16)
+        | (readUnsignedByte() << 8) | readUnsignedByte();
+  }
+
+  private int readUnsignedByte() {
+    return encoded.charAt(position++) & 0xff;
+  }
+
+  private int readVarint() {
+    int value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = readUnsignedByte();
+      value |= (b & 0x7f) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+}
@@ -16,6 +16,8 @@
 package com.google.gwt.user.client.rpc.impl;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.http.client.Request;
 import com.google.gwt.http.client.RequestBuilder;
 import com.google.gwt.http.client.RequestCallback;
@@ -33,6 +35,9 @@ import com.google.gwt.user.client.rpc.SerializationStreamWriter;
 import com.google.gwt.user.client.rpc.ServiceDefTarget;
 import com.google.gwt.user.client.rpc.impl.RequestCallbackAdapter.ResponseReader;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Superclass for client-side
  * {@link com.google.gwt.user.client.rpc.RemoteService RemoteService} proxies.
@@ -198,6 +203,12 @@ public abstract class RemoteServiceProxy implements SerializationStreamFactory,
     return encodedResponse;
   }
 
+  /**
+   * Calls waiting to be sent together when batching is on, or
+   * <code>null</code> if no batch has been scheduled.
+   */
+  private List<RequestBuilder> batchedCalls;
+
   /**
    * The module base URL as specified during construction.
    */
@@ -245,7 +256,9 @@ public abstract class RemoteServiceProxy implements SerializationStreamFactory,
 
   /**
    * Returns a {@link com.google.gwt.user.client.rpc.SerializationStreamReader
-   * SerializationStreamReader} that is ready for reading.
+   * SerializationStreamReader} that is ready for reading. Responses in the
+   * binary encoding, which the server sends if the {@link RpcRequestBuilder}
+   * asked for them, are read with a {@link BinaryClientSerializationStreamReader}.
    *
    * @param encoded string that encodes the response of an RPC request
    * @return {@link com.google.gwt.user.client.rpc.SerializationStreamReader
@@ -254,9 +267,16 @@ public abstract class RemoteServiceProxy implements SerializationStreamFactory,
    */
   public SerializationStreamReader createStreamReader(String encoded)
       throws SerializationException {
+    String encodedInstance = getEncodedInstance(encoded);
+    if (BinaryClientSerializationStreamReader.isBinary(encodedInstance)) {
+      BinaryClientSerializationStreamReader binaryReader =
+          new BinaryClientSerializationStreamReader(serializer);
+      binaryReader.prepareToRead(encodedInstance);
+      return binaryReader;
+    }
     ClientSerializationStreamReader clientSerializationStreamReader = new ClientSerializationStreamReader(
         serializer);
-    clientSerializationStreamReader.prepareToRead(getEncodedInstance(encoded));
+    clientSerializationStreamReader.prepareToRead(encodedInstance);
     return clientSerializationStreamReader;
   }
 
@@ -359,7 +379,9 @@ public abstract class RemoteServiceProxy implements SerializationStreamFactory,
    *          RPC call
    * @param callback callback handler
    *
-   * @return a {@link Request} object that can be used to track the request
+   * @return a {@link Request} object that can be used to track the request, or
+   *         <code>null</code> if the call is batched
+   * @see RpcRequestBuilder#setBatching(boolean)
    */
   protected <T> Request doInvoke(ResponseReader responseReader,
       String methodName, RpcStatsContext statsContext, String requestData,
@@ -369,6 +391,10 @@ public abstract class RemoteServiceProxy implements SerializationStreamFactory,
         statsContext, requestData, callback);
 
     try {
+      if (rpcRequestBuilder.isBatching()) {
+        addToBatch(rb);
+        return null;
+      }
       return rb.send();
     } catch (RequestException ex) {
       InvocationException iex = new InvocationException(
@@ -443,9 +469,75 @@ public abstract class RemoteServiceProxy implements SerializationStreamFactory,
     return rpcRequestBuilder.finish();
   }
 
+  /**
+   * Queues a call to be sent with the other calls made before the browser
+   * event loop regains control.
+   */
+  private void addToBatch(RequestBuilder rb) {
+    if (batchedCalls == null) {
+      batchedCalls = new ArrayList<RequestBuilder>();
+      Scheduler.get().scheduleFinally(new ScheduledCommand() {
+        public void execute() {
+          List<RequestBuilder> calls = batchedCalls;
+          batchedCalls = null;
+          sendBatch(calls);
+        }
+      });
+    }
+    batchedCalls.add(rb);
+  }
+
   private void ensureRpcRequestBuilder() {
     if (rpcRequestBuilder == null) {
       rpcRequestBuilder = new RpcRequestBuilder();
     }
   }
+
+  /**
+   * Sends batched calls, in one request for each service entry point they
+   * were made to.
+   */
+  private void sendBatch(List<RequestBuilder> calls) {
+    while (!calls.isEmpty()) {
+      String url = calls.get(0).getUrl();
+      List<RequestBuilder> sameUrl = new ArrayList<RequestBuilder>();
+      List<RequestBuilder> otherUrls = new ArrayList<RequestBuilder>();
+      for (RequestBuilder call : calls) {
+        if (call.getUrl().equals(url)) {
+          sameUrl.add(call);
+        } else {
+          otherUrls.add(call);
+        }
+      }
+      calls = otherUrls;
+
+      RequestBuilder rb;
+      if (sameUrl.size() == 1) {
+        rb = sameUrl.get(0);
+      } else {
+        List<String> payloads = new ArrayList<String>();
+        List<RequestCallback> callbacks = new ArrayList<RequestCallback>();
+        for (RequestBuilder call : sameUrl) {
+          payloads.add(call.getRequestData());
+          callbacks.add(call.getCallback());
+        }
+        ensureRpcRequestBuilder();
+        rpcRequestBuilder.create(url);
+        rpcRequestBuilder.setCallback(new BatchRequestCallback(callbacks));
+        rpcRequestBuilder.setContentType(RPC_CONTENT_TYPE);
+        rpcRequestBuilder.setRequestData(RpcBatch.join(payloads));
+        rpcRequestBuilder.setRequestId(RpcStatsContext.getNextRequestId());
+        rb = rpcRequestBuilder.finish();
+        rb.setHeader(RpcRequestBuilder.BATCH_HEADER, String.valueOf(sameUrl.size()));
+      }
+
+      try {
+        rb.send();
+      } catch (RequestException ex) {
+        rb.getCallback().onError(null, new InvocationException(
+            "Unable to initiate the asynchronous service invocation -- check the network connection",
+            ex));
+      }
+    }
+  }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.client.rpc.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The format shared by the client and the server for sending several RPC
+ * payloads in one HTTP request or response. Each payload is preceded by its
+ * length in characters, in decimal, and a colon:
+ * <pre>
+ * 12:first payload5:other
+ * </pre>
+ * A batch request carries the
+ * {@value com.google.gwt.user.client.rpc.RpcRequestBuilder#BATCH_HEADER}
+ * header, and its response holds one payload for each payload of the request,
+ * in the same order.
+ *
+ * For internal use only.
+ */
+public final class RpcBatch {
+
+  /**
+   * Returns the batch that holds the given payloads.
+   */
+  public static String join(List<String> payloads) {
+    StringBuilder batch = new StringBuilder();
+    for (String payload : payloads) {
+      batch.append(payload.length()).append(':').append(payload);
+    }
+    return batch.toString();
+  }
+
+  /**
+   * Returns the payloads of a batch.
+   *
+   * @throws IllegalArgumentException if the batch is malformed
+   */
+  public static List<String> split(String batch) {
+    List<String> payloads = new ArrayList<String>();
+    int pos = 0;
+    while (pos < batch.length()) {
+      int colon = batch.indexOf(':', pos);
+      if (colon < 0) {
+        throw new IllegalArgumentException("Missing payload length at " + pos);
+      }
+      int length = Integer.parseInt(batch.substring(pos, colon));
+      int start = colon + 1;
+      if (length < 0 || length > batch.length() - start) {
+        throw new IllegalArgumentException("Invalid payload length at " + pos);
+      }
+      payloads.add(batch.substring(start, start + length));
+      pos = start + length;
+    }
+    return payloads;
+  }
+
+  private RpcBatch() {
+  }
+}
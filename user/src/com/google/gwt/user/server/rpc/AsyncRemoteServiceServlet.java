@@ -0,0 +1,413 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.server.rpc;
+
+import com.google.gwt.user.client.rpc.IncompatibleRemoteServiceException;
+import com.google.gwt.user.client.rpc.RemoteService;
+import com.google.gwt.user.client.rpc.RpcTokenException;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.impl.RpcBatch;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * A {@link RemoteServiceServlet} whose service methods complete asynchronously,
+ * so that a slow or long-polling call does not hold a container thread while
+ * it waits.
+ * <p>
+ * The implementation does not implement the service interface itself. Instead,
+ * for each method of the interface it declares a public method with the same
+ * name and parameter types that returns a {@link CompletionStage} of the
+ * interface method's return type:
+ * </p>
+ *
+ * <pre>
+ * public interface GreetingService extends RemoteService {
+ *   String greet(String name) throws GreetingException;
+ * }
+ *
+ * public class GreetingServiceImpl extends AsyncRemoteServiceServlet {
+ *   public GreetingServiceImpl() {
+ *     super(GreetingService.class);
+ *   }
+ *
+ *   public CompletionStage&lt;String&gt; greet(String name) {
+ *     return backend.lookUpGreeting(name);
+ *   }
+ * }
+ * </pre>
+ * <p>
+ * The request is decoded on the container thread, then the servlet puts the
+ * request into asynchronous mode and returns. When the stage completes, its
+ * value, or its exception if that is declared by the interface method, is
+ * encoded and written from the completing thread. If the container does not
+ * support asynchronous requests for this servlet (it must be declared with
+ * <code>&lt;async-supported&gt;true&lt;/async-supported&gt;</code>), the
+ * container thread waits for the stage instead.
+ * </p>
+ * <p>
+ * {@link #getThreadLocalRequest()} and {@link #getThreadLocalResponse()} are
+ * available while the implementation method runs and while the response is
+ * written, but not on whatever thread the implementation uses in between. If
+ * the container's asynchronous timeout expires first, the call fails as an
+ * unexpected failure.
+ * </p>
+ */
+public class AsyncRemoteServiceServlet extends RemoteServiceServlet {
+
+  private final Object delegate;
+
+  /**
+   * Implementation methods of the delegate, by service interface method.
+   */
+  private final Map<Method, Method> implementations = new ConcurrentHashMap<Method, Method>();
+
+  private final Class<? extends RemoteService> serviceInterface;
+
+  /**
+   * The constructor used by service implementations that extend this class.
+   *
+   * @param serviceInterface the service interface that this servlet serves
+   */
+  protected AsyncRemoteServiceServlet(Class<? extends RemoteService> serviceInterface) {
+    this.delegate = this;
+    this.serviceInterface = serviceInterface;
+  }
+
+  /**
+   * The wrapping constructor used by service implementations that are separate
+   * from this class.
+   *
+   * @param serviceInterface the service interface that this servlet serves
+   * @param delegate the object that declares the asynchronous implementation
+   *          methods
+   */
+  public AsyncRemoteServiceServlet(Class<? extends RemoteService> serviceInterface,
+      Object delegate) {
+    super(delegate);
+    this.delegate = delegate;
+    this.serviceInterface = serviceInterface;
+  }
+
+  /**
+   * The asynchronous counterpart of {@link #processBatch(String)}: processes
+   * each call of the batch with {@link #processCallAsync(String)} and returns
+   * a stage that completes with the encoded responses once all of them have
+   * completed.
+   *
+   * @param payload the UTF-8 request payload
+   * @return a stage that completes with the encoded responses
+   * @throws SerializationException if the payload is not a well-formed batch
+   */
+  public CompletionStage<String> processBatchAsync(String payload)
+      throws SerializationException {
+    // Fail the whole batch, rather than each call, on a possible XSRF
+    checkPermutationStrongName();
+
+    final List<CompletableFuture<String>> responses = new ArrayList<CompletableFuture<String>>();
+    for (String callPayload : splitBatch(payload)) {
+      CompletableFuture<String> response;
+      try {
+        response = processCallAsync(callPayload).toCompletableFuture();
+      } catch (SerializationException e) {
+        response = new CompletableFuture<String>();
+        response.completeExceptionally(e);
+      } catch (RuntimeException e) {
+        response = new CompletableFuture<String>();
+        response.completeExceptionally(e);
+      }
+      responses.add(response.handle(new BiFunction<String, Throwable, String>() {
+        @Override
+        public String apply(String value, Throwable failure) {
+          return failure == null ? value : onBatchedCallFailure(unwrap(failure));
+        }
+      }));
+    }
+
+    return CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[responses.size()]))
+        .thenApply(new Function<Void, String>() {
+          @Override
+          public String apply(Void ignored) {
+            List<String> encoded = new ArrayList<String>();
+            for (CompletableFuture<String> response : responses) {
+              encoded.add(response.join());
+            }
+            return RpcBatch.join(encoded);
+          }
+        });
+  }
+
+  /**
+   * The asynchronous counterpart of {@link #processCall(String)}: decodes the
+   * payload, invokes the implementation method and returns a stage that
+   * completes with the encoded response. The stage fails with an
+   * {@link UnexpectedException} if the implementation fails with an exception
+   * that the service method does not declare, and with a
+   * {@link SerializationException} if the result cannot be serialized.
+   * <p>
+   * This is public so that it can be unit tested easily without HTTP.
+   * </p>
+   *
+   * @param payload the UTF-8 request payload
+   * @return a stage that completes with the encoded response
+   * @throws SerializationException if a failed request cannot be encoded
+   */
+  public CompletionStage<String> processCallAsync(String payload) throws SerializationException {
+    // First, check for possible XSRF situation
+    checkPermutationStrongName();
+
+    RPCRequest rpcRequest;
+    try {
+      // The delegate doesn't implement the interface, so pass the served
+      // interface instead; calls to any other interface are blocked before
+      // their parameters are deserialized
+      rpcRequest = RPC.decodeRequest(payload, serviceInterface, this, dispatchTable);
+    } catch (IncompatibleRemoteServiceException ex) {
+      log(
+          "An IncompatibleRemoteServiceException was thrown while processing this call.",
+          ex);
+      return CompletableFuture.completedFuture(RPC.encodeResponseForFailedRequest(null, ex));
+    }
+    return processCallAsync(withResponseEncoding(rpcRequest));
+  }
+
+  /**
+   * The asynchronous counterpart of {@link #processCall(RPCRequest)}.
+   *
+   * @param rpcRequest the already decoded RPC request
+   * @return a stage that completes with the encoded response
+   * @throws SerializationException if a failed request cannot be encoded
+   * @see #processCallAsync(String)
+   */
+  public CompletionStage<String> processCallAsync(final RPCRequest rpcRequest)
+      throws SerializationException {
+    CompletionStage<?> result;
+    try {
+      onAfterRequestDeserialized(rpcRequest);
+      result = invoke(rpcRequest);
+    } catch (IncompatibleRemoteServiceException ex) {
+      log(
+          "An IncompatibleRemoteServiceException was thrown while processing this call.",
+          ex);
+      return CompletableFuture.completedFuture(RPC.encodeResponseForFailedRequest(rpcRequest, ex));
+    } catch (RpcTokenException tokenException) {
+      log("An RpcTokenException was thrown while processing this call.",
+          tokenException);
+      return CompletableFuture.completedFuture(
+          RPC.encodeResponseForFailedRequest(rpcRequest, tokenException));
+    }
+
+    return result.handle(new BiFunction<Object, Throwable, String>() {
+      @Override
+      public String apply(Object value, Throwable failure) {
+        try {
+          if (failure == null) {
+            return RPC.encodeResponseForSuccess(rpcRequest.getMethod(), value,
+                rpcRequest.getSerializationPolicy(), rpcRequest.getFlags());
+          }
+          return RPC.encodeResponseForFailure(rpcRequest.getMethod(), unwrap(failure),
+              rpcRequest.getSerializationPolicy(), rpcRequest.getFlags());
+        } catch (SerializationException e) {
+          throw new CompletionException(e);
+        }
+      }
+    });
+  }
+
+  @Override
+  void processPayload(HttpServletRequest request, HttpServletResponse response,
+      String requestPayload) throws IOException, ServletException, SerializationException {
+    CompletionStage<String> responsePayload = isBatchRequest(request)
+        ? processBatchAsync(requestPayload) : processCallAsync(requestPayload);
+
+    if (!request.isAsyncSupported()) {
+      String payload;
+      try {
+        payload = responsePayload.toCompletableFuture().get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new UnexpectedException("Interrupted while waiting for the service method", e);
+      } catch (ExecutionException e) {
+        Throwable cause = unwrap(e);
+        if (cause instanceof SerializationException) {
+          throw (SerializationException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new UnexpectedException("The service method failed", cause);
+      }
+      onAfterResponseSerialized(payload);
+      writeResponse(request, response, payload);
+      return;
+    }
+
+    final AsyncContext asyncContext = request.startAsync(request, response);
+    // Set by whichever of completion or timeout comes first
+    final AtomicBoolean done = new AtomicBoolean();
+    asyncContext.addListener(new AsyncListener() {
+      @Override
+      public void onComplete(AsyncEvent event) {
+      }
+
+      @Override
+      public void onError(AsyncEvent event) {
+        done.set(true);
+      }
+
+      @Override
+      public void onStartAsync(AsyncEvent event) {
+      }
+
+      @Override
+      public void onTimeout(AsyncEvent event) {
+        if (done.compareAndSet(false, true)) {
+          completeAsync(asyncContext, null,
+              new UnexpectedException("Timed out waiting for the service method", null));
+        }
+      }
+    });
+    responsePayload.whenComplete(new BiConsumer<String, Throwable>() {
+      @Override
+      public void accept(String payload, Throwable failure) {
+        if (done.compareAndSet(false, true)) {
+          completeAsync(asyncContext, payload, failure == null ? null : unwrap(failure));
+        }
+      }
+    });
+  }
+
+  /**
+   * Strips the wrappers that {@link CompletionStage} and {@link java.util.concurrent.Future}
+   * add around an exception.
+   */
+  private static Throwable unwrap(Throwable failure) {
+    while ((failure instanceof CompletionException || failure instanceof ExecutionException)
+        && failure.getCause() != null) {
+      failure = failure.getCause();
+    }
+    return failure;
+  }
+
+  /**
+   * Writes the response to an asynchronous request, or reports its failure,
+   * and completes the request.
+   */
+  private void completeAsync(AsyncContext asyncContext, String payload, Throwable failure) {
+    HttpServletRequest request = (HttpServletRequest) asyncContext.getRequest();
+    HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+    synchronized (this) {
+      perThreadRequest.set(request);
+      perThreadResponse.set(response);
+    }
+    try {
+      if (failure != null) {
+        throw failure;
+      }
+      onAfterResponseSerialized(payload);
+      writeResponse(request, response, payload);
+    } catch (Throwable e) {
+      try {
+        doUnexpectedFailure(e);
+      } catch (RuntimeException ex) {
+        log("Unable to report failure", ex);
+      }
+    } finally {
+      perThreadRequest.set(null);
+      perThreadResponse.set(null);
+      asyncContext.complete();
+    }
+  }
+
+  /**
+   * Returns the public method of the delegate that implements a service
+   * method.
+   */
+  private Method getImplementation(Method serviceMethod) {
+    Method implementation = implementations.get(serviceMethod);
+    if (implementation == null) {
+      try {
+        implementation = delegate.getClass().getMethod(serviceMethod.getName(),
+            serviceMethod.getParameterTypes());
+      } catch (NoSuchMethodException e) {
+        implementation = null;
+      }
+      if (implementation == null
+          || !CompletionStage.class.isAssignableFrom(implementation.getReturnType())) {
+        throw new IncompatibleRemoteServiceException("'" + delegate.getClass().getName()
+            + "' has no public method '" + serviceMethod.getName()
+            + "' with the same parameters as the service method that returns a CompletionStage");
+      }
+      implementations.put(serviceMethod, implementation);
+    }
+    return implementation;
+  }
+
+  /**
+   * Invokes the implementation of a service method. An exception thrown by the
+   * implementation method is returned as a failed stage.
+   */
+  private CompletionStage<?> invoke(RPCRequest rpcRequest) {
+    Method implementation = getImplementation(rpcRequest.getMethod());
+    Throwable failure;
+    try {
+      Object result = implementation.invoke(delegate, rpcRequest.getParameters());
+      if (result != null) {
+        return (CompletionStage<?>) result;
+      }
+      failure = new NullPointerException("'" + implementation.getName()
+          + "' returned null instead of a CompletionStage");
+    } catch (IllegalAccessException e) {
+      SecurityException securityException = new SecurityException(
+          "Blocked attempt to access inaccessible method '" + implementation.getName() + "'");
+      securityException.initCause(e);
+      throw securityException;
+    } catch (IllegalArgumentException e) {
+      SecurityException securityException = new SecurityException(
+          "Blocked attempt to invoke method '" + implementation.getName()
+              + "' with invalid arguments");
+      securityException.initCause(e);
+      throw securityException;
+    } catch (InvocationTargetException e) {
+      failure = e.getCause();
+    }
+    CompletableFuture<Object> failed = new CompletableFuture<Object>();
+    failed.completeExceptionally(failure);
+    return failed;
+  }
+}
@@ -27,6 +27,8 @@ import com.google.gwt.user.server.rpc.impl.ServerSerializationStreamReader;
 import com.google.gwt.user.server.rpc.impl.ServerSerializationStreamWriter;
 import com.google.gwt.user.server.rpc.impl.TypeNameObfuscator;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -56,6 +58,34 @@ import java.util.Set;
  */
 public final class RPC {
 
+  /**
+   * A serialized response that has yet to be written out, either as a string
+   * or to a Writer.
+   */
+  private static final class EncodedResponse {
+    private final boolean wasThrown;
+    private final ServerSerializationStreamWriter stream;
+
+    EncodedResponse(boolean wasThrown, ServerSerializationStreamWriter stream) {
+      this.wasThrown = wasThrown;
+      this.stream = stream;
+    }
+
+    @Override
+    public String toString() {
+      return getPrefix() + stream.toString();
+    }
+
+    void writeTo(Writer out) throws IOException {
+      out.write(getPrefix());
+      stream.writeTo(out);
+    }
+
+    private String getPrefix() {
+      return wasThrown ? "//EX" : "//OK";
+    }
+  }
+
   /**
    * Maps primitive wrapper classes to their corresponding primitive class.
    */
@@ -224,6 +254,41 @@ public final class RPC {
    */
   public static RPCRequest decodeRequest(String encodedRequest, Class<?> type,
       SerializationPolicyProvider serializationPolicyProvider) {
+    return decodeRequest(encodedRequest, type, serializationPolicyProvider, null);
+  }
+
+  /**
+   * Returns an {@link RPCRequest} that is built by decoding the contents of an
+   * encoded RPC request, as
+   * {@link #decodeRequest(String, Class, SerializationPolicyProvider)} does.
+   * <p>
+   * If the dispatchTable parameter is not <code>null</code>, the service
+   * method is looked up in it first, and added to it once resolved, so that
+   * the service interface and parameter classes are only loaded and checked
+   * the first time a method is called.
+   * </p>
+   *
+   * @param encodedRequest a string that encodes the {@link RemoteService}
+   *          interface, the service method, and the arguments to pass to the
+   *          service method
+   * @param type if not <code>null</code>, the implementation checks that the
+   *          type is assignable to the {@link RemoteService} interface encoded
+   *          in the encoded request string.
+   * @param serializationPolicyProvider if not <code>null</code>, the
+   *          implementation asks this provider for a
+   *          {@link SerializationPolicy} which will be used to restrict the set
+   *          of types that can be decoded from this request
+   * @param dispatchTable if not <code>null</code>, the table that remembers
+   *          the service methods already resolved
+   * @return an {@link RPCRequest} instance
+   *
+   * @throws NullPointerException if the encodedRequest is <code>null</code>
+   * @throws IllegalArgumentException if the encodedRequest is an empty string
+   * @throws IncompatibleRemoteServiceException for the same reasons as
+   *           {@link #decodeRequest(String, Class, SerializationPolicyProvider)}
+   */
+  public static RPCRequest decodeRequest(String encodedRequest, Class<?> type,
+      SerializationPolicyProvider serializationPolicyProvider, RPCDispatchTable dispatchTable) {
     if (encodedRequest == null) {
       throw new NullPointerException("encodedRequest cannot be null");
     }
@@ -248,77 +313,59 @@ public final class RPC {
       // Read the name of the RemoteService interface
       String serviceIntfName = maybeDeobfuscate(streamReader, streamReader.readString());
 
-      if (type != null) {
-        if (!implementsInterface(type, serviceIntfName)) {
-          // The service does not implement the requested interface
-          throw new IncompatibleRemoteServiceException("Blocked attempt to access interface '"
-              + serviceIntfName + "', which is not implemented by '" + printTypeName(type)
-              + "'; this is either misconfiguration or a hack attempt");
-        }
-      }
-
-      SerializationPolicy serializationPolicy = streamReader.getSerializationPolicy();
-      Class<?> serviceIntf;
-      try {
-        serviceIntf = getClassFromSerializedName(serviceIntfName, classLoader);
-        if (!RemoteService.class.isAssignableFrom(serviceIntf)) {
-          // The requested interface is not a RemoteService interface
-          throw new IncompatibleRemoteServiceException(
-              "Blocked attempt to access interface '"
-                  + printTypeName(serviceIntf)
-                  + "', which doesn't extend RemoteService; this is either "
-                  + "misconfiguration or a hack attempt");
-        }
-      } catch (ClassNotFoundException e) {
-        throw new IncompatibleRemoteServiceException("Could not locate requested interface '"
-            + serviceIntfName + "' in default classloader", e);
-      }
-
       String serviceMethodName = streamReader.readString();
 
       int paramCount = streamReader.readInt();
       if (paramCount > streamReader.getNumberOfTokens()) {
         throw new IncompatibleRemoteServiceException("Invalid number of parameters");
       }
-      Class<?>[] parameterTypes = new Class[paramCount];
-
-      for (int i = 0; i < parameterTypes.length; i++) {
-        String paramClassName = maybeDeobfuscate(streamReader, streamReader.readString());
-
-        try {
-          parameterTypes[i] = getClassFromSerializedName(paramClassName, classLoader);
-        } catch (ClassNotFoundException e) {
-          throw new IncompatibleRemoteServiceException("Parameter " + i
-              + " of is of an unknown type '" + paramClassName + "'", e);
-        }
+      String[] paramClassNames = new String[paramCount];
+      for (int i = 0; i < paramClassNames.length; i++) {
+        paramClassNames[i] = maybeDeobfuscate(streamReader, streamReader.readString());
       }
 
-      try {
-        Method method = serviceIntf.getMethod(serviceMethodName, parameterTypes);
-
-        // The parameter types we have are the non-parameterized versions in the
-        // RPC stream. For stronger message verification, get the parameterized
-        // types from the method declaration.
-        Type[] methodParameterTypes = method.getGenericParameterTypes();
-        DequeMap<TypeVariable<?>, Type> resolvedTypes = new DequeMap<TypeVariable<?>, Type>();
-
-        TypeVariable<Method>[] methodTypes = method.getTypeParameters();
-        for (TypeVariable<Method> methodType : methodTypes) {
-          SerializabilityUtil.resolveTypes(methodType, resolvedTypes);
+      RPCDispatchTable.Entry serviceMethod = null;
+      String signature = null;
+      if (dispatchTable != null) {
+        signature = RPCDispatchTable.getSignature(serviceIntfName, serviceMethodName,
+            paramClassNames);
+        serviceMethod = dispatchTable.get(signature, type, classLoader);
+      }
+      if (serviceMethod == null) {
+        if (type != null && !implementsInterface(type, serviceIntfName)) {
+          // The service does not implement the requested interface
+          throw new IncompatibleRemoteServiceException("Blocked attempt to access interface '"
+              + serviceIntfName + "', which is not implemented by '" + printTypeName(type)
+              + "'; this is either misconfiguration or a hack attempt");
         }
-
-        Object[] parameterValues = new Object[parameterTypes.length];
-        for (int i = 0; i < parameterValues.length; i++) {
-          parameterValues[i] = streamReader.deserializeValue(parameterTypes[i],
-              methodParameterTypes[i], resolvedTypes);
+        serviceMethod = new RPCDispatchTable.Entry(type, classLoader, resolveServiceMethod(
+            serviceIntfName, serviceMethodName, paramClassNames, classLoader));
+        if (dispatchTable != null) {
+          dispatchTable.put(signature, serviceMethod);
         }
+      }
 
-        return new RPCRequest(method, parameterValues, rpcToken, serializationPolicy, streamReader
-            .getFlags());
-      } catch (NoSuchMethodException e) {
-        throw new IncompatibleRemoteServiceException(formatMethodNotFoundErrorMessage(serviceIntf,
-            serviceMethodName, parameterTypes));
+      // The parameter types we have are the non-parameterized versions in the
+      // RPC stream. For stronger message verification, get the parameterized
+      // types from the method declaration.
+      Method method = serviceMethod.method;
+      Class<?>[] parameterTypes = serviceMethod.parameterTypes;
+      Type[] methodParameterTypes = serviceMethod.genericParameterTypes;
+      DequeMap<TypeVariable<?>, Type> resolvedTypes = new DequeMap<TypeVariable<?>, Type>();
+
+      TypeVariable<Method>[] methodTypes = method.getTypeParameters();
+      for (TypeVariable<Method> methodType : methodTypes) {
+        SerializabilityUtil.resolveTypes(methodType, resolvedTypes);
       }
+
+      Object[] parameterValues = new Object[parameterTypes.length];
+      for (int i = 0; i < parameterValues.length; i++) {
+        parameterValues[i] = streamReader.deserializeValue(parameterTypes[i],
+            methodParameterTypes[i], resolvedTypes);
+      }
+
+      return new RPCRequest(method, parameterValues, rpcToken,
+          streamReader.getSerializationPolicy(), streamReader.getFlags());
     } catch (SerializationException ex) {
       throw new IncompatibleRemoteServiceException(ex.getMessage(), ex);
     }
@@ -341,13 +388,23 @@ public final class RPC {
    */
   public static String encodeResponseForFailedRequest(RPCRequest rpcRequest, Throwable cause)
       throws SerializationException {
-    if (rpcRequest == null) {
-      return RPC.encodeResponseForFailure(null, cause,
-          getDefaultSerializationPolicy(), AbstractSerializationStream.DEFAULT_FLAGS);
-    } else {
-      return RPC.encodeResponseForFailure(null, cause,
-          rpcRequest.getSerializationPolicy(), rpcRequest.getFlags());
-    }
+    return serializeResponseForFailedRequest(rpcRequest, cause).toString();
+  }
+
+  /**
+   * Like {@link #encodeResponseForFailedRequest(RPCRequest, Throwable)}, but
+   * writes the encoded exception to <code>out</code> instead of returning it.
+   * Nothing is written if the exception cannot be serialized.
+   *
+   * @param rpcRequest the RPCRequest that failed to execute, may be null
+   * @param cause the {@link Throwable} that was thrown
+   * @param out the writer to write the response to; it is not closed
+   * @throws SerializationException if the result cannot be serialized
+   * @throws IOException if writing to <code>out</code> fails
+   */
+  public static void encodeResponseForFailedRequest(RPCRequest rpcRequest, Throwable cause,
+      Writer out) throws SerializationException, IOException {
+    serializeResponseForFailedRequest(rpcRequest, cause).writeTo(out);
   }
 
   /**
@@ -403,20 +460,8 @@ public final class RPC {
 
   public static String encodeResponseForFailure(Method serviceMethod, Throwable cause,
       SerializationPolicy serializationPolicy, int flags) throws SerializationException {
-    if (cause == null) {
-      throw new NullPointerException("cause cannot be null");
-    }
-
-    if (serializationPolicy == null) {
-      throw new NullPointerException("serializationPolicy");
-    }
-
-    if (serviceMethod != null && !RPCServletUtils.isExpectedException(serviceMethod, cause)) {
-      throw new UnexpectedException("Service method '" + getSourceRepresentation(serviceMethod)
-          + "' threw an unexpected exception: " + cause.toString(), cause);
-    }
-
-    return encodeResponse(cause.getClass(), cause, true, flags, serializationPolicy);
+    return serializeResponseForFailure(serviceMethod, cause, serializationPolicy, flags)
+        .toString();
   }
 
   /**
@@ -470,31 +515,8 @@ public final class RPC {
 
   public static String encodeResponseForSuccess(Method serviceMethod, Object object,
       SerializationPolicy serializationPolicy, int flags) throws SerializationException {
-    if (serviceMethod == null) {
-      throw new NullPointerException("serviceMethod cannot be null");
-    }
-
-    if (serializationPolicy == null) {
-      throw new NullPointerException("serializationPolicy");
-    }
-
-    Class<?> methodReturnType = serviceMethod.getReturnType();
-    if (methodReturnType != void.class && object != null) {
-      Class<?> actualReturnType;
-      if (methodReturnType.isPrimitive()) {
-        actualReturnType = getPrimitiveClassFromWrapper(object.getClass());
-      } else {
-        actualReturnType = object.getClass();
-      }
-
-      if (actualReturnType == null || !methodReturnType.isAssignableFrom(actualReturnType)) {
-        throw new IllegalArgumentException("Type '" + printTypeName(object.getClass())
-            + "' does not match the return type in the method's signature: '"
-            + getSourceRepresentation(serviceMethod) + "'");
-      }
-    }
-
-    return encodeResponse(methodReturnType, object, false, flags, serializationPolicy);
+    return serializeResponseForSuccess(serviceMethod, object, serializationPolicy, flags)
+        .toString();
   }
 
   /**
@@ -574,6 +596,30 @@ public final class RPC {
 
   public static String invokeAndEncodeResponse(Object target, Method serviceMethod, Object[] args,
       SerializationPolicy serializationPolicy, int flags) throws SerializationException {
+    return invokeAndSerializeResponse(target, serviceMethod, args, serializationPolicy, flags)
+        .toString();
+  }
+
+  /**
+   * Like {@link #invokeAndEncodeResponse(Object, Method, Object[], SerializationPolicy, int)},
+   * but writes the encoded response to <code>out</code> instead of returning it as a string,
+   * which saves holding very large responses in memory several times over. The response is
+   * still serialized completely before anything is written, so nothing is written if
+   * serialization fails.
+   *
+   * @param out the writer to write the response to; it is not closed
+   * @throws IOException if writing to <code>out</code> fails
+   */
+  public static void invokeAndEncodeResponse(Object target, Method serviceMethod, Object[] args,
+      SerializationPolicy serializationPolicy, int flags, Writer out)
+      throws SerializationException, IOException {
+    invokeAndSerializeResponse(target, serviceMethod, args, serializationPolicy, flags)
+        .writeTo(out);
+  }
+
+  private static EncodedResponse invokeAndSerializeResponse(Object target,
+      Method serviceMethod, Object[] args, SerializationPolicy serializationPolicy, int flags)
+      throws SerializationException {
     if (serviceMethod == null) {
       throw new NullPointerException("serviceMethod");
     }
@@ -582,11 +628,12 @@ public final class RPC {
       throw new NullPointerException("serializationPolicy");
     }
 
-    String responsePayload;
+    EncodedResponse responsePayload;
     try {
       Object result = serviceMethod.invoke(target, args);
 
-      responsePayload = encodeResponseForSuccess(serviceMethod, result, serializationPolicy, flags);
+      responsePayload =
+          serializeResponseForSuccess(serviceMethod, result, serializationPolicy, flags);
     } catch (IllegalAccessException e) {
       SecurityException securityException =
           new SecurityException(formatIllegalAccessErrorMessage(target, serviceMethod));
@@ -602,7 +649,8 @@ public final class RPC {
       //
       Throwable cause = e.getCause();
 
-      responsePayload = encodeResponseForFailure(serviceMethod, cause, serializationPolicy, flags);
+      responsePayload =
+          serializeResponseForFailure(serviceMethod, cause, serializationPolicy, flags);
     }
 
     return responsePayload;
@@ -622,18 +670,19 @@ public final class RPC {
   }
 
   /**
-   * Returns a string that encodes the results of an RPC call. Private overload
-   * that takes a flag signaling the preamble of the response payload.
+   * Serializes the results of an RPC call. Private overload that takes a flag
+   * signaling the preamble of the response payload.
    * 
    * @param object the object that we wish to send back to the client
    * @param wasThrown if true, the object being returned was an exception thrown
    *          by the service method; if false, it was the result of the service
    *          method's invocation
-   * @return a string that encodes the response from a service method
+   * @return the serialized response from a service method
    * @throws SerializationException if the object cannot be serialized
    */
-  private static String encodeResponse(Class<?> responseClass, Object object, boolean wasThrown,
-      int flags, SerializationPolicy serializationPolicy) throws SerializationException {
+  private static EncodedResponse serializeResponse(Class<?> responseClass, Object object,
+      boolean wasThrown, int flags, SerializationPolicy serializationPolicy)
+      throws SerializationException {
 
     ServerSerializationStreamWriter stream =
         new ServerSerializationStreamWriter(serializationPolicy, getRpcVersion());
@@ -644,8 +693,67 @@ public final class RPC {
       stream.serializeValue(object, responseClass);
     }
 
-    String bufferStr = (wasThrown ? "//EX" : "//OK") + stream.toString();
-    return bufferStr;
+    return new EncodedResponse(wasThrown, stream);
+  }
+
+  private static EncodedResponse serializeResponseForFailedRequest(RPCRequest rpcRequest,
+      Throwable cause) throws SerializationException {
+    if (rpcRequest == null) {
+      return serializeResponseForFailure(null, cause,
+          getDefaultSerializationPolicy(), AbstractSerializationStream.DEFAULT_FLAGS);
+    } else {
+      return serializeResponseForFailure(null, cause,
+          rpcRequest.getSerializationPolicy(), rpcRequest.getFlags());
+    }
+  }
+
+  private static EncodedResponse serializeResponseForFailure(Method serviceMethod,
+      Throwable cause, SerializationPolicy serializationPolicy, int flags)
+      throws SerializationException {
+    if (cause == null) {
+      throw new NullPointerException("cause cannot be null");
+    }
+
+    if (serializationPolicy == null) {
+      throw new NullPointerException("serializationPolicy");
+    }
+
+    if (serviceMethod != null && !RPCServletUtils.isExpectedException(serviceMethod, cause)) {
+      throw new UnexpectedException("Service method '" + getSourceRepresentation(serviceMethod)
+          + "' threw an unexpected exception: " + cause.toString(), cause);
+    }
+
+    return serializeResponse(cause.getClass(), cause, true, flags, serializationPolicy);
+  }
+
+  private static EncodedResponse serializeResponseForSuccess(Method serviceMethod,
+      Object object, SerializationPolicy serializationPolicy, int flags)
+      throws SerializationException {
+    if (serviceMethod == null) {
+      throw new NullPointerException("serviceMethod cannot be null");
+    }
+
+    if (serializationPolicy == null) {
+      throw new NullPointerException("serializationPolicy");
+    }
+
+    Class<?> methodReturnType = serviceMethod.getReturnType();
+    if (methodReturnType != void.class && object != null) {
+      Class<?> actualReturnType;
+      if (methodReturnType.isPrimitive()) {
+        actualReturnType = getPrimitiveClassFromWrapper(object.getClass());
+      } else {
+        actualReturnType = object.getClass();
+      }
+
+      if (actualReturnType == null || !methodReturnType.isAssignableFrom(actualReturnType)) {
+        throw new IllegalArgumentException("Type '" + printTypeName(object.getClass())
+            + "' does not match the return type in the method's signature: '"
+            + getSourceRepresentation(serviceMethod) + "'");
+      }
+    }
+
+    return serializeResponse(methodReturnType, object, false, flags, serializationPolicy);
   }
 
   private static String formatIllegalAccessErrorMessage(Object target, Method serviceMethod) {
@@ -878,6 +986,46 @@ public final class RPC {
     return type.getName().replace('$', '.');
   }
 
+  /**
+   * Loads a service interface and the parameter types of one of its methods,
+   * and returns the method.
+   */
+  private static Method resolveServiceMethod(String serviceIntfName, String serviceMethodName,
+      String[] paramClassNames, ClassLoader classLoader) {
+    Class<?> serviceIntf;
+    try {
+      serviceIntf = getClassFromSerializedName(serviceIntfName, classLoader);
+      if (!RemoteService.class.isAssignableFrom(serviceIntf)) {
+        // The requested interface is not a RemoteService interface
+        throw new IncompatibleRemoteServiceException(
+            "Blocked attempt to access interface '"
+                + printTypeName(serviceIntf)
+                + "', which doesn't extend RemoteService; this is either "
+                + "misconfiguration or a hack attempt");
+      }
+    } catch (ClassNotFoundException e) {
+      throw new IncompatibleRemoteServiceException("Could not locate requested interface '"
+          + serviceIntfName + "' in default classloader", e);
+    }
+
+    Class<?>[] parameterTypes = new Class[paramClassNames.length];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      try {
+        parameterTypes[i] = getClassFromSerializedName(paramClassNames[i], classLoader);
+      } catch (ClassNotFoundException e) {
+        throw new IncompatibleRemoteServiceException("Parameter " + i
+            + " of is of an unknown type '" + paramClassNames[i] + "'", e);
+      }
+    }
+
+    try {
+      return serviceIntf.getMethod(serviceMethodName, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      throw new IncompatibleRemoteServiceException(formatMethodNotFoundErrorMessage(serviceIntf,
+          serviceMethodName, parameterTypes));
+    }
+  }
+
   /**
    * Static classes have no constructability.
    */
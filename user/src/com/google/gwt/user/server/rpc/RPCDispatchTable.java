@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.server.rpc;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the service methods that
+ * {@link RPC#decodeRequest(String, Class, SerializationPolicyProvider, RPCDispatchTable)}
+ * has resolved, so that later requests for the same method skip loading the
+ * interface and parameter classes and looking up the method.
+ * <p>
+ * Methods are keyed by the names of the interface, the method and the
+ * parameter types as they appear in the request once deobfuscated, so one
+ * table serves every serialization policy. A table is normally owned by a
+ * single servlet; an entry is only used again for the same service type and
+ * class loader that it was resolved for. This class is thread-safe.
+ * </p>
+ */
+public final class RPCDispatchTable {
+
+  /**
+   * A resolved service method.
+   */
+  static final class Entry {
+    final ClassLoader classLoader;
+    final Type[] genericParameterTypes;
+    final Method method;
+    final Class<?>[] parameterTypes;
+    final Class<?> type;
+
+    Entry(Class<?> type, ClassLoader classLoader, Method method) {
+      this.type = type;
+      this.classLoader = classLoader;
+      this.method = method;
+      this.parameterTypes = method.getParameterTypes();
+      this.genericParameterTypes = method.getGenericParameterTypes();
+    }
+  }
+
+  /**
+   * Returns the key of a method in the table.
+   */
+  static String getSignature(String serviceIntfName, String serviceMethodName,
+      String[] parameterTypeNames) {
+    StringBuilder signature = new StringBuilder(serviceIntfName).append('.')
+        .append(serviceMethodName).append('(');
+    for (String parameterTypeName : parameterTypeNames) {
+      signature.append(parameterTypeName).append(',');
+    }
+    return signature.append(')').toString();
+  }
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+  /**
+   * Returns the number of methods in the table.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the method resolved for a signature, or <code>null</code> if it
+   * has not been resolved for this service type and class loader.
+   */
+  Entry get(String signature, Class<?> type, ClassLoader classLoader) {
+    Entry entry = entries.get(signature);
+    if (entry == null || entry.type != type || entry.classLoader != classLoader) {
+      return null;
+    }
+    return entry;
+  }
+
+  void put(String signature, Entry entry) {
+    entries.put(signature, entry);
+  }
+}
@@ -15,10 +15,15 @@
  */
 package com.google.gwt.user.server.rpc;
 
+import com.google.gwt.user.client.rpc.impl.AbstractSerializationStream;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -64,7 +69,16 @@ public class RPCServletUtils {
 
   private static final String CONTENT_TYPE_APPLICATION_JSON_UTF8 = "application/json; charset=utf-8";
 
-  private static final String GENERIC_FAILURE_MSG = "The call failed on the server; see server log for details";
+  /**
+   * The content type of binary RPC responses. Browsers decode the
+   * x-user-defined charset to one character per byte.
+   */
+  private static final String CONTENT_TYPE_BINARY = "application/octet-stream; charset=x-user-defined";
+
+  /*
+   * NB: Also used by RemoteServiceServlet for the failed calls of a batch.
+   */
+  static final String GENERIC_FAILURE_MSG = "The call failed on the server; see server log for details";
 
   private static final String GWT_RPC_CONTENT_TYPE = "text/x-gwt-rpc";
 
@@ -319,10 +333,23 @@ public class RPCServletUtils {
         && exceedsUncompressedContentLengthLimit(responseContent);
   }
 
+  /**
+   * Returns <code>true</code> if an RPC response payload is in the binary
+   * encoding, which holds one byte per character.
+   *
+   * @param responseContent the response payload, including its
+   *          <code>//OK</code> or <code>//EX</code> prefix
+   */
+  public static boolean isBinaryResponse(String responseContent) {
+    return responseContent.length() > 4
+        && responseContent.charAt(4) == AbstractSerializationStream.BINARY_STREAM_MARKER;
+  }
+
   /**
    * Write the response content into the {@link HttpServletResponse}. If
    * <code>gzipResponse</code> is <code>true</code>, the response content will
-   * be gzipped prior to being written into the response.
+   * be gzipped prior to being written into the response. Responses in the
+   * binary encoding are written one byte per character.
    *
    * @param servletContext servlet context for this response
    * @param response response instance
@@ -336,7 +363,9 @@ public class RPCServletUtils {
       HttpServletResponse response, String responseContent, boolean gzipResponse)
       throws IOException {
 
-    byte[] responseBytes = responseContent.getBytes(StandardCharsets.UTF_8);
+    boolean binary = isBinaryResponse(responseContent);
+    byte[] responseBytes = responseContent.getBytes(
+        binary ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
     if (gzipResponse) {
       // Compress the reply and adjust headers.
       //
@@ -372,12 +401,55 @@ public class RPCServletUtils {
     // Send the reply.
     //
     response.setContentLength(responseBytes.length);
-    response.setContentType(CONTENT_TYPE_APPLICATION_JSON_UTF8);
+    response.setContentType(binary ? CONTENT_TYPE_BINARY : CONTENT_TYPE_APPLICATION_JSON_UTF8);
     response.setStatus(HttpServletResponse.SC_OK);
     response.setHeader(CONTENT_DISPOSITION, ATTACHMENT);
     response.getOutputStream().write(responseBytes);
   }
 
+  /**
+   * Prepares the response for a payload of unknown length and returns a writer
+   * that encodes it to the response's output stream, optionally compressing it
+   * with GZIP. Unlike {@link #writeResponse}, nothing has to be held in memory
+   * but the writer's buffers, and the response is sent without a content
+   * length.
+   * <p>
+   * The caller must close the writer once the whole payload has been written.
+   * If writing fails part way, the writer should not be closed, so that an
+   * uncommitted response can still be reset.
+   * </p>
+   *
+   * @param response the response that will be written into
+   * @param gzipResponse if <code>true</code> the response content will be gzip
+   *          encoded
+   * @return a writer for the response content
+   * @throws IOException if the response's output stream cannot be opened
+   */
+  public static Writer createResponseWriter(HttpServletResponse response, boolean gzipResponse)
+      throws IOException {
+    return createResponseWriter(response, gzipResponse, false);
+  }
+
+  /**
+   * Like {@link #createResponseWriter(HttpServletResponse, boolean)}, but if
+   * <code>binaryResponse</code> is <code>true</code> the writer is for a
+   * response in the binary encoding, and writes one byte per character.
+   */
+  public static Writer createResponseWriter(HttpServletResponse response, boolean gzipResponse,
+      boolean binaryResponse) throws IOException {
+    response.setContentType(
+        binaryResponse ? CONTENT_TYPE_BINARY : CONTENT_TYPE_APPLICATION_JSON_UTF8);
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setHeader(CONTENT_DISPOSITION, ATTACHMENT);
+    OutputStream output = response.getOutputStream();
+    if (gzipResponse) {
+      setGzipEncodingHeader(response);
+      output = new GZIPOutputStream(output, BUFFER_SIZE);
+    }
+    return new BufferedWriter(new OutputStreamWriter(output,
+        binaryResponse ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8), BUFFER_SIZE);
+  }
+
   /**
    * Called when the servlet itself has a problem, rather than the invoked
    * third-party method. It writes a simple 500 message back to the client.
@@ -20,16 +20,27 @@ import static com.google.gwt.user.server.rpc.SerializationPolicyLoader.ENABLE_EN
 import static com.google.gwt.user.server.rpc.SerializationPolicyLoader.ENABLE_GWT_ENHANCED_CLASSES_PROPERTY;
 
 import com.google.gwt.user.client.rpc.IncompatibleRemoteServiceException;
+import com.google.gwt.user.client.rpc.RpcRequestBuilder;
 import com.google.gwt.user.client.rpc.RpcTokenException;
 import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.impl.AbstractSerializationStream;
+import com.google.gwt.user.client.rpc.impl.RpcBatch;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.ParseException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -45,6 +56,21 @@ import javax.servlet.http.HttpServletResponse;
 public class RemoteServiceServlet extends AbstractRemoteServiceServlet
     implements SerializationPolicyProvider {
 
+  /**
+   * The name of an init parameter (servlet or context) holding a
+   * comma-separated list of context-relative module directories, such as
+   * <code>/mymodule/</code>. The serialization policy files found in these
+   * directories are loaded when the servlet is initialized, so that the first
+   * call from each permutation does not have to read one.
+   *
+   * <p>Preloaded policies are only used by the default
+   * {@link #doGetSerializationPolicy}, after it has checked that the module is
+   * in the same web application as this servlet. Subclasses that override
+   * that method are unaffected.
+   */
+  public static final String PRELOAD_SERIALIZATION_POLICIES_PARAM =
+      "gwt.preloadSerializationPolicies";
+
   /**
    * Loads a serialization policy stored as a servlet resource in the same
    * ServletContext as this servlet. Returns null if not found.
@@ -52,6 +78,18 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
    */
   static SerializationPolicy loadSerializationPolicy(HttpServlet servlet,
       HttpServletRequest request, String moduleBaseURL, String strongName) {
+    return loadSerializationPolicy(servlet, request, moduleBaseURL, strongName,
+        Collections.<String, SerializationPolicy>emptyMap());
+  }
+
+  /**
+   * Like {@link #loadSerializationPolicy(HttpServlet, HttpServletRequest,
+   * String, String)}, but first looks for the policy file among the given
+   * preloaded policies, keyed by context-relative path.
+   */
+  private static SerializationPolicy loadSerializationPolicy(HttpServlet servlet,
+      HttpServletRequest request, String moduleBaseURL, String strongName,
+      Map<String, SerializationPolicy> preloadedPolicies) {
     // The request can tell you the path of the web app relative to the
     // container root.
     String contextPath = request.getContextPath();
@@ -88,48 +126,64 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
       String serializationPolicyFilePath = SerializationPolicyLoader.getSerializationPolicyFileName(contextRelativePath
           + strongName);
 
-      // Open the RPC resource file and read its contents.
-      InputStream is = servlet.getServletContext().getResourceAsStream(
-          serializationPolicyFilePath);
-      try {
-        if (is != null) {
-          try {
-            serializationPolicy = SerializationPolicyLoader.loadFromStream(is,
-                null);
-            if (serializationPolicy.hasClientFields()) {
-              if (ENABLE_ENHANCED_CLASSES) {
-                servlet.log("WARNING: Service deserializes enhanced JPA/JDO classes, which is " +
-                        "unsafe. See https://github.com/gwtproject/gwt/issues/9709 for more " +
-                        "detail on the vulnerability that this presents.");
-              } else {
-                servlet.log("ERROR: Service deserializes enhanced JPA/JDO classes, which is " +
-                        "unsafe. Review build logs to see which classes are affected, or set " +
-                        ENABLE_GWT_ENHANCED_CLASSES_PROPERTY + " to true to allow using this " +
-                        "service. See https://github.com/gwtproject/gwt/issues/9709 for more " +
-                        "detail.");
-                serializationPolicy = null;
-              }
+      serializationPolicy = preloadedPolicies.get(serializationPolicyFilePath);
+      if (serializationPolicy == null) {
+        serializationPolicy = readSerializationPolicy(servlet, serializationPolicyFilePath);
+      }
+    }
+
+    return serializationPolicy;
+  }
+
+  /**
+   * Reads the serialization policy file at a context-relative path, logging
+   * any problem. Returns null if the file is missing, cannot be parsed, or is
+   * not allowed.
+   */
+  static SerializationPolicy readSerializationPolicy(HttpServlet servlet,
+      String serializationPolicyFilePath) {
+    SerializationPolicy serializationPolicy = null;
+    // Open the RPC resource file and read its contents.
+    InputStream is = servlet.getServletContext().getResourceAsStream(
+        serializationPolicyFilePath);
+    try {
+      if (is != null) {
+        try {
+          serializationPolicy = SerializationPolicyLoader.loadFromStream(is,
+              null);
+          if (serializationPolicy.hasClientFields()) {
+            if (ENABLE_ENHANCED_CLASSES) {
+              servlet.log("WARNING: Service deserializes enhanced JPA/JDO classes, which is " +
+                      "unsafe. See https://github.com/gwtproject/gwt/issues/9709 for more " +
+                      "detail on the vulnerability that this presents.");
+            } else {
+              servlet.log("ERROR: Service deserializes enhanced JPA/JDO classes, which is " +
+                      "unsafe. Review build logs to see which classes are affected, or set " +
+                      ENABLE_GWT_ENHANCED_CLASSES_PROPERTY + " to true to allow using this " +
+                      "service. See https://github.com/gwtproject/gwt/issues/9709 for more " +
+                      "detail.");
+              serializationPolicy = null;
             }
-          } catch (ParseException e) {
-            servlet.log("ERROR: Failed to parse the policy file '"
-                + serializationPolicyFilePath + "'", e);
-          } catch (IOException e) {
-            servlet.log("ERROR: Could not read the policy file '"
-                + serializationPolicyFilePath + "'", e);
           }
-        } else {
-          String message = "ERROR: The serialization policy file '"
-              + serializationPolicyFilePath
-              + "' was not found; did you forget to include it in this deployment?";
-          servlet.log(message);
+        } catch (ParseException e) {
+          servlet.log("ERROR: Failed to parse the policy file '"
+              + serializationPolicyFilePath + "'", e);
+        } catch (IOException e) {
+          servlet.log("ERROR: Could not read the policy file '"
+              + serializationPolicyFilePath + "'", e);
         }
-      } finally {
-        if (is != null) {
-          try {
-            is.close();
-          } catch (IOException e) {
-            // Ignore this error
-          }
+      } else {
+        String message = "ERROR: The serialization policy file '"
+            + serializationPolicyFilePath
+            + "' was not found; did you forget to include it in this deployment?";
+        servlet.log(message);
+      }
+    } finally {
+      if (is != null) {
+        try {
+          is.close();
+        } catch (IOException e) {
+          // Ignore this error
         }
       }
     }
@@ -142,15 +196,31 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
 
   /**
    * A cache of moduleBaseURL and serialization policy strong name to
-   * {@link SerializationPolicy}.
+   * {@link SerializationPolicy}. Each policy is loaded once, by the first
+   * request that needs it; concurrent requests for the same policy wait for
+   * that load.
    */
-  private final Map<String, SerializationPolicy> serializationPolicyCache = new HashMap<String, SerializationPolicy>();
+  private final ConcurrentHashMap<String, FutureTask<SerializationPolicy>> serializationPolicyCache =
+      new ConcurrentHashMap<String, FutureTask<SerializationPolicy>>();
+
+  /**
+   * Policies loaded at init time, keyed by their context-relative path, such
+   * as <code>/mymodule/&lt;strong name&gt;.gwt.rpc</code>.
+   */
+  private final Map<String, SerializationPolicy> preloadedPolicies =
+      new ConcurrentHashMap<String, SerializationPolicy>();
 
   /**
    * The implementation of the service.
    */
   private final Object delegate;
 
+  /**
+   * The service methods already resolved for this servlet, shared with
+   * {@link AsyncRemoteServiceServlet}.
+   */
+  final RPCDispatchTable dispatchTable = new RPCDispatchTable();
+
   /**
    * The HTTP port of a Super Dev Mode code server running on localhost where this servlet will
    * download serialization policies. (If set to zero, this feature is disabled and no download
@@ -177,12 +247,54 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
   }
 
   /**
-   * Overridden to load the gwt.codeserver.port system property.
+   * Overridden to load the gwt.codeserver.port system property and to preload
+   * the serialization policies listed in
+   * {@link #PRELOAD_SERIALIZATION_POLICIES_PARAM}.
    */
   @Override
   public void init(ServletConfig config) throws ServletException {
     super.init(config);
     codeServerPort = getCodeServerPort();
+    preloadSerializationPolicies();
+  }
+
+  /**
+   * Loads the serialization policy files of the module directories named by
+   * the {@link #PRELOAD_SERIALIZATION_POLICIES_PARAM} init parameter.
+   */
+  private void preloadSerializationPolicies() {
+    String value = getInitParameter(PRELOAD_SERIALIZATION_POLICIES_PARAM);
+    if (value == null) {
+      value = getServletContext().getInitParameter(PRELOAD_SERIALIZATION_POLICIES_PARAM);
+    }
+    if (value == null) {
+      return;
+    }
+
+    String suffix = SerializationPolicyLoader.getSerializationPolicyFileName("");
+    for (String dir : value.split(",")) {
+      dir = dir.trim();
+      if (dir.isEmpty()) {
+        continue;
+      }
+      if (!dir.endsWith("/")) {
+        dir += "/";
+      }
+      Set<String> paths = getServletContext().getResourcePaths(dir);
+      if (paths == null) {
+        log("WARNING: No serialization policies to preload in '" + dir + "'");
+        continue;
+      }
+      for (String path : paths) {
+        if (!path.endsWith(suffix)) {
+          continue;
+        }
+        SerializationPolicy policy = readSerializationPolicy(this, path);
+        if (policy != null) {
+          preloadedPolicies.put(path, policy);
+        }
+      }
+    }
   }
 
   /**
@@ -238,16 +350,59 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
   }
 
   @Override
-  public final SerializationPolicy getSerializationPolicy(String moduleBaseURL,
-      String strongName) {
+  public final SerializationPolicy getSerializationPolicy(final String moduleBaseURL,
+      final String strongName) {
+    String key = moduleBaseURL + strongName;
+    FutureTask<SerializationPolicy> task = serializationPolicyCache.get(key);
+    if (task == null) {
+      FutureTask<SerializationPolicy> newTask = new FutureTask<SerializationPolicy>(
+          new Callable<SerializationPolicy>() {
+            @Override
+            public SerializationPolicy call() {
+              return loadUncachedSerializationPolicy(moduleBaseURL, strongName);
+            }
+          });
+      task = serializationPolicyCache.putIfAbsent(key, newTask);
+      if (task == null) {
+        // This thread won the race, so it does the loading
+        task = newTask;
+        task.run();
+      }
+    }
 
-    SerializationPolicy serializationPolicy = getCachedSerializationPolicy(
-        moduleBaseURL, strongName);
-    if (serializationPolicy != null) {
-      return serializationPolicy;
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return task.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } catch (ExecutionException e) {
+      // Let a later request try again
+      serializationPolicyCache.remove(key, task);
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause);
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
     }
+  }
 
-    serializationPolicy = doGetSerializationPolicy(getThreadLocalRequest(),
+  /**
+   * Loads a policy that is not in the cache yet. Never returns null.
+   */
+  private SerializationPolicy loadUncachedSerializationPolicy(String moduleBaseURL,
+      String strongName) {
+    SerializationPolicy serializationPolicy = doGetSerializationPolicy(getThreadLocalRequest(),
         moduleBaseURL, strongName);
 
     // Try SuperDevMode, if configured.
@@ -269,18 +424,47 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
       serializationPolicy = RPC.getDefaultSerializationPolicy();
     }
 
-    // This could cache null or an actual instance. Either way we will not
-    // attempt to lookup the policy again.
-    putCachedSerializationPolicy(moduleBaseURL, strongName, serializationPolicy);
-
     return serializationPolicy;
   }
 
+  /**
+   * Process a batch of calls sent in one request by proxies whose
+   * {@link RpcRequestBuilder} has batching turned on. Each call is processed
+   * with {@link #processCall(String)}. A call that fails unexpectedly is logged
+   * and answered with the same generic failure message as a single call would
+   * be, so that the other calls of the batch still complete.
+   * <p>
+   * This is public so that it can be unit tested easily without HTTP.
+   * </p>
+   *
+   * @param payload the UTF-8 request payload, in the format of {@link RpcBatch}
+   * @return the responses to the calls, in the same order and format
+   * @throws SerializationException if the payload is not a well-formed batch
+   */
+  public String processBatch(String payload) throws SerializationException {
+    // Fail the whole batch, rather than each call, on a possible XSRF
+    checkPermutationStrongName();
+
+    List<String> responses = new ArrayList<String>();
+    for (String callPayload : splitBatch(payload)) {
+      String response;
+      try {
+        response = processCall(callPayload);
+      } catch (SerializationException e) {
+        response = onBatchedCallFailure(e);
+      } catch (RuntimeException e) {
+        response = onBatchedCallFailure(e);
+      }
+      responses.add(response);
+    }
+    return RpcBatch.join(responses);
+  }
+
   /**
    * Process a call originating from the given request. This method calls
    * {@link RemoteServiceServlet#checkPermutationStrongName()} to prevent
    * possible XSRF attacks and then decodes the <code>payload</code> using
-   * {@link RPC#decodeRequest(String, Class, SerializationPolicyProvider)}
+   * {@link RPC#decodeRequest(String, Class, SerializationPolicyProvider, RPCDispatchTable)}
    * to do the actual work.
    * Once the request is decoded {@link RemoteServiceServlet#processCall(RPCRequest)}
    * will be called.
@@ -309,14 +493,14 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
 
     RPCRequest rpcRequest;
     try {
-      rpcRequest = RPC.decodeRequest(payload, delegate.getClass(), this);
+      rpcRequest = RPC.decodeRequest(payload, delegate.getClass(), this, dispatchTable);
     } catch (IncompatibleRemoteServiceException ex) {
       log(
           "An IncompatibleRemoteServiceException was thrown while processing this call.",
           ex);
       return RPC.encodeResponseForFailedRequest(null, ex);
     }
-    return processCall(rpcRequest);
+    return processCall(withResponseEncoding(rpcRequest));
   }
 
   /**
@@ -383,18 +567,7 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
     //
     onBeforeRequestDeserialized(requestPayload);
 
-    // Invoke the core dispatching logic, which returns the serialized
-    // result.
-    //
-    String responsePayload = processCall(requestPayload);
-
-    // Let subclasses see the serialized response.
-    //
-    onAfterResponseSerialized(responsePayload);
-
-    // Write the response.
-    //
-    writeResponse(request, response, responsePayload);
+    processPayload(request, response, requestPayload);
   }
 
   /**
@@ -421,7 +594,8 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
    * will only be called once for each combination of moduleBaseURL and strongName.</p>
    *
    * <p>The default implementation loads serialization policies stored as servlet resources
-   * in the same ServletContext as this servlet.
+   * in the same ServletContext as this servlet, using the ones preloaded at init time (see
+   * {@link #PRELOAD_SERIALIZATION_POLICIES_PARAM}) when it can.
    *
    * <p>Override this method to load the {@link SerializationPolicy} using an
    * alternative approach.
@@ -433,7 +607,8 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
    */
   protected SerializationPolicy doGetSerializationPolicy(
       HttpServletRequest request, String moduleBaseURL, String strongName) {
-    return RemoteServiceServlet.loadSerializationPolicy(this, request, moduleBaseURL, strongName);
+    return RemoteServiceServlet.loadSerializationPolicy(this, request, moduleBaseURL, strongName,
+        preloadedPolicies);
   }
 
   /**
@@ -521,22 +696,167 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
     return RPCServletUtils.exceedsUncompressedContentLengthLimit(responsePayload);
   }
 
-  private SerializationPolicy getCachedSerializationPolicy(
-      String moduleBaseURL, String strongName) {
-    synchronized (serializationPolicyCache) {
-      return serializationPolicyCache.get(moduleBaseURL + strongName);
+  /**
+   * Determines whether the response to a given servlet request should be
+   * written straight to the response's output stream while it is encoded,
+   * rather than first being built as a string. This avoids holding large
+   * responses in memory several times over (as a string, as bytes and as
+   * compressed bytes).
+   * <p>
+   * A streamed response is encoded by {@link RPC} directly: subclass overrides
+   * of {@link #processCall(String)} and {@link #processCall(RPCRequest)} are
+   * bypassed, {@link #onAfterResponseSerialized(String)} is not called, and
+   * since its size isn't known up front it is compressed whenever the client
+   * accepts GZIP, without consulting {@link #shouldCompressResponse}.
+   * </p>
+   * <p>
+   * The default implementation returns <code>false</code>.
+   * </p>
+   *
+   * @param request the request being served
+   * @return <code>true</code> if the response should be streamed
+   */
+  protected boolean shouldStreamResponse(HttpServletRequest request) {
+    return false;
+  }
+
+  /**
+   * Determines whether the response to a request should be written in the
+   * binary encoding, which is smaller and faster for the client to decode than
+   * the default JavaScript encoding.
+   * <p>
+   * The default implementation returns <code>true</code> if the client asked
+   * for it with the
+   * {@value com.google.gwt.user.client.rpc.RpcRequestBuilder#RESPONSE_ENCODING_HEADER}
+   * header. Override it to return <code>false</code> to always answer in the
+   * JavaScript encoding.
+   * </p>
+   *
+   * @param request the request being served
+   * @return <code>true</code> if the response should use the binary encoding
+   */
+  protected boolean shouldUseBinaryResponse(HttpServletRequest request) {
+    return RpcRequestBuilder.BINARY_RESPONSE_ENCODING.equals(
+        request.getHeader(RpcRequestBuilder.RESPONSE_ENCODING_HEADER));
+  }
+
+  /**
+   * Returns <code>true</code> if a request carries a batch of calls.
+   */
+  boolean isBatchRequest(HttpServletRequest request) {
+    return request.getHeader(RpcRequestBuilder.BATCH_HEADER) != null;
+  }
+
+  /**
+   * Logs the failure of a call in a batch and returns the response that
+   * reports it to the client.
+   */
+  String onBatchedCallFailure(Throwable e) {
+    log("Exception while dispatching a batched RPC call", e);
+    return RPCServletUtils.GENERIC_FAILURE_MSG;
+  }
+
+  /**
+   * Returns the payloads of a batch request.
+   */
+  static List<String> splitBatch(String payload) throws SerializationException {
+    try {
+      return RpcBatch.split(payload);
+    } catch (IllegalArgumentException e) {
+      throw new SerializationException("Malformed RPC batch", e);
+    }
+  }
+
+  /**
+   * Returns the decoded request with the
+   * {@link AbstractSerializationStream#FLAG_BINARY_RESPONSE} flag added if the
+   * response to the current HTTP request should use the binary encoding.
+   */
+  RPCRequest withResponseEncoding(RPCRequest rpcRequest) {
+    HttpServletRequest request = getThreadLocalRequest();
+    if (request == null || !shouldUseBinaryResponse(request)) {
+      return rpcRequest;
     }
+    return new RPCRequest(rpcRequest.getMethod(), rpcRequest.getParameters(),
+        rpcRequest.getRpcToken(), rpcRequest.getSerializationPolicy(),
+        rpcRequest.getFlags() | AbstractSerializationStream.FLAG_BINARY_RESPONSE);
   }
 
-  private void putCachedSerializationPolicy(String moduleBaseURL,
-      String strongName, SerializationPolicy serializationPolicy) {
-    synchronized (serializationPolicyCache) {
-      serializationPolicyCache.put(moduleBaseURL + strongName,
-          serializationPolicy);
+  /**
+   * Processes a request payload read by {@link #processPost} and writes the
+   * response. Overridden by {@link AsyncRemoteServiceServlet}.
+   */
+  void processPayload(HttpServletRequest request, HttpServletResponse response,
+      String requestPayload) throws IOException, ServletException, SerializationException {
+    // Batches are not streamed; each response has to be complete before its
+    // length can be written
+    boolean batch = isBatchRequest(request);
+    if (!batch && shouldStreamResponse(request)) {
+      processCallAndStreamResponse(request, response, requestPayload);
+      return;
+    }
+
+    // Invoke the core dispatching logic, which returns the serialized
+    // result.
+    //
+    String responsePayload = batch ? processBatch(requestPayload) : processCall(requestPayload);
+
+    // Let subclasses see the serialized response.
+    //
+    onAfterResponseSerialized(responsePayload);
+
+    // Write the response.
+    //
+    writeResponse(request, response, responsePayload);
+  }
+
+  /**
+   * The streaming counterpart of {@link #processCall(String)}.
+   */
+  private void processCallAndStreamResponse(HttpServletRequest request,
+      HttpServletResponse response, String payload) throws IOException, SerializationException {
+    // First, check for possible XSRF situation
+    checkPermutationStrongName();
+
+    boolean gzipEncode = RPCServletUtils.acceptsGzipEncoding(request);
+    RPCRequest rpcRequest;
+    try {
+      rpcRequest = RPC.decodeRequest(payload, delegate.getClass(), this, dispatchTable);
+    } catch (IncompatibleRemoteServiceException ex) {
+      log(
+          "An IncompatibleRemoteServiceException was thrown while processing this call.",
+          ex);
+      Writer out = RPCServletUtils.createResponseWriter(response, gzipEncode);
+      RPC.encodeResponseForFailedRequest(null, ex, out);
+      out.close();
+      return;
+    }
+    rpcRequest = withResponseEncoding(rpcRequest);
+
+    // Nothing is written to the writer until a response has been serialized,
+    // so a failure before then can still reset the response.
+    Writer out = RPCServletUtils.createResponseWriter(response, gzipEncode,
+        (rpcRequest.getFlags() & AbstractSerializationStream.FLAG_BINARY_RESPONSE) != 0);
+
+    try {
+      onAfterRequestDeserialized(rpcRequest);
+      RPC.invokeAndEncodeResponse(delegate, rpcRequest.getMethod(),
+          rpcRequest.getParameters(), rpcRequest.getSerializationPolicy(),
+          rpcRequest.getFlags(), out);
+    } catch (IncompatibleRemoteServiceException ex) {
+      log(
+          "An IncompatibleRemoteServiceException was thrown while processing this call.",
+          ex);
+      RPC.encodeResponseForFailedRequest(rpcRequest, ex, out);
+    } catch (RpcTokenException tokenException) {
+      log("An RpcTokenException was thrown while processing this call.",
+          tokenException);
+      RPC.encodeResponseForFailedRequest(rpcRequest, tokenException, out);
     }
+    out.close();
   }
 
-  private void writeResponse(HttpServletRequest request,
+  void writeResponse(HttpServletRequest request,
       HttpServletResponse response, String responsePayload) throws IOException {
     boolean gzipEncode = RPCServletUtils.acceptsGzipEncoding(request)
         && shouldCompressResponse(request, response, responsePayload);
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.server.rpc.impl;
+
+import com.google.gwt.user.server.rpc.SerializationPolicy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The serializable fields of one class, in serialization order, together with
+ * method handles that read and write them. Built once per class so that
+ * serializing an instance needs neither the field policy lookup nor access
+ * checks.
+ */
+final class FieldSerializationPlan {
+
+  private static final MethodType GETTER_TYPE =
+      MethodType.methodType(Object.class, Object.class);
+
+  private static final MethodType SETTER_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+
+  private static final Map<Class<?>, FieldSerializationPlan> plansByClass =
+      new ConcurrentHashMap<Class<?>, FieldSerializationPlan>();
+
+  /**
+   * Returns the plan for a class. Like
+   * {@link SerializabilityUtil#applyFieldSerializationPolicy(Class, SerializationPolicy)},
+   * which supplies its fields, the result is cached by class.
+   */
+  static FieldSerializationPlan get(Class<?> clazz, SerializationPolicy policy) {
+    FieldSerializationPlan plan = plansByClass.get(clazz);
+    if (plan == null) {
+      plan = new FieldSerializationPlan(
+          SerializabilityUtil.applyFieldSerializationPolicy(clazz, policy));
+      plansByClass.put(clazz, plan);
+    }
+    return plan;
+  }
+
+  private final Field[] fields;
+  private final Class<?>[] types;
+  private final Type[] genericTypes;
+
+  /**
+   * Getter and setter handles, or null where the field could not be made
+   * accessible up front; those are accessed through reflection instead.
+   */
+  private final MethodHandle[] getters;
+  private final MethodHandle[] setters;
+
+  private FieldSerializationPlan(Field[] fields) {
+    int count = fields.length;
+    this.fields = fields;
+    types = new Class<?>[count];
+    genericTypes = new Type[count];
+    getters = new MethodHandle[count];
+    setters = new MethodHandle[count];
+
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    for (int i = 0; i < count; i++) {
+      Field field = fields[i];
+      types[i] = field.getType();
+      genericTypes[i] = field.getGenericType();
+      try {
+        field.setAccessible(true);
+        getters[i] = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+        if (!Modifier.isFinal(field.getModifiers())) {
+          // Final fields are left to reflection, which can still write them
+          setters[i] = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        }
+      } catch (IllegalAccessException e) {
+        // Fall back to reflection
+      } catch (RuntimeException e) {
+        // The field cannot be made accessible; fall back to reflection
+      }
+    }
+  }
+
+  int getFieldCount() {
+    return fields.length;
+  }
+
+  Type getGenericType(int index) {
+    return genericTypes[index];
+  }
+
+  String getName(int index) {
+    return fields[index].getName();
+  }
+
+  Class<?> getType(int index) {
+    return types[index];
+  }
+
+  /**
+   * Reads a field of an instance, as {@link Field#get(Object)} would.
+   */
+  Object getValue(int index, Object instance) throws IllegalAccessException {
+    MethodHandle getter = getters[index];
+    if (getter == null) {
+      Field field = fields[index];
+      if (!field.isAccessible() && !Modifier.isPublic(field.getModifiers())) {
+        // Override the access restrictions
+        field.setAccessible(true);
+      }
+      return field.get(instance);
+    }
+
+    try {
+      return (Object) getter.invokeExact(instance);
+    } catch (ClassCastException e) {
+      throw new IllegalArgumentException(e);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /**
+   * Writes a field of an instance, as {@link Field#set(Object, Object)} would.
+   */
+  void setValue(int index, Object instance, Object value) throws IllegalAccessException {
+    MethodHandle setter = setters[index];
+    if (setter == null) {
+      Field field = fields[index];
+      if ((!field.isAccessible() && !Modifier.isPublic(field.getModifiers()))
+          || Modifier.isFinal(field.getModifiers())) {
+        // Override access restrictions
+        field.setAccessible(true);
+      }
+      field.set(instance, value);
+      return;
+    }
+
+    try {
+      setter.invokeExact(instance, value);
+    } catch (ClassCastException e) {
+      // A value of the wrong type
+      throw new IllegalArgumentException(e);
+    } catch (NullPointerException e) {
+      // A null value for a primitive field
+      throw new IllegalArgumentException(e);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+}
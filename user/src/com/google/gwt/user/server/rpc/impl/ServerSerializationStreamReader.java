@@ -34,10 +34,8 @@ import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.LinkedList;
@@ -379,9 +377,27 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
 
   private String[] stringTable;
 
-  private final ArrayList<String> tokenList = new ArrayList<String>();
+  /**
+   * The payload being read. Tokens are located in it as they are read rather
+   * than split up front, so numeric tokens never become Strings.
+   */
+  private String encodedTokens;
+
+  /**
+   * Start of the next unread token in {@link #encodedTokens}.
+   */
+  private int nextTokenStart;
+
+  /**
+   * End (the separator position) of the token most recently located by
+   * {@link #nextToken()}.
+   */
+  private int tokenEnd;
 
-  private int tokenListIndex;
+  /**
+   * Number of tokens in {@link #encodedTokens}, or -1 if not yet counted.
+   */
+  private int numberOfTokens;
 
   {
     CLASS_TO_VECTOR_READER.put(boolean[].class, VectorReader.BOOLEAN_VECTOR);
@@ -435,7 +451,16 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
   }
 
   public int getNumberOfTokens() {
-    return tokenList.size();
+    if (numberOfTokens < 0) {
+      int count = 0;
+      int idx = 0, nextIdx;
+      while (-1 != (nextIdx = encodedTokens.indexOf(RPC_SEPARATOR_CHAR, idx))) {
+        count++;
+        idx = nextIdx + 1;
+      }
+      numberOfTokens = count;
+    }
+    return numberOfTokens;
   }
 
   public SerializationPolicy getSerializationPolicy() {
@@ -444,20 +469,17 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
 
   @Override
   public void prepareToRead(String encodedTokens) throws SerializationException {
-    tokenList.clear();
-    tokenListIndex = 0;
+    this.encodedTokens = encodedTokens;
+    nextTokenStart = 0;
+    tokenEnd = 0;
+    numberOfTokens = -1;
     stringTable = null;
 
-    int idx = 0, nextIdx;
-    while (-1 != (nextIdx = encodedTokens.indexOf(RPC_SEPARATOR_CHAR, idx))) {
-      String current = encodedTokens.substring(idx, nextIdx);
-      tokenList.add(current);
-      idx = nextIdx + 1;
-    }
-    if (idx == 0) {
+    if (encodedTokens.indexOf(RPC_SEPARATOR_CHAR) == -1) {
       // Didn't find any separator, assume an older version with different
       // separators and get the version as the sequence of digits at the
       // beginning of the encoded string.
+      int idx = 0;
       while (idx < encodedTokens.length() && Character.isDigit(encodedTokens.charAt(idx))) {
         ++idx;
       }
@@ -512,7 +534,8 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
 
   @Override
   public boolean readBoolean() throws SerializationException {
-    return !extract().equals("0");
+    int start = nextToken();
+    return tokenEnd - start != 1 || encodedTokens.charAt(start) != '0';
   }
 
   @Override
@@ -543,7 +566,30 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
 
   @Override
   public int readInt() throws SerializationException {
-    String value = extract();
+    int start = nextToken();
+    int end = tokenEnd;
+
+    // Fast path: up to 9 digits, which cannot overflow, parsed in place.
+    int idx = start;
+    boolean negative = end > idx && encodedTokens.charAt(idx) == '-';
+    if (negative) {
+      idx++;
+    }
+    if (end > idx && end - idx <= 9) {
+      int result = 0;
+      for (; idx < end; idx++) {
+        int digit = encodedTokens.charAt(idx) - '0';
+        if (digit < 0 || digit > 9) {
+          break;
+        }
+        result = result * 10 + digit;
+      }
+      if (idx == end) {
+        return negative ? -result : result;
+      }
+    }
+
+    String value = encodedTokens.substring(start, end);
     try {
       return Integer.parseInt(value);
     } catch (NumberFormatException e) {
@@ -820,18 +866,15 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
       setters = getSetters(instanceClass);
     }
 
-    Field[] serializableFields = SerializabilityUtil.applyFieldSerializationPolicy(instanceClass,
-        serializationPolicy);
-    for (Field declField : serializableFields) {
-      assert (declField != null);
-      if ((clientFieldNames != null) && !clientFieldNames.contains(declField.getName())) {
+    FieldSerializationPlan plan = FieldSerializationPlan.get(instanceClass, serializationPolicy);
+    for (int i = 0, n = plan.getFieldCount(); i < n; i++) {
+      String fieldName = plan.getName(i);
+      if ((clientFieldNames != null) && !clientFieldNames.contains(fieldName)) {
         continue;
       }
 
-      Type declGenericType = declField.getGenericType();
-      Object value = deserializeValue(declField.getType(), declGenericType, resolvedTypes);
+      Object value = deserializeValue(plan.getType(i), plan.getGenericType(i), resolvedTypes);
 
-      String fieldName = declField.getName();
       Method setter;
       /*
        * If setters is non-null and there is a setter method for the given
@@ -843,16 +886,7 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
       if ((setters != null) && ((setter = setters.get(fieldName)) != null)) {
         setter.invoke(instance, value);
       } else {
-        boolean isAccessible = declField.isAccessible();
-        boolean needsAccessOverride = (!isAccessible
-            && !Modifier.isPublic(declField.getModifiers()))
-            || Modifier.isFinal(declField.getModifiers());
-        if (needsAccessOverride) {
-          // Override access restrictions
-          declField.setAccessible(true);
-        }
-
-        declField.set(instance, value);
+        plan.setValue(i, instance, value);
       }
     }
 
@@ -990,11 +1024,23 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
   }
 
   private String extract() throws SerializationException {
-    try {
-      return tokenList.get(tokenListIndex++);
-    } catch (IndexOutOfBoundsException e) {
-      throw new SerializationException("Too few tokens in RPC request", e);
+    int start = nextToken();
+    return encodedTokens.substring(start, tokenEnd);
+  }
+
+  /**
+   * Locates the next token, returning its start and leaving its end in
+   * {@link #tokenEnd}. Only tokens followed by a separator count.
+   */
+  private int nextToken() throws SerializationException {
+    int start = nextTokenStart;
+    int end = encodedTokens.indexOf(RPC_SEPARATOR_CHAR, start);
+    if (end == -1) {
+      throw new SerializationException("Too few tokens in RPC request");
     }
+    tokenEnd = end;
+    nextTokenStart = end + 1;
+    return start;
   }
 
   /**
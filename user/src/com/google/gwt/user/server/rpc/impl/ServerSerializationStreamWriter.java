@@ -24,10 +24,11 @@ import com.google.gwt.user.server.rpc.SerializationPolicy;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
-import java.lang.reflect.Field;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -52,65 +53,113 @@ public final class ServerSerializationStreamWriter extends
     private static final String POSTLUDE = "])";
     private static final String PRELUDE = "].concat([";
 
-    private final StringBuffer buffer;
+    /**
+     * The text written so far, or null if the array is written straight to
+     * another Writer.
+     */
+    private final StringWriter buffer;
+    private final Writer out;
     private int count = 0;
     private boolean needsComma = false;
     private int total = 0;
     private boolean javascript = false;
 
     public LengthConstrainedArray() {
-      buffer = new StringBuffer();
+      this(new StringWriter());
     }
 
     public LengthConstrainedArray(int capacityGuess) {
-      buffer = new StringBuffer(capacityGuess);
+      this(new StringWriter(capacityGuess));
+    }
+
+    private LengthConstrainedArray(StringWriter buffer) {
+      this.buffer = buffer;
+      this.out = buffer;
+      buffer.write('[');
+    }
+
+    /**
+     * Writes the array to the given writer as it is built, instead of keeping
+     * it in memory. {@link #close()} writes its end.
+     */
+    private LengthConstrainedArray(Writer out) throws IOException {
+      this.buffer = null;
+      this.out = out;
+      out.write('[');
     }
 
     public void addToken(CharSequence token) {
+      try {
+        writeToken(token);
+      } catch (IOException e) {
+        throw new RuntimeException("Unexpected IOException writing to a StringWriter", e);
+      }
+    }
+
+    public void addEscapedToken(String token) {
+      addToken(escapeString(token, true, this));
+    }
+
+    public void addToken(int i) {
+      addToken(String.valueOf(i));
+    }
+
+    public boolean isJavaScript() {
+      return javascript;
+    }
+
+    public void setJavaScript(boolean javascript) {
+      this.javascript = javascript;
+    }
+
+    @Override
+    public String toString() {
+      assert buffer != null : "Array written to a Writer";
+      return buffer.toString() + end();
+    }
+
+    /**
+     * Starts a new element, whose text the caller writes next.
+     */
+    private void beginToken() throws IOException {
       total++;
       if (count++ == MAXIMUM_ARRAY_LENGTH) {
         if (total == MAXIMUM_ARRAY_LENGTH + 1) {
-          buffer.append(PRELUDE);
+          out.write(PRELUDE);
           javascript = true;
         } else {
-          buffer.append("],[");
+          out.write("],[");
         }
         count = 0;
         needsComma = false;
       }
 
       if (needsComma) {
-        buffer.append(",");
+        out.write(',');
       } else {
         needsComma = true;
       }
-
-      buffer.append(token);
     }
 
-    public void addEscapedToken(String token) {
-      addToken(escapeString(token, true, this));
+    private void close() throws IOException {
+      out.write(end());
     }
 
-    public void addToken(int i) {
-      addToken(String.valueOf(i));
+    private String end() {
+      return total > MAXIMUM_ARRAY_LENGTH ? POSTLUDE : "]";
     }
 
-    public boolean isJavaScript() {
-      return javascript;
+    private void writeEscapedToken(String token) throws IOException {
+      writeToken(escapeString(token, true, this));
     }
 
-    public void setJavaScript(boolean javascript) {
-      this.javascript = javascript;
+    private void writeToken(CharSequence token) throws IOException {
+      beginToken();
+      out.append(token);
     }
 
-    @Override
-    public String toString() {
-      if (total > MAXIMUM_ARRAY_LENGTH) {
-        return "[" + buffer.toString() + POSTLUDE;
-      } else {
-        return "[" + buffer.toString() + "]";
-      }
+    private void writeToken(int i) throws IOException {
+      writeToken(String.valueOf(i));
     }
   }
 
@@ -574,12 +623,65 @@ public final class ServerSerializationStreamWriter extends
     }
   }
 
+  /**
+   * Appends an unsigned varint to a buffer, which is grown if needed.
+   *
+   * @return the buffer holding the appended value
+   */
+  private static ByteBuffer putVarint(ByteBuffer buffer, int value) {
+    buffer = ensureRemaining(buffer, 5);
+    while ((value & ~0x7f) != 0) {
+      buffer.put((byte) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+    return buffer;
+  }
+
+  private static ByteBuffer ensureRemaining(ByteBuffer buffer, int count) {
+    if (buffer.remaining() >= count) {
+      return buffer;
+    }
+    ByteBuffer grown = ByteBuffer.allocate(
+        Math.max(buffer.capacity() * 2, buffer.position() + count));
+    buffer.flip();
+    grown.put(buffer);
+    return grown;
+  }
+
+  /**
+   * Writes the bytes of a buffer as characters in the range [0, 255], which is
+   * how the binary encoding is carried in a String or by a Writer.
+   */
+  private static void writeBytes(Writer out, ByteBuffer buffer) throws IOException {
+    byte[] bytes = buffer.array();
+    char[] chars = new char[Math.min(buffer.position(), 8192)];
+    for (int start = 0; start < buffer.position(); start += chars.length) {
+      int length = Math.min(chars.length, buffer.position() - start);
+      for (int i = 0; i < length; i++) {
+        chars[i] = (char) (bytes[start + i] & 0xff);
+      }
+      out.write(chars, 0, length);
+    }
+  }
+
+  private static int zigzag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
   private final SerializationPolicy serializationPolicy;
 
   private ArrayList<String> tokenList = new ArrayList<String>();
 
   private int tokenListCharCount;
 
+  /**
+   * The values written so far if the stream has the
+   * {@link #FLAG_BINARY_RESPONSE} flag, in which case {@link #tokenList} is
+   * not used.
+   */
+  private ByteBuffer binaryPayload;
+
   public ServerSerializationStreamWriter(SerializationPolicy serializationPolicy) {
     this.serializationPolicy = serializationPolicy;
   }
@@ -594,6 +696,7 @@ public final class ServerSerializationStreamWriter extends
     super.prepareToWrite();
     tokenList.clear();
     tokenListCharCount = 0;
+    binaryPayload = hasFlags(FLAG_BINARY_RESPONSE) ? ByteBuffer.allocate(1024) : null;
   }
 
   public void serializeValue(Object value, Class<?> type)
@@ -613,23 +716,105 @@ public final class ServerSerializationStreamWriter extends
    * 
    * NOTE: We build the array in reverse so the client can simply use the pop
    * function to remove the next item from the list.
+   * <p>
+   * If the stream has the {@link #FLAG_BINARY_RESPONSE} flag, returns the
+   * binary encoding instead, one byte per character.
    */
   @Override
   public String toString() {
     // Build a JavaScript string (with escaping, of course).
     // We take a guess at how big to make to buffer to avoid numerous resizes.
     //
-    int capacityGuess = 2 * tokenListCharCount + 2 * tokenList.size();
-    LengthConstrainedArray stream = new LengthConstrainedArray(capacityGuess);
+    int capacityGuess = binaryPayload != null
+        ? binaryPayload.position() + 16 * getStringTable().size()
+        : 2 * tokenListCharCount + 2 * tokenList.size();
+    StringWriter out = new StringWriter(capacityGuess);
+    try {
+      writeTo(out);
+    } catch (IOException e) {
+      throw new RuntimeException("Unexpected IOException writing to a StringWriter", e);
+    }
+    return out.toString();
+  }
+
+  /**
+   * Writes the same text as {@link #toString()} to the given writer, without
+   * building it up in memory first. Useful for large responses, which would
+   * otherwise be held as a String and again as the encoded bytes.
+   *
+   * @param out the writer to write to; it is neither flushed nor closed
+   */
+  public void writeTo(Writer out) throws IOException {
+    if (binaryPayload != null) {
+      writeBinaryTo(out);
+      return;
+    }
+    LengthConstrainedArray stream = new LengthConstrainedArray(out);
     writePayload(stream);
     writeStringTable(stream);
     writeHeader(stream);
+    stream.close();
+  }
+
+  @Override
+  public void writeBoolean(boolean fieldValue) {
+    if (binaryPayload != null) {
+      binaryPayload = ensureRemaining(binaryPayload, 1);
+      binaryPayload.put((byte) (fieldValue ? 1 : 0));
+    } else {
+      super.writeBoolean(fieldValue);
+    }
+  }
+
+  @Override
+  public void writeByte(byte fieldValue) {
+    if (binaryPayload != null) {
+      binaryPayload = ensureRemaining(binaryPayload, 1);
+      binaryPayload.put(fieldValue);
+    } else {
+      super.writeByte(fieldValue);
+    }
+  }
+
+  @Override
+  public void writeChar(char ch) {
+    if (binaryPayload != null) {
+      binaryPayload = putVarint(binaryPayload, ch);
+    } else {
+      super.writeChar(ch);
+    }
+  }
+
+  @Override
+  public void writeInt(int fieldValue) {
+    if (binaryPayload != null) {
+      binaryPayload = putVarint(binaryPayload, zigzag(fieldValue));
+    } else {
+      super.writeInt(fieldValue);
+    }
+  }
 
-    return stream.toString();
+  @Override
+  public void writeShort(short value) {
+    if (binaryPayload != null) {
+      writeInt(value);
+    } else {
+      super.writeShort(value);
+    }
   }
-  
+
   @Override
   public void writeLong(long value) {
+    if (binaryPayload != null) {
+      binaryPayload = ensureRemaining(binaryPayload, 10);
+      long zigzag = (value << 1) ^ (value >> 63);
+      while ((zigzag & ~0x7fL) != 0) {
+        binaryPayload.put((byte) ((zigzag & 0x7f) | 0x80));
+        zigzag >>>= 7;
+      }
+      binaryPayload.put((byte) zigzag);
+      return;
+    }
     if (getVersion() == SERIALIZATION_STREAM_MIN_VERSION) {
       // Write longs as a pair of doubles for backwards compatibility
       double[] parts = getAsDoubleArray(value);
@@ -647,7 +832,10 @@ public final class ServerSerializationStreamWriter extends
 
   @Override
   public void writeDouble(double fieldValue) {
-    if (getVersion() >= SERIALIZATION_STREAM_JSON_VERSION
+    if (binaryPayload != null) {
+      binaryPayload = ensureRemaining(binaryPayload, 8);
+      binaryPayload.putDouble(fieldValue);
+    } else if (getVersion() >= SERIALIZATION_STREAM_JSON_VERSION
         && (Double.isNaN(fieldValue) || Double.isInfinite(fieldValue))) {
       append('"' + String.valueOf(fieldValue) + '"');
     } else {
@@ -657,6 +845,7 @@ public final class ServerSerializationStreamWriter extends
 
   @Override
   protected void append(String token) {
+    assert binaryPayload == null : "Text token in a binary stream";
     tokenList.add(token);
     if (token != null) {
       tokenListCharCount += token.length();
@@ -722,8 +911,7 @@ public final class ServerSerializationStreamWriter extends
   private void serializeClass(Object instance, Class<?> instanceClass)
       throws SerializationException {
     assert (instance != null);
-    Field[] serializableFields = SerializabilityUtil.applyFieldSerializationPolicy(instanceClass,
-        serializationPolicy);
+    FieldSerializationPlan plan = FieldSerializationPlan.get(instanceClass, serializationPolicy);
 
     /**
      * If clientFieldNames is non-null, identify any additional server-only fields and serialize
@@ -732,14 +920,11 @@ public final class ServerSerializationStreamWriter extends
      */
     Set<String> clientFieldNames = serializationPolicy.getClientFieldNamesForEnhancedClass(instanceClass);
     if (clientFieldNames != null) {
-      List<Field> serverFields = new ArrayList<Field>();
-      for (Field declField : serializableFields) {
-        assert (declField != null);
-        
+      List<Integer> serverFields = new ArrayList<Integer>();
+      for (int i = 0, n = plan.getFieldCount(); i < n; i++) {
         // Identify server-only fields
-        if (!clientFieldNames.contains(declField.getName())) {
-          serverFields.add(declField);
-          continue;
+        if (!clientFieldNames.contains(plan.getName(i))) {
+          serverFields.add(i);
         }
       }
       
@@ -748,10 +933,9 @@ public final class ServerSerializationStreamWriter extends
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         ObjectOutputStream oos = new ObjectOutputStream(baos);
         oos.writeInt(serverFields.size());
-        for (Field f : serverFields) {
-          oos.writeObject(f.getName());
-          f.setAccessible(true);
-          Object fieldData = f.get(instance);
+        for (int i : serverFields) {
+          oos.writeObject(plan.getName(i));
+          Object fieldData = plan.getValue(i, instance);
           oos.writeObject(fieldData);
         }
         oos.close();
@@ -767,24 +951,16 @@ public final class ServerSerializationStreamWriter extends
     }
     
     // Write the client-visible field data
-    for (Field declField : serializableFields) {
-      if ((clientFieldNames != null) && !clientFieldNames.contains(declField.getName())) {
+    for (int i = 0, n = plan.getFieldCount(); i < n; i++) {
+      if ((clientFieldNames != null) && !clientFieldNames.contains(plan.getName(i))) {
         // Skip server-only fields
         continue;
       }
 
-      boolean isAccessible = declField.isAccessible();
-      boolean needsAccessOverride = !isAccessible
-          && !Modifier.isPublic(declField.getModifiers());
-      if (needsAccessOverride) {
-        // Override the access restrictions
-        declField.setAccessible(true);
-      }
-
       Object value;
       try {
-        value = declField.get(instance);
-        serializeValue(value, declField.getType());
+        value = plan.getValue(i, instance);
+        serializeValue(value, plan.getType(i));
 
       } catch (IllegalArgumentException e) {
         throw new SerializationException(e);
@@ -857,33 +1033,56 @@ public final class ServerSerializationStreamWriter extends
     }
   }
 
+  /**
+   * Writes the binary encoding, in the order read by
+   * {@link com.google.gwt.user.client.rpc.impl.BinaryClientSerializationStreamReader}.
+   */
+  private void writeBinaryTo(Writer out) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(256);
+    header.put((byte) BINARY_STREAM_MARKER);
+    header = putVarint(header, zigzag(getVersion()));
+    header = putVarint(header, zigzag(getFlags()));
+    List<String> stringTable = getStringTable();
+    header = putVarint(header, stringTable.size());
+    for (String s : stringTable) {
+      header = putVarint(header, s.length());
+      for (int i = 0, n = s.length(); i < n; i++) {
+        header = putVarint(header, s.charAt(i));
+      }
+    }
+    writeBytes(out, header);
+    writeBytes(out, binaryPayload);
+  }
+
   /**
    * Notice that the field are written in reverse order that the client can just
    * pop items out of the stream.
    */
-  private void writeHeader(LengthConstrainedArray stream) {
-    stream.addToken(getFlags());
+  private void writeHeader(LengthConstrainedArray stream) throws IOException {
+    stream.writeToken(getFlags());
     if (stream.isJavaScript() && getVersion() >= SERIALIZATION_STREAM_JSON_VERSION) {
       // Ensure we are not using the JSON supported version if stream is Javascript instead of JSON
-      stream.addToken(SERIALIZATION_STREAM_JSON_VERSION - 1);
+      stream.writeToken(SERIALIZATION_STREAM_JSON_VERSION - 1);
     } else {
-      stream.addToken(getVersion());
+      stream.writeToken(getVersion());
     }
   }
 
-  private void writePayload(LengthConstrainedArray stream) {
+  private void writePayload(LengthConstrainedArray stream) throws IOException {
     ListIterator<String> tokenIterator = tokenList.listIterator(tokenList.size());
     while (tokenIterator.hasPrevious()) {
-      stream.addToken(tokenIterator.previous());
+      stream.writeToken(tokenIterator.previous());
     }
   }
 
-  private void writeStringTable(LengthConstrainedArray stream) {
-    LengthConstrainedArray tableStream = new LengthConstrainedArray();
+  private void writeStringTable(LengthConstrainedArray stream) throws IOException {
+    // The table is a single element of the stream: an array of its own.
+    stream.beginToken();
+    LengthConstrainedArray tableStream = new LengthConstrainedArray(stream.out);
     for (String s : getStringTable()) {
-      tableStream.addEscapedToken(s);
+      tableStream.writeEscapedToken(s);
     }
-    stream.addToken(tableStream.toString());
+    tableStream.close();
     stream.setJavaScript(stream.isJavaScript() || tableStream.isJavaScript());
   }
 }
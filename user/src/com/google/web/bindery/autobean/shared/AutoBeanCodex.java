@@ -81,6 +81,6 @@ public class AutoBeanCodex {
     StringBuilder sb = new StringBuilder();
     EncodeState state = EncodeState.forEncode(bean.getFactory(), sb);
     AutoBeanCodexImpl.doEncode(state, bean);
-    return StringQuoter.split(sb.toString());
+    return StringQuoter.splitEncoded(sb.toString());
   }
 }
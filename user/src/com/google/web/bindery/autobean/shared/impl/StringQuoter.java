@@ -72,6 +72,15 @@ public class StringQuoter {
     return JsonSplittable.create(payload);
   }
 
+  /**
+   * Like {@link #split(String)}, for well-formed payloads the caller has just
+   * encoded. Parsing is deferred until the structure is needed, so a payload
+   * that is only written back out is never parsed.
+   */
+  public static Splittable splitEncoded(String payload) {
+    return JsonSplittable.createLazily(payload);
+  }
+
   /**
    * Attempt to parse an ISO-8601 date format. May return {@code null} if the
    * input cannot be parsed.
@@ -77,6 +77,25 @@ public class JsonSplittable implements Splittable, HasSplittable {
     return new JsonSplittable(new JSONArray());
   }
 
+  /**
+   * Like {@link #create(String)}, but an object or array payload is only
+   * parsed once its contents are needed. This suits freshly encoded payloads,
+   * which are usually just written back out through {@link #getPayload()}.
+   * The payload must be well-formed, since errors only surface when it is
+   * parsed.
+   */
+  public static Splittable createLazily(String payload) {
+    switch (payload.charAt(0)) {
+      case '{':
+      case '[':
+        JsonSplittable toReturn = new JsonSplittable((String) null);
+        toReturn.unparsed = payload;
+        return toReturn;
+      default:
+        return create(payload);
+    }
+  }
+
   public static Splittable createNull() {
     return new JsonSplittable();
   }
@@ -107,6 +126,13 @@ public class JsonSplittable implements Splittable, HasSplittable {
   private boolean isNull;
   private Double number;
   private JSONObject obj;
+  /**
+   * The object or array payload of a lazily created instance, until it is
+   * parsed into {@link #obj} or {@link #array}. Volatile, and cleared only
+   * after the parsed value is stored, so that an instance shared between
+   * threads is parsed once and never seen half parsed.
+   */
+  private volatile String unparsed;
   private String string;
   private final Map<String, Object> reified = new HashMap<String, Object>();
 
@@ -149,7 +175,7 @@ public class JsonSplittable implements Splittable, HasSplittable {
 
   public void assign(Splittable parent, int index) {
     try {
-      ((JsonSplittable) parent).array.put(index, value());
+      ((JsonSplittable) parent).parsed().array.put(index, value());
     } catch (JSONException e) {
       throw new RuntimeException(e);
     }
@@ -157,7 +183,7 @@ public class JsonSplittable implements Splittable, HasSplittable {
 
   public void assign(Splittable parent, String propertyName) {
     try {
-      ((JsonSplittable) parent).obj.put(propertyName, value());
+      ((JsonSplittable) parent).parsed().obj.put(propertyName, value());
     } catch (JSONException e) {
       throw new RuntimeException(e);
     }
@@ -173,7 +199,7 @@ public class JsonSplittable implements Splittable, HasSplittable {
 
   public Splittable get(int index) {
     try {
-      return makeSplittable(array.get(index));
+      return makeSplittable(parsed().array.get(index));
     } catch (JSONException e) {
       throw new RuntimeException(e);
     }
@@ -181,7 +207,7 @@ public class JsonSplittable implements Splittable, HasSplittable {
 
   public Splittable get(String key) {
     try {
-      return makeSplittable(obj.get(key));
+      return makeSplittable(parsed().obj.get(key));
     } catch (JSONException e) {
       throw new RuntimeException(key, e);
     }
@@ -191,6 +217,10 @@ public class JsonSplittable implements Splittable, HasSplittable {
     if (isNull) {
       return "null";
     }
+    String payload = unparsed;
+    if (payload != null) {
+      return payload;
+    }
     if (obj != null) {
       return obj.toString();
     }
@@ -210,7 +240,7 @@ public class JsonSplittable implements Splittable, HasSplittable {
   }
 
   public List<String> getPropertyKeys() {
-    String[] names = getNames(obj);
+    String[] names = getNames(parsed().obj);
     if (names == null) {
       return Collections.emptyList();
     } else {
@@ -231,18 +261,19 @@ public class JsonSplittable implements Splittable, HasSplittable {
   }
 
   public boolean isIndexed() {
-    return array != null;
+    return parsed().array != null;
   }
 
   public boolean isKeyed() {
-    return obj != null;
+    return parsed().obj != null;
   }
 
   public boolean isNull(int index) {
-    return array.isNull(index);
+    return parsed().array.isNull(index);
   }
 
   public boolean isNull(String key) {
+    parsed();
     // Treat undefined and null as the same
     return !obj.has(key) || obj.isNull(key);
   }
@@ -260,7 +291,7 @@ public class JsonSplittable implements Splittable, HasSplittable {
   }
 
   public boolean isUndefined(String key) {
-    return !obj.has(key);
+    return !parsed().obj.has(key);
   }
 
   @Override
@@ -273,6 +304,7 @@ public class JsonSplittable implements Splittable, HasSplittable {
   }
 
   public void setSize(int size) {
+    parsed();
     // This is terrible, but there's no API support for resizing or splicing
     JSONArray newArray = new JSONArray();
     for (int i = 0; i < size; i++) {
@@ -286,7 +318,7 @@ public class JsonSplittable implements Splittable, HasSplittable {
   }
 
   public int size() {
-    return array.length();
+    return parsed().array.length();
   }
 
   private synchronized JsonSplittable makeSplittable(Object object) {
@@ -319,10 +351,39 @@ public class JsonSplittable implements Splittable, HasSplittable {
     return seen;
   }
 
+  private synchronized void parse() {
+    String payload = unparsed;
+    if (payload == null) {
+      // Parsed by another thread
+      return;
+    }
+    try {
+      if (payload.charAt(0) == '{') {
+        obj = new JSONObject(payload);
+      } else {
+        array = new JSONArray(payload);
+      }
+    } catch (JSONException e) {
+      throw new RuntimeException("Could not parse payload", e);
+    }
+    unparsed = null;
+  }
+
+  /**
+   * Parses the payload of a lazily created instance, if not done yet.
+   */
+  private JsonSplittable parsed() {
+    if (unparsed != null) {
+      parse();
+    }
+    return this;
+  }
+
   private Object value() {
     if (isNull) {
       return null;
     }
+    parsed();
     if (obj != null) {
       return obj;
     }
@@ -32,6 +32,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -120,6 +121,14 @@ final class ReflectiveServiceLayer extends ServiceLayerDecorator {
     return getFind(domainType).getParameterTypes()[0];
   }
 
+  /**
+   * This implementation invokes every method directly.
+   */
+  @Override
+  public Executor getInvocationExecutor(Method contextMethod, Method domainMethod) {
+    return null;
+  }
+
   @Override
   public Object getProperty(Object domainObject, String property) {
     try {
@@ -200,6 +209,15 @@ final class ReflectiveServiceLayer extends ServiceLayerDecorator {
     return getTop().invoke(getFind(domainObject.getClass()), id) != null;
   }
 
+  @Override
+  public List<Boolean> isLive(List<Object> domainObjects) {
+    List<Boolean> toReturn = new ArrayList<Boolean>(domainObjects.size());
+    for (Object domainObject : domainObjects) {
+      toReturn.add(getTop().isLive(domainObject));
+    }
+    return toReturn;
+  }
+
   @Override
   public <T> T loadDomainObject(Class<T> clazz, Object id) {
     if (id == null) {
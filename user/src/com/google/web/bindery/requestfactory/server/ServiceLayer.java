@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import javax.validation.ConstraintViolation;
 
@@ -184,6 +185,22 @@ public abstract class ServiceLayer {
    */
   public abstract Class<?> getIdType(Class<?> domainType);
 
+  /**
+   * Returns the Executor on which to invoke a domain method, or {@code null}
+   * to invoke it directly. Invocations given an Executor run concurrently with
+   * the other invocations of the same request, whose results are still
+   * returned in order. Only return an Executor for methods that are free of
+   * side effects and do not depend on thread-local state, such as
+   * {@link RequestFactoryServlet#getThreadLocalRequest()}.
+   * <p>
+   * The default implementation returns {@code null}.
+   * 
+   * @param contextMethod a method defined in a RequestContext
+   * @param domainMethod the domain method it resolves to
+   * @return an Executor, or {@code null} to invoke the method directly
+   */
+  public abstract Executor getInvocationExecutor(Method contextMethod, Method domainMethod);
+
   /**
    * Retrieve the named property from the domain object.
    * 
@@ -241,6 +258,20 @@ public abstract class ServiceLayer {
    */
   public abstract boolean isLive(Object domainObject);
 
+  /**
+   * Determines whether multiple domain objects are still live. This method is
+   * intended to allow more efficient access to the backing store by checking
+   * all entities referenced in an outgoing payload at once.
+   * <p>
+   * The default implementation of this method will delegate to
+   * {@link #isLive(Object)}.
+   * 
+   * @param domainObjects the domain entities to check
+   * @return a list with one element per domain object, each being {@code true}
+   *         if the corresponding domain object is live
+   */
+  public abstract List<Boolean> isLive(List<Object> domainObjects);
+
   /**
    * Load an object from the backing store. This method may return {@code null}
    * to indicate that the requested object is no longer available.
@@ -26,6 +26,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -86,6 +87,11 @@ public class ServiceLayerDecorator extends ServiceLayer {
     return getNext().getIdType(domainType);
   }
 
+  @Override
+  public Executor getInvocationExecutor(Method contextMethod, Method domainMethod) {
+    return getNext().getInvocationExecutor(contextMethod, domainMethod);
+  }
+
   @Override
   public Object getProperty(Object domainObject, String property) {
     return getNext().getProperty(domainObject, property);
@@ -116,6 +122,11 @@ public class ServiceLayerDecorator extends ServiceLayer {
     return getNext().isLive(domainObject);
   }
 
+  @Override
+  public List<Boolean> isLive(List<Object> domainObjects) {
+    return getNext().isLive(domainObjects);
+  }
+
   @Override
   public <T> T loadDomainObject(Class<T> clazz, Object domainId) {
     return getNext().loadDomainObject(clazz, domainId);
@@ -62,6 +62,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.validation.ConstraintViolation;
 
@@ -86,6 +91,25 @@ public class SimpleRequestProcessor {
   static class IdToEntityMap extends HashMap<SimpleProxyId<?>, AutoBean<? extends BaseProxy>> {
   }
 
+  /**
+   * A domain method invocation handed to the Executor returned by
+   * {@link ServiceLayer#getInvocationExecutor(Method, Method)}.
+   */
+  private class Invocation implements Callable<Object> {
+    private final Method domainMethod;
+    private final Object[] args;
+
+    Invocation(Method domainMethod, Object[] args) {
+      this.domainMethod = domainMethod;
+      this.args = args;
+    }
+
+    @Override
+    public Object call() {
+      return service.invoke(domainMethod, args);
+    }
+  }
+
   /**
    * Allows the creation of properly-configured AutoBeans without having to
    * create an AutoBeanFactory with the desired annotations.
@@ -263,12 +287,14 @@ public class SimpleRequestProcessor {
 
   private void createReturnOperations(List<OperationMessage> operations, RequestState returnState,
       IdToEntityMap toProcess) {
+    /*
+     * Find the persistent domain objects first, so that their liveness can be
+     * checked with a single call to the service layer.
+     */
+    List<Object> toCheck = new ArrayList<Object>();
     for (Map.Entry<SimpleProxyId<?>, AutoBean<? extends BaseProxy>> entry : toProcess.entrySet()) {
       SimpleProxyId<?> id = entry.getKey();
-
-      AutoBean<? extends BaseProxy> bean = entry.getValue();
-      Object domainObject = bean.getTag(Constants.DOMAIN_OBJECT);
-      WriteOperation writeOperation;
+      Object domainObject = entry.getValue().getTag(Constants.DOMAIN_OBJECT);
 
       if (id.isEphemeral() && returnState.isEntityType(id.getProxyClass())) {
         // See if the entity has been persisted in the meantime
@@ -276,10 +302,29 @@ public class SimpleRequestProcessor {
             Collections.<String> emptySet());
       }
 
+      if (!id.isEphemeral() && !id.isSynthetic() && domainObject != null) {
+        toCheck.add(domainObject);
+      }
+    }
+    List<Boolean> live = toCheck.isEmpty() ? Collections.<Boolean> emptyList()
+        : service.isLive(toCheck);
+    if (live.size() != toCheck.size()) {
+      throw new UnexpectedException("Expected liveness of " + toCheck.size()
+          + " objects, got " + live.size(), null);
+    }
+    Iterator<Boolean> itLive = live.iterator();
+
+    for (Map.Entry<SimpleProxyId<?>, AutoBean<? extends BaseProxy>> entry : toProcess.entrySet()) {
+      SimpleProxyId<?> id = entry.getKey();
+
+      AutoBean<? extends BaseProxy> bean = entry.getValue();
+      Object domainObject = bean.getTag(Constants.DOMAIN_OBJECT);
+      WriteOperation writeOperation;
+
       if (id.isEphemeral() || id.isSynthetic() || domainObject == null) {
         // If the object isn't persistent, there's no reason to send an update
         writeOperation = null;
-      } else if (!service.isLive(domainObject)) {
+      } else if (!itLive.next()) {
         writeOperation = WriteOperation.DELETE;
       } else if (id.wasEphemeral()) {
         writeOperation = WriteOperation.PERSIST;
@@ -432,9 +477,11 @@ public class SimpleRequestProcessor {
     }
     List<Method> contextMethods = new ArrayList<Method>(invocations.size());
     List<Object> invocationResults = new ArrayList<Object>(invocations.size());
-    Map<Object, SortedSet<String>> allPropertyRefs = new HashMap<Object, SortedSet<String>>();
+    // Invocations running on an Executor, null for those already done
+    List<FutureTask<Object>> pending = new ArrayList<FutureTask<Object>>(invocations.size());
     for (InvocationMessage invocation : invocations) {
-      Object domainReturnValue;
+      Object domainReturnValue = null;
+      FutureTask<Object> task = null;
       boolean ok;
       try {
         // Find the Method
@@ -459,15 +506,17 @@ public class SimpleRequestProcessor {
           Object serviceInstance = service.createServiceInstance(requestContext);
           args.add(0, serviceInstance);
         }
-        // Invoke it
-        domainReturnValue = service.invoke(domainMethod, args.toArray());
-        if (invocation.getPropertyRefs() != null) {
-          SortedSet<String> paths = allPropertyRefs.get(domainReturnValue);
-          if (paths == null) {
-            paths = new TreeSet<String>();
-            allPropertyRefs.put(domainReturnValue, paths);
+        // Invoke it, possibly concurrently with the following invocations
+        Executor executor = service.getInvocationExecutor(contextMethod, domainMethod);
+        if (executor == null) {
+          domainReturnValue = service.invoke(domainMethod, args.toArray());
+        } else {
+          task = new FutureTask<Object>(new Invocation(domainMethod, args.toArray()));
+          try {
+            executor.execute(task);
+          } catch (RejectedExecutionException e) {
+            task.run();
           }
-          paths.addAll(invocation.getPropertyRefs());
         }
         ok = true;
       } catch (ReportableException e) {
@@ -475,8 +524,49 @@ public class SimpleRequestProcessor {
         ok = false;
       }
       invocationResults.add(domainReturnValue);
+      pending.add(task);
       success.add(ok);
     }
+
+    // Collect the results of concurrent invocations, in request order
+    for (int i = 0, j = pending.size(); i < j; i++) {
+      FutureTask<Object> task = pending.get(i);
+      if (task != null) {
+        try {
+          invocationResults.set(i, task.get());
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof ReportableException) {
+            invocationResults.set(i,
+                AutoBeanCodex.encode(createFailureMessage((ReportableException) cause)));
+            success.set(i, false);
+          } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          } else if (cause instanceof Error) {
+            throw (Error) cause;
+          } else {
+            throw new UnexpectedException("Invocation failed", cause);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new UnexpectedException("Interrupted while waiting for an invocation", e);
+        }
+      }
+    }
+
+    Map<Object, SortedSet<String>> allPropertyRefs = new HashMap<Object, SortedSet<String>>();
+    for (int i = 0, j = invocationResults.size(); i < j; i++) {
+      Set<String> propertyRefs = invocations.get(i).getPropertyRefs();
+      if (success.get(i) && propertyRefs != null) {
+        Object domainReturnValue = invocationResults.get(i);
+        SortedSet<String> paths = allPropertyRefs.get(domainReturnValue);
+        if (paths == null) {
+          paths = new TreeSet<String>();
+          allPropertyRefs.put(domainReturnValue, paths);
+        }
+        paths.addAll(propertyRefs);
+      }
+    }
     Iterator<Method> contextMethodIt = contextMethods.iterator();
     Iterator<Object> objects = invocationResults.iterator();
     Iterator<Boolean> successes = success.iterator();
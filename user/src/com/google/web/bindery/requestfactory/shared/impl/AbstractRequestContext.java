@@ -283,7 +283,7 @@ public abstract class AbstractRequestContext implements RequestContext, EntityCo
       }
       sb.append("]");
 
-      return StringQuoter.split(sb.toString());
+      return StringQuoter.splitEncoded(sb.toString());
     }
 
     private Splittable nonCollectionEncode(Object obj) {
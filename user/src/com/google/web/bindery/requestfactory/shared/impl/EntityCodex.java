@@ -194,7 +194,7 @@ public class EntityCodex {
         }
       }
       toReturn.append(']');
-      return StringQuoter.split(toReturn.toString());
+      return StringQuoter.splitEncoded(toReturn.toString());
     }
 
     // Map encoding follows behaviour of AutoBeanCodexImpl.MapCoder
@@ -250,7 +250,7 @@ public class EntityCodex {
         sb.append("]");
       }
 
-      return StringQuoter.split(sb.toString());
+      return StringQuoter.splitEncoded(sb.toString());
     }
 
     if (value instanceof BaseProxy) {
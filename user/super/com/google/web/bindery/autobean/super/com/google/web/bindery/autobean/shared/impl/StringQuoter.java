@@ -70,6 +70,10 @@ public class StringQuoter {
     return toReturn;
   }
 
+  public static Splittable splitEncoded(String payload) {
+    return split(payload);
+  }
+
   public static Date tryParseDate(String date) {
     try {
       return new Date(Long.parseLong(date));
@@ -17,6 +17,9 @@ package com.google.gwt.core;
 
 import com.google.gwt.core.client.impl.AsyncFragmentLoaderTest;
 import com.google.gwt.core.client.testing.StubSchedulerTest;
+import com.google.gwt.core.server.IndexedSourceMappingTest;
+import com.google.gwt.core.server.IndexedSymbolMapTest;
+import com.google.gwt.core.server.StackTraceDeobfuscatorTest;
 import com.google.gwt.dev.StrictModeTest;
 
 import junit.framework.Test;
@@ -29,6 +32,9 @@ public class CoreJreSuite {
   public static Test suite() {
     TestSuite suite = new TestSuite("All core tests");
     suite.addTestSuite(AsyncFragmentLoaderTest.class);
+    suite.addTestSuite(IndexedSourceMappingTest.class);
+    suite.addTestSuite(IndexedSymbolMapTest.class);
+    suite.addTestSuite(StackTraceDeobfuscatorTest.class);
     suite.addTestSuite(StrictModeTest.class);
     suite.addTestSuite(StubSchedulerTest.class);
     return suite;
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import com.google.gwt.core.linker.SourceMapIndexWriter;
+import com.google.gwt.thirdparty.debugging.sourcemap.FilePosition;
+import com.google.gwt.thirdparty.debugging.sourcemap.SourceMapConsumerFactory;
+import com.google.gwt.thirdparty.debugging.sourcemap.SourceMapGeneratorV3;
+import com.google.gwt.thirdparty.debugging.sourcemap.SourceMapping;
+import com.google.gwt.thirdparty.debugging.sourcemap.proto.Mapping.OriginalMapping;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Checks that {@link IndexedSourceMapping} resolves positions exactly like the parsed source map
+ * it was built from.
+ */
+public class IndexedSourceMappingTest extends TestCase {
+
+  public void testMatchesParsedSourceMap() throws Exception {
+    SourceMapGeneratorV3 generator = new SourceMapGeneratorV3();
+    // Line 0: two mapped segments with a gap between them
+    addMapping(generator, "com/example/Foo.java", "bar", 10, 0, 0, 5);
+    addMapping(generator, "com/example/Foo.java", null, 11, 0, 8, 12);
+    // Line 1 has no mappings; line 2 starts in the middle
+    addMapping(generator, "com/example/Bar.java", "baz", 3, 2, 4, 20);
+    addMapping(generator, "com/example/Foo.java", "qux", 42, 2, 20, 25);
+    // Line 4 is mapped only past the start
+    addMapping(generator, "com/example/Bar.java", "quux", 7, 4, 6, 9);
+    StringBuilder json = new StringBuilder();
+    generator.appendTo(json, "test.js");
+
+    SourceMapping parsed = SourceMapConsumerFactory.parse(json.toString());
+    IndexedSourceMapping indexed = IndexedSourceMapping.read(
+        new ByteArrayInputStream(SourceMapIndexWriter.write(json.toString())));
+
+    for (int line = 1; line <= 7; line++) {
+      for (int column = 1; column <= 30; column++) {
+        String where = line + ":" + column;
+        OriginalMapping expected = getMappingOrNull(parsed, line, column);
+        OriginalMapping actual = indexed.getMappingForLine(line, column);
+        if (expected == null) {
+          assertNull(where, actual);
+        } else {
+          assertNotNull(where, actual);
+          assertEquals(where, expected.getOriginalFile(), actual.getOriginalFile());
+          assertEquals(where, expected.getLineNumber(), actual.getLineNumber());
+          assertEquals(where, expected.getColumnPosition(), actual.getColumnPosition());
+          assertEquals(where, expected.getIdentifier(), actual.getIdentifier());
+        }
+      }
+    }
+    assertEquals("bar", indexed.getMappingForLine(1, 1).getIdentifier());
+    assertEquals("baz", indexed.getMappingForLine(3, 5).getIdentifier());
+    assertNull(indexed.getMappingForLine(2, 1));
+  }
+
+  public void testRejectsOtherData() {
+    try {
+      IndexedSourceMapping.read(new ByteArrayInputStream("{\"version\":3}".getBytes()));
+      fail();
+    } catch (IOException expected) {
+    }
+  }
+
+  private static void addMapping(SourceMapGeneratorV3 generator, String source, String name,
+      int sourceLine, int line, int startColumn, int endColumn) {
+    generator.addMapping(source, name, new FilePosition(sourceLine, 0),
+        new FilePosition(line, startColumn), new FilePosition(line, endColumn));
+  }
+
+  private static OriginalMapping getMappingOrNull(SourceMapping mapping, int line, int column) {
+    try {
+      return mapping.getMappingForLine(line, column);
+    } catch (RuntimeException e) {
+      // Positions past the end of the map
+      return null;
+    }
+  }
+}
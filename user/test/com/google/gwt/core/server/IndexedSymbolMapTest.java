@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import com.google.gwt.core.linker.SymbolMapIndexWriter;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Checks that {@link IndexedSymbolMap} finds the method symbols of the symbol map it was built
+ * from.
+ */
+public class IndexedSymbolMapTest extends TestCase {
+
+  public void testFindsMethodSymbols() throws Exception {
+    StringBuilder symbolMap = new StringBuilder();
+    symbolMap.append("# { 0 }\n");
+    symbolMap.append("# jsName, jsniIdent, className, memberName, sourceUri, sourceLine,"
+        + " fragmentNumber\n");
+    // Symbols in no particular order, of different lengths and sharing prefixes
+    String[] symbols = new String[300];
+    for (int i = 0; i < symbols.length; i++) {
+      symbols[i] = Integer.toString(i * 7919 % 1000, 36) + (i % 3 == 0 ? "_" : "");
+      symbolMap.append(symbols[i]).append(",com.example.C" + i + "::m" + i + "()V,com.example.C")
+          .append(i).append(",m").append(i).append(",file:/C.java,").append(i).append(",0\n");
+    }
+    // Fields and classes are left out
+    symbolMap.append("fld,com.example.Foo::field,com.example.Foo,field,file:/Foo.java,1,0\n");
+    symbolMap.append("Cls,,com.example.Foo,,file:/Foo.java,1,0\n");
+
+    IndexedSymbolMap index = IndexedSymbolMap.read(
+        new ByteArrayInputStream(SymbolMapIndexWriter.write(symbolMap.toString())));
+    for (int i = 0; i < symbols.length; i++) {
+      assertEquals(symbols[i], "com.example.C" + i + "::m" + i + "()V,com.example.C" + i + ",m" + i
+          + ",file:/C.java," + i + ",0", index.get(symbols[i]));
+    }
+    assertNull(index.get("fld"));
+    assertNull(index.get("Cls"));
+    assertNull(index.get(""));
+    assertNull(index.get("zzzz"));
+    assertNull(index.get(symbols[0] + "x"));
+  }
+
+  public void testRejectsOtherData() {
+    try {
+      IndexedSymbolMap.read(new ByteArrayInputStream("a,b,c,d,e,1,0\n".getBytes()));
+      fail();
+    } catch (IOException expected) {
+    }
+    byte[] truncated = SymbolMapIndexWriter.write("a,Foo::a()V,Foo,a,Foo.java,1,0\n");
+    try {
+      IndexedSymbolMap.read(
+          new ByteArrayInputStream(Arrays.copyOf(truncated, truncated.length - 1)));
+      fail();
+    } catch (IOException expected) {
+    }
+  }
+}
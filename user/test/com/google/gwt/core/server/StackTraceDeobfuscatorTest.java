@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import com.google.gwt.core.linker.SymbolMapIndexWriter;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test for {@link StackTraceDeobfuscator}.
+ */
+public class StackTraceDeobfuscatorTest extends TestCase {
+
+  /**
+   * Serves the same symbol map for every strong name and counts the reads.
+   */
+  private static class CountingDeobfuscator extends StackTraceDeobfuscator {
+    final Map<String, Integer> reads = new HashMap<String, Integer>();
+
+    @Override
+    protected InputStream openInputStream(String fileName) throws IOException {
+      Integer count = reads.get(fileName);
+      reads.put(fileName, count == null ? 1 : count + 1);
+      return new ByteArrayInputStream(SYMBOL_MAP.getBytes("UTF-8"));
+    }
+
+    int readsOf(String strongName) {
+      Integer count = reads.get(strongName + ".symbolMap");
+      return count == null ? 0 : count;
+    }
+  }
+
+  /**
+   * Serves a symbol map lookup table, and fails on anything else.
+   */
+  private static class IndexedDeobfuscator extends CountingDeobfuscator {
+    @Override
+    protected InputStream openInputStream(String fileName) throws IOException {
+      super.openInputStream(fileName);
+      if (!fileName.endsWith(".symbolMapIndex.bin")) {
+        throw new IOException("Missing " + fileName);
+      }
+      return new ByteArrayInputStream(SymbolMapIndexWriter.write(SYMBOL_MAP));
+    }
+  }
+
+  private static final String SYMBOL_MAP = "# jsName, jsniIdent, className, memberName, sourceUri,"
+      + " sourceLine, fragmentNumber\n"
+      + "a,com.example.Foo::bar()V,com.example.Foo,bar,file:/src/com/example/Foo.java,12,0\n"
+      + "b,com.example.Foo::baz(I)V,com.example.Foo,baz,file:/src/com/example/Foo.java,20,0\n";
+
+  private static final StackTraceElement OBFUSCATED_A =
+      new StackTraceElement("Unknown", "a", "ABC.cache.js", -1);
+
+  public void testResymbolize() {
+    CountingDeobfuscator deobfuscator = new CountingDeobfuscator();
+    StackTraceElement element = deobfuscator.resymbolize(OBFUSCATED_A, "ABC");
+    assertEquals("com.example.Foo", element.getClassName());
+    assertEquals("bar", element.getMethodName());
+    assertEquals("Foo.java", element.getFileName());
+    assertEquals(12, element.getLineNumber());
+  }
+
+  public void testResymbolizeFromIndex() {
+    IndexedDeobfuscator deobfuscator = new IndexedDeobfuscator();
+    StackTraceElement element = deobfuscator.resymbolize(OBFUSCATED_A, "ABC");
+    assertEquals("com.example.Foo", element.getClassName());
+    assertEquals("bar", element.getMethodName());
+    assertEquals("Foo.java", element.getFileName());
+    assertEquals(12, element.getLineNumber());
+
+    element = deobfuscator.resymbolize(
+        new StackTraceElement("Unknown", "b", "ABC.cache.js", -1), "ABC");
+    assertEquals("baz", element.getMethodName());
+    assertEquals(20, element.getLineNumber());
+
+    StackTraceElement unknown = new StackTraceElement("Unknown", "c", "ABC.cache.js", -1);
+    assertSame(unknown, deobfuscator.resymbolize(unknown, "ABC"));
+
+    // The table is read once, and the symbol map never
+    assertEquals(Integer.valueOf(1), deobfuscator.reads.get("ABC.symbolMapIndex.bin"));
+    assertEquals(0, deobfuscator.readsOf("ABC"));
+  }
+
+  public void testUnboundedByDefault() {
+    CountingDeobfuscator deobfuscator = new CountingDeobfuscator();
+    for (int round = 0; round < 2; round++) {
+      for (int i = 0; i < 100; i++) {
+        deobfuscator.resymbolize(OBFUSCATED_A, "perm" + i);
+      }
+    }
+    for (int i = 0; i < 100; i++) {
+      assertEquals(1, deobfuscator.readsOf("perm" + i));
+    }
+  }
+
+  public void testLeastRecentlyUsedIsEvicted() {
+    CountingDeobfuscator deobfuscator = new CountingDeobfuscator();
+    deobfuscator.setCacheSize(2);
+
+    deobfuscator.resymbolize(OBFUSCATED_A, "one");
+    deobfuscator.resymbolize(OBFUSCATED_A, "two");
+    // Touch "one" so that "two" is the least recently used
+    deobfuscator.resymbolize(OBFUSCATED_A, "one");
+    deobfuscator.resymbolize(OBFUSCATED_A, "three");
+    assertEquals(1, deobfuscator.readsOf("one"));
+    assertEquals(1, deobfuscator.readsOf("two"));
+    assertEquals(1, deobfuscator.readsOf("three"));
+
+    deobfuscator.resymbolize(OBFUSCATED_A, "one");
+    assertEquals(1, deobfuscator.readsOf("one"));
+    deobfuscator.resymbolize(OBFUSCATED_A, "two");
+    assertEquals(2, deobfuscator.readsOf("two"));
+  }
+
+  public void testShrinkingCacheEvicts() {
+    CountingDeobfuscator deobfuscator = new CountingDeobfuscator();
+    deobfuscator.resymbolize(OBFUSCATED_A, "one");
+    deobfuscator.resymbolize(OBFUSCATED_A, "two");
+    deobfuscator.setCacheSize(1);
+
+    deobfuscator.resymbolize(OBFUSCATED_A, "two");
+    assertEquals(1, deobfuscator.readsOf("two"));
+    deobfuscator.resymbolize(OBFUSCATED_A, "one");
+    assertEquals(2, deobfuscator.readsOf("one"));
+  }
+}
@@ -16,7 +16,9 @@
 package com.google.gwt.user;
 
 import com.google.gwt.dev.BootStrapPlatform;
+import com.google.gwt.user.client.rpc.impl.BinaryClientSerializationStreamReaderTest;
 import com.google.gwt.user.client.rpc.impl.ClientSerializationStreamReaderTest;
+import com.google.gwt.user.client.rpc.impl.RpcBatchTest;
 import com.google.gwt.user.rebind.rpc.BlacklistTypeFilterTest;
 import com.google.gwt.user.rebind.rpc.SerializableTypeOracleBuilderTest;
 import com.google.gwt.user.rebind.rpc.SerializationUtilsTest;
@@ -24,6 +26,7 @@ import com.google.gwt.user.rebind.rpc.TypeHierarchyUtilsTest;
 import com.google.gwt.user.server.Base64Test;
 import com.google.gwt.user.server.UtilTest;
 import com.google.gwt.user.server.rpc.AbstractXsrfProtectedServiceServletTest;
+import com.google.gwt.user.server.rpc.AsyncRemoteServiceServletTest;
 import com.google.gwt.user.server.rpc.DequeMapTest;
 import com.google.gwt.user.server.rpc.RPCRequestTest;
 import com.google.gwt.user.server.rpc.RPCServletUtilsTest;
@@ -31,7 +34,9 @@ import com.google.gwt.user.server.rpc.RPCTest;
 import com.google.gwt.user.server.rpc.RPCTypeCheckTest;
 import com.google.gwt.user.server.rpc.RemoteServiceServletTest;
 import com.google.gwt.user.server.rpc.SerializationPolicyLoaderTest;
+import com.google.gwt.user.server.rpc.impl.FieldSerializationPlanTest;
 import com.google.gwt.user.server.rpc.impl.LegacySerializationPolicyTest;
+import com.google.gwt.user.server.rpc.impl.ServerSerializationStreamReaderTest;
 import com.google.gwt.user.server.rpc.impl.ServerSerializationStreamWriterTest;
 import com.google.gwt.user.server.rpc.impl.StandardSerializationPolicyTest;
 
@@ -62,6 +67,7 @@ public class RpcJreSuite {
     suite.addTestSuite(RPCTest.class);
     suite.addTestSuite(RPCTypeCheckTest.class);
     suite.addTestSuite(RemoteServiceServletTest.class);
+    suite.addTestSuite(AsyncRemoteServiceServletTest.class);
     suite.addTestSuite(LegacySerializationPolicyTest.class);
     suite.addTestSuite(StandardSerializationPolicyTest.class);
     suite.addTestSuite(SerializationPolicyLoaderTest.class);
@@ -70,8 +76,12 @@ public class RpcJreSuite {
     suite.addTestSuite(Base64Test.class);
     suite.addTestSuite(UtilTest.class);
     suite.addTestSuite(AbstractXsrfProtectedServiceServletTest.class);
+    suite.addTestSuite(BinaryClientSerializationStreamReaderTest.class);
+    suite.addTestSuite(RpcBatchTest.class);
     suite.addTestSuite(ClientSerializationStreamReaderTest.class);
+    suite.addTestSuite(ServerSerializationStreamReaderTest.class);
     suite.addTestSuite(ServerSerializationStreamWriterTest.class);
+    suite.addTestSuite(FieldSerializationPlanTest.class);
     return suite;
   }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.client.rpc.impl;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.server.rpc.impl.ServerSerializationStreamWriter;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests {@link BinaryClientSerializationStreamReader} against the binary
+ * encoding written by {@link ServerSerializationStreamWriter}.
+ */
+public class BinaryClientSerializationStreamReaderTest extends TestCase {
+
+  private static ServerSerializationStreamWriter createWriter(int flags) {
+    ServerSerializationStreamWriter writer = new ServerSerializationStreamWriter(null,
+        AbstractSerializationStream.SERIALIZATION_STREAM_VERSION);
+    writer.setFlags(flags);
+    writer.prepareToWrite();
+    return writer;
+  }
+
+  public void testNotBinary() {
+    BinaryClientSerializationStreamReader reader = new BinaryClientSerializationStreamReader(null);
+    try {
+      reader.prepareToRead("[1,[\"one\"],0,7]");
+      fail("Expected SerializationException");
+    } catch (SerializationException expected) {
+    }
+  }
+
+  public void testRead() throws SerializationException {
+    ServerSerializationStreamWriter writer =
+        createWriter(AbstractSerializationStream.FLAG_BINARY_RESPONSE);
+    writer.writeBoolean(true);
+    writer.writeBoolean(false);
+    writer.writeByte((byte) -5);
+    writer.writeChar('\uffff');
+    writer.writeShort(Short.MIN_VALUE);
+    writer.writeInt(0);
+    writer.writeInt(-1);
+    writer.writeInt(Integer.MAX_VALUE);
+    writer.writeInt(Integer.MIN_VALUE);
+    writer.writeLong(Long.MIN_VALUE);
+    writer.writeLong(1L << 40);
+    writer.writeDouble(-0.0);
+    writer.writeDouble(Double.NaN);
+    writer.writeDouble(Double.POSITIVE_INFINITY);
+    writer.writeFloat(1.5f);
+    writer.writeString("one");
+    writer.writeString(null);
+    writer.writeString("测试 \"quotes\" \ud800");
+    writer.writeString("one");
+    String encoded = writer.toString();
+    assertTrue(BinaryClientSerializationStreamReader.isBinary(encoded));
+
+    BinaryClientSerializationStreamReader reader = new BinaryClientSerializationStreamReader(null);
+    reader.prepareToRead(encoded);
+    assertEquals(AbstractSerializationStream.SERIALIZATION_STREAM_VERSION, reader.getVersion());
+    assertEquals(AbstractSerializationStream.FLAG_BINARY_RESPONSE, reader.getFlags());
+    assertTrue(reader.readBoolean());
+    assertFalse(reader.readBoolean());
+    assertEquals(-5, reader.readByte());
+    assertEquals('\uffff', reader.readChar());
+    assertEquals(Short.MIN_VALUE, reader.readShort());
+    assertEquals(0, reader.readInt());
+    assertEquals(-1, reader.readInt());
+    assertEquals(Integer.MAX_VALUE, reader.readInt());
+    assertEquals(Integer.MIN_VALUE, reader.readInt());
+    assertEquals(Long.MIN_VALUE, reader.readLong());
+    assertEquals(1L << 40, reader.readLong());
+    assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(reader.readDouble()));
+    assertTrue(Double.isNaN(reader.readDouble()));
+    assertEquals(Double.POSITIVE_INFINITY, reader.readDouble());
+    assertEquals(1.5f, reader.readFloat());
+    assertEquals("one", reader.readString());
+    assertNull(reader.readString());
+    assertEquals("测试 \"quotes\" \ud800", reader.readString());
+    assertEquals("one", reader.readString());
+  }
+
+  /**
+   * Tests that browsers' decoding of the x-user-defined charset, which maps
+   * bytes 0x80-0xFF to U+F780-U+F7FF, is understood.
+   */
+  public void testReadUserDefinedCharset() throws SerializationException {
+    ServerSerializationStreamWriter writer =
+        createWriter(AbstractSerializationStream.FLAG_BINARY_RESPONSE);
+    writer.writeInt(-1000);
+    writer.writeString("été");
+    String encoded = writer.toString();
+
+    StringBuilder decoded = new StringBuilder();
+    for (int i = 0; i < encoded.length(); i++) {
+      char c = encoded.charAt(i);
+      decoded.append(c < 0x80 ? c : (char) (0xf700 + c));
+    }
+
+    BinaryClientSerializationStreamReader reader = new BinaryClientSerializationStreamReader(null);
+    reader.prepareToRead(decoded.toString());
+    assertEquals(-1000, reader.readInt());
+    assertEquals("été", reader.readString());
+  }
+
+  public void testSmallerThanJavaScript() {
+    ServerSerializationStreamWriter text = createWriter(0);
+    ServerSerializationStreamWriter binary =
+        createWriter(AbstractSerializationStream.FLAG_BINARY_RESPONSE);
+    for (ServerSerializationStreamWriter writer : new ServerSerializationStreamWriter[] {
+        text, binary}) {
+      for (int i = 0; i < 1000; i++) {
+        writer.writeInt(i * 31);
+        writer.writeLong(i * 1000003L);
+        writer.writeString("value" + (i % 10));
+      }
+    }
+    assertTrue(binary.toString().length() < text.toString().length());
+  }
+}
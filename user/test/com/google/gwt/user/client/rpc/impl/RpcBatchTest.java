@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.client.rpc.impl;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests {@link RpcBatch}.
+ */
+public class RpcBatchTest extends TestCase {
+
+  public void testEmpty() {
+    assertEquals("", RpcBatch.join(Collections.<String> emptyList()));
+    assertTrue(RpcBatch.split("").isEmpty());
+  }
+
+  public void testJoinAndSplit() {
+    List<String> payloads = Arrays.asList("//OK[1,[],0,7]", "", "12:34", "\u0000\uffff");
+    String batch = RpcBatch.join(payloads);
+    assertEquals("14://OK[1,[],0,7]0:5:12:342:\u0000\uffff", batch);
+    assertEquals(payloads, RpcBatch.split(batch));
+  }
+
+  public void testMalformed() {
+    for (String batch : new String[] {"5", "x:abc", "5:abc", "-1:abc", "3:abc9:"}) {
+      try {
+        RpcBatch.split(batch);
+        fail("Expected IllegalArgumentException for " + batch);
+      } catch (IllegalArgumentException expected) {
+      }
+    }
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.server.rpc;
+
+import static com.google.gwt.user.client.rpc.impl.AbstractSerializationStream.RPC_SEPARATOR_CHAR;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+import com.google.gwt.user.client.rpc.RemoteService;
+import com.google.gwt.user.client.rpc.SerializableException;
+import com.google.gwt.user.client.rpc.impl.AbstractSerializationStream;
+import com.google.gwt.user.client.rpc.impl.RpcBatch;
+import com.google.gwt.user.server.rpc.impl.SerializabilityUtil;
+
+import junit.framework.TestCase;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Tests for {@link AsyncRemoteServiceServlet}.
+ */
+@SuppressWarnings("deprecation")
+public class AsyncRemoteServiceServletTest extends TestCase {
+
+  @SuppressWarnings("rpc-validation")
+  private static interface AddService extends RemoteService {
+    int add(int a, int b) throws SerializableException;
+  }
+
+  /**
+   * Counts how many instances have been deserialized.
+   */
+  public static class Counted implements IsSerializable {
+    static int instances;
+
+    public Counted() {
+      instances++;
+    }
+  }
+
+  @SuppressWarnings("rpc-validation")
+  private static interface OtherService extends RemoteService {
+    int add(int a, int b);
+
+    void count(Counted counted);
+  }
+
+  /**
+   * Completes each call when the test says so.
+   */
+  private static class AddServiceImpl extends AsyncRemoteServiceServlet {
+    CompletableFuture<Integer> pending = new CompletableFuture<Integer>();
+    String messageLogged;
+    int sum;
+
+    AddServiceImpl() {
+      super(AddService.class);
+    }
+
+    public CompletionStage<Integer> add(int a, int b) {
+      sum = a + b;
+      return pending;
+    }
+
+    @Override
+    public void log(String msg, Throwable t) {
+      messageLogged = msg;
+    }
+
+    @Override
+    protected void checkPermutationStrongName() {
+    }
+
+    @Override
+    protected SerializationPolicy doGetSerializationPolicy(HttpServletRequest request,
+        String moduleBaseURL, String strongName) {
+      return RPC.getDefaultSerializationPolicy();
+    }
+  }
+
+  private static String addRequest(Class<?> serviceInterface, int a, int b) {
+    return "" + AbstractSerializationStream.SERIALIZATION_STREAM_VERSION
+        + RPC_SEPARATOR_CHAR + // version
+        "0" + RPC_SEPARATOR_CHAR + // flags
+        "5" + RPC_SEPARATOR_CHAR + // string table count
+        "moduleBaseUrl" + RPC_SEPARATOR_CHAR + // string table entry #1
+        "whitelistHashCode" + RPC_SEPARATOR_CHAR + // string table entry #2
+        serviceInterface.getName() + RPC_SEPARATOR_CHAR + // string table entry #3
+        "add" + RPC_SEPARATOR_CHAR + // string table entry #4
+        "I" + RPC_SEPARATOR_CHAR + // string table entry #5
+        "1" + RPC_SEPARATOR_CHAR + // moduleBaseUrl
+        "2" + RPC_SEPARATOR_CHAR + // whitelist hashcode
+        "3" + RPC_SEPARATOR_CHAR + // interface name
+        "4" + RPC_SEPARATOR_CHAR + // method name
+        "2" + RPC_SEPARATOR_CHAR + // param count
+        "5" + RPC_SEPARATOR_CHAR + // 'I' == int param type
+        "5" + RPC_SEPARATOR_CHAR + // 'I' == int param type
+        a + RPC_SEPARATOR_CHAR + b + RPC_SEPARATOR_CHAR;
+  }
+
+  private static String countRequest() {
+    String countedSignature = SerializabilityUtil.encodeSerializedInstanceReference(
+        Counted.class, RPC.getDefaultSerializationPolicy());
+    return "" + AbstractSerializationStream.SERIALIZATION_STREAM_VERSION
+        + RPC_SEPARATOR_CHAR + // version
+        "0" + RPC_SEPARATOR_CHAR + // flags
+        "6" + RPC_SEPARATOR_CHAR + // string table count
+        "moduleBaseUrl" + RPC_SEPARATOR_CHAR + // string table entry #1
+        "whitelistHashCode" + RPC_SEPARATOR_CHAR + // string table entry #2
+        OtherService.class.getName() + RPC_SEPARATOR_CHAR + // string table entry #3
+        "count" + RPC_SEPARATOR_CHAR + // string table entry #4
+        Counted.class.getName() + RPC_SEPARATOR_CHAR + // string table entry #5
+        countedSignature + RPC_SEPARATOR_CHAR + // string table entry #6
+        "1" + RPC_SEPARATOR_CHAR + // moduleBaseUrl
+        "2" + RPC_SEPARATOR_CHAR + // whitelist hashcode
+        "3" + RPC_SEPARATOR_CHAR + // interface name
+        "4" + RPC_SEPARATOR_CHAR + // method name
+        "1" + RPC_SEPARATOR_CHAR + // param count
+        "5" + RPC_SEPARATOR_CHAR + // Counted param type
+        "6" + RPC_SEPARATOR_CHAR; // new Counted instance
+  }
+
+  private AddServiceImpl servlet;
+  private Method addMethod;
+
+  public void testBatch() throws Exception {
+    CompletionStage<String> response = servlet.processBatchAsync(RpcBatch.join(Arrays.asList(
+        addRequest(AddService.class, 3, 4), addRequest(OtherService.class, 1, 2))));
+    assertFalse(response.toCompletableFuture().isDone());
+
+    servlet.pending.complete(servlet.sum);
+    List<String> responses = RpcBatch.split(response.toCompletableFuture().get());
+    assertEquals(2, responses.size());
+    assertEquals(RPC.encodeResponseForSuccess(addMethod, 7), responses.get(0));
+    assertTrue(responses.get(1).startsWith("//EX"));
+  }
+
+  public void testBatchUndeclaredException() throws Exception {
+    CompletionStage<String> response = servlet.processBatchAsync(RpcBatch.join(Arrays.asList(
+        addRequest(AddService.class, 1, 2))));
+    servlet.pending.completeExceptionally(new IllegalStateException());
+    assertEquals(Arrays.asList(RPCServletUtils.GENERIC_FAILURE_MSG),
+        RpcBatch.split(response.toCompletableFuture().get()));
+    assertNotNull(servlet.messageLogged);
+  }
+
+  public void testCompletesLater() throws Exception {
+    CompletionStage<String> response = servlet.processCallAsync(addRequest(AddService.class, 3, 4));
+    assertEquals(7, servlet.sum);
+    assertFalse(response.toCompletableFuture().isDone());
+
+    servlet.pending.complete(servlet.sum);
+    assertEquals(RPC.encodeResponseForSuccess(addMethod, 7),
+        response.toCompletableFuture().get());
+  }
+
+  public void testDeclaredException() throws Exception {
+    CompletionStage<String> response = servlet.processCallAsync(addRequest(AddService.class, 1, 2));
+    SerializableException exception = new SerializableException("expected");
+    servlet.pending.completeExceptionally(exception);
+    assertEquals(RPC.encodeResponseForFailure(addMethod, exception),
+        response.toCompletableFuture().get());
+  }
+
+  public void testUndeclaredException() throws Exception {
+    CompletionStage<String> response = servlet.processCallAsync(addRequest(AddService.class, 1, 2));
+    servlet.pending.completeExceptionally(new IllegalStateException());
+    try {
+      response.toCompletableFuture().get();
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof UnexpectedException);
+      assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+    }
+  }
+
+  public void testOtherInterfaceIsBlocked() throws Exception {
+    CompletionStage<String> response =
+        servlet.processCallAsync(addRequest(OtherService.class, 1, 2));
+    assertTrue(response.toCompletableFuture().get().startsWith("//EX"));
+    assertNotNull(servlet.messageLogged);
+    assertEquals(0, servlet.sum);
+  }
+
+  public void testOtherInterfaceParametersAreNotDeserialized() throws Exception {
+    // Check that the request itself is well formed
+    RPCRequest request = RPC.decodeRequest(countRequest(), null, servlet);
+    assertEquals(OtherService.class.getMethod("count", Counted.class), request.getMethod());
+    assertEquals(1, Counted.instances);
+
+    CompletionStage<String> response = servlet.processCallAsync(countRequest());
+    assertTrue(response.toCompletableFuture().get().startsWith("//EX"));
+    assertNotNull(servlet.messageLogged);
+    assertEquals(1, Counted.instances);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    Counted.instances = 0;
+    servlet = new AddServiceImpl();
+    addMethod = AddService.class.getMethod("add", int.class, int.class);
+  }
+}
@@ -205,6 +205,12 @@ public class RPCServletUtilsTest extends TestCase {
     assertSame(StandardCharsets.UTF_8, RPCServletUtils.getCharset(null));
   }
 
+  public void testIsBinaryResponse() {
+    assertTrue(RPCServletUtils.isBinaryResponse("//OK\u0000\u000e\u0008"));
+    assertFalse(RPCServletUtils.isBinaryResponse("//OK[1,[],0,7]"));
+    assertFalse(RPCServletUtils.isBinaryResponse("//OK"));
+  }
+
   /**
    * Character type doesn't match UTF-8, but ignore it.
    */
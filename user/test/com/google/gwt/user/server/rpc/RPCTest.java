@@ -29,7 +29,9 @@ import com.google.gwt.user.server.rpc.impl.TypeNameObfuscator;
 
 import junit.framework.TestCase;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.util.Set;
 
@@ -469,6 +471,38 @@ public class RPCTest extends TestCase {
     }
   }
 
+  /**
+   * Tests for method
+   * {@link RPC#decodeRequest(String, Class, SerializationPolicyProvider, RPCDispatchTable)}.
+   */
+  public void testDecodeRequestWithDispatchTable() throws NoSuchMethodException {
+    RPCDispatchTable dispatchTable = new RPCDispatchTable();
+    RPCRequest request = RPC.decodeRequest(VALID_ENCODED_REQUEST, A.class, null, dispatchTable);
+    assertEquals(A.class.getMethod("method2"), request.getMethod());
+    assertEquals(1, dispatchTable.size());
+
+    request = RPC.decodeRequest(VALID_ENCODED_REQUEST, A.class, null, dispatchTable);
+    assertEquals(A.class.getMethod("method2"), request.getMethod());
+    assertEquals(1, dispatchTable.size());
+
+    // A method resolved for one type is checked again for another
+    try {
+      RPC.decodeRequest(VALID_ENCODED_REQUEST, D.class, null, dispatchTable);
+      fail("Expected IncompatibleRemoteServiceException");
+    } catch (IncompatibleRemoteServiceException e) {
+      // should get here
+    }
+
+    // Methods that cannot be resolved are not remembered
+    try {
+      RPC.decodeRequest(INVALID_METHOD_REQUEST, A.class, null, dispatchTable);
+      fail("Expected IncompatibleRemoteServiceException");
+    } catch (IncompatibleRemoteServiceException e) {
+      // should get here
+    }
+    assertEquals(1, dispatchTable.size());
+  }
+
   private static class TestRpcToken implements RpcToken {
     String tokenValue;
     public TestRpcToken() { }
@@ -849,6 +883,44 @@ public class RPCTest extends TestCase {
     }, A_method1, null);
   }
 
+  /**
+   * Tests that responses can be written to a Writer.
+   */
+  public void testInvokeAndEncodeResponseToWriter() throws SecurityException,
+      NoSuchMethodException, SerializationException, IOException {
+    A target = new A() {
+      @Override
+      public void method1() throws SerializableException {
+        throw new SerializableException("failed");
+      }
+
+      @Override
+      public int method2() {
+        return 42;
+      }
+
+      @Override
+      public int method3(int val) {
+        return val;
+      }
+    };
+    SerializationPolicy policy = RPC.getDefaultSerializationPolicy();
+    String failure = "//EX[2,1,[\"com.google.gwt.user.client.rpc.SerializableException/"
+        + "3047383460\",\"failed\"],0,7]";
+
+    StringWriter out = new StringWriter();
+    RPC.invokeAndEncodeResponse(target, A.class.getMethod("method1"), null, policy, 0, out);
+    assertEquals(failure, out.toString());
+
+    out = new StringWriter();
+    RPC.invokeAndEncodeResponse(target, A.class.getMethod("method2"), null, policy, 0, out);
+    assertEquals("//OK[42,[],0,7]", out.toString());
+
+    out = new StringWriter();
+    RPC.encodeResponseForFailedRequest(null, new SerializableException("failed"), out);
+    assertEquals(failure, out.toString());
+  }
+
   public void testSerializationStreamDequote() throws SerializationException {
     ServerSerializationStreamReader reader = new ServerSerializationStreamReader(
         null, null);
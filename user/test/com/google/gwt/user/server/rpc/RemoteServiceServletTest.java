@@ -15,8 +15,13 @@
  */
 package com.google.gwt.user.server.rpc;
 
+import static com.google.gwt.user.client.rpc.impl.AbstractSerializationStream.RPC_SEPARATOR_CHAR;
+
 import com.google.gwt.user.client.rpc.IsSerializable;
+import com.google.gwt.user.client.rpc.RemoteService;
 import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.impl.AbstractSerializationStream;
+import com.google.gwt.user.client.rpc.impl.RpcBatch;
 
 import junit.framework.TestCase;
 
@@ -24,12 +29,19 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.EventListener;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterRegistration;
@@ -43,12 +55,12 @@ import javax.servlet.ServletRegistration;
 import javax.servlet.SessionCookieConfig;
 import javax.servlet.SessionTrackingMode;
 import javax.servlet.descriptor.JspConfigDescriptor;
+import javax.servlet.http.HttpServletRequest;
 
 /**
  * Test some of the failure modes associated with
- * {@link RemoteServiceServlet#doGetSerializationPolicy(HttpServletRequest, String, String)}.
- * 
- * TODO: test caching of policies?
+ * {@link RemoteServiceServlet#doGetSerializationPolicy(HttpServletRequest, String, String)},
+ * the caching and preloading of policies, and batches of calls.
  */
 public class RemoteServiceServletTest extends TestCase {
 
@@ -58,6 +70,35 @@ public class RemoteServiceServletTest extends TestCase {
   private static class Baz {
   }
 
+  @SuppressWarnings("rpc-validation")
+  private static interface DivideService extends RemoteService {
+    int divide(int a, int b);
+  }
+
+  private static class DivideServiceImpl extends RemoteServiceServlet implements
+      DivideService {
+    String messageLogged;
+
+    public int divide(int a, int b) {
+      return a / b;
+    }
+
+    @Override
+    public void log(String msg, Throwable t) {
+      messageLogged = msg;
+    }
+
+    @Override
+    protected void checkPermutationStrongName() {
+    }
+
+    @Override
+    protected SerializationPolicy doGetSerializationPolicy(HttpServletRequest request,
+        String moduleBaseURL, String strongName) {
+      return RPC.getDefaultSerializationPolicy();
+    }
+  }
+
   private static class Foo implements IsSerializable {
   }
 
@@ -73,13 +114,14 @@ public class RemoteServiceServletTest extends TestCase {
 
   private static class MockServletConfig implements ServletConfig {
     private ServletContext context;
+    private final Map<String, String> initParameters = new HashMap<String, String>();
 
     public MockServletConfig(ServletContext context) {
       this.context = context;
     }
 
     public String getInitParameter(String arg0) {
-      throw new UnsupportedOperationException();
+      return initParameters.get(arg0);
     }
 
     public Enumeration<String> getInitParameterNames() {
@@ -118,7 +160,7 @@ public class RemoteServiceServletTest extends TestCase {
     }
 
     public String getInitParameter(String arg0) {
-      throw new UnsupportedOperationException();
+      return null;
     }
 
     public Enumeration<String> getInitParameterNames() {
@@ -310,6 +352,82 @@ public class RemoteServiceServletTest extends TestCase {
     }
   }
 
+  /**
+   * A context with one serialization policy file in /MyModule/, which may only
+   * be read once.
+   */
+  private class PreloadingServletContext extends MockServletContext {
+    private final String resourcePath =
+        SerializationPolicyLoader.getSerializationPolicyFileName("/MyModule/12345");
+    private boolean read;
+
+    @Override
+    public Set<String> getResourcePaths(String path) {
+      assertEquals("/MyModule/", path);
+      return new HashSet<String>(Arrays.asList(resourcePath, "/MyModule/MyModule.nocache.js"));
+    }
+
+    @Override
+    public InputStream getResourceAsStream(String resource) {
+      assertEquals(resourcePath, resource);
+      assertFalse("Policy should have been preloaded", read);
+      read = true;
+      try {
+        String payLoad = Foo.class.getName() + ",true\n"
+            + Bar.class.getName() + ",false\n";
+        return new ByteArrayInputStream(
+            payLoad.getBytes(SerializationPolicyLoader.SERIALIZATION_POLICY_FILE_ENCODING));
+      } catch (UnsupportedEncodingException e) {
+        return null;
+      }
+    }
+  }
+
+  private static String divideRequest(int a, int b) {
+    return "" + AbstractSerializationStream.SERIALIZATION_STREAM_VERSION
+        + RPC_SEPARATOR_CHAR + // version
+        "0" + RPC_SEPARATOR_CHAR + // flags
+        "5" + RPC_SEPARATOR_CHAR + // string table count
+        "moduleBaseUrl" + RPC_SEPARATOR_CHAR + // string table entry #1
+        "whitelistHashCode" + RPC_SEPARATOR_CHAR + // string table entry #2
+        DivideService.class.getName() + RPC_SEPARATOR_CHAR + // string table entry #3
+        "divide" + RPC_SEPARATOR_CHAR + // string table entry #4
+        "I" + RPC_SEPARATOR_CHAR + // string table entry #5
+        "1" + RPC_SEPARATOR_CHAR + // moduleBaseUrl
+        "2" + RPC_SEPARATOR_CHAR + // whitelist hashcode
+        "3" + RPC_SEPARATOR_CHAR + // interface name
+        "4" + RPC_SEPARATOR_CHAR + // method name
+        "2" + RPC_SEPARATOR_CHAR + // param count
+        "5" + RPC_SEPARATOR_CHAR + // 'I' == int param type
+        "5" + RPC_SEPARATOR_CHAR + // 'I' == int param type
+        a + RPC_SEPARATOR_CHAR + b + RPC_SEPARATOR_CHAR;
+  }
+
+  /**
+   * Tests that each call of a batch gets its own response, and that a call
+   * that fails unexpectedly does not fail the others.
+   */
+  public void testProcessBatch() throws Exception {
+    DivideServiceImpl servlet = new DivideServiceImpl();
+    Method divide = DivideService.class.getMethod("divide", int.class, int.class);
+
+    List<String> responses = RpcBatch.split(servlet.processBatch(RpcBatch.join(Arrays.asList(
+        divideRequest(12, 4), divideRequest(1, 0), divideRequest(10, 5)))));
+    assertEquals(3, responses.size());
+    assertEquals(RPC.encodeResponseForSuccess(divide, 3), responses.get(0));
+    assertEquals(RPCServletUtils.GENERIC_FAILURE_MSG, responses.get(1));
+    assertNotNull(servlet.messageLogged);
+    assertEquals(RPC.encodeResponseForSuccess(divide, 2), responses.get(2));
+  }
+
+  public void testProcessBatch_Malformed() {
+    try {
+      new DivideServiceImpl().processBatch("12:too short");
+      fail("Expected SerializationException");
+    } catch (SerializationException expected) {
+    }
+  }
+
   public void testDoGetSerializationPolicy_FailToOpenMD5Resource()
       throws ServletException {
     MockServletContext mockContext = new MockServletContext() {
@@ -407,6 +525,137 @@ public class RemoteServiceServletTest extends TestCase {
     assertNotValidDeserialize(serializationPolicy, Baz.class);
   }
 
+  /**
+   * Tests that concurrent requests for the same policy load it only once.
+   */
+  public void testGetSerializationPolicy_LoadsOnce() throws Exception {
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+    final RemoteServiceServlet rss = new RemoteServiceServlet() {
+      @Override
+      protected SerializationPolicy doGetSerializationPolicy(
+          HttpServletRequest request, String moduleBaseURL, String strongName) {
+        loads.incrementAndGet();
+        return RPC.getDefaultSerializationPolicy();
+      }
+    };
+    rss.init(new MockServletConfig(new MockServletContext()));
+
+    final SerializationPolicy[] policies = new SerializationPolicy[8];
+    Thread[] threads = new Thread[policies.length];
+    for (int i = 0; i < threads.length; i++) {
+      final int index = i;
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          policies[index] = rss.getSerializationPolicy(
+              "http://www.google.com/MyModule/", "12345");
+        }
+      };
+      threads[i].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(1, loads.get());
+    for (SerializationPolicy policy : policies) {
+      assertSame(RPC.getDefaultSerializationPolicy(), policy);
+    }
+    rss.getSerializationPolicy("http://www.google.com/MyModule/", "12345");
+    assertEquals(1, loads.get());
+    rss.getSerializationPolicy("http://www.google.com/MyModule/", "67890");
+    assertEquals(2, loads.get());
+  }
+
+  /**
+   * Tests that a failed load is not cached.
+   */
+  public void testGetSerializationPolicy_RetriesAfterFailure() throws ServletException {
+    final AtomicInteger loads = new AtomicInteger();
+    RemoteServiceServlet rss = new RemoteServiceServlet() {
+      @Override
+      protected SerializationPolicy doGetSerializationPolicy(
+          HttpServletRequest request, String moduleBaseURL, String strongName) {
+        if (loads.incrementAndGet() == 1) {
+          throw new IllegalStateException("first load fails");
+        }
+        return RPC.getDefaultSerializationPolicy();
+      }
+    };
+    rss.init(new MockServletConfig(new MockServletContext()));
+
+    try {
+      rss.getSerializationPolicy("http://www.google.com/MyModule/", "12345");
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+    }
+    assertSame(RPC.getDefaultSerializationPolicy(),
+        rss.getSerializationPolicy("http://www.google.com/MyModule/", "12345"));
+    assertEquals(2, loads.get());
+  }
+
+  /**
+   * Tests that the policies named by the preload init parameter are read at
+   * init time and then used by the default doGetSerializationPolicy, but only
+   * for modules in the same web application.
+   */
+  public void testPreloadSerializationPolicies() throws Exception {
+    MockServletContext mockContext = new PreloadingServletContext();
+    MockServletConfig mockConfig = new MockServletConfig(mockContext);
+    mockConfig.initParameters.put(
+        RemoteServiceServlet.PRELOAD_SERIALIZATION_POLICIES_PARAM, "/MyModule");
+
+    RemoteServiceServlet rss = new RemoteServiceServlet();
+    rss.init(mockConfig);
+    mockContext.messageLogged = null;
+
+    MockHttpServletRequestContextPath mockRequest = new MockHttpServletRequestContextPath();
+    mockRequest.contextPath = "";
+    SerializationPolicy serializationPolicy = rss.doGetSerializationPolicy(
+        mockRequest, "http://www.google.com/MyModule/", "12345");
+    assertValidDeserialize(serializationPolicy, Foo.class);
+    assertNotValidDeserialize(serializationPolicy, Bar.class);
+    assertNull(mockContext.messageLogged);
+
+    // The module base check still applies.
+    mockRequest.contextPath = "/foo";
+    assertNull(rss.doGetSerializationPolicy(
+        mockRequest, "http://www.google.com/MyModule/", "12345"));
+    assertNotNull(mockContext.messageLogged);
+  }
+
+  /**
+   * Tests that preloading doesn't bypass an overridden doGetSerializationPolicy.
+   */
+  public void testPreloadSerializationPolicies_overridden() throws Exception {
+    MockServletConfig mockConfig = new MockServletConfig(new PreloadingServletContext());
+    mockConfig.initParameters.put(
+        RemoteServiceServlet.PRELOAD_SERIALIZATION_POLICIES_PARAM, "/MyModule");
+
+    final SerializationPolicy overridden = RPC.getDefaultSerializationPolicy();
+    final AtomicInteger loads = new AtomicInteger();
+    RemoteServiceServlet rss = new RemoteServiceServlet() {
+      @Override
+      protected SerializationPolicy doGetSerializationPolicy(
+          HttpServletRequest request, String moduleBaseURL, String strongName) {
+        loads.incrementAndGet();
+        return overridden;
+      }
+    };
+    rss.init(mockConfig);
+
+    assertSame(overridden, rss.getSerializationPolicy(
+        "http://www.google.com/MyModule/", "12345"));
+    assertEquals(1, loads.get());
+  }
+
   private void assertDeserializeFields(SerializationPolicy policy,
       Class<?> clazz) {
     assertTrue(policy.shouldDeserializeFields(clazz));
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.server.rpc.impl;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+import com.google.gwt.user.server.rpc.RPC;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+
+/**
+ * Tests {@link FieldSerializationPlan}.
+ */
+public class FieldSerializationPlanTest extends TestCase {
+
+  static class Fields implements IsSerializable {
+    private final String fixed = "fixed";
+    private int number;
+    public List<String> strings;
+    transient String skipped;
+  }
+
+  public void testFields() throws IllegalAccessException {
+    FieldSerializationPlan plan =
+        FieldSerializationPlan.get(Fields.class, RPC.getDefaultSerializationPolicy());
+
+    // Sorted by name, without final or transient fields
+    assertEquals(2, plan.getFieldCount());
+    assertEquals("number", plan.getName(0));
+    assertEquals("strings", plan.getName(1));
+    assertEquals(int.class, plan.getType(0));
+    assertEquals(List.class, plan.getType(1));
+    assertEquals("java.util.List<java.lang.String>", plan.getGenericType(1).toString());
+
+    assertSame(plan, FieldSerializationPlan.get(Fields.class, RPC.getDefaultSerializationPolicy()));
+  }
+
+  public void testGetAndSetValue() throws IllegalAccessException {
+    FieldSerializationPlan plan =
+        FieldSerializationPlan.get(Fields.class, RPC.getDefaultSerializationPolicy());
+    Fields instance = new Fields();
+
+    plan.setValue(0, instance, 42);
+    assertEquals(42, instance.number);
+    assertEquals(42, plan.getValue(0, instance));
+
+    plan.setValue(1, instance, null);
+    assertNull(plan.getValue(1, instance));
+
+    try {
+      plan.setValue(0, instance, null);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // expected to get here
+    }
+
+    try {
+      plan.setValue(0, instance, "not a number");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // expected to get here
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.gwt.user.server.rpc.impl;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests {@link ServerSerializationStreamReader}.
+ */
+public class ServerSerializationStreamReaderTest extends TestCase {
+
+  public void testReadTokens() throws SerializationException {
+    ServerSerializationStreamReader reader = new ServerSerializationStreamReader(
+        getClass().getClassLoader(), null);
+    reader.prepareToRead("7|0|4|http://module/|STRONG|hello|a\\!b|1|2|3|4|-42|0|1|"
+        + "2147483647|-2147483648|0012|12x|9999999999|trailing");
+
+    assertEquals(18, reader.getNumberOfTokens());
+    assertEquals(7, reader.getVersion());
+    assertEquals("hello", reader.readString());
+    assertEquals("a|b", reader.readString());
+    assertEquals(-42, reader.readInt());
+    assertFalse(reader.readBoolean());
+    assertTrue(reader.readBoolean());
+    assertEquals(Integer.MAX_VALUE, reader.readInt());
+    assertEquals(Integer.MIN_VALUE, reader.readInt());
+    assertEquals(12, reader.readInt());
+
+    try {
+      reader.readInt();
+      fail("Expected NumberFormatException");
+    } catch (NumberFormatException expected) {
+      assertTrue(expected.getMessage().endsWith("a non-numerical value: 12x"));
+    }
+
+    try {
+      reader.readInt();
+      fail("Expected NumberFormatException");
+    } catch (NumberFormatException expected) {
+      assertTrue(expected.getMessage().endsWith("an out-of-range value: 9999999999"));
+    }
+
+    // The last token has no separator after it, so it is not read.
+    try {
+      reader.readInt();
+      fail("Expected SerializationException");
+    } catch (SerializationException expected) {
+      // expected to get here
+    }
+  }
+}
@@ -18,6 +18,9 @@ package com.google.gwt.user.server.rpc.impl;
 
 import junit.framework.TestCase;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 /**
  * Tests {@link ServerSerializationStreamWriter}.
  */
@@ -146,4 +149,53 @@ public class ServerSerializationStreamWriterTest extends TestCase {
     assertEquals("7", encoded.substring(encoded.lastIndexOf(",") + 1, encoded.lastIndexOf("]")));
   }
 
+  public void testWriteTo() throws IOException {
+    ServerSerializationStreamWriter writer = new ServerSerializationStreamWriter(null, 8);
+    writer.writeString("first");
+    writer.writeInt(42);
+    writer.writeString("first");
+    writer.writeString("with \"quotes\"\n");
+    assertPayload("[2,1,42,1,[\"first\",\"with \\\"quotes\\\"\\n\"],0,8]", writer);
+  }
+
+  public void testWriteTo_concat() throws IOException {
+    // Crosses the array length limit twice, so the payload is built with
+    // concat() and falls back to version 7
+    int max = ServerSerializationStreamWriter.LengthConstrainedArray.MAXIMUM_ARRAY_LENGTH;
+    int count = max * 2 + 100;
+    ServerSerializationStreamWriter writer = new ServerSerializationStreamWriter(null, 8);
+    for (int i = 0; i < count; i++) {
+      writer.writeInt(i);
+    }
+
+    // The payload is written in reverse. (Full parts after the first hold one
+    // more element than the maximum.)
+    String expected = "[" + descending(count - 1, count - max)
+        + "].concat([" + descending(count - max - 1, count - 2 * max - 1)
+        + "],[" + descending(98, 0) + ",[],0,7])";
+    assertPayload(expected, writer);
+  }
+
+  private static void assertPayload(String expected, ServerSerializationStreamWriter writer)
+      throws IOException {
+    assertEquals(expected, writer.toString());
+    StringWriter out = new StringWriter();
+    writer.writeTo(out);
+    assertEquals(expected, out.toString());
+  }
+
+  /**
+   * Returns the integers from {@code from} down to {@code to}, separated by
+   * commas.
+   */
+  private static String descending(int from, int to) {
+    StringBuilder result = new StringBuilder();
+    for (int i = from; i >= to; i--) {
+      if (i != from) {
+        result.append(',');
+      }
+      result.append(i);
+    }
+    return result.toString();
+  }
 }
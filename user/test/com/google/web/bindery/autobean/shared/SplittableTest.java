@@ -312,6 +312,24 @@ public class SplittableTest extends GWTTestCase {
     assertEquals(data.getPayload(), normalize(data).getPayload());
   }
 
+  public void testSplitEncoded() {
+    String payload = "{\"a\":[1,2],\"b\":\"c\"}";
+    Splittable data = StringQuoter.splitEncoded(payload);
+    assertEquals(payload, data.getPayload());
+    assertTrue(data.isKeyed());
+    assertEquals(2, data.get("a").size());
+    assertEquals("c", data.get("b").asString());
+
+    // Changes made after parsing show up in the payload
+    StringQuoter.create("d").assign(data, "b");
+    assertEquals("d", data.get("b").asString());
+    assertEquals(data.getPayload(), normalize(data).getPayload());
+
+    Splittable list = StringQuoter.splitEncoded("[true]");
+    assertTrue(list.isIndexed());
+    assertTrue(list.get(0).asBoolean());
+  }
+
   public void testString() {
     Splittable s = string("Hello '\" World!");
     assertFalse(s.isIndexed());
@@ -15,7 +15,17 @@
  */
 package com.google.web.bindery.autobean.vm;
 
+import com.google.web.bindery.autobean.shared.Splittable;
 import com.google.web.bindery.autobean.shared.SplittableTest;
+import com.google.web.bindery.autobean.shared.impl.StringQuoter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A JRE-only version of SplittableTest.
@@ -25,4 +35,43 @@ public class SplittableJreTest extends SplittableTest {
   public String getModuleName() {
     return null;
   }
+
+  /**
+   * Lazily parsed payloads may be read by several threads at once.
+   */
+  public void testSplitEncodedConcurrently() throws Exception {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) {
+      sb.append(i == 0 ? "" : ",").append("{\"v\":").append(i).append("}");
+    }
+    final String payload = sb.append("]").toString();
+
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (int round = 0; round < 20; round++) {
+        final Splittable data = StringQuoter.splitEncoded(payload);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Double>> results = new ArrayList<Future<Double>>();
+        for (int i = 0; i < threads; i++) {
+          final int index = i * 100;
+          results.add(executor.submit(new Callable<Double>() {
+            @Override
+            public Double call() throws Exception {
+              start.await();
+              assertEquals(1000, data.size());
+              return data.get(index).get("v").asNumber();
+            }
+          }));
+        }
+        start.countDown();
+        for (int i = 0; i < threads; i++) {
+          assertEquals(i * 100.0, results.get(i).get());
+        }
+        assertEquals(payload, data.getPayload());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
 }
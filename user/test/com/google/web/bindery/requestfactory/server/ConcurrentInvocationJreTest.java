@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.web.bindery.requestfactory.server;
+
+import com.google.web.bindery.event.shared.SimpleEventBus;
+import com.google.web.bindery.requestfactory.server.testing.InProcessRequestTransport;
+import com.google.web.bindery.requestfactory.shared.Receiver;
+import com.google.web.bindery.requestfactory.shared.ServerFailure;
+import com.google.web.bindery.requestfactory.shared.SimpleFooRequest;
+import com.google.web.bindery.requestfactory.shared.SimpleRequestFactory;
+import com.google.web.bindery.requestfactory.vm.RequestFactorySource;
+
+import junit.framework.TestCase;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests invocations handed to an executor by
+ * {@link ServiceLayer#getInvocationExecutor(Method, Method)}.
+ */
+public class ConcurrentInvocationJreTest extends TestCase {
+
+  /**
+   * Runs {@code add} and {@code pleaseCrash} on a thread pool.
+   */
+  static class ExecutorLayer extends ServiceLayerDecorator {
+    final AtomicInteger executed = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @Override
+    public Executor getInvocationExecutor(Method contextMethod, Method domainMethod) {
+      String name = domainMethod.getName();
+      if ("add".equals(name) || "pleaseCrash".equals(name)) {
+        return new Executor() {
+          @Override
+          public void execute(Runnable command) {
+            executed.incrementAndGet();
+            executor.execute(command);
+          }
+        };
+      }
+      return super.getInvocationExecutor(contextMethod, domainMethod);
+    }
+  }
+
+  private ExecutorLayer layer;
+  private SimpleRequestFactory factory;
+
+  public void testFailureIsReported() {
+    final boolean[] failed = {false};
+    final boolean[] succeeded = {false};
+    SimpleFooRequest context = factory.simpleFooRequest();
+    context.pleaseCrash(42).to(new Receiver<Void>() {
+      @Override
+      public void onFailure(ServerFailure error) {
+        failed[0] = true;
+      }
+
+      @Override
+      public void onSuccess(Void response) {
+        fail();
+      }
+    });
+    context.add(1, 2).to(new Receiver<Integer>() {
+      @Override
+      public void onSuccess(Integer response) {
+        assertEquals(3, response.intValue());
+        succeeded[0] = true;
+      }
+    });
+    context.fire();
+    assertTrue(failed[0]);
+    assertTrue(succeeded[0]);
+    assertEquals(2, layer.executed.get());
+  }
+
+  public void testResultsKeepOrder() {
+    final List<Object> results = new ArrayList<Object>();
+    SimpleFooRequest context = factory.simpleFooRequest();
+    for (int i = 0; i < 10; i++) {
+      context.add(i, i).to(new Receiver<Integer>() {
+        @Override
+        public void onSuccess(Integer response) {
+          results.add(response);
+        }
+      });
+    }
+    // Not offloaded
+    context.processString("foo").to(new Receiver<String>() {
+      @Override
+      public void onSuccess(String response) {
+        results.add(response);
+      }
+    });
+    context.fire();
+
+    List<Object> expected = new ArrayList<Object>();
+    for (int i = 0; i < 10; i++) {
+      expected.add(i + i);
+    }
+    expected.add("foo");
+    assertEquals(expected, results);
+    assertEquals(10, layer.executed.get());
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    layer = new ExecutorLayer();
+    factory = RequestFactorySource.create(SimpleRequestFactory.class);
+    factory.initialize(new SimpleEventBus(), new InProcessRequestTransport(
+        new SimpleRequestProcessor(ServiceLayer.create(layer))));
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    layer.executor.shutdownNow();
+    super.tearDown();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.web.bindery.requestfactory.server;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests the batched {@link ServiceLayer#isLive(List)}.
+ */
+public class ServiceLayerIsLiveTest extends TestCase {
+
+  static class DeadStringsLayer extends ServiceLayerDecorator {
+    int calls;
+
+    @Override
+    public boolean isLive(Object domainObject) {
+      calls++;
+      return !"dead".equals(domainObject);
+    }
+  }
+
+  static class BatchingLayer extends ServiceLayerDecorator {
+    int calls;
+
+    @Override
+    public List<Boolean> isLive(List<Object> domainObjects) {
+      calls++;
+      return super.isLive(domainObjects);
+    }
+  }
+
+  public void testDelegatesToSingleObjectCheck() {
+    DeadStringsLayer deadStrings = new DeadStringsLayer();
+    ServiceLayer layer = ServiceLayer.create(deadStrings);
+    assertEquals(Arrays.asList(true, false, true),
+        layer.isLive(Arrays.<Object> asList("a", "dead", "b")));
+    assertEquals(3, deadStrings.calls);
+  }
+
+  public void testDecoratorSeesWholeBatch() {
+    BatchingLayer batching = new BatchingLayer();
+    DeadStringsLayer deadStrings = new DeadStringsLayer();
+    ServiceLayer layer = ServiceLayer.create(batching, deadStrings);
+    assertEquals(Arrays.asList(false, true),
+        layer.isLive(Arrays.<Object> asList("dead", "a")));
+    assertEquals(1, batching.calls);
+    assertEquals(2, deadStrings.calls);
+  }
+}
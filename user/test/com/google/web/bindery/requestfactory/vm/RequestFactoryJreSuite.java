@@ -17,6 +17,7 @@ package com.google.web.bindery.requestfactory.vm;
 
 import com.google.web.bindery.requestfactory.server.BoxesAndPrimitivesJreTest;
 import com.google.web.bindery.requestfactory.server.ComplexKeysJreTest;
+import com.google.web.bindery.requestfactory.server.ConcurrentInvocationJreTest;
 import com.google.web.bindery.requestfactory.server.FanoutReceiverJreTest;
 import com.google.web.bindery.requestfactory.server.FindServiceJreTest;
 import com.google.web.bindery.requestfactory.server.JsonRpcRequestFactoryJreTest;
@@ -32,6 +33,7 @@ import com.google.web.bindery.requestfactory.server.RequestFactoryPolymorphicJre
 import com.google.web.bindery.requestfactory.server.RequestFactoryUnicodeEscapingJreTest;
 import com.google.web.bindery.requestfactory.server.RequestPayloadJreTest;
 import com.google.web.bindery.requestfactory.server.ServiceInheritanceJreTest;
+import com.google.web.bindery.requestfactory.server.ServiceLayerIsLiveTest;
 import com.google.web.bindery.requestfactory.server.ServiceLocatorTest;
 import com.google.web.bindery.requestfactory.shared.impl.SimpleEntityProxyIdTest;
 
@@ -49,6 +51,7 @@ public class RequestFactoryJreSuite {
     TestSuite suite = new TestSuite("requestfactory package tests that require the JRE");
     suite.addTestSuite(BoxesAndPrimitivesJreTest.class);
     suite.addTestSuite(ComplexKeysJreTest.class);
+    suite.addTestSuite(ConcurrentInvocationJreTest.class);
     suite.addTestSuite(FanoutReceiverJreTest.class);
     suite.addTestSuite(FindServiceJreTest.class);
     suite.addTestSuite(JsonRpcRequestFactoryJreTest.class);
@@ -64,6 +67,7 @@ public class RequestFactoryJreSuite {
     suite.addTestSuite(RequestFactoryUnicodeEscapingJreTest.class);
     suite.addTestSuite(RequestPayloadJreTest.class);
     suite.addTestSuite(ServiceInheritanceJreTest.class);
+    suite.addTestSuite(ServiceLayerIsLiveTest.class);
     suite.addTestSuite(ServiceLocatorTest.class);
     suite.addTestSuite(SimpleEntityProxyIdTest.class);
 